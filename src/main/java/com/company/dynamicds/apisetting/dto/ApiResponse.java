@@ -21,6 +21,9 @@ public class ApiResponse {
 
     private String bodyText;           // nếu là text/json
     private byte[] bodyBytes;          // nếu là binary file
+    private long bodySize;             // kích thước body sau giải nén (bytes)
+    private long wireSize;             // kích thước body trên đường truyền (bytes, trước giải nén)
+    private String contentEncoding;    // ví dụ: gzip, br; null nếu không nén
 
     private long durationMs;           // thời gian thực thi
     private URI effectiveUri;          // URL sau redirect
@@ -0,0 +1,31 @@
+package com.company.dynamicds.apisetting.dto;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Trạng thái circuit breaker của một host upstream trong một store.
+ *
+ * @param failureRate  tỉ lệ lỗi trong cửa sổ các lần gọi gần nhất (0..1)
+ * @param callCount    số request đã gửi (tính cả retry)
+ * @param rejectedCount số lời gọi bị từ chối ngay vì mạch đang mở
+ * @param openUntil    thời điểm request thử tiếp theo được phép, null nếu mạch không mở
+ */
+public record CircuitBreakerStatus(String storeName,
+                                   String host,
+                                   State state,
+                                   Instant stateSince,
+                                   @Nullable Instant openUntil,
+                                   double failureRate,
+                                   long callCount,
+                                   long failureCount,
+                                   long retryCount,
+                                   long rejectedCount) {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,13 @@
+package com.company.dynamicds.apisetting.dto;
+
+/**
+ * Số liệu conditional GET: số request có gửi validator và số lần upstream trả 304.
+ */
+public record ConditionalRequestStats(long conditionalCount,
+                                      long notModifiedCount,
+                                      long trackedUriCount) {
+
+    public double hitRate() {
+        return conditionalCount == 0 ? 0 : (double) notModifiedCount / conditionalCount;
+    }
+}
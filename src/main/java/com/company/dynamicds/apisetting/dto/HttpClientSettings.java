@@ -0,0 +1,22 @@
+package com.company.dynamicds.apisetting.dto;
+
+import java.time.Duration;
+
+/**
+ * Cấu hình HTTP client của một dynamic store (hoặc client mặc định khi gọi ApiSetting trực tiếp):
+ * - maxConnectionsPerRoute / maxConnections: kích thước connection pool (HTTP/1.1)
+ * - idleEvict: connection keep-alive rảnh quá thời gian này bị đóng
+ * - connectTimeout / readTimeout: thời gian chờ mở kết nối / chờ dữ liệu giữa hai lần đọc
+ * - poolTimeout: thời gian chờ lấy connection từ pool khi pool đã đầy
+ * - http2: dùng HTTP/2 (một connection multiplex cho mỗi host, giới hạn pool không áp dụng)
+ * - compression: gửi Accept-Encoding (gzip, deflate, br), response được giải nén dạng stream
+ */
+public record HttpClientSettings(int maxConnectionsPerRoute,
+                                 int maxConnections,
+                                 Duration idleEvict,
+                                 Duration connectTimeout,
+                                 Duration readTimeout,
+                                 Duration poolTimeout,
+                                 boolean http2,
+                                 boolean compression) {
+}
@@ -0,0 +1,49 @@
+package com.company.dynamicds.apisetting.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.net.URI;
+
+/**
+ * Tham số bổ sung cho một lần gọi, không lưu vào ApiSetting:
+ * - queryParams: thêm/ghi đè query parameter (phân trang, filter...)
+ * - uri: URI tuyệt đối thay cho URI build từ ApiSetting (ví dụ next-link)
+ * - ifNoneMatch / ifModifiedSince: validator (ETag / Last-Modified) của kết quả caller đang giữ,
+ *   gửi thành conditional GET; upstream trả 304 nếu dữ liệu không đổi
+ * - jsonBody: body JSON thay cho ApiBody của ApiSetting (method của ApiSetting phải hỗ trợ body)
+ * - storeName: dynamic store thực hiện lời gọi -> dùng HTTP client (pool, timeout) riêng của store
+ */
+@Builder(toBuilder = true)
+@Getter
+public class RequestOverrides {
+
+    private static final RequestOverrides NONE = RequestOverrides.builder().build();
+
+    @Builder.Default
+    private MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+
+    private URI uri;
+
+    private String ifNoneMatch;
+
+    private String ifModifiedSince;
+
+    private String jsonBody;
+
+    private String storeName;
+
+    public static RequestOverrides none() {
+        return NONE;
+    }
+
+    public boolean isEmpty() {
+        return uri == null && queryParams.isEmpty() && !isConditional() && jsonBody == null;
+    }
+
+    public boolean isConditional() {
+        return ifNoneMatch != null || ifModifiedSince != null;
+    }
+}
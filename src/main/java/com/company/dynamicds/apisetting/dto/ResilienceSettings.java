@@ -0,0 +1,20 @@
+package com.company.dynamicds.apisetting.dto;
+
+import java.time.Duration;
+
+/**
+ * Cấu hình retry / circuit breaker cho lời gọi upstream của một dynamic store:
+ * - maxRetries: số lần gửi lại tối đa của GET / HEAD lỗi kết nối, timeout hoặc 429 / 502 / 503 / 504
+ * - retryBaseDelay / retryMaxDelay: backoff lần retry thứ n = retryBaseDelay * 2^n (có jitter), không quá retryMaxDelay
+ * - failureRateThreshold: tỉ lệ lỗi (%) trong slidingWindow lần gọi gần nhất làm mạch mở, chỉ xét khi đã có
+ *   ít nhất minimumCalls lần gọi
+ * - openDuration: thời gian mạch mở trước khi cho một request thử
+ */
+public record ResilienceSettings(int maxRetries,
+                                 Duration retryBaseDelay,
+                                 Duration retryMaxDelay,
+                                 int failureRateThreshold,
+                                 int minimumCalls,
+                                 int slidingWindow,
+                                 Duration openDuration) {
+}
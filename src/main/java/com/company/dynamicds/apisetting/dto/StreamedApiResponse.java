@@ -0,0 +1,36 @@
+package com.company.dynamicds.apisetting.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Response ở chế độ streaming: body là InputStream còn sống của connection,
+ * chỉ đọc được một lần và chỉ hợp lệ bên trong ResponseConsumer.
+ */
+@Builder
+@Getter
+public class StreamedApiResponse {
+
+    private boolean success;
+    private int statusCode;
+    private String statusText;
+
+    private String mediaType;
+    private HttpHeaders headers;
+
+    private InputStream body;
+
+    private URI effectiveUri;
+
+    /**
+     * 304 của conditional GET: body rỗng, caller dùng lại kết quả đang giữ.
+     */
+    public boolean isNotModified() {
+        return statusCode == HttpStatus.NOT_MODIFIED.value();
+    }
+}
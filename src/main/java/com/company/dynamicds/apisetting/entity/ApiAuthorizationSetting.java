@@ -4,6 +4,7 @@ import com.company.dynamicds.apisetting.enums.ApiAuthType;
 import com.company.dynamicds.apisetting.enums.ApiKeyPlacement;
 import com.company.dynamicds.entity.BaseEntity;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.*;
 
@@ -12,6 +13,7 @@ import java.util.UUID;
 @JmixEntity
 @Table(name = "DWH_API_AUTHORIZATION_SETTING")
 @Entity(name = "dwh_ApiAuthorizationSetting")
+@PublishEntityChangedEvents
 public class ApiAuthorizationSetting extends BaseEntity {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -6,6 +6,7 @@ import com.company.dynamicds.entity.BaseEntity;
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
 import io.jmix.core.entity.annotation.OnDelete;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.Composition;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.*;
@@ -16,6 +17,7 @@ import java.util.UUID;
 @JmixEntity
 @Table(name = "DWH_API_BODY")
 @Entity(name = "dwh_ApiBody")
+@PublishEntityChangedEvents
 public class ApiBody extends BaseEntity {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -6,6 +6,7 @@ import com.company.dynamicds.entity.BaseEntity;
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
 import io.jmix.core.entity.annotation.OnDeleteInverse;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.annotation.PostConstruct;
@@ -18,6 +19,7 @@ import java.util.UUID;
         @Index(name = "IDX_DWH_API_FORM_DATA_FIELD_API_BODY", columnList = "API_BODY_ID")
 })
 @Entity(name = "dwh_ApiFormDataField")
+@PublishEntityChangedEvents
 public class ApiFormDataField extends BaseEntity {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -4,6 +4,7 @@ import com.company.dynamicds.entity.BaseEntity;
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
 import io.jmix.core.entity.annotation.OnDeleteInverse;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.*;
@@ -15,6 +16,7 @@ import java.util.UUID;
         @Index(name = "IDX_DWH_API_QUERY_PARAM_API_SETTING", columnList = "API_SETTING_ID")
 })
 @Entity(name = "dwh_ApiQueryParam")
+@PublishEntityChangedEvents
 public class ApiQueryParam extends BaseEntity {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -1,10 +1,12 @@
 package com.company.dynamicds.apisetting.entity;
 
 import com.company.dynamicds.apisetting.enums.HttpMethodType;
+import com.company.dynamicds.apisetting.enums.ScriptBindingMode;
 import com.company.dynamicds.entity.BaseEntity;
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
 import io.jmix.core.entity.annotation.OnDelete;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.Composition;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
@@ -19,6 +21,7 @@ import java.util.UUID;
         @Index(name = "IDX_DWH_API_SETTING_API_BODY", columnList = "API_BODY_ID")
 })
 @Entity(name = "dwh_ApiSetting")
+@PublishEntityChangedEvents
 public class ApiSetting extends BaseEntity {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -67,6 +70,28 @@ public class ApiSetting extends BaseEntity {
     @Column(name = "USE_RAW_URL")
     private Boolean useRawUrl;
 
+    @Column(name = "SCRIPT_BINDING_MODE")
+    private String scriptBindingMode = ScriptBindingMode.JSON_STRING.getId();
+
+    @Column(name = "COMPRESSION_ENABLED")
+    private Boolean compressionEnabled = false;
+
+    public Boolean getCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(Boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public ScriptBindingMode getScriptBindingMode() {
+        return scriptBindingMode == null ? null : ScriptBindingMode.fromId(scriptBindingMode);
+    }
+
+    public void setScriptBindingMode(ScriptBindingMode scriptBindingMode) {
+        this.scriptBindingMode = scriptBindingMode == null ? null : scriptBindingMode.getId();
+    }
+
     public String getPostResponseScript() {
         return postResponseScript;
     }
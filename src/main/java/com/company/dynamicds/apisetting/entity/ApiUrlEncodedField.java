@@ -4,6 +4,7 @@ import com.company.dynamicds.entity.BaseEntity;
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
 import io.jmix.core.entity.annotation.OnDeleteInverse;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.*;
@@ -15,6 +16,7 @@ import java.util.UUID;
         @Index(name = "IDX_DWH_API_URL_ENCODED_FIELD_API_BODY", columnList = "API_BODY_ID")
 })
 @Entity(name = "dwh_ApiUrlEncodedField")
+@PublishEntityChangedEvents
 public class ApiUrlEncodedField extends BaseEntity {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
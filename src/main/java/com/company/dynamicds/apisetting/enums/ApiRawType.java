@@ -42,6 +42,13 @@ public enum ApiRawType implements EnumClass<String> {
                 return type;
             }
         }
+        // Structured syntax suffix (RFC 6839): application/problem+json, application/atom+xml...
+        if (normalized.startsWith("application/") && normalized.endsWith("+json")) {
+            return JSON;
+        }
+        if (normalized.startsWith("application/") && normalized.endsWith("+xml")) {
+            return XML;
+        }
         return null;
     }
 
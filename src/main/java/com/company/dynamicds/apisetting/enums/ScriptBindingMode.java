@@ -0,0 +1,34 @@
+package com.company.dynamicds.apisetting.enums;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+import org.springframework.lang.Nullable;
+
+
+public enum ScriptBindingMode implements EnumClass<String> {
+
+    // Mỗi biến là JSON string, script tự JSON.parse (cách cũ)
+    JSON_STRING("JSON_STRING"),
+    // Biến là object JS đã parse sẵn, body JSON được nhúng nguyên văn (không encode lại);
+    // script có thể trả về object/array thay vì string
+    OBJECT("OBJECT");
+
+    private final String id;
+
+    ScriptBindingMode(String id) {
+        this.id = id;
+    }
+
+    @Nullable
+    public static ScriptBindingMode fromId(String id) {
+        for (ScriptBindingMode at : ScriptBindingMode.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
\ No newline at end of file
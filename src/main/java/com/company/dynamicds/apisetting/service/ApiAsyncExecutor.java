@@ -0,0 +1,79 @@
+package com.company.dynamicds.apisetting.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor cho các lời gọi upstream bất đồng bộ (sendRequestAsync): thread của servlet / Vaadin không bị giữ
+ * trong suốt round trip.
+ * - JVM có virtual thread (Java 21+) và dynamicds.http.async.virtual-threads=true -> mỗi lời gọi một virtual thread
+ * - Ngược lại: pool platform thread daemon, thread rảnh bị thu hồi sau 60s
+ * Số lời gọi chạy đồng thời luôn bị giới hạn bởi dynamicds.http.async.max-concurrency;
+ * lời gọi vượt giới hạn chờ trên thread của executor, không chặn caller.
+ */
+@Slf4j
+@Component
+public class ApiAsyncExecutor implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ApiAsyncExecutor(@Value("${dynamicds.http.async.virtual-threads:true}") boolean virtualThreads,
+                            @Value("${dynamicds.http.async.max-concurrency:64}") int maxConcurrency) {
+        int concurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(concurrency);
+        ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.executor = virtual != null ? virtual : newPlatformThreadExecutor(concurrency);
+        log.info("Async API executor: {} threads, max concurrency {}", virtual != null ? "virtual" : "platform", concurrency);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            inFlight.incrementAndGet();
+            try {
+                return call.get();
+            } finally {
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() chỉ có từ Java 21, project vẫn build với Java 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int concurrency) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "dynamicds-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -1,23 +1,33 @@
 package com.company.dynamicds.apisetting.service;
 
 import com.company.dynamicds.apisetting.dto.ApiResponse;
+import com.company.dynamicds.apisetting.dto.CircuitBreakerStatus;
+import com.company.dynamicds.apisetting.dto.ConditionalRequestStats;
+import com.company.dynamicds.apisetting.dto.RequestOverrides;
+import com.company.dynamicds.apisetting.dto.StreamedApiResponse;
 import com.company.dynamicds.apisetting.entity.ApiSetting;
+import com.company.dynamicds.apisetting.enums.ApiRawType;
+import com.company.dynamicds.apisetting.enums.ScriptBindingMode;
 import com.company.dynamicds.apisetting.service.builder.HeaderBuilder;
 import com.company.dynamicds.apisetting.service.builder.RequestBodyBuilder;
 import com.company.dynamicds.apisetting.service.builder.UriBuilder;
+import com.fasterxml.jackson.databind.util.RawValue;
 import io.jmix.core.DataManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
@@ -25,6 +35,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 @Service
@@ -32,11 +43,14 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class ApiExecutorService {
 
-    private final RestClient restClient;
+    private final HttpClientRegistry clientRegistry;
     private final UriBuilder uriBuilder;
     private final HeaderBuilder headerBuilder;
     private final RequestBodyBuilder bodyBuilder;
     private final ScriptService scriptService;
+    private final HttpValidatorTracker validatorTracker;
+    private final ApiAsyncExecutor asyncExecutor;
+    private final UpstreamResilience resilience;
     @Autowired
     protected DataManager dataManager;
 
@@ -44,45 +58,33 @@ public class ApiExecutorService {
         Instant start = Instant.now();
 
         try {
-            HttpMethod method = HttpMethod.valueOf(setting.getHttpMethod().name());
-            URI uri = uriBuilder.buildUri(setting);
-            HttpHeaders headers = headerBuilder.buildHeaders(setting);
-            Object requestBody = bodyBuilder.buildApiBody(setting.getApiBody());
-
-            log.debug("Sending {} {}", method, uri);
-            log.trace("Headers: {}", sanitizeHeadersForLog(headers));
-            if (requestBody != null) {
-                log.trace("Body type: {}", requestBody.getClass().getSimpleName());
-            }
-
-            RestClient.RequestBodySpec requestSpec = restClient
-                    .method(method)
-                    .uri(uri)
-                    .headers(httpHeaders -> httpHeaders.putAll(headers));
-
-            if (supportsBody(method) && requestBody != null) {
-                requestSpec = requestSpec.body(requestBody);
-            }
-
-            ResponseEntity<byte[]> response = requestSpec.exchange((req, res) -> {
-                try (InputStream bodyStream = res.getBody()) {
+            PreparedRequest request = prepareRequest(setting, RequestOverrides.none());
+            URI uri = request.uri();
+
+            UpstreamResilience.UpstreamCall call = resilience.call(null, request.method(), uri);
+            BufferedResponse buffered = call.execute(() -> request.spec().exchange((req, res) -> {
+                call.checkStatus(res.getStatusCode().value(), res.getHeaders());
+                String contentEncoding = res.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+                CountingInputStream wire = new CountingInputStream(res.getBody());
+                try (InputStream bodyStream = ContentDecoding.decode(wire, contentEncoding)) {
                     byte[] bodyBytes = bodyStream.readAllBytes();
-                    return ResponseEntity.status(res.getStatusCode())
+                    return new BufferedResponse(ResponseEntity.status(res.getStatusCode())
                             .headers(res.getHeaders())
-                            .body(bodyBytes);
+                            .body(bodyBytes), wire.getCount(), contentEncoding);
                 } catch (Exception e) {
                     log.warn("Failed to read response body: {}", e.getMessage());
-                    return ResponseEntity.status(res.getStatusCode())
+                    return new BufferedResponse(ResponseEntity.status(res.getStatusCode())
                             .headers(res.getHeaders())
-                            .body(new byte[0]);
+                            .body(new byte[0]), wire.getCount(), contentEncoding);
                 }
-            });
+            }));
 
-            Objects.requireNonNull(response, "ResponseEntity is null after exchange()");
+            Objects.requireNonNull(buffered, "ResponseEntity is null after exchange()");
+            ResponseEntity<byte[]> response = buffered.entity();
             long duration = Duration.between(start, Instant.now()).toMillis();
 
             MediaType contentType = response.getHeaders().getContentType();
-            String responseBodyText = convertBodyToText(response.getBody(), contentType);
+            byte[] body = response.getBody();
 
             ApiResponse apiResponse = ApiResponse.builder()
                     .success(response.getStatusCode().is2xxSuccessful())
@@ -90,8 +92,12 @@ public class ApiExecutorService {
                     .statusText(response.getStatusCode().toString())
                     .mediaType(contentType != null ? contentType.toString() : "unknown")
                     .headers(response.getHeaders())
-                    .bodyText(responseBodyText)
-                    .bodyBytes(response.getBody())
+                    .bodyText(convertBodyToText(body, contentType))
+                    // Body dạng text chỉ giữ một bản (bodyText), bytes chỉ giữ cho binary
+                    .bodyBytes(isTextLike(contentType) ? null : body)
+                    .bodySize(body != null ? body.length : 0)
+                    .wireSize(buffered.wireSize())
+                    .contentEncoding(ContentDecoding.isEncoded(buffered.contentEncoding()) ? buffered.contentEncoding() : null)
                     .durationMs(duration)
                     .effectiveUri(uri)
                     .build();
@@ -117,7 +123,8 @@ public class ApiExecutorService {
                     .mediaType(contentType != null ? contentType.toString() : "unknown")
                     .headers(errorHeaders)
                     .bodyText(errorText)
-                    .bodyBytes(errorBody)
+                    .bodyBytes(isTextLike(contentType) ? null : errorBody)
+                    .bodySize(errorBody.length)
                     .durationMs(duration)
                     .errorMessage(ex.getMessage())
                     .build();
@@ -126,6 +133,16 @@ public class ApiExecutorService {
 
             return errorResponse;
 
+        } catch (CircuitOpenException ex) {
+            log.warn("Request not sent: {}", ex.getMessage());
+            return ApiResponse.builder()
+                    .success(false)
+                    .statusCode(-1)
+                    .statusText("CIRCUIT_OPEN")
+                    .durationMs(Duration.between(start, Instant.now()).toMillis())
+                    .errorMessage(ex.getMessage())
+                    .build();
+
         } catch (Exception ex) {
             long duration = Duration.between(start, Instant.now()).toMillis();
             log.error("Request failed after {} ms: {}", duration, ex.getMessage(), ex);
@@ -140,6 +157,160 @@ public class ApiExecutorService {
         }
     }
 
+    /**
+     * Như sendRequest nhưng chạy trên ApiAsyncExecutor, caller không bị chặn trong lúc chờ upstream.
+     * Lỗi HTTP / kết nối vẫn được trả về dưới dạng ApiResponse (success = false) như sendRequest.
+     * Caller ở UI phải cập nhật component qua UI.access.
+     */
+    public CompletableFuture<ApiResponse> sendRequestAsync(ApiSetting setting) {
+        return asyncExecutor.submit(() -> sendRequest(setting));
+    }
+
+    /**
+     * sendRequestStreaming trên ApiAsyncExecutor; consumer chạy trên thread của executor.
+     */
+    public <T> CompletableFuture<T> sendRequestStreamingAsync(ApiSetting setting, RequestOverrides overrides,
+                                                              ResponseConsumer<T> consumer) {
+        return asyncExecutor.submit(() -> sendRequestStreaming(setting, overrides, consumer));
+    }
+
+    /**
+     * Chế độ streaming: trao InputStream còn sống của response cho consumer, không đọc hết body vào heap.
+     * Body chỉ bị buffer khi ApiSetting có post-response script (script cần toàn bộ text); script lỗi -> RuntimeException,
+     * consumer không nhận body gốc.
+     * Lỗi kết nối được ném ra dưới dạng RuntimeException; status lỗi HTTP do consumer tự xử lý.
+     * GET / HEAD lỗi tạm thời được retry và circuit breaker của host được áp dụng (UpstreamResilience) trước khi
+     * consumer nhận response; mạch đang mở -> CircuitOpenException, không gửi request.
+     * Overrides có validator -> conditional GET; 304 được trao cho consumer (isNotModified) với body rỗng,
+     * không chạy post-response script.
+     */
+    public <T> T sendRequestStreaming(ApiSetting setting, ResponseConsumer<T> consumer) {
+        return sendRequestStreaming(setting, RequestOverrides.none(), consumer);
+    }
+
+    public <T> T sendRequestStreaming(ApiSetting setting, RequestOverrides overrides, ResponseConsumer<T> consumer) {
+        Instant start = Instant.now();
+
+        try {
+            PreparedRequest request = prepareRequest(setting, overrides);
+
+            UpstreamResilience.UpstreamCall call = resilience.call(overrides.getStoreName(), request.method(), request.uri());
+            T result = call.execute(() -> request.spec().exchange((req, res) -> {
+                call.checkStatus(res.getStatusCode().value(), res.getHeaders());
+                HttpHeaders responseHeaders = res.getHeaders();
+                MediaType contentType = responseHeaders.getContentType();
+                validatorTracker.record(request.uri(), request.conditional(), res.getStatusCode().value(), responseHeaders);
+
+                // Body nén được giải nén ngay trên stream của connection, consumer đọc thẳng bản đã giải nén
+                String contentEncoding = responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING);
+                CountingInputStream wire = new CountingInputStream(res.getBody());
+                CountingInputStream decoded = new CountingInputStream(ContentDecoding.decode(wire, contentEncoding));
+
+                try (InputStream bodyStream = decoded) {
+                    StreamedApiResponse.StreamedApiResponseBuilder builder = StreamedApiResponse.builder()
+                            .success(res.getStatusCode().is2xxSuccessful())
+                            .statusCode(res.getStatusCode().value())
+                            .statusText(res.getStatusCode().toString())
+                            .mediaType(contentType != null ? contentType.toString() : "unknown")
+                            .headers(responseHeaders)
+                            .effectiveUri(request.uri());
+
+                    if (hasPostResponseScript(setting) && res.getStatusCode().value() != HttpStatus.NOT_MODIFIED.value()) {
+                        ApiResponse buffered = ApiResponse.builder()
+                                .success(res.getStatusCode().is2xxSuccessful())
+                                .statusCode(res.getStatusCode().value())
+                                .mediaType(contentType != null ? contentType.toString() : "unknown")
+                                .headers(responseHeaders)
+                                .bodyText(convertBodyToText(bodyStream.readAllBytes(), contentType))
+                                .build();
+                        executePostResponseScriptIfExists(setting, buffered);
+                        if (buffered.getScriptError() != null) {
+                            // Không trao body gốc cho consumer: dữ liệu chưa qua script sai định dạng với metadata
+                            throw new RuntimeException("Post-response script failed for " + request.uri() + ": "
+                                    + buffered.getScriptError());
+                        }
+                        builder.body(new ByteArrayInputStream(buffered.getBodyText().getBytes(StandardCharsets.UTF_8)));
+                    } else {
+                        builder.body(bodyStream);
+                    }
+
+                    T value = consumer.consume(builder.build());
+                    if (ContentDecoding.isEncoded(contentEncoding)) {
+                        log.debug("Decoded {} body of {}: {} bytes on the wire, {} bytes read", contentEncoding,
+                                request.uri(), wire.getCount(), decoded.getCount());
+                    }
+                    return value;
+                }
+            }));
+
+            log.debug("Streamed {} {} in {} ms", request.method(), request.uri(),
+                    Duration.between(start, Instant.now()).toMillis());
+            return result;
+
+        } catch (CircuitOpenException ex) {
+            log.debug("Streaming request not sent: {}", ex.getMessage());
+            throw ex;
+        } catch (RestClientException | IllegalArgumentException | UpstreamResilience.RetryableStatusException ex) {
+            long duration = Duration.between(start, Instant.now()).toMillis();
+            log.error("Streaming request failed after {} ms: {}", duration, ex.getMessage(), ex);
+            throw new RuntimeException("API call failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    private PreparedRequest prepareRequest(ApiSetting setting, RequestOverrides overrides) {
+        HttpMethod method = HttpMethod.valueOf(setting.getHttpMethod().name());
+        URI uri = overrides.getUri() != null
+                ? overrides.getUri()
+                : uriBuilder.buildUri(setting, overrides.getQueryParams());
+        boolean acceptCompressed = Boolean.TRUE.equals(setting.getCompressionEnabled())
+                || clientRegistry.settingsFor(overrides.getStoreName()).compression();
+        HttpHeaders headers = headerBuilder.buildHeaders(setting, acceptCompressed);
+        Object requestBody = bodyBuilder.buildApiBody(setting.getApiBody());
+        if (overrides.getJsonBody() != null) {
+            requestBody = overrides.getJsonBody();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+
+        log.debug("Sending {} {}", method, uri);
+        log.trace("Headers: {}", sanitizeHeadersForLog(headers));
+        if (requestBody != null) {
+            log.trace("Body type: {}", requestBody.getClass().getSimpleName());
+        }
+
+        boolean conditional = method == HttpMethod.GET && overrides.isConditional();
+        if (conditional) {
+            if (overrides.getIfNoneMatch() != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, overrides.getIfNoneMatch());
+            }
+            if (overrides.getIfModifiedSince() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, overrides.getIfModifiedSince());
+            }
+        }
+
+        RestClient.RequestBodySpec requestSpec = clientRegistry.clientFor(overrides.getStoreName())
+                .method(method)
+                .uri(uri)
+                .headers(httpHeaders -> httpHeaders.putAll(headers));
+
+        if (supportsBody(method) && requestBody != null) {
+            requestSpec = requestSpec.body(requestBody);
+        }
+        return new PreparedRequest(method, uri, requestSpec, conditional);
+    }
+
+    public ConditionalRequestStats getConditionalStats() {
+        return validatorTracker.getStats();
+    }
+
+    public List<CircuitBreakerStatus> getCircuitBreakerStatuses(String storeName) {
+        return resilience.getStatuses(storeName);
+    }
+
+    private boolean hasPostResponseScript(ApiSetting setting) {
+        String script = setting.getPostResponseScript();
+        return script != null && !script.isBlank();
+    }
+
     private void executePostResponseScriptIfExists(ApiSetting setting, ApiResponse apiResponse) {
         try {
             String script = setting.getPostResponseScript();
@@ -149,15 +320,18 @@ public class ApiExecutorService {
 
             log.debug("Executing post-response script...");
 
+            ScriptBindingMode bindingMode = Optional.ofNullable(setting.getScriptBindingMode())
+                    .orElse(ScriptBindingMode.JSON_STRING);
+
             Map<String, Object> bindings = Map.of(
                     "response", Map.of(
                             "statusCode", apiResponse.getStatusCode(),
                             "header", apiResponse.getHeaders(),
-                            "body", apiResponse.getBodyText()
+                            "body", scriptBody(apiResponse, bindingMode)
                     )
             );
 
-            Object result = scriptService.execute(script, bindings);
+            Object result = scriptService.execute(script, bindings, bindingMode);
 
             apiResponse.setBodyText(
                     result != null ? result.toString() : "(no output)"
@@ -169,6 +343,16 @@ public class ApiExecutorService {
         }
     }
 
+    private Object scriptBody(ApiResponse apiResponse, ScriptBindingMode bindingMode) {
+        String bodyText = apiResponse.getBodyText();
+        // Body JSON được nhúng nguyên văn vào JSON của binding -> script nhận object, không phải string bị encode lần nữa
+        if (bindingMode == ScriptBindingMode.OBJECT && bodyText != null && !bodyText.isBlank()
+                && ApiRawType.fromMediaType(apiResponse.getMediaType()) == ApiRawType.JSON) {
+            return new RawValue(bodyText);
+        }
+        return bodyText != null ? bodyText : "";
+    }
+
     private boolean supportsBody(HttpMethod method) {
         return Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH).contains(method);
     }
@@ -207,5 +391,10 @@ public class ApiExecutorService {
                 || "X-API-KEY".equalsIgnoreCase(key);
     }
 
+    private record BufferedResponse(ResponseEntity<byte[]> entity, long wireSize, @Nullable String contentEncoding) {
+    }
+
+    private record PreparedRequest(HttpMethod method, URI uri, RestClient.RequestBodySpec spec, boolean conditional) {
+    }
 
 }
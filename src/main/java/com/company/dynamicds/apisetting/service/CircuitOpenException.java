@@ -0,0 +1,26 @@
+package com.company.dynamicds.apisetting.service;
+
+import java.time.Instant;
+
+/**
+ * Lời gọi bị từ chối mà không gửi request vì circuit breaker của host đang mở.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String host;
+    private final Instant retryAt;
+
+    public CircuitOpenException(String host, Instant retryAt) {
+        super("Circuit breaker open for " + host + ", next attempt after " + retryAt);
+        this.host = host;
+        this.retryAt = retryAt;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public Instant getRetryAt() {
+        return retryAt;
+    }
+}
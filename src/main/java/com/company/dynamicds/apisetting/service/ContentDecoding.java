@@ -0,0 +1,128 @@
+package com.company.dynamicds.apisetting.service;
+
+import org.brotli.dec.BrotliInputStream;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Giải nén body theo Content-Encoding ngay trên InputStream của connection (gzip, deflate, br),
+ * không bung cả body ra byte[]:
+ * - decoder chỉ được mở ở lần đọc đầu tiên -> body rỗng (304, HEAD) không bị lỗi header
+ * - deflate nhận cả dạng zlib (chuẩn) lẫn raw deflate mà nhiều server vẫn gửi
+ * - nhiều encoding ("gzip, br") được giải theo thứ tự ngược với thứ tự server áp dụng
+ */
+public final class ContentDecoding {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate, br";
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private ContentDecoding() {
+        // prevent instantiation
+    }
+
+    public static boolean isEncoded(@Nullable String contentEncoding) {
+        return contentEncoding != null && !contentEncoding.isBlank()
+                && !"identity".equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    public static InputStream decode(InputStream body, @Nullable String contentEncoding) {
+        if (!isEncoded(contentEncoding)) {
+            return body;
+        }
+        String[] encodings = contentEncoding.split(",");
+        InputStream decoded = body;
+        for (int i = encodings.length - 1; i >= 0; i--) {
+            String encoding = encodings[i].trim().toLowerCase(Locale.ROOT);
+            if (!encoding.isEmpty() && !"identity".equals(encoding)) {
+                decoded = new LazyDecodingInputStream(decoded, encoding);
+            }
+        }
+        return decoded;
+    }
+
+    private static InputStream open(PushbackInputStream source, String encoding) throws IOException {
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(source, BUFFER_SIZE);
+            case "deflate" -> inflate(source);
+            case "br" -> new BrotliInputStream(source);
+            default -> throw new IOException("Unsupported Content-Encoding '" + encoding + "'");
+        };
+    }
+
+    private static InputStream inflate(PushbackInputStream source) throws IOException {
+        byte[] header = source.readNBytes(2);
+        source.unread(header);
+        // Header zlib: CM = 8 (deflate) và (CMF * 256 + FLG) chia hết cho 31
+        boolean zlib = header.length == 2 && (header[0] & 0x0F) == 8
+                && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(source, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // Inflater truyền từ ngoài vào không được InflaterInputStream giải phóng
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    private static final class LazyDecodingInputStream extends InputStream {
+
+        private final PushbackInputStream source;
+        private final String encoding;
+        private InputStream decoded;
+
+        private LazyDecodingInputStream(InputStream source, String encoding) {
+            this.source = new PushbackInputStream(source, 2);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return decoded().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return decoded().read(buffer, offset, length);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoded != null ? decoded.available() : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoded != null) {
+                decoded.close();
+            } else {
+                source.close();
+            }
+        }
+
+        private InputStream decoded() throws IOException {
+            if (decoded == null) {
+                int first = source.read();
+                if (first == -1) {
+                    decoded = InputStream.nullInputStream();
+                } else {
+                    source.unread(first);
+                    decoded = open(source, encoding);
+                }
+            }
+            return decoded;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.company.dynamicds.apisetting.service;
+
+import com.company.dynamicds.apisetting.dto.HttpClientSettings;
+import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import com.company.dynamicds.repository.DynamicDataStoreConfigRepository;
+import io.jmix.core.event.EntityChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RestClient riêng cho từng dynamic store, cấu hình trên DynamicDataStoreConfig (giá trị mặc định lấy từ dynamicds.http.*):
+ * mỗi store có connection pool và timeout riêng nên một upstream chậm không chiếm hết connection / thread của store khác.
+ * - HTTP/1.1: Apache HttpClient 5 với pool keep-alive, connection rảnh bị thu hồi sau idleEvict
+ * - HTTP/2: java.net.http.HttpClient (một connection multiplex cho mỗi host)
+ * - Cấu hình store đổi -> client được dựng lại ở lần gọi sau, client cũ được đóng sau khi request đang chạy kết thúc
+ * - prewarm: mở sẵn connection (TCP + TLS) tới các host của store khi store được kích hoạt
+ * Lời gọi không thuộc store nào (gửi thử ApiSetting) dùng client mặc định.
+ */
+@Slf4j
+@Component
+public class HttpClientRegistry implements DisposableBean {
+
+    private final DynamicDataStoreConfigRepository configRepository;
+    private final ApiAsyncExecutor asyncExecutor;
+    private final HttpClientSettings defaults;
+    private final StoreClient defaultClient;
+
+    private final Map<String, StoreClient> clients = new ConcurrentHashMap<>();
+
+    public HttpClientRegistry(DynamicDataStoreConfigRepository configRepository,
+                              ApiAsyncExecutor asyncExecutor,
+                              @Value("${dynamicds.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+                              @Value("${dynamicds.http.max-connections:100}") int maxConnections,
+                              @Value("${dynamicds.http.idle-evict:60s}") Duration idleEvict,
+                              @Value("${dynamicds.http.connect-timeout:5s}") Duration connectTimeout,
+                              @Value("${dynamicds.http.read-timeout:60s}") Duration readTimeout,
+                              @Value("${dynamicds.http.pool-timeout:10s}") Duration poolTimeout,
+                              @Value("${dynamicds.http.http2:false}") boolean http2,
+                              @Value("${dynamicds.http.compression:false}") boolean compression) {
+        this.configRepository = configRepository;
+        this.asyncExecutor = asyncExecutor;
+        this.defaults = new HttpClientSettings(maxConnectionsPerRoute, maxConnections, idleEvict,
+                connectTimeout, readTimeout, poolTimeout, http2, compression);
+        this.defaultClient = build(defaults);
+    }
+
+    /**
+     * RestClient của store; storeName null -> client mặc định.
+     */
+    public RestClient clientFor(@Nullable String storeName) {
+        return storeClient(storeName).restClient();
+    }
+
+    /**
+     * Cấu hình HTTP đang áp dụng cho store; storeName null -> cấu hình mặc định.
+     */
+    public HttpClientSettings settingsFor(@Nullable String storeName) {
+        return storeClient(storeName).settings();
+    }
+
+    /**
+     * Gửi HEAD tới gốc (scheme://host:port) của từng url ở background để connection đã sẵn trong pool
+     * trước request đầu tiên; status của response không quan trọng, lỗi chỉ được log.
+     */
+    public void prewarm(String storeName, Collection<String> urls) {
+        Set<URI> origins = new LinkedHashSet<>();
+        for (String url : urls) {
+            if (url == null) {
+                continue;
+            }
+            try {
+                URI uri = URI.create(url);
+                if (uri.getScheme() != null && uri.getAuthority() != null) {
+                    origins.add(URI.create(uri.getScheme() + "://" + uri.getAuthority() + "/"));
+                }
+            } catch (IllegalArgumentException e) {
+                log.debug("Skip pre-warming invalid url {}", url);
+            }
+        }
+
+        RestClient restClient = clientFor(storeName);
+        for (URI origin : origins) {
+            asyncExecutor.submit(() -> {
+                try {
+                    int status = restClient.method(HttpMethod.HEAD).uri(origin)
+                            .exchange((request, response) -> response.getStatusCode().value());
+                    log.debug("Pre-warmed connection to {} for store '{}' (HTTP {})", origin, storeName, status);
+                } catch (RuntimeException e) {
+                    log.debug("Cannot pre-warm connection to {} for store '{}': {}", origin, storeName, e.getMessage());
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void destroy() {
+        clients.values().forEach(StoreClient::close);
+        clients.clear();
+        defaultClient.close();
+    }
+
+    @TransactionalEventListener
+    public void onStoreConfigChanged(EntityChangedEvent<DynamicDataStoreConfig> event) {
+        // Cấu hình HTTP đổi -> bỏ client cũ, lần gọi sau sẽ dựng lại theo cấu hình mới
+        Set<String> storeNames = new HashSet<>();
+        String oldStoreName = event.getChanges().getOldValue("storeName");
+        if (oldStoreName != null) {
+            storeNames.add(oldStoreName);
+        }
+        if (event.getType() != EntityChangedEvent.Type.DELETED) {
+            configRepository.findById((UUID) event.getEntityId().getValue())
+                    .ifPresent(config -> storeNames.add(config.getStoreName()));
+        }
+        for (String storeName : storeNames) {
+            StoreClient retired = clients.remove(storeName);
+            if (retired != null) {
+                // Request đang chạy vẫn giữ client cũ -> chỉ đóng sau khi chúng đã có đủ thời gian chờ pool + đọc response
+                Duration grace = retired.settings().poolTimeout().plus(retired.settings().readTimeout());
+                CompletableFuture.delayedExecutor(grace.toMillis(), TimeUnit.MILLISECONDS).execute(retired::close);
+            }
+        }
+    }
+
+    private StoreClient storeClient(@Nullable String storeName) {
+        if (storeName == null) {
+            return defaultClient;
+        }
+        return clients.computeIfAbsent(storeName, name -> {
+            HttpClientSettings settings = settingsOf(name);
+            log.info("HTTP client for store '{}': {}", name, settings);
+            return build(settings);
+        });
+    }
+
+    private HttpClientSettings settingsOf(String storeName) {
+        DynamicDataStoreConfig config = configRepository.findByStoreName(storeName).orElse(null);
+        if (config == null) {
+            return defaults;
+        }
+        return new HttpClientSettings(
+                positiveOr(config.getHttpMaxConnectionsPerRoute(), defaults.maxConnectionsPerRoute()),
+                positiveOr(config.getHttpMaxConnections(), defaults.maxConnections()),
+                secondsOr(config.getHttpIdleEvictSeconds(), defaults.idleEvict()),
+                millisOr(config.getHttpConnectTimeoutMs(), defaults.connectTimeout()),
+                millisOr(config.getHttpReadTimeoutMs(), defaults.readTimeout()),
+                millisOr(config.getHttpPoolTimeoutMs(), defaults.poolTimeout()),
+                config.getHttpPreferHttp2() != null ? config.getHttpPreferHttp2() : defaults.http2(),
+                config.getHttpCompressionEnabled() != null ? config.getHttpCompressionEnabled() : defaults.compression());
+    }
+
+    private static StoreClient build(HttpClientSettings settings) {
+        return settings.http2() ? buildHttp2(settings) : buildPooled(settings);
+    }
+
+    private static StoreClient buildPooled(HttpClientSettings settings) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(settings.maxConnectionsPerRoute())
+                .setMaxConnTotal(Math.max(settings.maxConnections(), settings.maxConnectionsPerRoute()))
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(settings.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(settings.readTimeout()))
+                        // Connection keep-alive có thể đã bị server đóng -> kiểm tra trước khi dùng lại
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(settings.poolTimeout()))
+                        .setResponseTimeout(Timeout.of(settings.readTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(settings.idleEvict()))
+                // Giải nén do ApiExecutorService đảm nhiệm (dạng stream, đếm được byte trên đường truyền)
+                .disableContentCompression()
+                .build();
+
+        RestClient restClient = RestClient.builder()
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+        return new StoreClient(settings, restClient, () -> httpClient.close(CloseMode.GRACEFUL));
+    }
+
+    private static StoreClient buildHttp2(HttpClientSettings settings) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(settings.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(settings.readTimeout());
+        RestClient restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+        // HttpClient của JDK 17 không có close(), connection được giải phóng khi client bị thu gom
+        return new StoreClient(settings, restClient, () -> {
+        });
+    }
+
+    private static int positiveOr(@Nullable Integer value, int defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+
+    private static Duration secondsOr(@Nullable Integer seconds, Duration defaultValue) {
+        return seconds != null && seconds > 0 ? Duration.ofSeconds(seconds) : defaultValue;
+    }
+
+    private static Duration millisOr(@Nullable Integer millis, Duration defaultValue) {
+        return millis != null && millis > 0 ? Duration.ofMillis(millis) : defaultValue;
+    }
+
+    private record StoreClient(HttpClientSettings settings, RestClient restClient, Runnable closer) {
+
+        void close() {
+            try {
+                closer.run();
+            } catch (RuntimeException e) {
+                log.warn("Cannot close HTTP client", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.dynamicds.apisetting.service;
+
+import com.company.dynamicds.apisetting.dto.ConditionalRequestStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Theo dõi validator (ETag / Last-Modified) gần nhất của mỗi effective URI và tỉ lệ 304 của conditional GET.
+ */
+@Component
+public class HttpValidatorTracker {
+
+    private static final int MAX_TRACKED_URIS = 1024;
+
+    private final LongAdder conditionalCount = new LongAdder();
+    private final LongAdder notModifiedCount = new LongAdder();
+
+    private final Map<URI, Validators> validators = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<URI, Validators> eldest) {
+                    return size() > MAX_TRACKED_URIS;
+                }
+            });
+
+    void record(URI uri, boolean conditional, int statusCode, HttpHeaders responseHeaders) {
+        boolean notModified = statusCode == HttpStatus.NOT_MODIFIED.value();
+        if (conditional) {
+            conditionalCount.increment();
+            if (notModified) {
+                notModifiedCount.increment();
+            }
+        }
+
+        String etag = responseHeaders.getETag();
+        String lastModified = responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (etag != null || lastModified != null) {
+            validators.put(uri, new Validators(etag, lastModified));
+        } else if (!notModified) {
+            validators.remove(uri);
+        }
+    }
+
+    /**
+     * Validator upstream trả về ở lần gọi gần nhất tới uri (null nếu upstream không gửi validator).
+     */
+    @Nullable
+    public Validators getValidators(URI uri) {
+        return validators.get(uri);
+    }
+
+    public ConditionalRequestStats getStats() {
+        return new ConditionalRequestStats(conditionalCount.sum(), notModifiedCount.sum(), validators.size());
+    }
+
+    public record Validators(@Nullable String etag, @Nullable String lastModified) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.company.dynamicds.apisetting.service;
+
+import com.company.dynamicds.apisetting.dto.StreamedApiResponse;
+
+import java.io.IOException;
+
+/**
+ * Xử lý response ở chế độ streaming (xem ApiExecutorService#sendRequestStreaming).
+ * Stream sẽ bị đóng ngay sau khi consume() trả về.
+ */
+@FunctionalInterface
+public interface ResponseConsumer<T> {
+
+    T consume(StreamedApiResponse response) throws IOException;
+}
@@ -1,25 +1,72 @@
 package com.company.dynamicds.apisetting.service;
 
+import com.company.dynamicds.apisetting.enums.ScriptBindingMode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.graalvm.polyglot.*;
 import org.graalvm.polyglot.io.IOAccess;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
 import java.io.OutputStream;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Chạy post-response script trong sandbox GraalJS.
+ * - Một Engine dùng chung: code đã parse / compile được chia sẻ giữa các context
+ * - Source được cache theo hash của script
+ * - Số context chạy đồng thời bị giới hạn bởi dynamicds.script.pool-size
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
-public class ScriptService {
+public class ScriptService implements DisposableBean {
+
+    private static final int SOURCE_CACHE_SIZE = 256;
+
+    private static final Source JSON_PARSE = Source.create("js", "JSON.parse");
+    private static final Source JSON_STRINGIFY = Source.create("js", "JSON.stringify");
 
     private final ObjectMapper objectMapper;
+    private final Engine engine;
+    private final Semaphore contextPermits;
+
+    private final Map<String, Source> sourceCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Source> eldest) {
+                    return size() > SOURCE_CACHE_SIZE;
+                }
+            });
+
+    public ScriptService(ObjectMapper objectMapper,
+                         @org.springframework.beans.factory.annotation.Value("${dynamicds.script.pool-size:8}") int poolSize) {
+        this.objectMapper = objectMapper;
+        this.contextPermits = new Semaphore(poolSize);
+        this.engine = Engine.newBuilder("js")
+                .sandbox(SandboxPolicy.CONSTRAINED)
+                .option("engine.WarnInterpreterOnly", "false")
+                .out(OutputStream.nullOutputStream())
+                .err(OutputStream.nullOutputStream())
+                .build();
+
+        // Pre-warm: khởi tạo JS realm một lần để lần chạy đầu tiên không phải trả chi phí này
+        try (Context context = createSandboxedContext(null, ScriptBindingMode.JSON_STRING)) {
+            context.eval("js", "0");
+        }
+    }
 
-    private Context createSandboxedContext(Map<String, Object> variables) {
+    /**
+     * Context mới trên Engine dùng chung cho mỗi lần chạy: global scope của JS (let/const top-level)
+     * không reset được an toàn nên không tái sử dụng context, chi phí tạo context đã nhỏ nhờ Engine chung.
+     */
+    private Context createSandboxedContext(Map<String, Object> variables, ScriptBindingMode bindingMode) {
 
         Context.Builder builder = Context.newBuilder("js")
+                .engine(engine)
                 .sandbox(SandboxPolicy.CONSTRAINED)
                 .allowAllAccess(false)                 //  cấm mọi truy cập host
                 .allowHostClassLookup(null)            //  cấm Java.type, reflection
@@ -39,13 +86,14 @@ public class ScriptService {
         Context context = builder.build();
 
         // nạp biến (dưới dạng JSON string để tránh Java object injection)
-        // Truyền biến vào JS dưới dạng JSON string
+        // JSON_STRING: biến là JSON string; OBJECT: JSON string được JSON.parse một lần trong JS thành object
         Value bindings = context.getBindings("js");
         if (variables != null) {
+            Value jsonParse = bindingMode == ScriptBindingMode.OBJECT ? context.eval(JSON_PARSE) : null;
             for (var e : variables.entrySet()) {
                 try {
                     String jsonValue = objectMapper.writeValueAsString(e.getValue());
-                    bindings.putMember(e.getKey(), jsonValue);
+                    bindings.putMember(e.getKey(), jsonParse != null ? jsonParse.execute(jsonValue) : jsonValue);
                 } catch (Exception ex) {
                     bindings.putMember(e.getKey(), String.valueOf(e.getValue()));
                 }
@@ -56,9 +104,32 @@ public class ScriptService {
     }
 
     public Object execute(String scriptCode, Map<String, Object> variables) {
-        try (Context context = createSandboxedContext(variables)) {
-            Value result = context.eval("js", scriptCode);
+        return execute(scriptCode, variables, ScriptBindingMode.JSON_STRING);
+    }
+
+    /**
+     * Ở chế độ OBJECT script có thể trả về object/array, kết quả được JSON.stringify trong JS
+     * (Java nhận một string duy nhất, không cần script tự stringify).
+     */
+    public Object execute(String scriptCode, Map<String, Object> variables, ScriptBindingMode bindingMode) {
+        try {
+            contextPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Script execution interrupted", e);
+        }
+
+        try (Context context = createSandboxedContext(variables, bindingMode)) {
+            Value result = context.eval(sourceOf(scriptCode));
 
+            if (bindingMode == ScriptBindingMode.OBJECT && !result.isString()) {
+                if (result.isNull()) {
+                    return null;
+                }
+                if (result.hasMembers() || result.hasArrayElements()) {
+                    return context.eval(JSON_STRINGIFY).execute(result).asString();
+                }
+            }
             return result.toString();
         } catch (PolyglotException e) {
             log.error("[SafeScriptService] Script error: {}", e.getMessage());
@@ -66,6 +137,30 @@ public class ScriptService {
         } catch (Exception e) {
             log.error("[SafeScriptService] Execution failed: {}", e.getMessage(), e);
             throw new RuntimeException("Script execution failed: " + e.getMessage(), e);
+        } finally {
+            contextPermits.release();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        engine.close();
+    }
+
+    private Source sourceOf(String scriptCode) {
+        String hash = sha256(scriptCode);
+        return sourceCache.computeIfAbsent(hash, key ->
+                Source.newBuilder("js", scriptCode, "script-" + key.substring(0, 12) + ".js")
+                        .cached(true)
+                        .buildLiteral());
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,440 @@
+package com.company.dynamicds.apisetting.service;
+
+import com.company.dynamicds.apisetting.dto.CircuitBreakerStatus;
+import com.company.dynamicds.apisetting.dto.ResilienceSettings;
+import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import com.company.dynamicds.repository.DynamicDataStoreConfigRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.jmix.core.event.EntityChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.ConnectionClosedException;
+import org.apache.hc.core5.http.NoHttpResponseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.net.ssl.SSLException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retry và circuit breaker cho lời gọi upstream, theo từng host (scheme://host:port) của mỗi dynamic store,
+ * cấu hình trên DynamicDataStoreConfig (giá trị mặc định lấy từ dynamicds.resilience.*):
+ * - retry: chỉ GET / HEAD; lỗi kết nối / timeout và status 429, 502, 503, 504 được gửi lại sau backoff
+ *   exponential có jitter (hoặc theo Retry-After nếu không vượt retryMaxDelay)
+ * - circuit breaker: tỉ lệ lỗi (lỗi kết nối, 5xx, 429) trong cửa sổ các lần gọi gần nhất vượt ngưỡng -> mạch mở,
+ *   lời gọi tới host bị từ chối ngay bằng CircuitOpenException trong openDuration; sau đó đúng một request thử
+ *   (half-open) quyết định đóng mạch hay mở tiếp
+ * Lời gọi không thuộc store nào (gửi thử ApiSetting) dùng cấu hình mặc định và breaker riêng.
+ */
+@Slf4j
+@Component
+public class UpstreamResilience {
+
+    private static final Set<HttpMethod> RETRYABLE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(
+            HttpStatus.TOO_MANY_REQUESTS.value(), HttpStatus.BAD_GATEWAY.value(),
+            HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.GATEWAY_TIMEOUT.value());
+    private static final String NO_STORE = "";
+
+    private final DynamicDataStoreConfigRepository configRepository;
+    private final ResilienceSettings defaults;
+
+    private final Map<String, ResilienceSettings> settings = new ConcurrentHashMap<>();
+    private final Map<BreakerKey, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public UpstreamResilience(DynamicDataStoreConfigRepository configRepository,
+                              @Value("${dynamicds.resilience.max-retries:2}") int maxRetries,
+                              @Value("${dynamicds.resilience.retry-base-delay:200ms}") Duration retryBaseDelay,
+                              @Value("${dynamicds.resilience.retry-max-delay:5s}") Duration retryMaxDelay,
+                              @Value("${dynamicds.resilience.failure-rate-threshold:50}") int failureRateThreshold,
+                              @Value("${dynamicds.resilience.minimum-calls:10}") int minimumCalls,
+                              @Value("${dynamicds.resilience.sliding-window:20}") int slidingWindow,
+                              @Value("${dynamicds.resilience.open-duration:30s}") Duration openDuration) {
+        this.configRepository = configRepository;
+        this.defaults = new ResilienceSettings(Math.max(0, maxRetries), retryBaseDelay, retryMaxDelay,
+                failureRateThreshold, Math.max(1, minimumCalls), Math.max(1, slidingWindow), openDuration);
+    }
+
+    /**
+     * Một lời gọi logic tới uri; execute chạy exchange (một request) và lặp lại theo chính sách retry.
+     * storeName null -> cấu hình mặc định.
+     */
+    public UpstreamCall call(@Nullable String storeName, HttpMethod method, URI uri) {
+        String store = storeName != null ? storeName : NO_STORE;
+        ResilienceSettings callSettings = settingsFor(storeName);
+        String host = hostOf(uri);
+        CircuitBreaker breaker = breakers.computeIfAbsent(new BreakerKey(store, host),
+                key -> new CircuitBreaker(key, callSettings));
+        return new UpstreamCall(breaker, callSettings, RETRYABLE_METHODS.contains(method), uri);
+    }
+
+    public ResilienceSettings settingsFor(@Nullable String storeName) {
+        if (storeName == null) {
+            return defaults;
+        }
+        return settings.computeIfAbsent(storeName, this::settingsOf);
+    }
+
+    /**
+     * Circuit breaker của các host mà store đã gọi.
+     */
+    public List<CircuitBreakerStatus> getStatuses(String storeName) {
+        return breakers.values().stream()
+                .filter(breaker -> breaker.key.storeName().equals(storeName))
+                .map(CircuitBreaker::status)
+                .sorted(Comparator.comparing(CircuitBreakerStatus::host))
+                .toList();
+    }
+
+    @TransactionalEventListener
+    public void onStoreConfigChanged(EntityChangedEvent<DynamicDataStoreConfig> event) {
+        // Cấu hình đổi -> breaker của store bắt đầu lại ở trạng thái đóng với cấu hình mới
+        Set<String> storeNames = new HashSet<>();
+        String oldStoreName = event.getChanges().getOldValue("storeName");
+        if (oldStoreName != null) {
+            storeNames.add(oldStoreName);
+        }
+        if (event.getType() != EntityChangedEvent.Type.DELETED) {
+            configRepository.findById((UUID) event.getEntityId().getValue())
+                    .ifPresent(config -> storeNames.add(config.getStoreName()));
+        }
+        for (String storeName : storeNames) {
+            settings.remove(storeName);
+            breakers.keySet().removeIf(key -> key.storeName().equals(storeName));
+        }
+    }
+
+    private ResilienceSettings settingsOf(String storeName) {
+        DynamicDataStoreConfig config = configRepository.findByStoreName(storeName).orElse(null);
+        if (config == null) {
+            return defaults;
+        }
+        Integer maxRetries = config.getHttpMaxRetries();
+        Integer failureRate = config.getCircuitFailureRatePercent();
+        Integer openSeconds = config.getCircuitOpenSeconds();
+        return new ResilienceSettings(
+                maxRetries != null && maxRetries >= 0 ? maxRetries : defaults.maxRetries(),
+                defaults.retryBaseDelay(),
+                defaults.retryMaxDelay(),
+                failureRate != null && failureRate > 0 ? failureRate : defaults.failureRateThreshold(),
+                defaults.minimumCalls(),
+                defaults.slidingWindow(),
+                openSeconds != null && openSeconds > 0 ? Duration.ofSeconds(openSeconds) : defaults.openDuration());
+    }
+
+    private static String hostOf(URI uri) {
+        if (uri.getScheme() == null || uri.getAuthority() == null) {
+            return uri.toString();
+        }
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    private static boolean isFailureStatus(int status) {
+        return status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * Thời gian chờ theo Retry-After (số giây hoặc HTTP-date), null nếu không có / không đọc được.
+     */
+    @Nullable
+    private static Duration retryAfterOf(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                long date = headers.getFirstDate(HttpHeaders.RETRY_AFTER);
+                return date < 0 ? null : Duration.ofMillis(Math.max(0, date - System.currentTimeMillis()));
+            } catch (IllegalArgumentException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Lời gọi logic tới một uri, dùng trên một thread. Exchange gọi checkStatus ngay khi có status của response,
+     * trước khi đọc body: status lỗi còn được retry thì request bị bỏ và gửi lại, lần cuối thì response được
+     * trả cho caller như bình thường.
+     */
+    public static final class UpstreamCall {
+
+        private final CircuitBreaker breaker;
+        private final ResilienceSettings settings;
+        private final boolean retryable;
+        private final URI uri;
+        private int attempt;
+        private boolean failedStatus;
+
+        private UpstreamCall(CircuitBreaker breaker, ResilienceSettings settings, boolean retryable, URI uri) {
+            this.breaker = breaker;
+            this.settings = settings;
+            this.retryable = retryable;
+            this.uri = uri;
+        }
+
+        public void checkStatus(int status, HttpHeaders headers) {
+            if (!isFailureStatus(status)) {
+                return;
+            }
+            Duration retryAfter = retryAfterOf(headers);
+            if (RETRYABLE_STATUSES.contains(status) && canRetry()
+                    && (retryAfter == null || retryAfter.compareTo(settings.retryMaxDelay()) <= 0)) {
+                throw new RetryableStatusException(status, uri, retryAfter);
+            }
+            failedStatus = true;
+        }
+
+        public <T> T execute(Supplier<T> exchange) {
+            RuntimeException lastFailure = null;
+            while (true) {
+                if (!breaker.tryAcquire()) {
+                    throw lastFailure != null ? lastFailure : new CircuitOpenException(breaker.key.host(), breaker.openUntil());
+                }
+
+                Duration delay;
+                failedStatus = false;
+                try {
+                    T result = exchange.get();
+                    breaker.record(failedStatus);
+                    return result;
+                } catch (RetryableStatusException e) {
+                    breaker.record(true);
+                    lastFailure = e;
+                    delay = e.retryAfter != null ? e.retryAfter : backoff();
+                } catch (RuntimeException e) {
+                    // Lỗi kết nối / timeout (kể cả khi đang đọc body) hoặc status lỗi đã nhận tính là lỗi của upstream;
+                    // lỗi khác (parse, script...) không nói gì về upstream -> không ghi kết quả, chỉ trả lượt thử
+                    boolean connectionFailure = isConnectionFailure(e);
+                    if (connectionFailure || failedStatus) {
+                        breaker.record(true);
+                    } else {
+                        breaker.release();
+                    }
+                    if (!connectionFailure || !canRetry()) {
+                        throw e;
+                    }
+                    lastFailure = e;
+                    delay = backoff();
+                }
+
+                if (breaker.isOpen()) {
+                    // Lần thử vừa rồi làm mạch mở -> không chờ backoff để rồi bị từ chối
+                    throw lastFailure;
+                }
+                attempt++;
+                breaker.recordRetry();
+                log.warn("Retrying {} in {} ms (attempt {}/{}): {}", uri, delay.toMillis(), attempt,
+                        settings.maxRetries(), lastFailure.getMessage());
+                try {
+                    Thread.sleep(delay.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw lastFailure;
+                }
+            }
+        }
+
+        /**
+         * Phân loại theo nguyên nhân gốc, không theo kiểu exception bọc ngoài: RestClient bọc mọi IOException của
+         * exchange (kể cả lỗi parse của consumer) thành ResourceAccessException, còn parser bọc lỗi đọc stream
+         * thành RuntimeException.
+         */
+        private static boolean isConnectionFailure(Throwable failure) {
+            for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+                if (cause instanceof JsonProcessingException) {
+                    return false;
+                }
+                if (cause instanceof SocketTimeoutException || cause instanceof SocketException
+                        || cause instanceof UnknownHostException || cause instanceof HttpTimeoutException
+                        || cause instanceof ConnectionClosedException || cause instanceof NoHttpResponseException
+                        || cause instanceof SSLException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean canRetry() {
+            return retryable && attempt < settings.maxRetries();
+        }
+
+        // Exponential backoff với "equal jitter": nửa cố định, nửa ngẫu nhiên -> các client không retry cùng lúc
+        private Duration backoff() {
+            long base = Math.max(1, settings.retryBaseDelay().toMillis());
+            long cap = Math.min(settings.retryMaxDelay().toMillis(), base << Math.min(attempt, 20));
+            long half = Math.max(1, cap / 2);
+            return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+        }
+    }
+
+    /**
+     * Status lỗi tạm thời sẽ được retry; chỉ ra khỏi UpstreamCall khi mạch mở giữa hai lần thử.
+     */
+    static final class RetryableStatusException extends RuntimeException {
+
+        @Nullable
+        private final Duration retryAfter;
+
+        private RetryableStatusException(int status, URI uri, @Nullable Duration retryAfter) {
+            super("HTTP " + status + " from " + uri);
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    private record BreakerKey(String storeName, String host) {
+    }
+
+    private static final class CircuitBreaker {
+
+        private final BreakerKey key;
+        private final ResilienceSettings settings;
+        // Kết quả các lần gọi gần nhất (true = lỗi), vòng tròn kích thước slidingWindow
+        private final boolean[] window;
+        private int windowIndex;
+        private int windowCount;
+        private int windowFailures;
+
+        private CircuitBreakerStatus.State state = CircuitBreakerStatus.State.CLOSED;
+        private Instant stateSince = Instant.now();
+        private long openUntilNanos;
+        private boolean probing;
+
+        private long callCount;
+        private long failureCount;
+        private long retryCount;
+        private long rejectedCount;
+
+        private CircuitBreaker(BreakerKey key, ResilienceSettings settings) {
+            this.key = key;
+            this.settings = settings;
+            this.window = new boolean[settings.slidingWindow()];
+        }
+
+        synchronized boolean tryAcquire() {
+            switch (state) {
+                case OPEN -> {
+                    if (System.nanoTime() - openUntilNanos < 0) {
+                        rejectedCount++;
+                        return false;
+                    }
+                    transition(CircuitBreakerStatus.State.HALF_OPEN);
+                    probing = true;
+                    return true;
+                }
+                case HALF_OPEN -> {
+                    // Chỉ một request thử tại một thời điểm
+                    if (probing) {
+                        rejectedCount++;
+                        return false;
+                    }
+                    probing = true;
+                    return true;
+                }
+                default -> {
+                    return true;
+                }
+            }
+        }
+
+        synchronized void record(boolean failed) {
+            callCount++;
+            if (failed) {
+                failureCount++;
+            }
+            switch (state) {
+                case HALF_OPEN -> {
+                    probing = false;
+                    if (failed) {
+                        open();
+                    } else {
+                        resetWindow();
+                        transition(CircuitBreakerStatus.State.CLOSED);
+                        log.info("Circuit breaker for {} of store '{}' closed", key.host(), key.storeName());
+                    }
+                }
+                case CLOSED -> {
+                    if (windowCount == window.length) {
+                        windowFailures -= window[windowIndex] ? 1 : 0;
+                    } else {
+                        windowCount++;
+                    }
+                    window[windowIndex] = failed;
+                    windowFailures += failed ? 1 : 0;
+                    windowIndex = (windowIndex + 1) % window.length;
+                    if (windowCount >= settings.minimumCalls()
+                            && windowFailures * 100 >= settings.failureRateThreshold() * windowCount) {
+                        log.warn("Circuit breaker for {} of store '{}' opened: {} of last {} calls failed",
+                                key.host(), key.storeName(), windowFailures, windowCount);
+                        open();
+                    }
+                }
+                default -> {
+                    // Request bắt đầu trước khi mạch mở, không ảnh hưởng trạng thái
+                }
+            }
+        }
+
+        /**
+         * Lời gọi kết thúc mà không biết upstream có lỗi hay không: không tính vào cửa sổ, không đổi trạng thái;
+         * lượt thử half-open được trả lại cho request sau.
+         */
+        synchronized void release() {
+            if (state == CircuitBreakerStatus.State.HALF_OPEN) {
+                probing = false;
+            }
+        }
+
+        synchronized boolean isOpen() {
+            return state == CircuitBreakerStatus.State.OPEN;
+        }
+
+        synchronized void recordRetry() {
+            retryCount++;
+        }
+
+        synchronized Instant openUntil() {
+            return Instant.now().plusNanos(Math.max(0, openUntilNanos - System.nanoTime()));
+        }
+
+        synchronized CircuitBreakerStatus status() {
+            return new CircuitBreakerStatus(key.storeName(), key.host(), state, stateSince,
+                    state == CircuitBreakerStatus.State.OPEN ? openUntil() : null,
+                    windowCount == 0 ? 0 : (double) windowFailures / windowCount,
+                    callCount, failureCount, retryCount, rejectedCount);
+        }
+
+        private void open() {
+            openUntilNanos = System.nanoTime() + settings.openDuration().toNanos();
+            transition(CircuitBreakerStatus.State.OPEN);
+        }
+
+        private void resetWindow() {
+            Arrays.fill(window, false);
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+
+        private void transition(CircuitBreakerStatus.State newState) {
+            state = newState;
+            stateSince = Instant.now();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.company.dynamicds.apisetting.entity.ApiSetting;
 import com.company.dynamicds.apisetting.enums.ApiBodyType;
 import com.company.dynamicds.apisetting.enums.ApiKeyPlacement;
 import com.company.dynamicds.apisetting.enums.ApiRawType;
+import com.company.dynamicds.apisetting.service.ContentDecoding;
 import com.company.dynamicds.utils.validation.StringValidation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -20,12 +21,17 @@ import java.util.List;
  * - Xử lý Content-Type theo ApiBodyType và ApiRawType
  * - Thêm custom headers do người dùng nhập
  * - Thêm Authorization header (Basic, Bearer, API Key)
+ * - Thêm Accept-Encoding khi bật nén (trừ khi người dùng đã tự khai báo header này)
  */
 @Component
 @Slf4j
 public class HeaderBuilder {
 
     public HttpHeaders buildHeaders(ApiSetting setting) {
+        return buildHeaders(setting, Boolean.TRUE.equals(setting.getCompressionEnabled()));
+    }
+
+    public HttpHeaders buildHeaders(ApiSetting setting, boolean acceptCompressed) {
         HttpHeaders headers = new HttpHeaders();
 
         MediaType contentType = resolveMediaType(setting);
@@ -42,6 +48,10 @@ public class HeaderBuilder {
                     .forEach(h -> headers.add(h.getKey(), h.getValue()));
         }
 
+        if (acceptCompressed && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ContentDecoding.ACCEPT_ENCODING);
+        }
+
         ApiAuthorizationSetting auth = setting.getAuthorization();
         if (auth != null && auth.getAuthType() != null) {
             switch (auth.getAuthType()) {
@@ -7,8 +7,11 @@ import com.company.dynamicds.apisetting.enums.ApiAuthType;
 import com.company.dynamicds.apisetting.enums.ApiKeyPlacement;
 import com.company.dynamicds.utils.validation.StringValidation;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -26,12 +29,19 @@ import java.util.List;
 public class UriBuilder {
 
     public URI buildUri(ApiSetting setting) {
+        return buildUri(setting, null);
+    }
+
+    /**
+     * Giống buildUri(setting) nhưng ghi đè thêm các query parameter của riêng lần gọi này
+     * (ví dụ offset/limit khi phân trang).
+     */
+    public URI buildUri(ApiSetting setting, @Nullable MultiValueMap<String, String> extraParams) {
         if (Boolean.TRUE.equals(setting.getUseRawUrl()) && StringValidation.isNotNullOrEmpty(setting.getFinalUrl())) {
-            URI uriEncode = UriComponentsBuilder
-                    .fromUriString(setting.getFinalUrl())
+            URI uriEncode = applyExtraParams(UriComponentsBuilder.fromUriString(setting.getFinalUrl())
                     .encode(StandardCharsets.UTF_8)
                     .build()
-                    .toUri();
+                    .toUri(), extraParams);
             log.debug("Built URI: {}", uriEncode);
             return uriEncode;
         }
@@ -60,10 +70,29 @@ public class UriBuilder {
             uriBuilder.queryParam(auth.getApiKeyName(), auth.getApiKeyValue());
         }
 
-        URI uriEncode = uriBuilder.build()
+        URI uriEncode = applyExtraParams(uriBuilder.build()
                 .encode(StandardCharsets.UTF_8)
-                .toUri();
+                .toUri(), extraParams);
         log.debug("Built URI: {}", uriEncode);
         return uriEncode;
     }
+
+    /**
+     * Tham số của lần gọi (filter, cursor...) là dữ liệu, không phải template: mọi ký tự ngoài unreserved
+     * đều được encode ('+' không bị upstream đọc thành dấu cách, '{' '}' không bị coi là biến URI).
+     */
+    private URI applyExtraParams(URI uri, @Nullable MultiValueMap<String, String> extraParams) {
+        if (extraParams == null || extraParams.isEmpty()) {
+            return uri;
+        }
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUri(uri);
+        extraParams.forEach((key, values) -> {
+            if (StringValidation.isNotNullOrEmpty(key)) {
+                builder.replaceQueryParam(UriUtils.encode(key, StandardCharsets.UTF_8), values.stream()
+                        .map(value -> value != null ? UriUtils.encode(value, StandardCharsets.UTF_8) : null)
+                        .toArray());
+            }
+        });
+        return builder.build(true).toUri();
+    }
 }
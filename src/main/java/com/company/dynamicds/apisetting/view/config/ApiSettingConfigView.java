@@ -2,6 +2,7 @@ package com.company.dynamicds.apisetting.view.config;
 
 import com.vaadin.flow.component.AbstractField;
 import com.vaadin.flow.component.ClickEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.router.Route;
 import com.company.dynamicds.apisetting.dto.ApiResponse;
 import com.company.dynamicds.apisetting.entity.ApiAuthorizationSetting;
@@ -123,22 +124,22 @@ public class ApiSettingConfigView extends StandardDetailView<ApiSetting> {
         ApiSetting apiSetting = apiSettingDc.getItemOrNull();
         sendButton.setEnabled(false);
         sendButton.setText("Sending...");
-        try {
-            log.info("Sending request to: {}", apiSetting.getFinalUrl());
-
-            // Send request
-            ApiResponse response = apiExecutorService.sendRequest(apiSetting);
-
-            // Handle response
-            apiResponseFragment.displayResponse(response);
-
-        } catch (Exception e) {
-            log.error("Failed to send request", e);
-            notifications.create("Request Failed", e.getMessage()).withType(Notifications.Type.ERROR).show();
-        } finally {
-            sendButton.setEnabled(true);
-            sendButton.setText("Send");
-        }
+        log.info("Sending request to: {}", apiSetting.getFinalUrl());
+
+        // Request chạy trên ApiAsyncExecutor, thread của UI không bị giữ; kết quả hiển thị qua UI.access (@Push)
+        UI ui = UI.getCurrent();
+        apiExecutorService.sendRequestAsync(apiSetting)
+                .whenComplete((response, error) -> ui.access(() -> {
+                    if (error != null) {
+                        log.error("Failed to send request", error);
+                        notifications.create("Request Failed", error.getMessage()).withType(Notifications.Type.ERROR).show();
+                    } else {
+                        // Handle response
+                        apiResponseFragment.displayResponse(response);
+                    }
+                    sendButton.setEnabled(true);
+                    sendButton.setText("Send");
+                }));
     }
 
 //    @Subscribe("useRawUrlField")
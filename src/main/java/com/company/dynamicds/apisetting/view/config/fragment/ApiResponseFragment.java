@@ -122,8 +122,11 @@ public class ApiResponseFragment extends Fragment<VerticalLayout> {
         timeLabel.setText("Time: " + response.getDurationMs() + " ms");
         timeLabel.setVisible(true);
 
-        // Hiển thị kích thước phản hồi
-        String size = formatBytes(response.getBodyBytes() != null ? response.getBodyBytes().length : 0);
+        // Hiển thị kích thước phản hồi; response nén hiển thị thêm kích thước trên đường truyền
+        String size = formatBytes(response.getBodySize());
+        if (response.getContentEncoding() != null) {
+            size += " (" + response.getContentEncoding() + ": " + formatBytes(response.getWireSize()) + ")";
+        }
         sizeLabel.setText("Size: " + size);
         sizeLabel.setVisible(true);
     }
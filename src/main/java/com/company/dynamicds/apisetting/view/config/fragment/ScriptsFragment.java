@@ -1,9 +1,11 @@
 package com.company.dynamicds.apisetting.view.config.fragment;
 
+import com.company.dynamicds.apisetting.enums.ScriptBindingMode;
 import com.vaadin.flow.component.AbstractField;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import io.jmix.flowui.component.codeeditor.CodeEditor;
 import io.jmix.flowui.component.listbox.JmixListBox;
+import io.jmix.flowui.component.select.JmixSelect;
 import io.jmix.flowui.fragment.Fragment;
 import io.jmix.flowui.fragment.FragmentDescriptor;
 import io.jmix.flowui.view.Subscribe;
@@ -26,6 +28,8 @@ public class ScriptsFragment extends Fragment<HorizontalLayout> {
     private CodeEditor postResponseEditor;
     @ViewComponent
     private CodeEditor preRequestEditor;
+    @ViewComponent
+    private JmixSelect<ScriptBindingMode> scriptBindingModeField;
 
 
     @Subscribe(target = Target.HOST_CONTROLLER)
@@ -39,6 +43,7 @@ public class ScriptsFragment extends Fragment<HorizontalLayout> {
     public void onScriptListBoxComponentValueChange(final AbstractField.ComponentValueChangeEvent<JmixListBox<?>, ?> event) {
         preRequestEditor.setVisible(event.getValue().equals("Pre-request"));
         postResponseEditor.setVisible(event.getValue().equals("Post-response"));
+        scriptBindingModeField.setVisible(event.getValue().equals("Post-response"));
 
 
 
@@ -1,5 +1,6 @@
 package com.company.dynamicds.config;
 
+import com.company.dynamicds.apisetting.service.HttpClientRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
@@ -7,8 +8,9 @@ import org.springframework.web.client.RestClient;
 @Configuration
 public class RestClientConfiguration {
 
+    // Client mặc định (pool + timeout theo dynamicds.http.*); lời gọi của dynamic store dùng HttpClientRegistry.clientFor
     @Bean
-    public RestClient restClient() {
-        return RestClient.builder().build();
+    public RestClient restClient(HttpClientRegistry httpClientRegistry) {
+        return httpClientRegistry.clientFor(null);
     }
 }
@@ -1,5 +1,6 @@
 package com.company.dynamicds.dynamicds;
 
+import com.company.dynamicds.dynamicds.query.DynamicQuery;
 import io.jmix.core.LoadContext;
 import io.jmix.core.SaveContext;
 import io.jmix.core.ValueLoadContext;
@@ -18,19 +19,29 @@ public class DynamicDataStore extends AbstractDataStore {
 
     @Override
     protected Object loadOne(LoadContext<?> context) {
-        return null;
+        String entityName = context.getEntityMetaClass().getName();
+        if (context.getId() == null) {
+            List<Object> entities = loadAll(context);
+            return entities.isEmpty() ? null : entities.get(0);
+        }
+        return dynamicKeyValueRestInvoker.loadOne(storeName, entityName, context.getId());
     }
 
     @Override
     protected List<Object> loadAll(LoadContext<?> context) {
         String entityName = context.getEntityMetaClass().getName();
-        List<KeyValueEntity> entities = dynamicKeyValueRestInvoker.loadList(storeName, entityName);
+        if (context.getIds() != null && !context.getIds().isEmpty()) {
+            return new ArrayList<>(dynamicKeyValueRestInvoker.loadByIds(storeName, entityName, context.getIds()));
+        }
+        List<KeyValueEntity> entities = dynamicKeyValueRestInvoker.loadList(storeName, entityName,
+                DynamicQuery.of(context.getQuery()));
         return new ArrayList<>(entities);
     }
 
     @Override
     protected long countAll(LoadContext<?> context) {
-        return 0;
+        String entityName = context.getEntityMetaClass().getName();
+        return dynamicKeyValueRestInvoker.count(storeName, entityName, DynamicQuery.of(context.getQuery()));
     }
 
     @Override
@@ -43,6 +54,11 @@ public class DynamicDataStore extends AbstractDataStore {
         return Set.of();
     }
 
+    /**
+     * Value query (KeyValue loader với query chọn property) chưa được hỗ trợ: giữ nguyên hành vi cũ là danh sách rỗng
+     * và count = 0. Màn hình cần dữ liệu của dynamic store dùng load delegate chuyển sang LoadContext của entity
+     * (xem ManageMetadataView) hoặc loadList / getCount trên entity.
+     */
     @Override
     protected List<Object> loadAllValues(ValueLoadContext context) {
         return List.of();
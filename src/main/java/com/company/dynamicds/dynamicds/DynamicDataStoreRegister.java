@@ -1,6 +1,10 @@
 package com.company.dynamicds.dynamicds;
 
+import com.company.dynamicds.apisetting.service.HttpClientRegistry;
 import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.dynamicds.metadata.DynamicMetadataRegistry;
+import com.company.dynamicds.repository.MetadataDefinitionRepository;
 import io.jmix.core.Stores;
 import io.jmix.core.impl.StoreDescriptorsRegistry;
 import io.jmix.core.metamodel.model.Store;
@@ -11,6 +15,8 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -23,6 +29,9 @@ public class DynamicDataStoreRegister {
     private final ApplicationContext applicationContext;
     private final StoreDescriptorsRegistry storeDescriptorsRegistry;
     private final Stores stores;
+    private final MetadataDefinitionRepository metadataDefinitionRepository;
+    private final DynamicMetadataRegistry metadataRegistry;
+    private final HttpClientRegistry httpClientRegistry;
 
     private final Map<String, DynamicDataStore> registeredStores = new ConcurrentHashMap<>();
 
@@ -69,6 +78,23 @@ public class DynamicDataStoreRegister {
 
         log.info(" Registered DynamicDataStore '{}' (beanName={}, descriptor={})",
                 storeName, storeBeanName, descriptor.getClass().getSimpleName());
+
+        // 6. Mở sẵn connection tới các upstream của store
+        if (!Boolean.FALSE.equals(config.getHttpPrewarm())) {
+            prewarmConnections(storeName);
+        }
+    }
+
+    private void prewarmConnections(String storeName) {
+        List<String> urls = new ArrayList<>();
+        for (MetadataDefinition definition : metadataDefinitionRepository.findByStoreName(storeName)) {
+            try {
+                urls.add(metadataRegistry.get(storeName, definition.getName()).getEffectiveUrl());
+            } catch (RuntimeException e) {
+                log.debug("Skip pre-warming {}/{}: {}", storeName, definition.getName(), e.getMessage());
+            }
+        }
+        httpClientRegistry.prewarm(storeName, urls);
     }
 
     public DynamicDataStore getStore(String storeName) {
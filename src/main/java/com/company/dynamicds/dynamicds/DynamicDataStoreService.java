@@ -18,6 +18,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -31,14 +32,24 @@ public class DynamicDataStoreService {
     // Method mới - chỉ generate fields, không save
     public List<MetadataField> generateFieldsFromApi(String url) throws RuntimeException {
         log.info("Calling API to generate metadata fields from URL: {}", url);
+        return parseFieldsFromResponse(apiExecutorService.sendRequest(rawGetSetting(url)));
+    }
+
+    // Như generateFieldsFromApi nhưng không chặn thread của caller (UI) trong lúc chờ API
+    public CompletableFuture<List<MetadataField>> generateFieldsFromApiAsync(String url) {
+        log.info("Calling API asynchronously to generate metadata fields from URL: {}", url);
+        return apiExecutorService.sendRequestAsync(rawGetSetting(url)).thenApply(this::parseFieldsFromResponse);
+    }
 
+    private ApiSetting rawGetSetting(String url) {
         ApiSetting setting = dataManager.create(ApiSetting.class);
         setting.setUseRawUrl(true);
         setting.setFinalUrl(url);
         setting.setHttpMethod(HttpMethodType.GET);
+        return setting;
+    }
 
-        ApiResponse response = apiExecutorService.sendRequest(setting);
-
+    private List<MetadataField> parseFieldsFromResponse(ApiResponse response) {
         if (!response.isSuccess()) {
             throw new RuntimeException("API call failed: " + response.getStatusText());
         }
@@ -85,7 +96,11 @@ public class DynamicDataStoreService {
 
         // Generate fields từ API
         List<MetadataField> fields = generateFieldsFromApi(metadataDefinition.getUrl());
+        return applyGeneratedFields(metadataDefinition, fields);
+    }
 
+    // Gắn các field đã generate vào entity hiện tại (không save)
+    public MetadataDefinition applyGeneratedFields(MetadataDefinition metadataDefinition, List<MetadataField> fields) {
         // Luôn tạo list mới để tránh null pointer
         List<MetadataField> newFields = new ArrayList<>();
 
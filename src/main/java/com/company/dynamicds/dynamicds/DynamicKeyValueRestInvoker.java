@@ -1,97 +1,1002 @@
 package com.company.dynamicds.dynamicds;
 
-import com.company.dynamicds.apisetting.dto.ApiResponse;
+import com.company.dynamicds.apisetting.dto.RequestOverrides;
+import com.company.dynamicds.apisetting.dto.StreamedApiResponse;
 import com.company.dynamicds.apisetting.entity.ApiSetting;
 import com.company.dynamicds.apisetting.enums.HttpMethodType;
 import com.company.dynamicds.apisetting.service.ApiExecutorService;
+import com.company.dynamicds.dynamicds.batch.IdLoadBatcher;
+import com.company.dynamicds.dynamicds.cache.DynamicResultCache;
+import com.company.dynamicds.dynamicds.cache.ResultCacheKey;
+import com.company.dynamicds.dynamicds.crawl.PageCrawler;
+import com.company.dynamicds.dynamicds.entity.CountStrategy;
 import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
-import com.company.dynamicds.dynamicds.entity.MetadataField;
-import com.company.dynamicds.repository.MetadataDefinitionRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jmix.core.DataManager;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.entity.PaginationType;
+import com.company.dynamicds.dynamicds.metadata.CompiledMetadata;
+import com.company.dynamicds.dynamicds.metadata.DynamicMetadataRegistry;
+import com.company.dynamicds.dynamicds.parser.DynamicEntityJsonParser;
+import com.company.dynamicds.dynamicds.parser.DynamicEntityPage;
+import com.company.dynamicds.dynamicds.query.DynamicQuery;
+import com.company.dynamicds.dynamicds.query.DynamicQueryPlanner;
+import com.company.dynamicds.dynamicds.query.QueryPlan;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotQueryEngine;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotPersistenceStore;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotSpillStore;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotTable;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotVersion;
+import com.company.dynamicds.dynamicds.snapshot.SortIndex;
+import com.company.dynamicds.utils.validation.StringValidation;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import io.jmix.core.entity.KeyValueEntity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DynamicKeyValueRestInvoker {
 
+    private static final int CURSOR_CACHE_SIZE = 1000;
+    private static final int SNAPSHOT_PAGE_SIZE = 500;
+    private static final String DEFAULT_COUNT_HEADER = "X-Total-Count";
+    private static final String SNAPSHOT_KEY = "*";
+    private static final String SNAPSHOT_TABLE_KEY = "*table";
+    private static final String WATERMARK_PLACEHOLDER = "{watermark}";
+    private static final String ID_PLACEHOLDER = "{id}";
+    private static final String IDS_PLACEHOLDER = "{ids}";
+    private static final Duration DEFAULT_FULL_SYNC_INTERVAL = Duration.ofHours(24);
+    // Một link trong header Link (RFC 5988): <uri>; rel="next"; ...
+    private static final Pattern LINK_PATTERN = Pattern.compile("<([^>]*)>((?:\\s*;\\s*[^;,]+)*)");
+    private static final Pattern REL_NEXT_PATTERN = Pattern.compile("(?i)rel\\s*=\\s*\"?[^\";,]*\\bnext\\b");
+
     private final ApiExecutorService apiExecutorService;
-    private final ObjectMapper objectMapper;
-    private final DynamicMetaClassFactory dynamicMetaClassFactory;
-    private final MetadataDefinitionRepository metadataDefinitionRepository;
-    private final DataManager dataManager;
+    private final DynamicEntityJsonParser entityJsonParser;
+    private final DynamicMetadataRegistry metadataRegistry;
+    private final DynamicResultCache resultCache;
+    private final DynamicQueryPlanner queryPlanner;
+    private final SnapshotQueryEngine snapshotQueryEngine;
+    private final SnapshotSpillStore spillStore;
+    private final SnapshotPersistenceStore persistenceStore;
+    private final IdLoadBatcher idLoadBatcher;
+    private final PageCrawler pageCrawler;
+
+    // Cursor/next-link đã gặp: "definitionId/query/pageSize/offset" -> cursor của trang bắt đầu tại offset đó
+    private final Map<String, String> cursorCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > CURSOR_CACHE_SIZE;
+                }
+            });
+
+    // "store/entity" -> lần đồng bộ đầy đủ gần nhất; chưa có (kể cả sau khởi động) -> lần tải kế tiếp là đầy đủ
+    private final Map<String, Instant> fullSyncs = new ConcurrentHashMap<>();
 
     public List<KeyValueEntity> loadList(String dataStoreName, String entityName) throws RuntimeException {
+        return loadList(dataStoreName, entityName, DynamicQuery.all());
+    }
+
+    /**
+     * Load theo condition / sort / firstResult / maxResults của Jmix (maxResults = 0: không giới hạn).
+     * Filter và sort có mapping được đẩy xuống upstream; khi không còn gì phải xử lý cục bộ thì phân trang cũng được
+     * đẩy xuống theo PaginationType. Khi không có gì đẩy xuống được (upstream chỉ trả "tất cả") query chạy trên
+     * snapshot dạng cột đã cache, không gọi API cho mỗi lần lọc / sort / chuyển trang.
+     * Ngược lại mọi trang của kết quả đã lọc ở upstream được tải về, lọc tiếp ngay khi parse, sort và cắt trang
+     * (được cache theo query).
+     * Entity có key field thì key được gắn làm id của từng KeyValueEntity trả về.
+     */
+    public List<KeyValueEntity> loadList(String dataStoreName, String entityName, DynamicQuery query) throws RuntimeException {
+        CompiledMetadata compiled = metadataRegistry.get(dataStoreName, entityName);
+        List<KeyValueEntity> items = loadItems(compiled, query);
+        // Item trong DynamicResultCache dùng chung giữa các session -> mỗi request nhận bản sao riêng
+        List<KeyValueEntity> result = new ArrayList<>(items.size());
+        for (KeyValueEntity item : items) {
+            KeyValueEntity copy = copyOf(item, compiled.getFieldNames());
+            result.add(compiled.getKeyField() != null ? withId(copy, compiled.getKeyField()) : copy);
+        }
+        return result;
+    }
 
-        MetadataDefinition metadata = metadataDefinitionRepository.findByNameAndStoreName(entityName, dataStoreName)
-                .orElseThrow(() -> new IllegalStateException("No metadata found for " + dataStoreName + "/" + entityName));
+    private List<KeyValueEntity> loadItems(CompiledMetadata compiled, DynamicQuery query) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        QueryPlan plan = queryPlanner.plan(compiled, query);
+        PaginationType paginationType = paginationTypeOf(metadata);
 
-        ApiSetting apiSetting = convertMetadataToApiSetting(metadata);
-        ApiResponse response = apiExecutorService.sendRequest(apiSetting);
+        if (paginationType == PaginationType.NONE || !plan.isFullyPushedDown()) {
+            if (plan.getQueryParams().isEmpty()) {
+                return snapshotQueryEngine.query(loadSnapshotTable(compiled), query);
+            }
+            return slice(loadSnapshot(metadata, plan), query.getFirstResult(), query.getMaxResults());
+        }
 
-        if (!response.isSuccess()) {
-            throw new RuntimeException("API call failed: " + response.getStatusText());
+        int firstResult = query.getFirstResult();
+        int maxResults = query.getMaxResults();
+        if (maxResults <= 0) {
+            // Không yêu cầu phân trang -> một request không kèm tham số trang
+            return resultCache.get(cacheKey(metadata, plan, ""), fieldNames(metadata),
+                    () -> fetchPage(metadata, plan, RequestOverrides.none()).getItems());
+        }
+        return resultCache.get(cacheKey(metadata, plan, "firstResult=" + firstResult + "&maxResults=" + maxResults),
+                fieldNames(metadata),
+                () -> loadPage(metadata, plan, paginationType, firstResult, maxResults));
+    }
+
+    /**
+     * Một bản ghi theo key field (MetadataField.keyField): tra hash index của snapshot đã cache, O(1).
+     * Không có trong snapshot đang cache (hoặc chưa có snapshot): metadata khai báo idsParam / idsBodyTemplate
+     * -> các lookup đồng thời của cùng entity được gom thành một request nhiều id (IdLoadBatcher);
+     * chỉ có itemUrl ("/items/{id}") -> gọi thẳng endpoint theo id; không có gì -> tải snapshot.
+     *
+     * @return null nếu không tìm thấy hoặc entity không khai báo key field
+     */
+    @Nullable
+    public KeyValueEntity loadOne(String dataStoreName, String entityName, Object id) throws RuntimeException {
+        CompiledMetadata compiled = metadataRegistry.get(dataStoreName, entityName);
+        String keyField = compiled.getKeyField();
+        if (keyField == null) {
+            log.debug("No key field declared for {}/{}, loadOne is not supported", dataStoreName, entityName);
+            return null;
+        }
+
+        SnapshotTable table = snapshotForIds(compiled);
+        if (table != null) {
+            int row = table.getKeyIndex(keyField).find(id);
+            if (row >= 0) {
+                return withId(table.getRow(row), keyField);
+            }
+        }
+        if (hasIdsEndpoint(compiled.getDefinition())) {
+            return idLoadBatcher.load(dataStoreName + "/" + entityName, id, ids -> fetchItems(compiled, ids));
+        }
+        return StringValidation.isNotNullOrEmpty(compiled.getDefinition().getItemUrl()) ? fetchItem(compiled, id) : null;
+    }
+
+    /**
+     * Nhiều bản ghi theo key field (LoadContext có ids), theo thứ tự của ids, id không tìm thấy bị bỏ qua.
+     * Id có trong snapshot đang cache lấy từ hash index; phần còn lại đi một request cho mỗi batch
+     * (idsParam / idsBodyTemplate) hoặc từng request theo itemUrl.
+     */
+    public List<KeyValueEntity> loadByIds(String dataStoreName, String entityName, Collection<?> ids) throws RuntimeException {
+        CompiledMetadata compiled = metadataRegistry.get(dataStoreName, entityName);
+        String keyField = compiled.getKeyField();
+        if (keyField == null) {
+            log.debug("No key field declared for {}/{}, load by ids is not supported", dataStoreName, entityName);
+            return List.of();
+        }
+
+        Map<Object, KeyValueEntity> found = new LinkedHashMap<>();
+        List<Object> missing = new ArrayList<>();
+        SnapshotTable table = snapshotForIds(compiled);
+        for (Object id : ids) {
+            int row = table != null ? table.getKeyIndex(keyField).find(id) : -1;
+            if (row >= 0) {
+                found.put(id, withId(table.getRow(row), keyField));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty() && hasIdsEndpoint(compiled.getDefinition())) {
+            int batchSize = idLoadBatcher.getMaxBatchSize();
+            for (int from = 0; from < missing.size(); from += batchSize) {
+                found.putAll(fetchItems(compiled, missing.subList(from, Math.min(from + batchSize, missing.size()))));
+            }
+        } else if (!missing.isEmpty() && StringValidation.isNotNullOrEmpty(compiled.getDefinition().getItemUrl())) {
+            for (Object id : missing) {
+                KeyValueEntity entity = fetchItem(compiled, id);
+                if (entity != null) {
+                    found.put(id, entity);
+                }
+            }
+        }
+
+        List<KeyValueEntity> result = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            KeyValueEntity entity = found.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot đang cache; chưa có và không có endpoint theo id nào -> tải snapshot (một lần cho mọi lookup sau).
+     */
+    @Nullable
+    private SnapshotTable snapshotForIds(CompiledMetadata compiled) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        SnapshotTable table = resultCache.peekSnapshot(snapshotTableKey(metadata));
+        if (table == null && !hasIdsEndpoint(metadata) && StringValidation.isNullOrEmpty(metadata.getItemUrl())) {
+            table = loadSnapshotTable(compiled);
+        }
+        return table;
+    }
+
+    private boolean hasIdsEndpoint(MetadataDefinition metadata) {
+        return StringValidation.isNotNullOrEmpty(metadata.getIdsParam())
+                || StringValidation.isNotNullOrEmpty(metadata.getIdsBodyTemplate());
+    }
+
+    public long count(String dataStoreName, String entityName) throws RuntimeException {
+        return count(dataStoreName, entityName, DynamicQuery.all());
+    }
+
+    /**
+     * Đếm số bản ghi theo CountStrategy của MetadataDefinition mà không dựng entity nào:
+     * count endpoint, field total trong envelope hoặc header (X-Total-Count) của một trang tối thiểu,
+     * kèm các filter đã đẩy xuống upstream.
+     * SNAPSHOT và query có filter cục bộ dùng lại kết quả đầy đủ đã cache (cùng snapshot với loadList).
+     */
+    public long count(String dataStoreName, String entityName, DynamicQuery query) throws RuntimeException {
+        CompiledMetadata compiled = metadataRegistry.get(dataStoreName, entityName);
+        MetadataDefinition metadata = compiled.getDefinition();
+        QueryPlan plan = queryPlanner.plan(compiled, query);
+        CountStrategy strategy = Optional.ofNullable(metadata.getCountStrategy()).orElse(CountStrategy.SNAPSHOT);
+        if (plan.getQueryParams().isEmpty() && (plan.getLocalFilter() != null || strategy == CountStrategy.SNAPSHOT)) {
+            return snapshotQueryEngine.count(loadSnapshotTable(compiled), query);
+        }
+        if (plan.getLocalFilter() != null) {
+            return loadSnapshot(metadata, plan).size();
         }
 
-        return parseJsonToEntities(response.getBodyText(), metadata.getMetadataFields());
+        return switch (strategy) {
+            case COUNT_ENDPOINT -> countFromEndpoint(metadata, plan);
+            case TOTAL_PATH -> countFromTotalPath(metadata, plan);
+            case RESPONSE_HEADER -> countFromHeader(metadata, plan);
+            case SNAPSHOT -> loadSnapshot(metadata, plan).size();
+        };
     }
 
+    /**
+     * Request đã resolve sẵn trong metadata registry (ApiSetting được liên kết hoặc GET trần từ url).
+     * Bản trả về dùng chung giữa các lần load, không được sửa.
+     */
     public ApiSetting convertMetadataToApiSetting(MetadataDefinition metadata) {
-        ApiSetting setting = dataManager.create(ApiSetting.class);
-        setting.setFinalUrl(metadata.getUrl());
-        setting.setHttpMethod(HttpMethodType.GET);
-        setting.setUseRawUrl(true);
-        return setting;
+        return compiledOf(metadata).getApiSetting();
+    }
+
+    private List<KeyValueEntity> loadPage(MetadataDefinition metadata, QueryPlan plan, PaginationType paginationType,
+                                          int firstResult, int maxResults) {
+        return switch (paginationType) {
+            case OFFSET_LIMIT -> fetchPage(metadata, plan, offsetLimitOverrides(metadata, firstResult, maxResults)).getItems();
+            case PAGE_SIZE -> loadByPageNumber(metadata, plan, firstResult, maxResults);
+            default -> loadByCursor(metadata, plan, paginationType, firstResult, maxResults);
+        };
+    }
+
+    private List<KeyValueEntity> loadSnapshot(MetadataDefinition metadata, QueryPlan plan) {
+        PaginationType paginationType = paginationTypeOf(metadata);
+        return resultCache.get(cacheKey(metadata, plan, SNAPSHOT_KEY), fieldNames(metadata), () -> {
+            List<KeyValueEntity> items = paginationType == PaginationType.NONE
+                    ? fetchPage(metadata, plan, RequestOverrides.none()).getItems()
+                    : loadAllPages(metadata, plan, paginationType);
+            if (plan.getLocalSort() != null) {
+                items.sort(plan.getLocalSort());
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Snapshot dạng cột của entity. Lần đầu sau khởi động dùng bản đã lưu trên đĩa (nếu có) và tải bản mới
+     * ở background; các lần sau tải từ upstream khi cache miss, kèm validator của bản đã lưu (conditional GET).
+     * Entity có lịch làm mới (refreshIntervalSeconds / refreshCron) dùng stale-while-revalidate: snapshot quá TTL
+     * vẫn được trả về ngay trong khi bản mới được tải ở background.
+     */
+    private SnapshotTable loadSnapshotTable(CompiledMetadata compiled) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        ResultCacheKey key = snapshotTableKey(metadata);
+        return resultCache.getSnapshot(key, () -> {
+            String fingerprint = snapshotFingerprint(compiled);
+            SnapshotTable persisted = persistenceStore.restore(metadata.getStoreName(), metadata.getName(), fingerprint);
+            if (persisted != null) {
+                resultCache.refreshSnapshot(key, () -> fetchSnapshotTable(compiled, persisted));
+                return persisted;
+            }
+            return fetchSnapshotTable(compiled, previousSnapshot(key, compiled));
+        }, isScheduledRefresh(metadata));
+    }
+
+    /**
+     * Tải lại snapshot của entity từ upstream (conditional GET theo bản hiện có) và thay vào cache,
+     * query đang chạy vẫn đọc bản cũ tới khi xong. Dùng cho làm mới theo lịch.
+     *
+     * @return snapshot mới (hoặc bản cũ với version mới khi upstream trả 304)
+     */
+    public SnapshotTable refreshSnapshotTable(String dataStoreName, String entityName) throws RuntimeException {
+        CompiledMetadata compiled = metadataRegistry.get(dataStoreName, entityName);
+        MetadataDefinition metadata = compiled.getDefinition();
+        ResultCacheKey key = snapshotTableKey(metadata);
+        SnapshotTable table = fetchSnapshotTable(compiled, previousSnapshot(key, compiled));
+        resultCache.putSnapshot(key, table, isScheduledRefresh(metadata));
+        return table;
     }
 
-    private List<KeyValueEntity> parseJsonToEntities(String rawJson, List<MetadataField> fields) {
+    @Nullable
+    private SnapshotTable previousSnapshot(ResultCacheKey key, CompiledMetadata compiled) {
+        SnapshotTable cached = resultCache.peekSnapshot(key);
+        if (cached != null) {
+            return cached;
+        }
+        MetadataDefinition metadata = compiled.getDefinition();
+        return persistenceStore.find(metadata.getStoreName(), metadata.getName(), snapshotFingerprint(compiled));
+    }
+
+    private ResultCacheKey snapshotTableKey(MetadataDefinition metadata) {
+        return cacheKey(metadata, QueryPlan.none(), SNAPSHOT_TABLE_KEY);
+    }
+
+    private boolean isScheduledRefresh(MetadataDefinition metadata) {
+        return (metadata.getRefreshIntervalSeconds() != null && metadata.getRefreshIntervalSeconds() > 0)
+                || !StringValidation.isNullOrEmpty(metadata.getRefreshCron());
+    }
+
+    /**
+     * Bản mới của snapshot: delta sync khi metadata khai báo watermark, key field và đã có previous,
+     * ngược lại (hoặc tới hạn fullSyncIntervalSeconds) tải đầy đủ để bắt cả các dòng đã bị xoá ở upstream.
+     */
+    private SnapshotTable fetchSnapshotTable(CompiledMetadata compiled, @Nullable SnapshotTable previous) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        String syncKey = metadata.getStoreName() + "/" + metadata.getName();
+        if (previous != null && isDeltaSyncEnabled(compiled) && !isFullSyncDue(metadata, fullSyncs.get(syncKey))) {
+            String watermark = watermarkOf(previous, metadata.getWatermarkField());
+            if (watermark != null) {
+                return fetchSnapshotDelta(compiled, previous, watermark);
+            }
+        }
+        SnapshotTable table = fetchFullSnapshotTable(compiled, previous);
+        fullSyncs.put(syncKey, Instant.now());
+        return table;
+    }
+
+    /**
+     * Chỉ tải các dòng mới hơn watermark (deltaParamTemplate) rồi merge vào previous theo key field.
+     */
+    private SnapshotTable fetchSnapshotDelta(CompiledMetadata compiled, SnapshotTable previous, String watermark) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        PaginationType paginationType = paginationTypeOf(metadata);
+        QueryPlan delta = deltaPlan(metadata, watermark);
+        Instant fetchedAt = Instant.now();
+
+        List<KeyValueEntity> changed = paginationType == PaginationType.NONE
+                ? fetchPage(metadata, delta, RequestOverrides.none()).getItems()
+                : loadAllPages(metadata, delta, paginationType);
+        SnapshotVersion version = new SnapshotVersion(fetchedAt, previous.getVersion().etag(),
+                previous.getVersion().lastModified());
+        log.debug("Snapshot {}/{} delta since {}: {} changed rows", metadata.getStoreName(), metadata.getName(),
+                watermark, changed.size());
+        if (changed.isEmpty()) {
+            return previous.withVersion(version);
+        }
+
+        SnapshotTable table = previous.merge(compiled.getFieldTypes(), compiled.getKeyField(), changed, version);
+        persistenceStore.save(metadata.getStoreName(), metadata.getName(), snapshotFingerprint(compiled), table);
+        return spillStore.spill(metadata.getStoreName() + "_" + metadata.getName(), table);
+    }
+
+    private boolean isDeltaSyncEnabled(CompiledMetadata compiled) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        return compiled.getKeyField() != null
+                && StringValidation.isNotNullOrEmpty(metadata.getWatermarkField())
+                && StringValidation.isNotNullOrEmpty(metadata.getDeltaParamTemplate())
+                && compiled.getFieldTypes().containsKey(metadata.getWatermarkField().trim());
+    }
+
+    private boolean isFullSyncDue(MetadataDefinition metadata, @Nullable Instant lastFullSync) {
+        if (lastFullSync == null) {
+            return true;
+        }
+        Duration interval = metadata.getFullSyncIntervalSeconds() != null && metadata.getFullSyncIntervalSeconds() > 0
+                ? Duration.ofSeconds(metadata.getFullSyncIntervalSeconds())
+                : DEFAULT_FULL_SYNC_INTERVAL;
+        return lastFullSync.plus(interval).isBefore(Instant.now());
+    }
+
+    /**
+     * Giá trị lớn nhất của watermark field trong snapshot (theo SortIndex), null nếu cột trống.
+     * Số nguyên lưu ở cột double được ghi không kèm phần thập phân.
+     */
+    @Nullable
+    private String watermarkOf(SnapshotTable table, String watermarkField) {
+        String field = watermarkField.trim();
+        SortIndex index = table.getSortIndex(field);
+        if (index == null || index.getNonNullCount() == 0) {
+            return null;
+        }
+        Object value = table.getColumn(field).get(index.getOrder()[index.getNonNullCount() - 1]);
+        if (value instanceof Double number && number == Math.rint(number) && !number.isInfinite()) {
+            return String.valueOf(number.longValue());
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Query param của deltaParamTemplate ("updatedSince={watermark}&amp;order=asc") với watermark đã thay vào;
+     * template chỉ có tên param ("updatedSince") -> updatedSince=&lt;watermark&gt;.
+     */
+    private QueryPlan deltaPlan(MetadataDefinition metadata, String watermark) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        for (String part : metadata.getDeltaParamTemplate().trim().split("&")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int separator = part.indexOf('=');
+            if (separator < 0) {
+                params.add(part.trim(), watermark);
+            } else {
+                params.add(part.substring(0, separator).trim(),
+                        part.substring(separator + 1).trim().replace(WATERMARK_PLACEHOLDER, watermark));
+            }
+        }
+        return new QueryPlan(params, null, null, "delta:" + params);
+    }
+
+    /**
+     * Tải snapshot từ upstream. Khi có previous và upstream không phân trang, request được gửi kèm
+     * If-None-Match / If-Modified-Since theo version của previous; 304 -> dùng lại previous, không tải / parse lại.
+     * Upstream phân trang luôn được tải đầy đủ vì validator của trang đầu không đại diện cho các trang sau.
+     */
+    private SnapshotTable fetchFullSnapshotTable(CompiledMetadata compiled, @Nullable SnapshotTable previous) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        PaginationType paginationType = paginationTypeOf(metadata);
+        QueryPlan all = QueryPlan.none();
+        Instant fetchedAt = Instant.now();
+
+        // Ghi từng trang vào cột rồi bỏ entity của trang, không giữ toàn bộ danh sách trong lúc dựng
+        SnapshotTable.Builder builder = SnapshotTable.builder(compiled.getFieldTypes());
+        DynamicEntityPage first;
+        if (paginationType == PaginationType.NONE) {
+            first = fetchPage(metadata, all, conditionalOverrides(previous));
+            if (first.isNotModified() && previous != null) {
+                SnapshotVersion version = previous.getVersion();
+                log.debug("Snapshot {}/{} not modified", metadata.getStoreName(), metadata.getName());
+                return previous.withVersion(new SnapshotVersion(fetchedAt,
+                        Optional.ofNullable(first.getEtag()).orElse(version.etag()),
+                        Optional.ofNullable(first.getLastModified()).orElse(version.lastModified())));
+            }
+            builder.addAll(first.getItems());
+        } else {
+            first = forEachPage(metadata, all, paginationType, page -> builder.addAll(page.getItems()));
+        }
+        SnapshotTable table = builder
+                .version(new SnapshotVersion(fetchedAt, first.getEtag(), first.getLastModified()))
+                .build();
+
+        persistenceStore.save(metadata.getStoreName(), metadata.getName(), snapshotFingerprint(compiled), table);
+        return spillStore.spill(metadata.getStoreName() + "_" + metadata.getName(), table);
+    }
+
+    private RequestOverrides conditionalOverrides(@Nullable SnapshotTable previous) {
+        if (previous == null) {
+            return RequestOverrides.none();
+        }
+        SnapshotVersion version = previous.getVersion();
+        return RequestOverrides.builder()
+                .ifNoneMatch(version.etag())
+                .ifModifiedSince(version.lastModified())
+                .build();
+    }
+
+    private List<KeyValueEntity> loadAllPages(MetadataDefinition metadata, QueryPlan plan, PaginationType paginationType) {
+        List<KeyValueEntity> all = new ArrayList<>();
+        forEachPage(metadata, plan, paginationType, page -> all.addAll(page.getItems()));
+        return all;
+    }
+
+    /**
+     * Đi qua mọi trang của upstream bằng PageCrawler; điều kiện dừng dựa trên số item upstream trả về
+     * (trước filter cục bộ). Phân trang theo số trang / offset được tải song song khi upstream báo tổng số bản ghi
+     * (countPath / countHeader ở trang đầu hoặc count endpoint), cursor / next-link được tải trước một trang.
+     *
+     * @return trang đầu tiên (mang ETag / Last-Modified của response)
+     */
+    private DynamicEntityPage forEachPage(MetadataDefinition metadata, QueryPlan plan, PaginationType paginationType,
+                                          Consumer<DynamicEntityPage> pageConsumer) {
+        ApiSetting apiSetting = convertMetadataToApiSetting(metadata);
+        int pageSize = crawlPageSizeOf(metadata);
+
+        if (isCursorBased(paginationType)) {
+            requireNextPath(metadata, paginationType);
+            return pageCrawler.crawlLinked(metadata.getStoreName(), metadata.getName(),
+                    (cursor, nextListener) -> fetchPage(metadata, apiSetting, plan,
+                            cursorOverrides(metadata, paginationType, cursor, pageSize), nextListener),
+                    page -> nextCursor(metadata, paginationType, page),
+                    pageConsumer);
+        }
+
+        int startIndex = metadata.getPageStartIndex() != null ? metadata.getPageStartIndex() : 0;
+        return pageCrawler.crawlIndexed(metadata.getStoreName(), metadata.getName(), pageSize,
+                metadata.getCrawlParallelism(),
+                index -> fetchPage(metadata, apiSetting, plan, paginationType == PaginationType.OFFSET_LIMIT
+                        ? offsetLimitOverrides(metadata, index * pageSize, pageSize)
+                        : pageSizeOverrides(metadata, startIndex + index, pageSize)),
+                first -> crawlTotal(metadata, plan, first),
+                pageConsumer);
+    }
+
+    /**
+     * Tổng số bản ghi cho crawl song song: từ trang đầu (countPath / countHeader), hoặc count endpoint khi
+     * crawl được phép song song; null nếu không biết (crawl chỉ tải trước một trang).
+     */
+    @Nullable
+    private Long crawlTotal(MetadataDefinition metadata, QueryPlan plan, DynamicEntityPage first) {
+        if (first.getTotal() != null) {
+            return first.getTotal();
+        }
+        if (metadata.getCountStrategy() != CountStrategy.COUNT_ENDPOINT
+                || (metadata.getCrawlParallelism() != null && metadata.getCrawlParallelism() <= 1)) {
+            return null;
+        }
         try {
-            JsonNode root = objectMapper.readTree(rawJson);
-            List<KeyValueEntity> result = new ArrayList<>();
+            return countFromEndpoint(metadata, plan);
+        } catch (RuntimeException e) {
+            log.debug("Count endpoint of {}/{} unavailable, crawling without total: {}",
+                    metadata.getStoreName(), metadata.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private int crawlPageSizeOf(MetadataDefinition metadata) {
+        Integer pageSize = metadata.getCrawlPageSize();
+        return pageSize != null && pageSize > 0 ? pageSize : SNAPSHOT_PAGE_SIZE;
+    }
+
+    /**
+     * Cursor của trang sau: header Link (LINK_HEADER) hoặc giá trị nextPath trong envelope.
+     */
+    @Nullable
+    private String nextCursor(MetadataDefinition metadata, PaginationType paginationType, DynamicEntityPage page) {
+        return paginationType == PaginationType.LINK_HEADER
+                ? page.getNextLink()
+                : page.getEnvelopeValue(metadata.getNextPath());
+    }
 
-            if (!root.isArray()) {
-                throw new RuntimeException("Expected JSON array but got: " + root);
+    private List<KeyValueEntity> loadByPageNumber(MetadataDefinition metadata, QueryPlan plan,
+                                                  int firstResult, int maxResults) {
+        int startIndex = metadata.getPageStartIndex() != null ? metadata.getPageStartIndex() : 0;
+        int page = firstResult / maxResults;
+        int skip = firstResult % maxResults;
+
+        // firstResult không chia hết cho maxResults -> cần thêm trang kế tiếp để đủ maxResults
+        List<KeyValueEntity> result = new ArrayList<>(maxResults);
+        while (result.size() < maxResults) {
+            List<KeyValueEntity> items = fetchPage(metadata, plan,
+                    pageSizeOverrides(metadata, page + startIndex, maxResults)).getItems();
+            addRange(result, items, skip, maxResults);
+            if (items.size() < maxResults) {
+                break;
             }
+            skip = 0;
+            page++;
+        }
+        return result;
+    }
 
-            for (JsonNode item : root) {
-                KeyValueEntity entity = dataManager.create(KeyValueEntity.class);
+    private List<KeyValueEntity> loadByCursor(MetadataDefinition metadata, QueryPlan plan, PaginationType paginationType,
+                                              int firstResult, int maxResults) {
+        requireNextPath(metadata, paginationType);
 
-                for (MetadataField field : fields) {
-                    String fieldName = field.getName();
-                    JsonNode valueNode = item.get(fieldName);
+        // Nếu đã biết cursor của trang bắt đầu tại firstResult thì nhảy thẳng tới, nếu không phải đi từ đầu
+        int offset = 0;
+        String cursor = null;
+        if (firstResult > 0) {
+            String known = cursorCache.get(cursorKey(metadata, plan, maxResults, firstResult));
+            if (known != null) {
+                cursor = known;
+                offset = firstResult;
+            }
+        }
+
+        List<KeyValueEntity> result = new ArrayList<>(maxResults);
+        while (result.size() < maxResults) {
+            DynamicEntityPage page = fetchPage(metadata, plan, cursorOverrides(metadata, paginationType, cursor, maxResults));
+            List<KeyValueEntity> items = page.getItems();
+            addRange(result, items, Math.max(0, firstResult - offset), maxResults);
+            offset += items.size();
 
-                    if (valueNode != null && !valueNode.isNull()) {
-                        Object value;
+            String next = nextCursor(metadata, paginationType, page);
+            if (items.isEmpty() || StringValidation.isNullOrEmpty(next)) {
+                break;
+            }
+            cursorCache.put(cursorKey(metadata, plan, maxResults, offset), next);
+            cursor = next;
+        }
+        return result;
+    }
 
-                        if (valueNode.isArray() || valueNode.isObject()) {
-                            // Convert array/object to JSON string
-                            value = objectMapper.writeValueAsString(valueNode);
-                        } else {
-                            // Convert normally
-                            value = objectMapper.convertValue(valueNode, field.getFieldType().getJavaClass());
-                        }
+    /**
+     * Một request cho nhiều id trên url của entity: GET kèm idsParam=a,b,c hoặc POST với idsBodyTemplate
+     * ({ids} được thay bằng JSON array). Response có cùng dạng với danh sách (itemsPath, post-response script).
+     *
+     * @return id đã yêu cầu -> entity, id không có trong response bị bỏ qua
+     */
+    private Map<Object, KeyValueEntity> fetchItems(CompiledMetadata compiled, List<Object> ids) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        String keyField = compiled.getKeyField();
 
-                        entity.setValue(fieldName, value);
-                    }
-                }
+        DynamicEntityPage page;
+        if (StringValidation.isNotNullOrEmpty(metadata.getIdsBodyTemplate())) {
+            ApiSetting apiSetting = metadataRegistry.resolveApiSetting(metadata.getApiSetting() != null
+                    ? compiled.getApiSetting() : null, compiled.getEffectiveUrl());
+            apiSetting.setHttpMethod(HttpMethodType.POST);
+            ArrayNode idArray = JsonNodeFactory.instance.arrayNode();
+            ids.forEach(id -> idArray.add(id instanceof Number number
+                    ? JsonNodeFactory.instance.numberNode(new BigDecimal(number.toString()))
+                    : JsonNodeFactory.instance.textNode(String.valueOf(id))));
+            String body = metadata.getIdsBodyTemplate().trim().replace(IDS_PLACEHOLDER, idArray.toString());
+            page = fetchPage(metadata, apiSetting, QueryPlan.none(), RequestOverrides.builder().jsonBody(body).build());
+        } else {
+            MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+            params.set(metadata.getIdsParam().trim(), ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            page = fetchPage(metadata, QueryPlan.none(), RequestOverrides.builder().queryParams(params).build());
+        }
 
-                result.add(entity);
+        // Khớp id yêu cầu với key trả về theo dạng chuẩn hoá (42, 42L, "42" là cùng một id)
+        Map<String, KeyValueEntity> byKey = new HashMap<>();
+        for (KeyValueEntity entity : page.getItems()) {
+            Object key = SnapshotTable.normalizeKey(entity.getValue(keyField));
+            if (key != null) {
+                byKey.putIfAbsent(key.toString(), withId(entity, keyField));
+            }
+        }
+        Map<Object, KeyValueEntity> result = new LinkedHashMap<>();
+        for (Object id : ids) {
+            KeyValueEntity entity = byKey.get(String.valueOf(SnapshotTable.normalizeKey(id)));
+            if (entity != null) {
+                result.put(id, entity);
+            }
+        }
+        log.debug("Loaded {}/{} ids of {}/{} in one request", result.size(), ids.size(),
+                metadata.getStoreName(), metadata.getName());
+        return result;
+    }
+
+    @Nullable
+    private KeyValueEntity fetchItem(CompiledMetadata compiled, Object id) {
+        MetadataDefinition metadata = compiled.getDefinition();
+        String path = metadata.getItemUrl().trim()
+                .replace(ID_PLACEHOLDER, URLEncoder.encode(String.valueOf(id), StandardCharsets.UTF_8));
+        // itemUrl có thể là URL tương đối so với url của entity
+        String url = URI.create(compiled.getEffectiveUrl()).resolve(path).toString();
+
+        // Cùng header / auth với request chính nhưng không chạy post-response script (response là một object)
+        ApiSetting apiSetting = metadataRegistry.resolveApiSetting(metadata.getApiSetting() != null
+                ? compiled.getApiSetting() : null, url);
+        apiSetting.setHttpMethod(HttpMethodType.GET);
+        apiSetting.setApiBody(null);
+        apiSetting.setPostResponseScript(null);
+
+        return apiExecutorService.sendRequestStreaming(apiSetting, forStore(metadata, RequestOverrides.none()), response -> {
+            if (response.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                return null;
+            }
+            ensureSuccess(response);
+            KeyValueEntity entity;
+            try {
+                entity = entityJsonParser.parseItem(response.getBody(), compiled.getFieldTypes());
+            } catch (RuntimeException e) {
+                throw parseFailure(metadata, e);
+            }
+            return entity != null ? withId(entity, compiled.getKeyField()) : null;
+        });
+    }
+
+    private KeyValueEntity copyOf(KeyValueEntity entity, List<String> fieldNames) {
+        KeyValueEntity copy = new KeyValueEntity();
+        for (String fieldName : fieldNames) {
+            Object value = entity.getValue(fieldName);
+            if (value != null) {
+                copy.setValue(fieldName, value);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Gắn key field làm id của KeyValueEntity để EntityValues.getId / dataManager.load(...).id(...) dùng được.
+     */
+    private KeyValueEntity withId(KeyValueEntity entity, String keyField) {
+        Object id = entity.getValue(keyField);
+        entity.setIdName(keyField);
+        entity.setId(id);
+        return entity;
+    }
+
+    private long countFromEndpoint(MetadataDefinition metadata, QueryPlan plan) {
+        if (StringValidation.isNullOrEmpty(metadata.getCountUrl())) {
+            throw new IllegalStateException("Count url is required for " + metadata.getStoreName() + "/" + metadata.getName());
+        }
+        // Cùng header / auth với request chính nhưng không chạy post-response script (response khác shape)
+        ApiSetting apiSetting = metadataRegistry.resolveApiSetting(metadata.getApiSetting() != null
+                ? convertMetadataToApiSetting(metadata) : null, metadata.getCountUrl());
+        apiSetting.setHttpMethod(HttpMethodType.GET);
+        apiSetting.setApiBody(null);
+        apiSetting.setPostResponseScript(null);
+
+        // Không có countPath -> body chính là con số
+        String countPath = Objects.toString(metadata.getCountPath(), "");
+        RequestOverrides overrides = forStore(metadata, withPlanParams(plan, RequestOverrides.none()));
+        return apiExecutorService.sendRequestStreaming(apiSetting, overrides, response -> {
+            ensureSuccess(response);
+            Map<String, String> values = entityJsonParser.parseEnvelope(response.getBody(), List.of(countPath));
+            return parseCount(values.get(DynamicEntityJsonParser.normalizePath(countPath)), metadata);
+        });
+    }
+
+    private long countFromTotalPath(MetadataDefinition metadata, QueryPlan plan) {
+        if (StringValidation.isNullOrEmpty(metadata.getCountPath())) {
+            throw new IllegalStateException("Count path is required for " + metadata.getStoreName() + "/" + metadata.getName());
+        }
+        ApiSetting apiSetting = convertMetadataToApiSetting(metadata);
+
+        // items của trang bị skip khi parse, chỉ đọc field total
+        RequestOverrides overrides = forStore(metadata, withPlanParams(plan, smallestPageOverrides(metadata)));
+        return apiExecutorService.sendRequestStreaming(apiSetting, overrides, response -> {
+            ensureSuccess(response);
+            Map<String, String> values = entityJsonParser.parseEnvelope(response.getBody(), List.of(metadata.getCountPath()));
+            return parseCount(values.get(DynamicEntityJsonParser.normalizePath(metadata.getCountPath())), metadata);
+        });
+    }
+
+    private long countFromHeader(MetadataDefinition metadata, QueryPlan plan) {
+        String headerName = paramName(metadata.getCountHeader(), DEFAULT_COUNT_HEADER);
+        ApiSetting apiSetting = convertMetadataToApiSetting(metadata);
+
+        // Body không được đọc
+        RequestOverrides overrides = forStore(metadata, withPlanParams(plan, smallestPageOverrides(metadata)));
+        return apiExecutorService.sendRequestStreaming(apiSetting, overrides, response -> {
+            ensureSuccess(response);
+            return parseCount(response.getHeaders().getFirst(headerName), metadata);
+        });
+    }
+
+    private RequestOverrides smallestPageOverrides(MetadataDefinition metadata) {
+        PaginationType paginationType = paginationTypeOf(metadata);
+        return switch (paginationType) {
+            case NONE -> RequestOverrides.none();
+            case OFFSET_LIMIT -> offsetLimitOverrides(metadata, 0, 1);
+            case PAGE_SIZE -> pageSizeOverrides(metadata,
+                    metadata.getPageStartIndex() != null ? metadata.getPageStartIndex() : 0, 1);
+            default -> cursorOverrides(metadata, paginationType, null, 1);
+        };
+    }
+
+    private long parseCount(String value, MetadataDefinition metadata) {
+        if (StringValidation.isNullOrEmpty(value)) {
+            throw new IllegalStateException("Count value not found for " + metadata.getStoreName() + "/" + metadata.getName());
+        }
+        try {
+            return new BigDecimal(value.trim()).longValue();
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid count value '" + value + "' for "
+                    + metadata.getStoreName() + "/" + metadata.getName(), e);
+        }
+    }
+
+    private RequestOverrides offsetLimitOverrides(MetadataDefinition metadata, int offset, int limit) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.set(paramName(metadata.getPageParam(), "offset"), String.valueOf(offset));
+        params.set(paramName(metadata.getSizeParam(), "limit"), String.valueOf(limit));
+        return RequestOverrides.builder().queryParams(params).build();
+    }
+
+    private RequestOverrides pageSizeOverrides(MetadataDefinition metadata, int page, int size) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.set(paramName(metadata.getPageParam(), "page"), String.valueOf(page));
+        params.set(paramName(metadata.getSizeParam(), "size"), String.valueOf(size));
+        return RequestOverrides.builder().queryParams(params).build();
+    }
+
+    private RequestOverrides cursorOverrides(MetadataDefinition metadata, PaginationType paginationType,
+                                             String cursor, int maxResults) {
+        if ((paginationType == PaginationType.NEXT_LINK || paginationType == PaginationType.LINK_HEADER) && cursor != null) {
+            // next-link có thể là URL tương đối
+            return RequestOverrides.builder().uri(URI.create(compiledOf(metadata).getEffectiveUrl()).resolve(cursor)).build();
+        }
+
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.set(paramName(metadata.getSizeParam(), "limit"), String.valueOf(maxResults));
+        if (cursor != null) {
+            params.set(paramName(metadata.getPageParam(), "cursor"), cursor);
+        }
+        return RequestOverrides.builder().queryParams(params).build();
+    }
+
+    /**
+     * Filter / sort đã đẩy xuống + tham số trang của lần gọi (tham số trang ghi đè nếu trùng tên).
+     * Next-link (uri tuyệt đối) đã mang sẵn query của upstream nên giữ nguyên.
+     */
+    private RequestOverrides withPlanParams(QueryPlan plan, RequestOverrides overrides) {
+        if (plan.getQueryParams().isEmpty() || overrides.getUri() != null) {
+            return overrides;
+        }
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>(plan.getQueryParams());
+        params.putAll(overrides.getQueryParams());
+        return overrides.toBuilder().queryParams(params).build();
+    }
+
+    /**
+     * Lời gọi chạy trên HTTP client (pool, timeout) riêng của store sở hữu entity.
+     */
+    private RequestOverrides forStore(MetadataDefinition metadata, RequestOverrides overrides) {
+        return overrides.toBuilder().storeName(metadata.getStoreName()).build();
+    }
+
+    private DynamicEntityPage fetchPage(MetadataDefinition metadata, QueryPlan plan, RequestOverrides overrides) {
+        return fetchPage(metadata, convertMetadataToApiSetting(metadata), plan, overrides);
+    }
+
+    private DynamicEntityPage fetchPage(MetadataDefinition metadata, ApiSetting apiSetting, QueryPlan plan,
+                                        RequestOverrides overrides) {
+        return fetchPage(metadata, apiSetting, plan, overrides, null);
+    }
+
+    /**
+     * @param nextLinkListener nhận next-link của header Link ngay khi có header, trước khi body được parse
+     */
+    private DynamicEntityPage fetchPage(MetadataDefinition metadata, ApiSetting apiSetting, QueryPlan plan,
+                                        RequestOverrides overrides, @Nullable Consumer<String> nextLinkListener) {
+        Map<String, MetadataFieldType> fieldTypes = compiledOf(metadata).getFieldTypes();
+        List<String> envelopePaths = new ArrayList<>(2);
+        if (StringValidation.isNotNullOrEmpty(metadata.getNextPath())) {
+            envelopePaths.add(metadata.getNextPath());
+        }
+        if (metadata.getCountStrategy() == CountStrategy.TOTAL_PATH && StringValidation.isNotNullOrEmpty(metadata.getCountPath())) {
+            envelopePaths.add(metadata.getCountPath());
+        }
+
+        // Parse thẳng từ InputStream của response, không giữ toàn bộ body trong heap
+        // Filter cục bộ chạy ngay khi parse từng item, item không khớp không được giữ lại
+        return apiExecutorService.sendRequestStreaming(apiSetting, forStore(metadata, withPlanParams(plan, overrides)), response -> {
+            HttpHeaders headers = Optional.ofNullable(response.getHeaders()).orElse(HttpHeaders.EMPTY);
+            String etag = headers.getETag();
+            String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+            if (response.isNotModified() && overrides.isConditional()) {
+                return DynamicEntityPage.notModified(etag, lastModified);
+            }
+            ensureSuccess(response);
+            String nextLink = nextLinkOf(headers);
+            if (nextLinkListener != null && nextLink != null) {
+                nextLinkListener.accept(nextLink);
+            }
+            DynamicEntityPage page;
+            try {
+                page = entityJsonParser.parsePage(response.getBody(), fieldTypes,
+                                metadata.getItemsPath(), envelopePaths, plan.getLocalFilter())
+                        .withValidators(etag, lastModified);
+            } catch (RuntimeException e) {
+                throw parseFailure(metadata, e);
             }
+            return page.withPaging(nextLink, totalOf(metadata, headers, page));
+        });
+    }
 
-            return result;
+    /**
+     * URI của link rel="next" trong header Link (RFC 5988), null nếu không có.
+     */
+    @Nullable
+    private String nextLinkOf(HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(HttpHeaders.LINK)) {
+            Matcher matcher = LINK_PATTERN.matcher(value);
+            while (matcher.find()) {
+                if (REL_NEXT_PATTERN.matcher(matcher.group(2)).find()) {
+                    return matcher.group(1).trim();
+                }
+            }
+        }
+        return null;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Error parsing JSON to entity list", e);
+    /**
+     * Tổng số bản ghi upstream báo kèm trang (countPath trong envelope / countHeader), null nếu không có.
+     */
+    @Nullable
+    private Long totalOf(MetadataDefinition metadata, HttpHeaders headers, DynamicEntityPage page) {
+        String value = switch (Optional.ofNullable(metadata.getCountStrategy()).orElse(CountStrategy.SNAPSHOT)) {
+            case TOTAL_PATH -> page.getEnvelopeValue(metadata.getCountPath());
+            case RESPONSE_HEADER -> headers.getFirst(paramName(metadata.getCountHeader(), DEFAULT_COUNT_HEADER));
+            default -> null;
+        };
+        if (StringValidation.isNullOrEmpty(value)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim()).longValue();
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
+    private RuntimeException parseFailure(MetadataDefinition metadata, RuntimeException cause) {
+        return new RuntimeException("Cannot parse response of " + metadata.getStoreName() + "/" + metadata.getName()
+                + ": " + cause.getMessage(), cause);
+    }
 
+    private void ensureSuccess(StreamedApiResponse response) {
+        if (!response.isSuccess()) {
+            throw new RuntimeException("API call failed: " + response.getStatusText());
+        }
+    }
+
+    private CompiledMetadata compiledOf(MetadataDefinition metadata) {
+        return metadataRegistry.get(metadata.getStoreName(), metadata.getName());
+    }
+
+    private ResultCacheKey cacheKey(MetadataDefinition metadata, QueryPlan plan, String queryParams) {
+        String planKey = plan.getCacheKey();
+        return new ResultCacheKey(metadata.getStoreName(), metadata.getName(),
+                compiledOf(metadata).getEffectiveUrl(), planKey.isEmpty() ? queryParams : queryParams + "?" + planKey);
+    }
+
+    /**
+     * Đổi url, field hoặc kiểu field -> fingerprint khác, snapshot đã lưu với metadata cũ không được dùng lại.
+     */
+    private String snapshotFingerprint(CompiledMetadata compiled) {
+        return Integer.toHexString((compiled.getEffectiveUrl() + "|" + compiled.getFieldTypes()).hashCode());
+    }
+
+    private List<String> fieldNames(MetadataDefinition metadata) {
+        return compiledOf(metadata).getFieldNames();
+    }
+
+    private PaginationType paginationTypeOf(MetadataDefinition metadata) {
+        return Optional.ofNullable(metadata.getPaginationType()).orElse(PaginationType.NONE);
+    }
+
+    private List<KeyValueEntity> slice(List<KeyValueEntity> items, int firstResult, int maxResults) {
+        if (firstResult <= 0 && (maxResults <= 0 || maxResults >= items.size())) {
+            return items;
+        }
+        int from = Math.min(Math.max(firstResult, 0), items.size());
+        int to = maxResults > 0 ? Math.min(from + maxResults, items.size()) : items.size();
+        return items.subList(from, to);
+    }
+
+    private void addRange(List<KeyValueEntity> target, List<KeyValueEntity> items, int skip, int maxResults) {
+        for (int i = skip; i < items.size() && target.size() < maxResults; i++) {
+            target.add(items.get(i));
+        }
+    }
+
+    private String paramName(String configured, String defaultName) {
+        return StringValidation.isNotNullOrEmpty(configured) ? configured.trim() : defaultName;
+    }
+
+    private String cursorKey(MetadataDefinition metadata, QueryPlan plan, int pageSize, int offset) {
+        return metadata.getId() + "/" + plan.getCacheKey() + "/" + pageSize + "/" + offset;
+    }
+
+    private boolean isCursorBased(PaginationType paginationType) {
+        return paginationType == PaginationType.CURSOR || paginationType == PaginationType.NEXT_LINK
+                || paginationType == PaginationType.LINK_HEADER;
+    }
+
+    private void requireNextPath(MetadataDefinition metadata, PaginationType paginationType) {
+        if (paginationType != PaginationType.LINK_HEADER && StringValidation.isNullOrEmpty(metadata.getNextPath())) {
+            throw new IllegalStateException("Next path is required for " + paginationType
+                    + " pagination of " + metadata.getStoreName() + "/" + metadata.getName());
+        }
+    }
 }
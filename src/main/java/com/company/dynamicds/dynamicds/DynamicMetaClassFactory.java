@@ -1,13 +1,16 @@
 package com.company.dynamicds.dynamicds;
 
 import com.company.dynamicds.dynamicds.entity.MetadataField;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
 import io.jmix.core.Stores;
 import io.jmix.core.impl.keyvalue.KeyValueMetaClassFactory;
 import io.jmix.core.metamodel.model.MetaClass;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -17,17 +20,21 @@ public class DynamicMetaClassFactory {
     private final Stores stores;
 
     public MetaClass buildMetaClass(String entityName, List<MetadataField> fields, String storeName) {
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        for (MetadataField field : fields) {
+            fieldTypes.put(field.getName(), field.getFieldType() != null ? field.getFieldType() : MetadataFieldType.STRING);
+        }
+        return buildMetaClass(entityName, fieldTypes, storeName);
+    }
+
+    public MetaClass buildMetaClass(String entityName, Map<String, MetadataFieldType> fieldTypes, String storeName) {
         DynamicMetaClass dynamicMetaClass = new DynamicMetaClass();
         dynamicMetaClass.setName(entityName);
         dynamicMetaClass.setStore(stores.get(storeName));
         KeyValueMetaClassFactory.Configurer configurer =
                 keyValueMetaClassFactory.configurer(dynamicMetaClass);
 
-        for (MetadataField field : fields) {
-            String fieldName = field.getName();
-            Class<?> javaClass = field.getFieldType().getJavaClass();
-            configurer.addProperty(fieldName, javaClass);
-        }
+        fieldTypes.forEach((fieldName, type) -> configurer.addProperty(fieldName, type.getJavaClass()));
         return dynamicMetaClass;
     }
 }
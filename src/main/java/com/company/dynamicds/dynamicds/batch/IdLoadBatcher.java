@@ -0,0 +1,120 @@
+package com.company.dynamicds.dynamicds.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Gom các lần load theo id của cùng một entity trong một cửa sổ ngắn thành một lần gọi loader
+ * (một request "ids=a,b,c" tới upstream thay vì N request).
+ * - Lời gọi đầu tiên của batch là leader: chờ tối đa windowMs (hoặc tới khi batch đầy) rồi tự chạy loader
+ *   trên thread của mình, giữ nguyên security context của request; các lời gọi sau chỉ chờ kết quả
+ * - Id trùng trong cùng batch dùng chung một kết quả
+ * - Lỗi của loader được ném ra cho mọi lời gọi trong batch
+ * windowMs = 0 -> không gom, mỗi lời gọi chạy loader với đúng một id.
+ */
+@Slf4j
+@Component
+public class IdLoadBatcher {
+
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final Map<String, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public IdLoadBatcher(@Value("${dynamicds.id-batch.window-ms:5}") long windowMs,
+                         @Value("${dynamicds.id-batch.max-size:100}") int maxBatchSize) {
+        this.windowMs = windowMs;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @param batchKey id của các lời gọi có thể gom chung (store + entity)
+     * @param loader   nhận danh sách id không trùng, trả id (đúng object đã nhận) -> kết quả; id thiếu -> null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T load(String batchKey, Object id, Function<List<Object>, Map<Object, T>> loader) {
+        if (windowMs <= 0) {
+            return loader.apply(List.of(id)).get(id);
+        }
+
+        while (true) {
+            Batch batch = openBatches.computeIfAbsent(batchKey, key -> new Batch());
+            CompletableFuture<Object> future;
+            boolean leader;
+            synchronized (batch) {
+                if (batch.closed) {
+                    // Leader vừa lấy batch này đi -> vào batch kế tiếp
+                    continue;
+                }
+                leader = batch.futures.isEmpty();
+                future = batch.futures.computeIfAbsent(id, key -> new CompletableFuture<>());
+                if (batch.futures.size() >= maxBatchSize) {
+                    // Batch đầy -> đóng ngay để lời gọi sau mở batch mới, không chờ leader thức dậy
+                    batch.closed = true;
+                    openBatches.remove(batchKey, batch);
+                    batch.notifyAll();
+                }
+            }
+            if (leader) {
+                flush(batchKey, batch, loader);
+            }
+            return (T) join(future);
+        }
+    }
+
+    private void flush(String batchKey, Batch batch, Function<List<Object>, ? extends Map<Object, ?>> loader) {
+        List<Object> ids;
+        synchronized (batch) {
+            long deadline = System.nanoTime() + windowMs * 1_000_000;
+            long remaining;
+            while (batch.futures.size() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    batch.wait(Math.max(1, remaining / 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            batch.closed = true;
+            openBatches.remove(batchKey, batch);
+            ids = new ArrayList<>(batch.futures.keySet());
+        }
+
+        log.debug("Loading {} ids of {} in one batch", ids.size(), batchKey);
+        try {
+            Map<Object, ?> results = loader.apply(ids);
+            batch.futures.forEach((id, future) -> future.complete(results.get(id)));
+        } catch (RuntimeException e) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class Batch {
+        // Thứ tự id theo lần yêu cầu đầu tiên
+        private final Map<Object, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        private boolean closed;
+    }
+}
@@ -0,0 +1,345 @@
+package com.company.dynamicds.dynamicds.cache;
+
+import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotTable;
+import com.company.dynamicds.repository.DynamicDataStoreConfigRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.event.EntityChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache kết quả load của dynamic entity, key = (store, entity, URI, query params).
+ * Giá trị là danh sách entity (get) hoặc snapshot dạng cột cho query engine (getSnapshot).
+ * Mỗi store có một Caffeine cache riêng (W-TinyLFU, giới hạn theo TTL và dung lượng ước tính)
+ * cấu hình trên DynamicDataStoreConfig; giá trị mặc định lấy từ dynamicds.result-cache.*.
+ * Snapshot có thể được tải lại ở background (refreshSnapshot) trong khi vẫn trả về bản hiện có;
+ * snapshot stale-while-revalidate không hết hạn theo TTL mà được trả về ngay và tải lại ở background khi quá TTL.
+ * Stale-if-error: kết quả quá TTL còn được giữ thêm staleIfError; trong thời gian đó lần load sau vẫn gọi loader
+ * nhưng nếu loader lỗi (upstream lỗi, circuit breaker đang mở) thì bản cũ được trả về thay cho lỗi.
+ */
+@Slf4j
+@Component
+public class DynamicResultCache implements DisposableBean {
+
+    private static final long MB = 1024L * 1024L;
+    private static final Duration NEVER = Duration.ofNanos(Long.MAX_VALUE);
+
+    private final DynamicDataStoreConfigRepository configRepository;
+    private final Duration defaultTtl;
+    private final int defaultMaxSizeMb;
+    private final Duration defaultStaleIfError;
+
+    // Optional.empty() = cache bị tắt cho store đó
+    private final Map<String, Optional<Cache<ResultCacheKey, CachedResult>>> caches = new ConcurrentHashMap<>();
+    private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+    // Entry quá TTL còn giữ cho stale-if-error không qua getIfPresent -> miss được ghi tay vào counter của cache
+    private final Map<String, ConcurrentStatsCounter> statsCounters = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> staleServed = new ConcurrentHashMap<>();
+    private final Map<String, SingleFlight<ResultCacheKey, Object>> flights = new ConcurrentHashMap<>();
+    private final Set<ResultCacheKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor;
+
+    public DynamicResultCache(DynamicDataStoreConfigRepository configRepository,
+                              @Value("${dynamicds.result-cache.ttl:60s}") Duration defaultTtl,
+                              @Value("${dynamicds.result-cache.max-size-mb:64}") int defaultMaxSizeMb,
+                              @Value("${dynamicds.result-cache.refresh-threads:2}") int refreshThreads,
+                              @Value("${dynamicds.result-cache.stale-if-error:10m}") Duration defaultStaleIfError) {
+        this.configRepository = configRepository;
+        this.defaultTtl = defaultTtl;
+        this.defaultMaxSizeMb = defaultMaxSizeMb;
+        this.defaultStaleIfError = defaultStaleIfError;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.refreshExecutor = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "dynamicds-refresh-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Trả về kết quả đã cache hoặc gọi loader; properties dùng để ước tính dung lượng của kết quả.
+     * Các lời gọi đồng thời cùng key chỉ chạy loader một lần (single-flight), kể cả khi cache bị tắt.
+     * Loader lỗi trong khi còn bản quá TTL chưa hết hạn stale-if-error -> trả về bản đó.
+     */
+    public List<KeyValueEntity> get(ResultCacheKey key, Collection<String> properties,
+                                    Supplier<List<KeyValueEntity>> loader) {
+        return getOrLoad(key, () -> List.copyOf(loader.get()), items -> estimateWeight(items, properties), false);
+    }
+
+    public SnapshotTable getSnapshot(ResultCacheKey key, Supplier<SnapshotTable> loader) {
+        return getSnapshot(key, loader, false);
+    }
+
+    /**
+     * staleWhileRevalidate: snapshot quá TTL vẫn được trả về ngay, loader chạy ở background (refreshSnapshot)
+     * và bản mới thay vào cache khi xong; chỉ lần đầu (chưa có bản nào) phải chờ loader.
+     */
+    public SnapshotTable getSnapshot(ResultCacheKey key, Supplier<SnapshotTable> loader, boolean staleWhileRevalidate) {
+        Cache<ResultCacheKey, CachedResult> cache = cacheOf(key.storeName());
+        if (staleWhileRevalidate && cache != null) {
+            CachedResult cached = cache.getIfPresent(key);
+            if (cached != null && !isReleased(cached)) {
+                if (isStale(key, cached)) {
+                    refreshSnapshot(key, loader);
+                }
+                return (SnapshotTable) cached.value();
+            }
+        }
+        return getOrLoad(key, loader, SnapshotTable::estimateWeight, staleWhileRevalidate);
+    }
+
+    /**
+     * Snapshot hiện có trong cache (kể cả đã stale), không tính vào hit / miss.
+     */
+    @Nullable
+    public SnapshotTable peekSnapshot(ResultCacheKey key) {
+        Cache<ResultCacheKey, CachedResult> cache = existingCache(key.storeName());
+        CachedResult cached = cache != null ? cache.policy().getIfPresentQuietly(key) : null;
+        return cached != null && !isReleased(cached) ? (SnapshotTable) cached.value() : null;
+    }
+
+    /**
+     * Thay snapshot của key bằng bản mới (một lần put, query đang chạy vẫn dùng bản cũ tới khi xong).
+     */
+    public void putSnapshot(ResultCacheKey key, SnapshotTable table, boolean staleWhileRevalidate) {
+        Cache<ResultCacheKey, CachedResult> cache = cacheOf(key.storeName());
+        if (cache != null) {
+            cache.put(key, new CachedResult(table, table.estimateWeight(), System.nanoTime(), staleWhileRevalidate));
+        }
+    }
+
+    /**
+     * Tải lại snapshot ở background rồi thay vào cache; lời gọi hiện tại không chờ.
+     * Mỗi key chỉ có một lần refresh chạy cùng lúc, lỗi chỉ được log và bản cũ được giữ nguyên.
+     */
+    public void refreshSnapshot(ResultCacheKey key, Supplier<SnapshotTable> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                SnapshotTable table = loader.get();
+                Cache<ResultCacheKey, CachedResult> cache = cacheOf(key.storeName());
+                CachedResult current = cache != null ? cache.policy().getIfPresentQuietly(key) : null;
+                putSnapshot(key, table, current != null && current.staleWhileRevalidate());
+                log.debug("Snapshot {} refreshed ({} rows)", key, table.getRowCount());
+            } catch (RuntimeException e) {
+                log.warn("Background refresh of snapshot {} failed", key, e);
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getOrLoad(ResultCacheKey key, Supplier<T> loader, ToLongFunction<T> weigher,
+                            boolean staleWhileRevalidate) {
+        Cache<ResultCacheKey, CachedResult> cache = cacheOf(key.storeName());
+        if (cache != null) {
+            CachedResult cached = cache.policy().getIfPresentQuietly(key);
+            if (isFresh(key, cached)) {
+                // getIfPresent để Caffeine ghi nhận hit và lượt truy cập cho eviction
+                cache.getIfPresent(key);
+                return (T) cached.value();
+            }
+            statsCounterOf(key.storeName()).recordMisses(1);
+        }
+
+        // Loader (HTTP + parse) chạy ngoài cache.get(key, fn) để không giữ lock của Caffeine trong lúc gọi API
+        return (T) flightOf(key.storeName()).execute(key, () -> {
+            CachedResult stale = null;
+            if (cache != null) {
+                // Lời gọi trước có thể vừa xong giữa getIfPresent và execute
+                CachedResult cached = cache.policy().getIfPresentQuietly(key);
+                if (isFresh(key, cached)) {
+                    return cached.value();
+                }
+                stale = cached != null && !isReleased(cached) ? cached : null;
+            }
+
+            T value;
+            try {
+                value = loader.get();
+            } catch (RuntimeException e) {
+                if (stale == null) {
+                    throw e;
+                }
+                staleServed.computeIfAbsent(key.storeName(), name -> new LongAdder()).increment();
+                log.warn("Serving stale result of {} ({} s old) after load failure: {}", key,
+                        Duration.ofNanos(System.nanoTime() - stale.loadedAt()).toSeconds(), e.getMessage());
+                return stale.value();
+            }
+            if (cache != null) {
+                cache.put(key, new CachedResult(value, weigher.applyAsLong(value), System.nanoTime(), staleWhileRevalidate));
+            }
+            return value;
+        });
+    }
+
+    // Snapshot đã spill bị spill store bỏ để giải phóng đĩa -> coi như miss
+    private boolean isReleased(CachedResult cached) {
+        return cached.value() instanceof SnapshotTable table && table.isReleased();
+    }
+
+    private boolean isFresh(ResultCacheKey key, @Nullable CachedResult cached) {
+        return cached != null && !isReleased(cached) && (cached.staleWhileRevalidate() || !isStale(key, cached));
+    }
+
+    private boolean isStale(ResultCacheKey key, CachedResult cached) {
+        Duration ttl = ttls.getOrDefault(key.storeName(), defaultTtl);
+        return System.nanoTime() - cached.loadedAt() > ttl.toNanos();
+    }
+
+    public void invalidate(String storeName, String entityName) {
+        Cache<ResultCacheKey, CachedResult> cache = existingCache(storeName);
+        if (cache != null) {
+            cache.asMap().keySet().removeIf(key -> key.entityName().equals(entityName));
+        }
+        log.info("Result cache of {}/{} invalidated", storeName, entityName);
+    }
+
+    public void invalidateStore(String storeName) {
+        Cache<ResultCacheKey, CachedResult> cache = existingCache(storeName);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        log.info("Result cache of store '{}' invalidated", storeName);
+    }
+
+    public ResultCacheStats getStats(String storeName) {
+        SingleFlight<ResultCacheKey, Object> flight = flights.get(storeName);
+        long coalesced = flight != null ? flight.getCoalescedCount() : 0;
+        LongAdder served = staleServed.get(storeName);
+        long staleServedCount = served != null ? served.sum() : 0;
+
+        Cache<ResultCacheKey, CachedResult> cache = existingCache(storeName);
+        if (cache == null) {
+            return new ResultCacheStats(0, 0, 0, 0, 0, coalesced, staleServedCount);
+        }
+
+        CacheStats stats = cache.stats();
+        long weight = cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new ResultCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                cache.estimatedSize(), weight, coalesced, staleServedCount);
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @TransactionalEventListener
+    public void onStoreConfigChanged(EntityChangedEvent<DynamicDataStoreConfig> event) {
+        // Cấu hình cache đổi -> bỏ cache cũ, lần load sau sẽ dựng lại theo cấu hình mới
+        Set<String> storeNames = new HashSet<>();
+        String oldStoreName = event.getChanges().getOldValue("storeName");
+        if (oldStoreName != null) {
+            storeNames.add(oldStoreName);
+        }
+        if (event.getType() != EntityChangedEvent.Type.DELETED) {
+            configRepository.findById((UUID) event.getEntityId().getValue())
+                    .ifPresent(config -> storeNames.add(config.getStoreName()));
+        }
+        storeNames.forEach(caches::remove);
+    }
+
+    @Nullable
+    private Cache<ResultCacheKey, CachedResult> cacheOf(String storeName) {
+        return caches.computeIfAbsent(storeName, this::buildCache).orElse(null);
+    }
+
+    private ConcurrentStatsCounter statsCounterOf(String storeName) {
+        return statsCounters.computeIfAbsent(storeName, name -> new ConcurrentStatsCounter());
+    }
+
+    private SingleFlight<ResultCacheKey, Object> flightOf(String storeName) {
+        return flights.computeIfAbsent(storeName, name -> new SingleFlight<>());
+    }
+
+    @Nullable
+    private Cache<ResultCacheKey, CachedResult> existingCache(String storeName) {
+        Optional<Cache<ResultCacheKey, CachedResult>> cache = caches.get(storeName);
+        return cache != null ? cache.orElse(null) : null;
+    }
+
+    private Optional<Cache<ResultCacheKey, CachedResult>> buildCache(String storeName) {
+        DynamicDataStoreConfig config = configRepository.findByStoreName(storeName).orElse(null);
+        if (config != null && Boolean.FALSE.equals(config.getResultCacheEnabled())) {
+            log.info("Result cache disabled for store '{}'", storeName);
+            return Optional.empty();
+        }
+
+        Duration ttl = config != null && config.getResultCacheTtlSeconds() != null
+                ? Duration.ofSeconds(config.getResultCacheTtlSeconds())
+                : defaultTtl;
+        int maxSizeMb = config != null && config.getResultCacheMaxSizeMb() != null
+                ? config.getResultCacheMaxSizeMb()
+                : defaultMaxSizeMb;
+        Duration staleIfError = config != null && config.getResultCacheStaleIfErrorSeconds() != null
+                ? Duration.ofSeconds(Math.max(0, config.getResultCacheStaleIfErrorSeconds()))
+                : defaultStaleIfError;
+        Duration retention = ttl.plus(staleIfError);
+
+        log.info("Result cache for store '{}': ttl={}, staleIfError={}, maxSize={}MB", storeName, ttl, staleIfError, maxSizeMb);
+        ttls.put(storeName, ttl);
+        // Cache dựng lại theo cấu hình mới bắt đầu với số liệu mới
+        ConcurrentStatsCounter statsCounter = new ConcurrentStatsCounter();
+        statsCounters.put(storeName, statsCounter);
+        return Optional.of(Caffeine.newBuilder()
+                // Snapshot stale-while-revalidate chỉ bị thay bởi bản mới hoặc bị loại theo dung lượng
+                .expireAfter(Expiry.writing((ResultCacheKey key, CachedResult value) ->
+                        value.staleWhileRevalidate() ? NEVER : retention))
+                .maximumWeight(maxSizeMb * MB)
+                .weigher((ResultCacheKey key, CachedResult value) -> (int) Math.min(value.weight(), Integer.MAX_VALUE))
+                .recordStats(() -> statsCounter)
+                .build());
+    }
+
+    /**
+     * Ước tính dung lượng heap của kết quả: mỗi entity một HashMap, mỗi giá trị một node + object.
+     */
+    public static long estimateWeight(List<KeyValueEntity> items, Collection<String> properties) {
+        long weight = 16L + items.size() * 8L;
+        for (KeyValueEntity item : items) {
+            weight += 64;
+            for (String property : properties) {
+                Object value = item.getValue(property);
+                if (value == null) {
+                    continue;
+                }
+                weight += 32;
+                if (value instanceof String string) {
+                    weight += 40 + string.length();
+                } else if (!(value instanceof Boolean)) {
+                    weight += 16;
+                }
+            }
+        }
+        return weight;
+    }
+
+    private record CachedResult(Object value, long weight, long loadedAt, boolean staleWhileRevalidate) {
+    }
+}
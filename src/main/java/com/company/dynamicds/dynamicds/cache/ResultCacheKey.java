@@ -0,0 +1,7 @@
+package com.company.dynamicds.dynamicds.cache;
+
+/**
+ * Key của DynamicResultCache: store + entity + URI upstream + tham số query (đã chuẩn hoá thành chuỗi).
+ */
+public record ResultCacheKey(String storeName, String entityName, String uri, String queryParams) {
+}
@@ -0,0 +1,20 @@
+package com.company.dynamicds.dynamicds.cache;
+
+/**
+ * Số liệu cache kết quả của một store.
+ *
+ * @param staleServedCount số lần trả bản quá TTL vì load từ upstream lỗi (stale-if-error)
+ */
+public record ResultCacheStats(long hitCount,
+                               long missCount,
+                               long evictionCount,
+                               long entryCount,
+                               long weightBytes,
+                               long coalescedCount,
+                               long staleServedCount) {
+
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+}
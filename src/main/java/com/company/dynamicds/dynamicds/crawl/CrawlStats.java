@@ -0,0 +1,32 @@
+package com.company.dynamicds.dynamicds.crawl;
+
+import java.time.Instant;
+
+/**
+ * Số liệu của lần crawl gần nhất của một dynamic entity.
+ *
+ * @param items       số item upstream trả về (trước filter cục bộ)
+ * @param parallelism số request trang tối đa chạy đồng thời đã áp dụng
+ * @param totalKnown  upstream báo tổng số bản ghi -> các trang được tải song song
+ * @param pageP95Ms   độ trễ p95 của một trang (request + parse)
+ */
+public record CrawlStats(String storeName,
+                         String entityName,
+                         Instant finishedAt,
+                         int pages,
+                         long items,
+                         long durationMs,
+                         int parallelism,
+                         boolean totalKnown,
+                         long pageAvgMs,
+                         long pageP95Ms,
+                         long pageMaxMs) {
+
+    public double itemsPerSecond() {
+        return durationMs == 0 ? items : items * 1000.0 / durationMs;
+    }
+
+    public double pagesPerSecond() {
+        return durationMs == 0 ? pages : pages * 1000.0 / durationMs;
+    }
+}
@@ -0,0 +1,250 @@
+package com.company.dynamicds.dynamicds.crawl;
+
+import com.company.dynamicds.dynamicds.parser.DynamicEntityPage;
+import com.company.dynamicds.utils.validation.StringValidation;
+import io.jmix.core.security.SystemAuthenticator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Tải mọi trang của một upstream có phân trang, các trang được trao cho consumer đúng thứ tự trên thread của caller
+ * (consumer ghi thẳng vào snapshot, không cần thread-safe):
+ * - phân trang theo số trang / offset và upstream báo tổng số bản ghi ở trang đầu -> các trang còn lại được tải
+ *   song song, tối đa parallelism request cùng lúc (cửa sổ trượt, chỉ giữ tối đa parallelism trang trong heap)
+ * - chưa biết tổng -> tải trước trang N+1 trong lúc trang N được xử lý
+ * - cursor / next-link: trang sau chỉ biết khi có trang trước; trang sau được tải trong lúc consumer xử lý trang
+ *   hiện tại, luôn chỉ một request đang chạy và một trang đang chờ trong heap
+ * Request của các trang chạy trên pool riêng (dynamicds.crawl.threads) với quyền system như refresh ở background;
+ * parallelism mặc định (khi MetadataDefinition không cấu hình) lấy từ dynamicds.crawl.parallelism.
+ * Số liệu (throughput, độ trễ từng trang) của lần crawl gần nhất mỗi entity: getStats.
+ */
+@Slf4j
+@Component
+public class PageCrawler implements DisposableBean {
+
+    private final SystemAuthenticator systemAuthenticator;
+    private final ExecutorService executor;
+    private final int defaultParallelism;
+    private final Map<String, CrawlStats> stats = new ConcurrentHashMap<>();
+
+    public PageCrawler(SystemAuthenticator systemAuthenticator,
+                       @Value("${dynamicds.crawl.threads:8}") int threads,
+                       @Value("${dynamicds.crawl.parallelism:4}") int defaultParallelism) {
+        this.systemAuthenticator = systemAuthenticator;
+        this.defaultParallelism = Math.max(1, defaultParallelism);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "dynamicds-crawl-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lấy trang của upstream phân trang theo cursor / next-link.
+     */
+    @FunctionalInterface
+    public interface LinkedPageFetcher {
+
+        /**
+         * @param cursor       null cho trang đầu
+         * @param nextListener được gọi khi biết cursor trang sau trước khi parse body (header Link), có thể không gọi;
+         *                     chỉ ghi nhận cursor, request của trang sau do crawlLinked gửi
+         */
+        DynamicEntityPage fetch(@Nullable String cursor, Consumer<String> nextListener);
+    }
+
+    /**
+     * Crawl upstream phân trang theo số trang / offset: trang index (tính từ 0) do fetcher tự đổi ra tham số request.
+     * Dừng khi một trang trả về ít hơn pageSize item.
+     *
+     * @param totalOf tổng số bản ghi theo trang đầu, null nếu upstream không báo
+     * @return trang đầu tiên (mang ETag / Last-Modified của response)
+     */
+    public DynamicEntityPage crawlIndexed(String storeName, String entityName, int pageSize, @Nullable Integer parallelism,
+                                          IntFunction<DynamicEntityPage> fetcher,
+                                          Function<DynamicEntityPage, Long> totalOf,
+                                          Consumer<DynamicEntityPage> pageConsumer) {
+        Crawl crawl = new Crawl(storeName, entityName,
+                parallelism != null && parallelism > 0 ? parallelism : defaultParallelism);
+        Deque<CompletableFuture<DynamicEntityPage>> window = new ArrayDeque<>();
+        try {
+            DynamicEntityPage first = crawl.timed(() -> fetcher.apply(0));
+            pageConsumer.accept(first);
+            if (first.getItemCount() < pageSize) {
+                return first;
+            }
+
+            Long total = totalOf.apply(first);
+            crawl.totalKnown = total != null;
+            long pageCount = total != null ? (total + pageSize - 1) / pageSize : -1;
+
+            int next = 1;
+            while (true) {
+                // Trong phạm vi tổng đã biết: tải song song; vượt quá tổng (dữ liệu vừa tăng): từng trang một;
+                // chưa biết tổng: tải trước một trang
+                while (window.size() < windowSize(next, pageCount, crawl.parallelism)) {
+                    int index = next++;
+                    window.add(crawl.submit(() -> crawl.timed(() -> fetcher.apply(index))));
+                }
+                DynamicEntityPage page = join(window.poll());
+                pageConsumer.accept(page);
+                if (page.getItemCount() < pageSize) {
+                    return first;
+                }
+            }
+        } finally {
+            window.forEach(future -> future.cancel(false));
+            crawl.finish();
+        }
+    }
+
+    /**
+     * Crawl upstream phân trang theo cursor / next-link; dừng khi trang rỗng hoặc không còn cursor.
+     *
+     * @param nextOf cursor của trang sau theo trang vừa tải (envelope hoặc header Link)
+     * @return trang đầu tiên (mang ETag / Last-Modified của response)
+     */
+    public DynamicEntityPage crawlLinked(String storeName, String entityName, LinkedPageFetcher fetcher,
+                                         Function<DynamicEntityPage, String> nextOf,
+                                         Consumer<DynamicEntityPage> pageConsumer) {
+        Crawl crawl = new Crawl(storeName, entityName, 1);
+        CompletableFuture<LinkedPage> pending = null;
+        try {
+            LinkedPage current = fetchLinked(crawl, fetcher, null);
+            DynamicEntityPage first = current.page();
+            while (true) {
+                DynamicEntityPage page = current.page();
+                String cursor = current.nextCursor() != null ? current.nextCursor() : nextOf.apply(page);
+                boolean last = page.getItemCount() == 0 || StringValidation.isNullOrEmpty(cursor);
+
+                if (!last) {
+                    // Chỉ gửi từ thread của caller: tải trang sau trong lúc consumer xử lý trang này
+                    pending = crawl.submit(() -> fetchLinked(crawl, fetcher, cursor));
+                }
+                pageConsumer.accept(page);
+                if (last) {
+                    return first;
+                }
+                current = join(pending);
+                pending = null;
+            }
+        } finally {
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            crawl.finish();
+        }
+    }
+
+    public List<CrawlStats> getStats(String storeName) {
+        return stats.values().stream()
+                .filter(stat -> stat.storeName().equals(storeName))
+                .sorted(Comparator.comparing(CrawlStats::entityName))
+                .toList();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private LinkedPage fetchLinked(Crawl crawl, LinkedPageFetcher fetcher, @Nullable String cursor) {
+        AtomicReference<String> nextCursor = new AtomicReference<>();
+        DynamicEntityPage page = crawl.timed(() -> fetcher.fetch(cursor, next -> {
+            if (StringValidation.isNotNullOrEmpty(next)) {
+                nextCursor.compareAndSet(null, next);
+            }
+        }));
+        return new LinkedPage(page, nextCursor.get());
+    }
+
+    private static int windowSize(int next, long pageCount, int parallelism) {
+        if (pageCount < 0) {
+            return Math.min(2, parallelism);
+        }
+        return next < pageCount ? parallelism : 1;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record LinkedPage(DynamicEntityPage page, @Nullable String nextCursor) {
+    }
+
+    private final class Crawl {
+
+        private final String storeName;
+        private final String entityName;
+        private final int parallelism;
+        private final long startNanos = System.nanoTime();
+        private final Queue<Long> pageMillis = new ConcurrentLinkedQueue<>();
+        private final Queue<Integer> itemCounts = new ConcurrentLinkedQueue<>();
+        private volatile boolean finished;
+        private boolean totalKnown;
+
+        private Crawl(String storeName, String entityName, int parallelism) {
+            this.storeName = storeName;
+            this.entityName = entityName;
+            this.parallelism = parallelism;
+        }
+
+        private DynamicEntityPage timed(Supplier<DynamicEntityPage> fetch) {
+            long start = System.nanoTime();
+            DynamicEntityPage page = fetch.get();
+            pageMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            itemCounts.add(page.getItemCount());
+            return page;
+        }
+
+        private <T> CompletableFuture<T> submit(Supplier<T> task) {
+            return CompletableFuture.supplyAsync(() -> {
+                // Crawl đã kết thúc (lỗi hoặc gặp trang cuối sớm hơn dự kiến) -> bỏ các trang còn trong hàng đợi
+                if (finished) {
+                    throw new CancellationException("Crawl of " + storeName + "/" + entityName + " finished");
+                }
+                return systemAuthenticator.withSystem(task::get);
+            }, executor);
+        }
+
+        private void finish() {
+            finished = true;
+            long[] latencies = pageMillis.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (latencies.length == 0) {
+                return;
+            }
+            long items = itemCounts.stream().mapToLong(Integer::longValue).sum();
+            CrawlStats result = new CrawlStats(storeName, entityName, Instant.now(), latencies.length, items,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), parallelism, totalKnown,
+                    Math.round(Arrays.stream(latencies).average().orElse(0)),
+                    latencies[(int) Math.ceil(latencies.length * 0.95) - 1],
+                    latencies[latencies.length - 1]);
+            stats.put(storeName + "/" + entityName, result);
+            log.info("Crawled {}/{}: {} pages, {} items in {} ms ({} items/s), page avg {} ms, p95 {} ms, max {} ms, "
+                            + "parallelism {}{}", storeName, entityName, result.pages(), result.items(),
+                    result.durationMs(), Math.round(result.itemsPerSecond()), result.pageAvgMs(), result.pageP95Ms(),
+                    result.pageMaxMs(), result.parallelism(), result.totalKnown() ? "" : " (total unknown)");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.company.dynamicds.dynamicds.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+import org.springframework.lang.Nullable;
+
+
+public enum CountStrategy implements EnumClass<String> {
+
+    SNAPSHOT("SNAPSHOT"),
+    COUNT_ENDPOINT("COUNT_ENDPOINT"),
+    TOTAL_PATH("TOTAL_PATH"),
+    RESPONSE_HEADER("RESPONSE_HEADER");
+
+    private final String id;
+
+    CountStrategy(String id) {
+        this.id = id;
+    }
+
+    @Nullable
+    public static CountStrategy fromId(String id) {
+        for (CountStrategy at : CountStrategy.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
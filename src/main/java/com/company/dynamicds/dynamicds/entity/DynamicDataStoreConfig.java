@@ -2,6 +2,7 @@ package com.company.dynamicds.dynamicds.entity;
 
 import com.company.dynamicds.entity.BaseEntity;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.Column;
@@ -14,6 +15,7 @@ import java.util.UUID;
 @JmixEntity
 @Table(name = "DWH_DYNAMIC_DATA_STORE")
 @Entity(name = "dwh_DynamicDataStore")
+@PublishEntityChangedEvents
 public class DynamicDataStoreConfig extends BaseEntity {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -27,6 +29,182 @@ public class DynamicDataStoreConfig extends BaseEntity {
     @Column(name = "DESCRIPTION")
     private String description;
 
+    @Column(name = "RESULT_CACHE_ENABLED")
+    private Boolean resultCacheEnabled = true;
+
+    @Column(name = "RESULT_CACHE_TTL_SECONDS")
+    private Integer resultCacheTtlSeconds;
+
+    @Column(name = "RESULT_CACHE_MAX_SIZE_MB")
+    private Integer resultCacheMaxSizeMb;
+
+    @Column(name = "HTTP_MAX_CONNECTIONS_PER_ROUTE")
+    private Integer httpMaxConnectionsPerRoute;
+
+    @Column(name = "HTTP_MAX_CONNECTIONS")
+    private Integer httpMaxConnections;
+
+    @Column(name = "HTTP_IDLE_EVICT_SECONDS")
+    private Integer httpIdleEvictSeconds;
+
+    @Column(name = "HTTP_CONNECT_TIMEOUT_MS")
+    private Integer httpConnectTimeoutMs;
+
+    @Column(name = "HTTP_READ_TIMEOUT_MS")
+    private Integer httpReadTimeoutMs;
+
+    @Column(name = "HTTP_POOL_TIMEOUT_MS")
+    private Integer httpPoolTimeoutMs;
+
+    @Column(name = "HTTP_PREFER_HTTP2")
+    private Boolean httpPreferHttp2 = false;
+
+    @Column(name = "HTTP_PREWARM")
+    private Boolean httpPrewarm = true;
+
+    @Column(name = "HTTP_COMPRESSION_ENABLED")
+    private Boolean httpCompressionEnabled = false;
+
+    @Column(name = "RESULT_CACHE_STALE_IF_ERROR_SECONDS")
+    private Integer resultCacheStaleIfErrorSeconds;
+
+    @Column(name = "HTTP_MAX_RETRIES")
+    private Integer httpMaxRetries;
+
+    @Column(name = "CIRCUIT_FAILURE_RATE_PERCENT")
+    private Integer circuitFailureRatePercent;
+
+    @Column(name = "CIRCUIT_OPEN_SECONDS")
+    private Integer circuitOpenSeconds;
+
+    public Integer getCircuitOpenSeconds() {
+        return circuitOpenSeconds;
+    }
+
+    public void setCircuitOpenSeconds(Integer circuitOpenSeconds) {
+        this.circuitOpenSeconds = circuitOpenSeconds;
+    }
+
+    public Integer getCircuitFailureRatePercent() {
+        return circuitFailureRatePercent;
+    }
+
+    public void setCircuitFailureRatePercent(Integer circuitFailureRatePercent) {
+        this.circuitFailureRatePercent = circuitFailureRatePercent;
+    }
+
+    public Integer getHttpMaxRetries() {
+        return httpMaxRetries;
+    }
+
+    public void setHttpMaxRetries(Integer httpMaxRetries) {
+        this.httpMaxRetries = httpMaxRetries;
+    }
+
+    public Integer getResultCacheStaleIfErrorSeconds() {
+        return resultCacheStaleIfErrorSeconds;
+    }
+
+    public void setResultCacheStaleIfErrorSeconds(Integer resultCacheStaleIfErrorSeconds) {
+        this.resultCacheStaleIfErrorSeconds = resultCacheStaleIfErrorSeconds;
+    }
+
+    public Boolean getHttpCompressionEnabled() {
+        return httpCompressionEnabled;
+    }
+
+    public void setHttpCompressionEnabled(Boolean httpCompressionEnabled) {
+        this.httpCompressionEnabled = httpCompressionEnabled;
+    }
+
+    public Boolean getHttpPrewarm() {
+        return httpPrewarm;
+    }
+
+    public void setHttpPrewarm(Boolean httpPrewarm) {
+        this.httpPrewarm = httpPrewarm;
+    }
+
+    public Boolean getHttpPreferHttp2() {
+        return httpPreferHttp2;
+    }
+
+    public void setHttpPreferHttp2(Boolean httpPreferHttp2) {
+        this.httpPreferHttp2 = httpPreferHttp2;
+    }
+
+    public Integer getHttpPoolTimeoutMs() {
+        return httpPoolTimeoutMs;
+    }
+
+    public void setHttpPoolTimeoutMs(Integer httpPoolTimeoutMs) {
+        this.httpPoolTimeoutMs = httpPoolTimeoutMs;
+    }
+
+    public Integer getHttpReadTimeoutMs() {
+        return httpReadTimeoutMs;
+    }
+
+    public void setHttpReadTimeoutMs(Integer httpReadTimeoutMs) {
+        this.httpReadTimeoutMs = httpReadTimeoutMs;
+    }
+
+    public Integer getHttpConnectTimeoutMs() {
+        return httpConnectTimeoutMs;
+    }
+
+    public void setHttpConnectTimeoutMs(Integer httpConnectTimeoutMs) {
+        this.httpConnectTimeoutMs = httpConnectTimeoutMs;
+    }
+
+    public Integer getHttpIdleEvictSeconds() {
+        return httpIdleEvictSeconds;
+    }
+
+    public void setHttpIdleEvictSeconds(Integer httpIdleEvictSeconds) {
+        this.httpIdleEvictSeconds = httpIdleEvictSeconds;
+    }
+
+    public Integer getHttpMaxConnections() {
+        return httpMaxConnections;
+    }
+
+    public void setHttpMaxConnections(Integer httpMaxConnections) {
+        this.httpMaxConnections = httpMaxConnections;
+    }
+
+    public Integer getHttpMaxConnectionsPerRoute() {
+        return httpMaxConnectionsPerRoute;
+    }
+
+    public void setHttpMaxConnectionsPerRoute(Integer httpMaxConnectionsPerRoute) {
+        this.httpMaxConnectionsPerRoute = httpMaxConnectionsPerRoute;
+    }
+
+    public Integer getResultCacheMaxSizeMb() {
+        return resultCacheMaxSizeMb;
+    }
+
+    public void setResultCacheMaxSizeMb(Integer resultCacheMaxSizeMb) {
+        this.resultCacheMaxSizeMb = resultCacheMaxSizeMb;
+    }
+
+    public Integer getResultCacheTtlSeconds() {
+        return resultCacheTtlSeconds;
+    }
+
+    public void setResultCacheTtlSeconds(Integer resultCacheTtlSeconds) {
+        this.resultCacheTtlSeconds = resultCacheTtlSeconds;
+    }
+
+    public Boolean getResultCacheEnabled() {
+        return resultCacheEnabled;
+    }
+
+    public void setResultCacheEnabled(Boolean resultCacheEnabled) {
+        this.resultCacheEnabled = resultCacheEnabled;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,62 @@
+package com.company.dynamicds.dynamicds.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+import org.springframework.lang.Nullable;
+
+
+/**
+ * Phép so sánh của PropertyCondition có thể map sang query parameter của upstream.
+ * conditionOperation trùng với PropertyCondition.Operation của Jmix.
+ */
+public enum FilterOperation implements EnumClass<String> {
+
+    EQUAL("EQUAL", "="),
+    NOT_EQUAL("NOT_EQUAL", "<>"),
+    GREATER("GREATER", ">"),
+    GREATER_OR_EQUAL("GREATER_OR_EQUAL", ">="),
+    LESS("LESS", "<"),
+    LESS_OR_EQUAL("LESS_OR_EQUAL", "<="),
+    CONTAINS("CONTAINS", "contains"),
+    NOT_CONTAINS("NOT_CONTAINS", "not_contains"),
+    STARTS_WITH("STARTS_WITH", "starts_with"),
+    ENDS_WITH("ENDS_WITH", "ends_with"),
+    IS_SET("IS_SET", "is_set"),
+    IN_LIST("IN_LIST", "in_list"),
+    NOT_IN_LIST("NOT_IN_LIST", "not_in_list");
+
+    private final String id;
+    private final String conditionOperation;
+
+    FilterOperation(String id, String conditionOperation) {
+        this.id = id;
+        this.conditionOperation = conditionOperation;
+    }
+
+    @Nullable
+    public static FilterOperation fromId(String id) {
+        for (FilterOperation at : FilterOperation.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    public static FilterOperation fromConditionOperation(String operation) {
+        for (FilterOperation at : FilterOperation.values()) {
+            if (at.getConditionOperation().equals(operation)) {
+                return at;
+            }
+        }
+        return null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getConditionOperation() {
+        return conditionOperation;
+    }
+}
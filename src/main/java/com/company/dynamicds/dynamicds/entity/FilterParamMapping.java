@@ -0,0 +1,84 @@
+package com.company.dynamicds.dynamicds.entity;
+
+import io.jmix.core.DeletePolicy;
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.OnDeleteInverse;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
+import io.jmix.core.metamodel.annotation.InstanceName;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * Điều kiện "property operation value" của Jmix được gửi lên upstream dưới dạng paramName=value.
+ * Điều kiện không có mapping được lọc cục bộ sau khi nhận response.
+ */
+@JmixEntity
+@Table(name = "DWH_FILTER_PARAM_MAPPING", indexes = {
+        @Index(name = "IDX_DWH_FILTER_PARAM_MAPPING_METADATA_DEFINITION", columnList = "METADATA_DEFINITION_ID")
+})
+@Entity(name = "dwh_FilterParamMapping")
+@PublishEntityChangedEvents
+public class FilterParamMapping {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @InstanceName
+    @Column(name = "PROPERTY")
+    private String property;
+
+    @Column(name = "OPERATION")
+    private String operation = FilterOperation.EQUAL.getId();
+
+    @Column(name = "PARAM_NAME")
+    private String paramName;
+
+    @OnDeleteInverse(DeletePolicy.CASCADE)
+    @JoinColumn(name = "METADATA_DEFINITION_ID", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private MetadataDefinition metadataDefinition;
+
+    public MetadataDefinition getMetadataDefinition() {
+        return metadataDefinition;
+    }
+
+    public void setMetadataDefinition(MetadataDefinition metadataDefinition) {
+        this.metadataDefinition = metadataDefinition;
+    }
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public void setParamName(String paramName) {
+        this.paramName = paramName;
+    }
+
+    public FilterOperation getOperation() {
+        return operation == null ? null : FilterOperation.fromId(operation);
+    }
+
+    public void setOperation(FilterOperation operation) {
+        this.operation = operation == null ? null : operation.getId();
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public void setProperty(String property) {
+        this.property = property;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
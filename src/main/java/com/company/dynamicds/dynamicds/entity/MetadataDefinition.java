@@ -1,6 +1,8 @@
 package com.company.dynamicds.dynamicds.entity;
 
+import com.company.dynamicds.apisetting.entity.ApiSetting;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.metamodel.annotation.Composition;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
@@ -10,8 +12,11 @@ import java.util.List;
 import java.util.UUID;
 
 @JmixEntity
-@Table(name = "DWH_METADATA_DEFINITION")
+@Table(name = "DWH_METADATA_DEFINITION", indexes = {
+        @Index(name = "IDX_DWH_METADATA_DEFINITION_API_SETTING", columnList = "API_SETTING_ID")
+})
 @Entity(name = "dwh_MetadataDefinition")
+@PublishEntityChangedEvents
 public class MetadataDefinition {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -29,9 +34,275 @@ public class MetadataDefinition {
     @OneToMany(mappedBy = "metadataDefinition")
     private List<MetadataField> metadataFields;
 
+    @Composition
+    @OneToMany(mappedBy = "metadataDefinition")
+    private List<FilterParamMapping> filterParamMappings;
+
     @Column(name = "STORE_NAME")
     private String storeName;
 
+    @JoinColumn(name = "API_SETTING_ID")
+    @ManyToOne(fetch = FetchType.LAZY)
+    private ApiSetting apiSetting;
+
+    @Column(name = "ITEMS_PATH")
+    private String itemsPath;
+
+    @Column(name = "PAGINATION_TYPE")
+    private String paginationType = PaginationType.NONE.getId();
+
+    @Column(name = "PAGE_PARAM")
+    private String pageParam;
+
+    @Column(name = "SIZE_PARAM")
+    private String sizeParam;
+
+    @Column(name = "PAGE_START_INDEX")
+    private Integer pageStartIndex;
+
+    @Column(name = "NEXT_PATH")
+    private String nextPath;
+
+    @Column(name = "COUNT_STRATEGY")
+    private String countStrategy = CountStrategy.SNAPSHOT.getId();
+
+    @Column(name = "COUNT_URL")
+    private String countUrl;
+
+    @Column(name = "COUNT_PATH")
+    private String countPath;
+
+    @Column(name = "COUNT_HEADER")
+    private String countHeader;
+
+    @Column(name = "SORT_PARAM")
+    private String sortParam;
+
+    @Column(name = "SORT_FORMAT")
+    private String sortFormat;
+
+    @Column(name = "REFRESH_INTERVAL_SECONDS")
+    private Integer refreshIntervalSeconds;
+
+    @Column(name = "REFRESH_CRON")
+    private String refreshCron;
+
+    @Column(name = "WATERMARK_FIELD")
+    private String watermarkField;
+
+    @Column(name = "DELTA_PARAM_TEMPLATE")
+    private String deltaParamTemplate;
+
+    @Column(name = "FULL_SYNC_INTERVAL_SECONDS")
+    private Integer fullSyncIntervalSeconds;
+
+    @Column(name = "ITEM_URL")
+    private String itemUrl;
+
+    @Column(name = "IDS_PARAM")
+    private String idsParam;
+
+    @Column(name = "IDS_BODY_TEMPLATE")
+    private String idsBodyTemplate;
+
+    @Column(name = "CRAWL_PAGE_SIZE")
+    private Integer crawlPageSize;
+
+    @Column(name = "CRAWL_PARALLELISM")
+    private Integer crawlParallelism;
+
+    public Integer getCrawlParallelism() {
+        return crawlParallelism;
+    }
+
+    public void setCrawlParallelism(Integer crawlParallelism) {
+        this.crawlParallelism = crawlParallelism;
+    }
+
+    public Integer getCrawlPageSize() {
+        return crawlPageSize;
+    }
+
+    public void setCrawlPageSize(Integer crawlPageSize) {
+        this.crawlPageSize = crawlPageSize;
+    }
+
+    public String getIdsBodyTemplate() {
+        return idsBodyTemplate;
+    }
+
+    public void setIdsBodyTemplate(String idsBodyTemplate) {
+        this.idsBodyTemplate = idsBodyTemplate;
+    }
+
+    public String getIdsParam() {
+        return idsParam;
+    }
+
+    public void setIdsParam(String idsParam) {
+        this.idsParam = idsParam;
+    }
+
+    public String getItemUrl() {
+        return itemUrl;
+    }
+
+    public void setItemUrl(String itemUrl) {
+        this.itemUrl = itemUrl;
+    }
+
+    public Integer getFullSyncIntervalSeconds() {
+        return fullSyncIntervalSeconds;
+    }
+
+    public void setFullSyncIntervalSeconds(Integer fullSyncIntervalSeconds) {
+        this.fullSyncIntervalSeconds = fullSyncIntervalSeconds;
+    }
+
+    public String getDeltaParamTemplate() {
+        return deltaParamTemplate;
+    }
+
+    public void setDeltaParamTemplate(String deltaParamTemplate) {
+        this.deltaParamTemplate = deltaParamTemplate;
+    }
+
+    public String getWatermarkField() {
+        return watermarkField;
+    }
+
+    public void setWatermarkField(String watermarkField) {
+        this.watermarkField = watermarkField;
+    }
+
+    public String getRefreshCron() {
+        return refreshCron;
+    }
+
+    public void setRefreshCron(String refreshCron) {
+        this.refreshCron = refreshCron;
+    }
+
+    public Integer getRefreshIntervalSeconds() {
+        return refreshIntervalSeconds;
+    }
+
+    public void setRefreshIntervalSeconds(Integer refreshIntervalSeconds) {
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
+    public String getSortFormat() {
+        return sortFormat;
+    }
+
+    public void setSortFormat(String sortFormat) {
+        this.sortFormat = sortFormat;
+    }
+
+    public String getSortParam() {
+        return sortParam;
+    }
+
+    public void setSortParam(String sortParam) {
+        this.sortParam = sortParam;
+    }
+
+    public List<FilterParamMapping> getFilterParamMappings() {
+        return filterParamMappings;
+    }
+
+    public void setFilterParamMappings(List<FilterParamMapping> filterParamMappings) {
+        this.filterParamMappings = filterParamMappings;
+    }
+
+    public ApiSetting getApiSetting() {
+        return apiSetting;
+    }
+
+    public void setApiSetting(ApiSetting apiSetting) {
+        this.apiSetting = apiSetting;
+    }
+
+    public String getCountHeader() {
+        return countHeader;
+    }
+
+    public void setCountHeader(String countHeader) {
+        this.countHeader = countHeader;
+    }
+
+    public String getCountPath() {
+        return countPath;
+    }
+
+    public void setCountPath(String countPath) {
+        this.countPath = countPath;
+    }
+
+    public String getCountUrl() {
+        return countUrl;
+    }
+
+    public void setCountUrl(String countUrl) {
+        this.countUrl = countUrl;
+    }
+
+    public CountStrategy getCountStrategy() {
+        return countStrategy == null ? null : CountStrategy.fromId(countStrategy);
+    }
+
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy == null ? null : countStrategy.getId();
+    }
+
+    public String getNextPath() {
+        return nextPath;
+    }
+
+    public void setNextPath(String nextPath) {
+        this.nextPath = nextPath;
+    }
+
+    public Integer getPageStartIndex() {
+        return pageStartIndex;
+    }
+
+    public void setPageStartIndex(Integer pageStartIndex) {
+        this.pageStartIndex = pageStartIndex;
+    }
+
+    public String getSizeParam() {
+        return sizeParam;
+    }
+
+    public void setSizeParam(String sizeParam) {
+        this.sizeParam = sizeParam;
+    }
+
+    public String getPageParam() {
+        return pageParam;
+    }
+
+    public void setPageParam(String pageParam) {
+        this.pageParam = pageParam;
+    }
+
+    public PaginationType getPaginationType() {
+        return paginationType == null ? null : PaginationType.fromId(paginationType);
+    }
+
+    public void setPaginationType(PaginationType paginationType) {
+        this.paginationType = paginationType == null ? null : paginationType.getId();
+    }
+
+    public String getItemsPath() {
+        return itemsPath;
+    }
+
+    public void setItemsPath(String itemsPath) {
+        this.itemsPath = itemsPath;
+    }
+
     public String getUrl() {
         return url;
     }
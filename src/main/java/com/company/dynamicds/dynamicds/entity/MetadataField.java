@@ -2,6 +2,7 @@ package com.company.dynamicds.dynamicds.entity;
 
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.PublishEntityChangedEvents;
 import io.jmix.core.entity.annotation.OnDeleteInverse;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
@@ -14,6 +15,7 @@ import java.util.UUID;
         @Index(name = "IDX_DWH_METADATA_FIELD_METADATA_DEFINITION", columnList = "METADATA_DEFINITION_ID")
 })
 @Entity(name = "dwh_MetadataField")
+@PublishEntityChangedEvents
 public class MetadataField {
     @JmixGeneratedValue
     @Column(name = "ID", nullable = false)
@@ -38,6 +40,17 @@ public class MetadataField {
     @Column(name = "DESCRIPTION")
     private String description;
 
+    @Column(name = "KEY_FIELD")
+    private Boolean keyField;
+
+    public Boolean getKeyField() {
+        return keyField;
+    }
+
+    public void setKeyField(Boolean keyField) {
+        this.keyField = keyField;
+    }
+
     public Double getRequire() {
         return require;
     }
@@ -0,0 +1,35 @@
+package com.company.dynamicds.dynamicds.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+import org.springframework.lang.Nullable;
+
+
+public enum PaginationType implements EnumClass<String> {
+
+    NONE("NONE"),
+    OFFSET_LIMIT("OFFSET_LIMIT"),
+    PAGE_SIZE("PAGE_SIZE"),
+    CURSOR("CURSOR"),
+    NEXT_LINK("NEXT_LINK"),
+    LINK_HEADER("LINK_HEADER");
+
+    private final String id;
+
+    PaginationType(String id) {
+        this.id = id;
+    }
+
+    @Nullable
+    public static PaginationType fromId(String id) {
+        for (PaginationType at : PaginationType.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
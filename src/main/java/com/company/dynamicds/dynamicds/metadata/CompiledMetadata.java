@@ -0,0 +1,44 @@
+package com.company.dynamicds.dynamicds.metadata;
+
+import com.company.dynamicds.apisetting.entity.ApiSetting;
+import com.company.dynamicds.dynamicds.entity.FilterOperation;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.metamodel.model.MetaClass;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MetadataDefinition đã được resolve sẵn: danh sách field, kiểu dữ liệu, MetaClass và request gọi upstream.
+ * Dùng chung giữa các lần load, không được sửa definition / apiSetting bên trong.
+ */
+@Getter
+@AllArgsConstructor
+public class CompiledMetadata {
+
+    private final MetadataDefinition definition;
+
+    private final List<String> fieldNames;
+
+    // Field name -> kiểu dữ liệu, giữ thứ tự khai báo
+    private final Map<String, MetadataFieldType> fieldTypes;
+
+    private final MetaClass metaClass;
+
+    // property -> (operation -> query param) của các FilterParamMapping
+    private final Map<String, Map<FilterOperation, String>> filterParams;
+
+    // Request đã resolve: ApiSetting được liên kết (header, auth, param, script) hoặc GET trần từ url
+    private final ApiSetting apiSetting;
+
+    // URL gốc của request, dùng để resolve next-link tương đối và làm key cache
+    private final String effectiveUrl;
+
+    // Field được đánh dấu keyField (field đầu tiên nếu có nhiều), null nếu không khai báo
+    @Nullable
+    private final String keyField;
+}
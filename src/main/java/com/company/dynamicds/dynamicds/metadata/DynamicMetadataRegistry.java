@@ -0,0 +1,245 @@
+package com.company.dynamicds.dynamicds.metadata;
+
+import com.company.dynamicds.apisetting.entity.*;
+import com.company.dynamicds.apisetting.enums.HttpMethodType;
+import com.company.dynamicds.dynamicds.DynamicMetaClassFactory;
+import com.company.dynamicds.dynamicds.cache.DynamicResultCache;
+import com.company.dynamicds.dynamicds.entity.FilterOperation;
+import com.company.dynamicds.dynamicds.entity.FilterParamMapping;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.dynamicds.entity.MetadataField;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.repository.FilterParamMappingRepository;
+import com.company.dynamicds.repository.MetadataDefinitionRepository;
+import com.company.dynamicds.repository.MetadataFieldRepository;
+import com.company.dynamicds.utils.validation.StringValidation;
+import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.Id;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.metamodel.model.MetaClass;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry in-memory của metadata đã compile, key = store + entity.
+ * Load nóng không cần truy vấn DB cho schema và ApiSetting; bị invalidate khi MetadataDefinition / MetadataField /
+ * FilterParamMapping hoặc ApiSetting được liên kết (kể cả header, param, auth, body) thay đổi.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DynamicMetadataRegistry {
+
+    private final MetadataDefinitionRepository metadataDefinitionRepository;
+    private final MetadataFieldRepository metadataFieldRepository;
+    private final FilterParamMappingRepository filterParamMappingRepository;
+    private final DynamicMetaClassFactory metaClassFactory;
+    private final DynamicResultCache resultCache;
+    private final DataManager dataManager;
+
+    private final Map<String, CompiledMetadata> compiled = new ConcurrentHashMap<>();
+
+    public CompiledMetadata get(String storeName, String entityName) {
+        return compiled.computeIfAbsent(key(storeName, entityName), key -> compile(storeName, entityName));
+    }
+
+    public MetaClass getMetaClass(String storeName, String entityName) {
+        return get(storeName, entityName).getMetaClass();
+    }
+
+    public void invalidate(UUID definitionId) {
+        compiled.values().removeIf(metadata -> {
+            MetadataDefinition definition = metadata.getDefinition();
+            if (!definitionId.equals(definition.getId())) {
+                return false;
+            }
+            // Schema / URL đổi -> kết quả đã cache không còn đúng
+            resultCache.invalidate(definition.getStoreName(), definition.getName());
+            log.debug("Metadata {}/{} invalidated", definition.getStoreName(), definition.getName());
+            return true;
+        });
+    }
+
+    /**
+     * Bỏ mọi metadata đang dùng ApiSetting được liên kết: thay đổi header / param / auth / body
+     * không mang id của ApiSetting cha một cách rẻ, và cấu hình API hiếm khi đổi.
+     */
+    public void invalidateLinkedApiSettings() {
+        compiled.values().removeIf(metadata -> {
+            MetadataDefinition definition = metadata.getDefinition();
+            if (definition.getApiSetting() == null) {
+                return false;
+            }
+            resultCache.invalidate(definition.getStoreName(), definition.getName());
+            log.debug("Metadata {}/{} invalidated by ApiSetting change", definition.getStoreName(), definition.getName());
+            return true;
+        });
+    }
+
+    /**
+     * Request gọi upstream cho một url: bản sao của template (header, auth, param, body, script dùng chung)
+     * với url đã cho, hoặc GET trần nếu không có template. Template không bao giờ bị sửa.
+     */
+    public ApiSetting resolveApiSetting(@Nullable ApiSetting template, @Nullable String url) {
+        ApiSetting setting = dataManager.create(ApiSetting.class);
+        if (template == null) {
+            setting.setFinalUrl(url);
+            setting.setHttpMethod(HttpMethodType.GET);
+            setting.setUseRawUrl(true);
+            return setting;
+        }
+
+        setting.setName(template.getName());
+        setting.setHttpMethod(template.getHttpMethod());
+        setting.setApiHeader(template.getApiHeader());
+        setting.setApiQueryParam(template.getApiQueryParam());
+        setting.setAuthorization(template.getAuthorization());
+        setting.setApiBody(template.getApiBody());
+        setting.setPostResponseScript(template.getPostResponseScript());
+        setting.setScriptBindingMode(template.getScriptBindingMode());
+        setting.setCompressionEnabled(template.getCompressionEnabled());
+        if (StringValidation.isNotNullOrEmpty(url)) {
+            // baseUrl (không raw) để query param và API key trong query của template vẫn được áp dụng
+            setting.setBaseUrl(url);
+            setting.setUseRawUrl(false);
+        } else {
+            setting.setBaseUrl(template.getBaseUrl());
+            setting.setFinalUrl(template.getFinalUrl());
+            setting.setUseRawUrl(template.getUseRawUrl());
+        }
+        return setting;
+    }
+
+    @TransactionalEventListener
+    public void onMetadataDefinitionChanged(EntityChangedEvent<MetadataDefinition> event) {
+        invalidate((UUID) event.getEntityId().getValue());
+    }
+
+    @TransactionalEventListener
+    public void onMetadataFieldChanged(EntityChangedEvent<MetadataField> event) {
+        invalidateOwner(event, id -> metadataFieldRepository.findById(id).map(MetadataField::getMetadataDefinition));
+    }
+
+    @TransactionalEventListener
+    public void onFilterParamMappingChanged(EntityChangedEvent<FilterParamMapping> event) {
+        invalidateOwner(event, id -> filterParamMappingRepository.findById(id).map(FilterParamMapping::getMetadataDefinition));
+    }
+
+    @TransactionalEventListener
+    public void onApiSettingChanged(EntityChangedEvent<ApiSetting> event) {
+        invalidateLinkedApiSettings();
+    }
+
+    @TransactionalEventListener
+    public void onApiHeaderChanged(EntityChangedEvent<ApiHeader> event) {
+        invalidateLinkedApiSettings();
+    }
+
+    @TransactionalEventListener
+    public void onApiQueryParamChanged(EntityChangedEvent<ApiQueryParam> event) {
+        invalidateLinkedApiSettings();
+    }
+
+    @TransactionalEventListener
+    public void onApiAuthorizationSettingChanged(EntityChangedEvent<ApiAuthorizationSetting> event) {
+        invalidateLinkedApiSettings();
+    }
+
+    @TransactionalEventListener
+    public void onApiBodyChanged(EntityChangedEvent<ApiBody> event) {
+        invalidateLinkedApiSettings();
+    }
+
+    @TransactionalEventListener
+    public void onApiFormDataFieldChanged(EntityChangedEvent<ApiFormDataField> event) {
+        invalidateLinkedApiSettings();
+    }
+
+    @TransactionalEventListener
+    public void onApiUrlEncodedFieldChanged(EntityChangedEvent<ApiUrlEncodedField> event) {
+        invalidateLinkedApiSettings();
+    }
+
+    // Definition cũ (trước khi đổi) và definition hiện tại của một entity con đều phải compile lại
+    private void invalidateOwner(EntityChangedEvent<?> event, Function<UUID, Optional<MetadataDefinition>> currentOwner) {
+        Id<MetadataDefinition> definitionId = event.getChanges().getOldValue("metadataDefinition");
+        if (definitionId != null) {
+            invalidate((UUID) definitionId.getValue());
+        }
+        if (event.getType() != EntityChangedEvent.Type.DELETED) {
+            currentOwner.apply((UUID) event.getEntityId().getValue())
+                    .ifPresent(definition -> invalidate(definition.getId()));
+        }
+    }
+
+    private CompiledMetadata compile(String storeName, String entityName) {
+        MetadataDefinition definition = metadataDefinitionRepository.findByNameAndStoreName(entityName, storeName)
+                .orElseThrow(() -> new IllegalStateException("No metadata found for " + storeName + "/" + entityName));
+
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        String keyField = null;
+        for (MetadataField field : definition.getMetadataFields()) {
+            fieldTypes.put(field.getName(), field.getFieldType() != null ? field.getFieldType() : MetadataFieldType.STRING);
+            if (keyField == null && Boolean.TRUE.equals(field.getKeyField())) {
+                keyField = field.getName();
+            }
+        }
+
+        MetaClass metaClass = metaClassFactory.buildMetaClass(entityName, fieldTypes, storeName);
+
+        // Graph ApiSetting được đọc một lần tại đây, các lần load sau dùng lại request đã resolve
+        ApiSetting template = definition.getApiSetting() != null ? loadApiSetting(definition.getApiSetting().getId()) : null;
+        ApiSetting apiSetting = resolveApiSetting(template, definition.getUrl());
+
+        log.debug("Metadata {}/{} compiled with {} fields{}", storeName, entityName, fieldTypes.size(),
+                template != null ? ", api setting " + template.getName() : "");
+        return new CompiledMetadata(definition, List.copyOf(fieldTypes.keySet()),
+                Collections.unmodifiableMap(fieldTypes), metaClass, filterParams(definition),
+                apiSetting, effectiveUrl(apiSetting), keyField);
+    }
+
+    private Map<String, Map<FilterOperation, String>> filterParams(MetadataDefinition definition) {
+        Map<String, Map<FilterOperation, String>> filterParams = new HashMap<>();
+        if (definition.getFilterParamMappings() == null) {
+            return filterParams;
+        }
+        for (FilterParamMapping mapping : definition.getFilterParamMappings()) {
+            if (StringValidation.isNullOrEmpty(mapping.getProperty()) || StringValidation.isNullOrEmpty(mapping.getParamName())) {
+                continue;
+            }
+            FilterOperation operation = mapping.getOperation() != null ? mapping.getOperation() : FilterOperation.EQUAL;
+            filterParams.computeIfAbsent(mapping.getProperty().trim(), key -> new EnumMap<>(FilterOperation.class))
+                    .put(operation, mapping.getParamName().trim());
+        }
+        return filterParams;
+    }
+
+    private ApiSetting loadApiSetting(UUID id) {
+        return dataManager.load(ApiSetting.class)
+                .id(id)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                        .add("apiHeader", FetchPlan.BASE)
+                        .add("apiQueryParam", FetchPlan.BASE)
+                        .add("authorization", FetchPlan.BASE)
+                        .add("apiBody", body -> body.addFetchPlan(FetchPlan.BASE)
+                                .add("formDataFields", FetchPlan.BASE)
+                                .add("urlFormEncodedField", FetchPlan.BASE)))
+                .one();
+    }
+
+    private String effectiveUrl(ApiSetting apiSetting) {
+        return Boolean.TRUE.equals(apiSetting.getUseRawUrl()) ? apiSetting.getFinalUrl() : apiSetting.getBaseUrl();
+    }
+
+    private String key(String storeName, String entityName) {
+        return storeName + "/" + entityName;
+    }
+}
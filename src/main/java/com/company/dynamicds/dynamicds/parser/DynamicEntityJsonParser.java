@@ -0,0 +1,367 @@
+package com.company.dynamicds.dynamicds.parser;
+
+import com.company.dynamicds.dynamicds.entity.MetadataField;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmix.core.entity.KeyValueEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Chuyển JSON array từ upstream thành danh sách KeyValueEntity theo MetadataField.
+ * - parse(InputStream / String): đọc từng token bằng JsonParser, không dựng JsonNode tree
+ * - parsePage(...): như parse nhưng array có thể nằm trong envelope (itemsPath, ví dụ "/data")
+ *   và lấy thêm các giá trị scalar của envelope (cursor, total...); itemFilter loại item ngay khi đọc xong,
+ *   item bị loại không được giữ lại trong danh sách
+ * - parseEnvelope(...): chỉ lấy các giá trị scalar (total, count...), bỏ qua toàn bộ items
+ * - parseItem(...): một entity từ response của endpoint theo id (object ở gốc hoặc phần tử đầu của array)
+ * - parseTree(String): cách cũ dùng readTree, giữ lại để so sánh / fallback
+ * Path dùng cú pháp JSON Pointer ("/data/items"); "data.items" hoặc "$.data.items" cũng được chấp nhận.
+ */
+@Component
+@RequiredArgsConstructor
+public class DynamicEntityJsonParser {
+
+    private final ObjectMapper objectMapper;
+
+    public List<KeyValueEntity> parse(InputStream inputStream, List<MetadataField> fields) {
+        return parsePage(inputStream, fields, null, Set.of()).getItems();
+    }
+
+    public List<KeyValueEntity> parse(String rawJson, List<MetadataField> fields) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(rawJson)) {
+            return readPage(parser, resolveTypes(fields), null, Set.of(), null).getItems();
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing JSON to entity list", e);
+        }
+    }
+
+    public DynamicEntityPage parsePage(InputStream inputStream, List<MetadataField> fields,
+                                       @Nullable String itemsPath, Collection<String> envelopePaths) {
+        return parsePage(inputStream, resolveTypes(fields), itemsPath, envelopePaths);
+    }
+
+    public DynamicEntityPage parsePage(InputStream inputStream, Map<String, MetadataFieldType> fieldTypes,
+                                       @Nullable String itemsPath, Collection<String> envelopePaths) {
+        return parsePage(inputStream, fieldTypes, itemsPath, envelopePaths, null);
+    }
+
+    public DynamicEntityPage parsePage(InputStream inputStream, Map<String, MetadataFieldType> fieldTypes,
+                                       @Nullable String itemsPath, Collection<String> envelopePaths,
+                                       @Nullable Predicate<KeyValueEntity> itemFilter) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            return readPage(parser, fieldTypes, itemsPath, envelopePaths, itemFilter);
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing JSON to entity list", e);
+        }
+    }
+
+    public Map<String, String> parseEnvelope(InputStream inputStream, Collection<String> envelopePaths) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            PageReader reader = new PageReader(null, Map.of(), null);
+            for (String path : envelopePaths) {
+                reader.envelopePaths.add(normalizePath(path));
+            }
+
+            JsonToken first = parser.nextToken();
+            if (first == null) {
+                throw new RuntimeException("Empty JSON response");
+            }
+            walk(parser, first, "", reader);
+            return reader.envelopeValues;
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing JSON envelope", e);
+        }
+    }
+
+    /**
+     * @return null nếu response là array rỗng hoặc không phải object
+     */
+    @Nullable
+    public KeyValueEntity parseItem(InputStream inputStream, Map<String, MetadataFieldType> fieldTypes) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            return token == JsonToken.START_OBJECT ? readEntity(parser, fieldTypes) : null;
+        } catch (IOException e) {
+            throw new RuntimeException("Error parsing JSON to entity", e);
+        }
+    }
+
+    public static String normalizePath(@Nullable String path) {
+        if (path == null || path.isBlank()) {
+            return "";
+        }
+        String normalized = path.trim();
+        if (normalized.startsWith("$")) {
+            normalized = normalized.substring(1);
+        }
+        if (!normalized.startsWith("/")) {
+            normalized = "/" + normalized.replace('.', '/');
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized.startsWith("//") ? normalized.substring(1) : normalized;
+    }
+
+    public List<KeyValueEntity> parseTree(String rawJson, List<MetadataField> fields) {
+        try {
+            JsonNode root = objectMapper.readTree(rawJson);
+            List<KeyValueEntity> result = new ArrayList<>();
+
+            if (!root.isArray()) {
+                throw new RuntimeException("Expected JSON array but got: " + root);
+            }
+
+            for (JsonNode item : root) {
+                KeyValueEntity entity = new KeyValueEntity();
+
+                for (MetadataField field : fields) {
+                    String fieldName = field.getName();
+                    JsonNode valueNode = item.get(fieldName);
+
+                    if (valueNode != null && !valueNode.isNull()) {
+                        Object value;
+
+                        if (valueNode.isArray() || valueNode.isObject()) {
+                            // Convert array/object to JSON string
+                            value = objectMapper.writeValueAsString(valueNode);
+                        } else {
+                            value = objectMapper.convertValue(valueNode, resolveType(field).getJavaClass());
+                        }
+
+                        entity.setValue(fieldName, value);
+                    }
+                }
+
+                result.add(entity);
+            }
+
+            return result;
+
+        } catch (Exception e) {
+            throw new RuntimeException("Error parsing JSON to entity list", e);
+        }
+    }
+
+    private DynamicEntityPage readPage(JsonParser parser, Map<String, MetadataFieldType> fieldTypes,
+                                       @Nullable String itemsPath, Collection<String> envelopePaths,
+                                       @Nullable Predicate<KeyValueEntity> itemFilter) throws IOException {
+        PageReader reader = new PageReader(normalizePath(itemsPath), fieldTypes, itemFilter);
+        for (String path : envelopePaths) {
+            reader.envelopePaths.add(normalizePath(path));
+        }
+
+        JsonToken first = parser.nextToken();
+        if (first == null) {
+            throw new RuntimeException("Empty JSON response");
+        }
+        walk(parser, first, "", reader);
+
+        if (reader.items == null && reader.itemsPath.isEmpty()) {
+            throw new RuntimeException("Expected JSON array but got: " + first);
+        }
+        return new DynamicEntityPage(reader.items != null ? reader.items : new ArrayList<>(), reader.envelopeValues,
+                reader.itemCount);
+    }
+
+    /**
+     * Đi qua envelope theo từng token: chỉ đi sâu vào các object nằm trên đường tới itemsPath
+     * hoặc envelopePaths, mọi nhánh khác bị skipChildren() mà không dựng tree.
+     */
+    private void walk(JsonParser parser, JsonToken token, String path, PageReader reader) throws IOException {
+        if (reader.itemsPath != null && path.equals(reader.itemsPath)) {
+            if (token != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Expected JSON array but got: " + token);
+            }
+            reader.items = readEntities(parser, reader);
+            return;
+        }
+        if (token.isScalarValue() && reader.envelopePaths.contains(path)) {
+            reader.envelopeValues.put(path, parser.getValueAsString());
+            return;
+        }
+        if (token == JsonToken.START_OBJECT && reader.isOnTargetPath(path)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                walk(parser, valueToken, path + "/" + name, reader);
+            }
+            return;
+        }
+        parser.skipChildren();
+    }
+
+    private List<KeyValueEntity> readEntities(JsonParser parser, PageReader reader) throws IOException {
+        List<KeyValueEntity> result = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new RuntimeException("Unexpected end of JSON input");
+            }
+            KeyValueEntity entity;
+            if (token != JsonToken.START_OBJECT) {
+                // Phần tử không phải object -> bỏ qua như readTree (item.get trả về null)
+                parser.skipChildren();
+                entity = new KeyValueEntity();
+            } else {
+                entity = readEntity(parser, reader.fieldTypes);
+            }
+            reader.itemCount++;
+            if (reader.itemFilter == null || reader.itemFilter.test(entity)) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private KeyValueEntity readEntity(JsonParser parser, Map<String, MetadataFieldType> fieldTypes) throws IOException {
+        KeyValueEntity entity = new KeyValueEntity();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            MetadataFieldType type = fieldTypes.get(fieldName);
+
+            if (type == null) {
+                parser.skipChildren();
+                continue;
+            }
+
+            Object value = readValue(parser, valueToken, fieldName, type);
+            if (value != null) {
+                entity.setValue(fieldName, value);
+            }
+        }
+        return entity;
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token, String fieldName, MetadataFieldType type) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+            // Convert array/object to JSON string
+            StringWriter writer = new StringWriter();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+                generator.copyCurrentStructure(parser);
+            }
+            return writer.toString();
+        }
+
+        return switch (type) {
+            case STRING -> parser.getValueAsString();
+            case INTEGER -> token == JsonToken.VALUE_STRING
+                    ? parseNumber(parser, fieldName, type, Integer::valueOf)
+                    : parser.getValueAsInt();
+            case DOUBLE -> token == JsonToken.VALUE_STRING
+                    ? parseNumber(parser, fieldName, type, Double::valueOf)
+                    : parser.getValueAsDouble();
+            case BOOLEAN -> switch (token) {
+                case VALUE_TRUE -> Boolean.TRUE;
+                case VALUE_FALSE -> Boolean.FALSE;
+                case VALUE_NUMBER_INT -> parser.getIntValue() != 0;
+                case VALUE_STRING -> parseBoolean(parser, fieldName);
+                default -> throw invalidValue(parser, fieldName, type, parser.getText(), null);
+            };
+        };
+    }
+
+    // Giá trị số gửi dạng chuỗi ("12"); chuỗi rỗng -> null như convertValue,
+    // chuỗi không phải số -> lỗi kèm tên field và vị trí trong JSON
+    @Nullable
+    private Object parseNumber(JsonParser parser, String fieldName, MetadataFieldType type,
+                               Function<String, Object> converter) throws IOException {
+        String text = parser.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return converter.apply(text);
+        } catch (NumberFormatException e) {
+            throw invalidValue(parser, fieldName, type, text, e);
+        }
+    }
+
+    // Chỉ nhận "true" / "false" (không phân biệt hoa thường) như convertValue; "1", "yes"... là lỗi, không thành false
+    @Nullable
+    private Boolean parseBoolean(JsonParser parser, String fieldName) throws IOException {
+        String text = parser.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        if ("true".equalsIgnoreCase(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text)) {
+            return Boolean.FALSE;
+        }
+        throw invalidValue(parser, fieldName, MetadataFieldType.BOOLEAN, text, null);
+    }
+
+    private RuntimeException invalidValue(JsonParser parser, String fieldName, MetadataFieldType type, String text,
+                                          @Nullable Exception cause) {
+        return new RuntimeException("Invalid " + type + " value '" + text + "' for field '" + fieldName
+                + "' at " + parser.currentLocation().offsetDescription(), cause);
+    }
+
+    private Map<String, MetadataFieldType> resolveTypes(List<MetadataField> fields) {
+        Map<String, MetadataFieldType> fieldTypes = new HashMap<>();
+        for (MetadataField field : fields) {
+            fieldTypes.put(field.getName(), resolveType(field));
+        }
+        return fieldTypes;
+    }
+
+    private MetadataFieldType resolveType(MetadataField field) {
+        return field.getFieldType() != null ? field.getFieldType() : MetadataFieldType.STRING;
+    }
+
+    private static class PageReader {
+        @Nullable
+        private final String itemsPath;
+        private final Map<String, MetadataFieldType> fieldTypes;
+        @Nullable
+        private final Predicate<KeyValueEntity> itemFilter;
+        private final Set<String> envelopePaths = new HashSet<>();
+        private final Map<String, String> envelopeValues = new HashMap<>();
+        private List<KeyValueEntity> items;
+        // Số item upstream trả về, tính cả item bị itemFilter loại
+        private int itemCount;
+
+        private PageReader(@Nullable String itemsPath, Map<String, MetadataFieldType> fieldTypes,
+                           @Nullable Predicate<KeyValueEntity> itemFilter) {
+            this.itemsPath = itemsPath;
+            this.fieldTypes = fieldTypes;
+            this.itemFilter = itemFilter;
+        }
+
+        private boolean isOnTargetPath(String path) {
+            String prefix = path + "/";
+            if (itemsPath != null && itemsPath.startsWith(prefix)) {
+                return true;
+            }
+            for (String envelopePath : envelopePaths) {
+                if (envelopePath.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
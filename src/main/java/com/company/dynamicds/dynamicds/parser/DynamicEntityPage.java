@@ -0,0 +1,60 @@
+package com.company.dynamicds.dynamicds.parser;
+
+import io.jmix.core.entity.KeyValueEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kết quả parse một response: danh sách entity + các giá trị scalar lấy từ envelope
+ * (ví dụ cursor trang sau, tổng số bản ghi) theo path đã yêu cầu.
+ * itemCount là số item upstream trả về, có thể lớn hơn items.size() khi có filter cục bộ.
+ * etag / lastModified là header ETag / Last-Modified của response (nếu upstream trả về).
+ * notModified: upstream trả 304 cho conditional GET, trang không có item nào được parse.
+ * nextLink: URL trang sau trong header Link (RFC 5988, rel="next"); total: tổng số bản ghi upstream báo
+ * trong envelope (countPath) hoặc header (countHeader), null nếu không có.
+ */
+@Getter
+@AllArgsConstructor
+public class DynamicEntityPage {
+
+    private final List<KeyValueEntity> items;
+    private final Map<String, String> envelopeValues;
+    private final int itemCount;
+    @Nullable
+    private final String etag;
+    @Nullable
+    private final String lastModified;
+    private final boolean notModified;
+    @Nullable
+    private final String nextLink;
+    @Nullable
+    private final Long total;
+
+    public DynamicEntityPage(List<KeyValueEntity> items, Map<String, String> envelopeValues, int itemCount) {
+        this(items, envelopeValues, itemCount, null, null, false, null, null);
+    }
+
+    public static DynamicEntityPage notModified(@Nullable String etag, @Nullable String lastModified) {
+        return new DynamicEntityPage(List.of(), Map.of(), 0, etag, lastModified, true, null, null);
+    }
+
+    public DynamicEntityPage withValidators(@Nullable String etag, @Nullable String lastModified) {
+        return new DynamicEntityPage(items, envelopeValues, itemCount, etag, lastModified, notModified, nextLink, total);
+    }
+
+    public DynamicEntityPage withPaging(@Nullable String nextLink, @Nullable Long total) {
+        return new DynamicEntityPage(items, envelopeValues, itemCount, etag, lastModified, notModified, nextLink, total);
+    }
+
+    @Nullable
+    public String getEnvelopeValue(@Nullable String path) {
+        if (path == null) {
+            return null;
+        }
+        return envelopeValues.get(DynamicEntityJsonParser.normalizePath(path));
+    }
+}
@@ -0,0 +1,52 @@
+package com.company.dynamicds.dynamicds.query;
+
+import io.jmix.core.LoadContext;
+import io.jmix.core.Sort;
+import io.jmix.core.querycondition.Condition;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/**
+ * Phần của LoadContext.Query mà dynamic store hiểu được: condition, sort và phân trang.
+ * Query string (JPQL) bị bỏ qua vì upstream không có ngôn ngữ truy vấn.
+ */
+@Getter
+@AllArgsConstructor
+public class DynamicQuery {
+
+    private static final DynamicQuery ALL = new DynamicQuery(null, Map.of(), null, 0, 0);
+
+    @Nullable
+    private final Condition condition;
+
+    // Giá trị của các parameter mà condition tham chiếu qua parameterName
+    private final Map<String, Object> parameters;
+
+    @Nullable
+    private final Sort sort;
+
+    private final int firstResult;
+
+    // 0 = không giới hạn
+    private final int maxResults;
+
+    public static DynamicQuery all() {
+        return ALL;
+    }
+
+    public static DynamicQuery of(@Nullable LoadContext.Query query) {
+        if (query == null) {
+            return ALL;
+        }
+        return new DynamicQuery(query.getCondition(),
+                query.getParameters() != null ? query.getParameters() : Map.of(),
+                query.getSort(), query.getFirstResult(), query.getMaxResults());
+    }
+
+    public boolean isPaged() {
+        return maxResults > 0;
+    }
+}
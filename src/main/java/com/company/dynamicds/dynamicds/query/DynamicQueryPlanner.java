@@ -0,0 +1,138 @@
+package com.company.dynamicds.dynamicds.query;
+
+import com.company.dynamicds.dynamicds.entity.FilterOperation;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.dynamicds.metadata.CompiledMetadata;
+import com.company.dynamicds.utils.validation.StringValidation;
+import io.jmix.core.Sort;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Tách condition / sort của một DynamicQuery thành phần đẩy xuống upstream và phần chạy cục bộ.
+ * - Chỉ các PropertyCondition nằm trong nhánh AND (tính từ gốc) và có FilterParamMapping mới được đẩy xuống;
+ *   nhánh OR hoặc điều kiện không có mapping được lọc cục bộ
+ * - Sort được đẩy xuống khi MetadataDefinition có sortParam, mỗi order là một giá trị của param theo sortFormat
+ */
+@Component
+public class DynamicQueryPlanner {
+
+    public static final String DEFAULT_SORT_FORMAT = "{property},{direction}";
+
+    public QueryPlan plan(CompiledMetadata compiled, DynamicQuery query) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        List<Condition> localConditions = new ArrayList<>();
+
+        for (Condition condition : conjuncts(query.getCondition())) {
+            if (!(condition instanceof PropertyCondition propertyCondition)
+                    || !pushDown(compiled, propertyCondition, query.getParameters(), params)) {
+                localConditions.add(condition);
+            }
+        }
+
+        Predicate<KeyValueEntity> localFilter = null;
+        String localFilterKey = "";
+        if (!localConditions.isEmpty()) {
+            LogicalCondition local = LogicalCondition.and(localConditions.toArray(new Condition[0]));
+            localFilter = KeyValueConditions.toPredicate(local, query.getParameters(), compiled.getFieldTypes());
+            localFilterKey = KeyValueConditions.describe(local, query.getParameters());
+        }
+
+        Comparator<KeyValueEntity> localSort = null;
+        String localSortKey = "";
+        if (hasOrders(query.getSort())) {
+            MetadataDefinition definition = compiled.getDefinition();
+            if (StringValidation.isNotNullOrEmpty(definition.getSortParam())) {
+                for (Sort.Order order : query.getSort().getOrders()) {
+                    params.add(definition.getSortParam().trim(), formatOrder(definition.getSortFormat(), order));
+                }
+            } else {
+                localSort = KeyValueConditions.toComparator(query.getSort());
+                localSortKey = query.getSort().getOrders().stream()
+                        .map(order -> order.getProperty() + " " + order.getDirection())
+                        .collect(Collectors.joining(", "));
+            }
+        }
+
+        return new QueryPlan(params, localFilter, localSort, cacheKey(params, localFilterKey, localSortKey));
+    }
+
+    private boolean pushDown(CompiledMetadata compiled, PropertyCondition condition,
+                             Map<String, Object> parameters, MultiValueMap<String, String> params) {
+        Object value = KeyValueConditions.valueOf(condition, parameters);
+        if (KeyValueConditions.isNullOrEmpty(value)) {
+            // Bị bỏ qua khi lọc cục bộ -> coi như đã xử lý
+            return true;
+        }
+        FilterOperation operation = FilterOperation.fromConditionOperation(condition.getOperation());
+        String paramName = operation != null
+                ? compiled.getFilterParams().getOrDefault(condition.getProperty(), Map.of()).get(operation)
+                : null;
+        if (paramName == null) {
+            return false;
+        }
+        params.add(paramName, formatValue(value));
+        return true;
+    }
+
+    // Các điều kiện nối bằng AND từ gốc; nhánh OR được giữ nguyên như một điều kiện
+    private List<Condition> conjuncts(@Nullable Condition condition) {
+        if (condition == null) {
+            return List.of();
+        }
+        if (condition instanceof LogicalCondition logical && logical.getType() == LogicalCondition.Type.AND) {
+            List<Condition> result = new ArrayList<>();
+            for (Condition child : logical.getConditions()) {
+                result.addAll(conjuncts(child));
+            }
+            return result;
+        }
+        return List.of(condition);
+    }
+
+    private String formatValue(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).collect(Collectors.joining(","));
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * sortFormat hỗ trợ {property}, {direction} (asc / desc) và {sign} ("-" khi giảm dần), ví dụ "{sign}{property}".
+     */
+    private String formatOrder(@Nullable String sortFormat, Sort.Order order) {
+        boolean descending = order.getDirection() == Sort.Direction.DESC;
+        String format = StringValidation.isNotNullOrEmpty(sortFormat) ? sortFormat.trim() : DEFAULT_SORT_FORMAT;
+        return format
+                .replace("{property}", order.getProperty())
+                .replace("{direction}", descending ? "desc" : "asc")
+                .replace("{sign}", descending ? "-" : "");
+    }
+
+    private boolean hasOrders(@Nullable Sort sort) {
+        return sort != null && sort.getOrders() != null && !sort.getOrders().isEmpty();
+    }
+
+    private String cacheKey(MultiValueMap<String, String> params, String localFilterKey, String localSortKey) {
+        StringBuilder key = new StringBuilder(new TreeMap<>(params).entrySet().stream()
+                .map(e -> e.getKey() + "=" + String.join(",", e.getValue()))
+                .collect(Collectors.joining("&")));
+        if (!localFilterKey.isEmpty()) {
+            key.append("|where ").append(localFilterKey);
+        }
+        if (!localSortKey.isEmpty()) {
+            key.append("|order ").append(localSortKey);
+        }
+        return key.toString();
+    }
+}
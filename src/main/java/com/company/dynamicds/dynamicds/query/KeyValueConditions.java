@@ -0,0 +1,260 @@
+package com.company.dynamicds.dynamicds.query;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.Sort;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Đánh giá Condition / Sort của Jmix trên KeyValueEntity ở phía ứng dụng.
+ * - Condition có giá trị null / rỗng bị bỏ qua (giống skipNullOrEmpty của genericFilter)
+ * - Property null không khớp phép so sánh nào (như NULL trong SQL, kể cả not_in_list / not_contains),
+ *   chỉ khớp is_set = false
+ * - contains / starts_with / ends_with không phân biệt hoa thường như JPQL của Jmix
+ * - Giá trị từ filter (thường là String) được đổi sang kiểu của field một lần trước khi lọc (normalize),
+ *   sau đó chỉ so sánh theo compare - một thứ tự toàn phần, Number so sánh theo giá trị
+ */
+public final class KeyValueConditions {
+
+    private static final int KIND_NUMBER = 0;
+    private static final int KIND_BOOLEAN = 1;
+    private static final int KIND_STRING = 2;
+    private static final int KIND_OTHER = 3;
+
+    private KeyValueConditions() {
+        // prevent instantiation
+    }
+
+    /**
+     * @return null nếu condition không lọc gì (mọi nhánh đều bị bỏ qua)
+     */
+    @Nullable
+    public static Predicate<KeyValueEntity> toPredicate(@Nullable Condition condition, Map<String, Object> parameters,
+                                                        Map<String, MetadataFieldType> fieldTypes) {
+        if (condition instanceof PropertyCondition propertyCondition) {
+            return toPredicate(propertyCondition, parameters, fieldTypes);
+        }
+        if (condition instanceof LogicalCondition logicalCondition) {
+            List<Predicate<KeyValueEntity>> predicates = new ArrayList<>();
+            for (Condition child : logicalCondition.getConditions()) {
+                Predicate<KeyValueEntity> predicate = toPredicate(child, parameters, fieldTypes);
+                if (predicate != null) {
+                    predicates.add(predicate);
+                }
+            }
+            if (predicates.isEmpty()) {
+                return null;
+            }
+            return logicalCondition.getType() == LogicalCondition.Type.OR
+                    ? entity -> predicates.stream().anyMatch(p -> p.test(entity))
+                    : entity -> predicates.stream().allMatch(p -> p.test(entity));
+        }
+        return null;
+    }
+
+    @Nullable
+    public static Predicate<KeyValueEntity> toPredicate(PropertyCondition condition, Map<String, Object> parameters,
+                                                        Map<String, MetadataFieldType> fieldTypes) {
+        Object value = valueOf(condition, parameters);
+        if (isNullOrEmpty(value)) {
+            return null;
+        }
+        String property = condition.getProperty();
+        Predicate<Object> valuePredicate = toValuePredicate(property, condition.getOperation(), value,
+                fieldTypes.get(property));
+        return entity -> valuePredicate.test(entity.getValue(property));
+    }
+
+    /**
+     * Predicate trên giá trị của một property (dùng cho cả KeyValueEntity và cột của snapshot).
+     *
+     * @param type kiểu của property, null nếu không biết (value được so sánh nguyên trạng)
+     */
+    public static Predicate<Object> toValuePredicate(String property, String operation, Object value,
+                                                     @Nullable MetadataFieldType type) {
+        String needle = value.toString().toLowerCase(Locale.ROOT);
+        Object expected = normalize(value, type);
+
+        return switch (operation) {
+            case PropertyCondition.Operation.EQUAL -> actual -> actual != null && compare(actual, expected) == 0;
+            case PropertyCondition.Operation.NOT_EQUAL -> actual -> actual != null && compare(actual, expected) != 0;
+            case PropertyCondition.Operation.GREATER -> actual -> actual != null && compare(actual, expected) > 0;
+            case PropertyCondition.Operation.GREATER_OR_EQUAL -> actual -> actual != null && compare(actual, expected) >= 0;
+            case PropertyCondition.Operation.LESS -> actual -> actual != null && compare(actual, expected) < 0;
+            case PropertyCondition.Operation.LESS_OR_EQUAL -> actual -> actual != null && compare(actual, expected) <= 0;
+            case PropertyCondition.Operation.CONTAINS -> actual -> text(actual).contains(needle);
+            case PropertyCondition.Operation.NOT_CONTAINS -> actual -> actual != null && !text(actual).contains(needle);
+            case PropertyCondition.Operation.STARTS_WITH -> actual -> text(actual).startsWith(needle);
+            case PropertyCondition.Operation.ENDS_WITH -> actual -> text(actual).endsWith(needle);
+            case PropertyCondition.Operation.IS_SET -> {
+                boolean set = Boolean.parseBoolean(value.toString());
+                yield actual -> (actual != null) == set;
+            }
+            case PropertyCondition.Operation.IN_LIST -> {
+                Collection<?> values = asCollection(expected);
+                yield actual -> actual != null && values.stream().anyMatch(v -> compare(actual, v) == 0);
+            }
+            case PropertyCondition.Operation.NOT_IN_LIST -> {
+                Collection<?> values = asCollection(expected);
+                yield actual -> actual != null && values.stream().noneMatch(v -> compare(actual, v) == 0);
+            }
+            default -> throw new IllegalStateException("Unsupported condition operation '" + operation
+                    + "' for property " + property);
+        };
+    }
+
+    /**
+     * @return null nếu không có order nào
+     */
+    @Nullable
+    public static Comparator<KeyValueEntity> toComparator(@Nullable Sort sort) {
+        if (sort == null || sort.getOrders() == null || sort.getOrders().isEmpty()) {
+            return null;
+        }
+        Comparator<KeyValueEntity> comparator = null;
+        for (Sort.Order order : sort.getOrders()) {
+            String property = order.getProperty();
+            Comparator<Object> values = Comparator.nullsLast(KeyValueConditions::compare);
+            Comparator<KeyValueEntity> next = Comparator.comparing(entity -> entity.getValue(property), values);
+            if (order.getDirection() == Sort.Direction.DESC) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Giá trị của condition: parameterValue gán sẵn hoặc lấy từ parameters của query theo parameterName.
+     */
+    @Nullable
+    public static Object valueOf(PropertyCondition condition, Map<String, Object> parameters) {
+        if (condition.getParameterValue() != null) {
+            return condition.getParameterValue();
+        }
+        String parameterName = condition.getParameterName();
+        return parameterName != null ? parameters.get(parameterName) : null;
+    }
+
+    public static boolean isNullOrEmpty(@Nullable Object value) {
+        return value == null
+                || (value instanceof String text && text.isEmpty())
+                || (value instanceof Collection<?> collection && collection.isEmpty());
+    }
+
+    /**
+     * Mô tả ổn định của condition, dùng làm một phần key cache.
+     */
+    public static String describe(@Nullable Condition condition, Map<String, Object> parameters) {
+        if (condition instanceof PropertyCondition propertyCondition) {
+            Object value = valueOf(propertyCondition, parameters);
+            return isNullOrEmpty(value) ? "" : propertyCondition.getProperty() + " "
+                    + propertyCondition.getOperation() + " " + value;
+        }
+        if (condition instanceof LogicalCondition logicalCondition) {
+            StringJoiner joiner = new StringJoiner(" " + logicalCondition.getType() + " ", "(", ")");
+            for (Condition child : logicalCondition.getConditions()) {
+                String described = describe(child, parameters);
+                if (!described.isEmpty()) {
+                    joiner.add(described);
+                }
+            }
+            return joiner.length() > 2 ? joiner.toString() : "";
+        }
+        return "";
+    }
+
+    /**
+     * Đổi giá trị filter sang kiểu của field: INTEGER / DOUBLE -> Double, BOOLEAN -> Boolean, STRING -> String;
+     * collection (in_list) được đổi từng phần tử. Không đổi được (hoặc không biết kiểu) thì giữ nguyên.
+     */
+    @Nullable
+    public static Object normalize(@Nullable Object value, @Nullable MetadataFieldType type) {
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().map(item -> normalize(item, type)).toList();
+        }
+        if (value == null || type == null) {
+            return value;
+        }
+        return switch (type) {
+            case INTEGER, DOUBLE -> {
+                if (value instanceof Number) {
+                    yield value;
+                }
+                Double number = parseDouble(value);
+                yield number != null ? number : value;
+            }
+            case BOOLEAN -> {
+                if (value instanceof Boolean) {
+                    yield value;
+                }
+                String text = value.toString().trim();
+                yield text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false") ? Boolean.valueOf(text) : value;
+            }
+            case STRING -> value.toString();
+        };
+    }
+
+    /**
+     * Thứ tự toàn phần dùng chung cho filter, sort cục bộ và sort index của snapshot; null nhỏ hơn mọi giá trị.
+     * Giá trị khác loại không được convert mà xếp theo loại: Number < Boolean < String < các kiểu khác
+     * (theo tên class), nên kết quả không phụ thuộc thứ tự tham số và sort không bao giờ vi phạm contract.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compare(@Nullable Object actual, @Nullable Object expected) {
+        if (actual == null || expected == null) {
+            return actual == expected ? 0 : (actual == null ? -1 : 1);
+        }
+        int kind = kindOf(actual);
+        int otherKind = kindOf(expected);
+        if (kind != otherKind) {
+            return Integer.compare(kind, otherKind);
+        }
+        return switch (kind) {
+            case KIND_NUMBER -> Double.compare(((Number) actual).doubleValue(), ((Number) expected).doubleValue());
+            case KIND_BOOLEAN -> ((Boolean) actual).compareTo((Boolean) expected);
+            case KIND_STRING -> ((String) actual).compareTo((String) expected);
+            default -> {
+                if (actual.getClass() != expected.getClass()) {
+                    yield actual.getClass().getName().compareTo(expected.getClass().getName());
+                }
+                yield actual instanceof Comparable comparable
+                        ? comparable.compareTo(expected)
+                        : actual.toString().compareTo(expected.toString());
+            }
+        };
+    }
+
+    private static int kindOf(Object value) {
+        if (value instanceof Number) {
+            return KIND_NUMBER;
+        }
+        if (value instanceof Boolean) {
+            return KIND_BOOLEAN;
+        }
+        return value instanceof String ? KIND_STRING : KIND_OTHER;
+    }
+
+    @Nullable
+    private static Double parseDouble(Object value) {
+        try {
+            return Double.valueOf(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String text(@Nullable Object value) {
+        return value != null ? value.toString().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static Collection<?> asCollection(Object value) {
+        return value instanceof Collection<?> collection ? collection : List.of(value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.company.dynamicds.dynamicds.query;
+
+import io.jmix.core.entity.KeyValueEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * Cách thực thi một DynamicQuery cho một MetadataDefinition:
+ * - queryParams: filter / sort được đẩy xuống upstream
+ * - localFilter / localSort: phần upstream không hỗ trợ, chạy trên từng trang khi nhận về
+ * - cacheKey: dạng chuẩn hoá của cả hai phần, dùng để phân biệt kết quả trong cache
+ */
+@Getter
+@AllArgsConstructor
+public class QueryPlan {
+
+    private static final QueryPlan NONE = new QueryPlan(
+            CollectionUtils.unmodifiableMultiValueMap(new LinkedMultiValueMap<>()), null, null, "");
+
+    private final MultiValueMap<String, String> queryParams;
+
+    @Nullable
+    private final Predicate<KeyValueEntity> localFilter;
+
+    @Nullable
+    private final Comparator<KeyValueEntity> localSort;
+
+    private final String cacheKey;
+
+    /**
+     * Không filter, không sort: toàn bộ dữ liệu theo thứ tự của upstream.
+     */
+    public static QueryPlan none() {
+        return NONE;
+    }
+
+    /**
+     * Upstream trả đúng các dòng và đúng thứ tự -> phân trang cũng đẩy xuống được.
+     */
+    public boolean isFullyPushedDown() {
+        return localFilter == null && localSort == null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.company.dynamicds.dynamicds.refresh;
+
+import com.company.dynamicds.dynamicds.DynamicKeyValueRestInvoker;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.repository.MetadataDefinitionRepository;
+import com.company.dynamicds.utils.validation.StringValidation;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.security.SystemAuthenticator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Làm mới snapshot của các dynamic entity theo lịch (refreshIntervalSeconds hoặc refreshCron của MetadataDefinition)
+ * để người dùng không phải chờ tải lại khi snapshot hết hạn: bản mới được tải ở background và thay vào cache
+ * trong một lần put, query đang chạy vẫn đọc bản cũ.
+ * - Lịch được dựng khi ứng dụng sẵn sàng và dựng lại khi MetadataDefinition thay đổi
+ * - Interval dùng fixed delay (lần sau tính từ khi lần trước xong), cron theo định dạng 6 trường của Spring
+ * - Lỗi chỉ được ghi vào trạng thái và log, snapshot cũ vẫn được dùng
+ */
+@Slf4j
+@Component
+public class SnapshotRefreshScheduler implements DisposableBean {
+
+    private final DynamicKeyValueRestInvoker restInvoker;
+    private final MetadataDefinitionRepository metadataDefinitionRepository;
+    private final SystemAuthenticator systemAuthenticator;
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    // definition id -> lịch đang chạy
+    private final Map<UUID, ScheduledRefresh> scheduled = new ConcurrentHashMap<>();
+    // "store/entity" -> trạng thái
+    private final Map<String, SnapshotRefreshStatus> statuses = new ConcurrentHashMap<>();
+
+    public SnapshotRefreshScheduler(DynamicKeyValueRestInvoker restInvoker,
+                                    MetadataDefinitionRepository metadataDefinitionRepository,
+                                    SystemAuthenticator systemAuthenticator,
+                                    @Value("${dynamicds.refresh.pool-size:2}") int poolSize) {
+        this.restInvoker = restInvoker;
+        this.metadataDefinitionRepository = metadataDefinitionRepository;
+        this.systemAuthenticator = systemAuthenticator;
+        this.taskScheduler = new ThreadPoolTaskScheduler();
+        this.taskScheduler.setPoolSize(Math.max(1, poolSize));
+        this.taskScheduler.setThreadNamePrefix("dynamicds-scheduler-");
+        this.taskScheduler.setDaemon(true);
+        this.taskScheduler.initialize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        systemAuthenticator.runWithSystem(() -> metadataDefinitionRepository.findAll().forEach(this::schedule));
+        log.info("Snapshot refresh scheduled for {} dynamic entities", scheduled.size());
+    }
+
+    @TransactionalEventListener
+    public void onMetadataDefinitionChanged(EntityChangedEvent<MetadataDefinition> event) {
+        UUID definitionId = (UUID) event.getEntityId().getValue();
+        cancel(definitionId);
+        if (event.getType() != EntityChangedEvent.Type.DELETED) {
+            systemAuthenticator.runWithSystem(() ->
+                    metadataDefinitionRepository.findById(definitionId).ifPresent(this::schedule));
+        }
+    }
+
+    /**
+     * Trạng thái làm mới của các entity có lịch trong store, theo tên entity.
+     */
+    public List<SnapshotRefreshStatus> getStatuses(String storeName) {
+        return statuses.values().stream()
+                .filter(status -> status.storeName().equals(storeName))
+                .sorted(Comparator.comparing(SnapshotRefreshStatus::entityName))
+                .toList();
+    }
+
+    /**
+     * Làm mới snapshot của entity ngay (ngoài lịch) và ghi lại trạng thái.
+     */
+    public SnapshotRefreshStatus refreshNow(String storeName, String entityName) {
+        String key = key(storeName, entityName);
+        long start = System.nanoTime();
+        try {
+            int rowCount = restInvoker.refreshSnapshotTable(storeName, entityName).getRowCount();
+            long durationMs = elapsedMs(start);
+            log.debug("Snapshot {} refreshed in {} ms ({} rows)", key, durationMs, rowCount);
+            return statuses.compute(key, (k, status) -> statusOf(status, storeName, entityName)
+                    .succeeded(Instant.now(), durationMs, rowCount));
+        } catch (RuntimeException e) {
+            long durationMs = elapsedMs(start);
+            log.warn("Scheduled refresh of snapshot {} failed", key, e);
+            String error = Optional.ofNullable(e.getMessage()).orElse(e.getClass().getSimpleName());
+            return statuses.compute(key, (k, status) -> statusOf(status, storeName, entityName)
+                    .failed(Instant.now(), durationMs, error));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        taskScheduler.shutdown();
+    }
+
+    private void schedule(MetadataDefinition definition) {
+        String storeName = definition.getStoreName();
+        String entityName = definition.getName();
+        Runnable task = () -> systemAuthenticator.runWithSystem(() -> refreshNow(storeName, entityName));
+
+        ScheduledFuture<?> future;
+        String cron = definition.getRefreshCron();
+        Integer interval = definition.getRefreshIntervalSeconds();
+        if (StringValidation.isNotNullOrEmpty(cron)) {
+            try {
+                future = taskScheduler.schedule(task, new CronTrigger(cron.trim()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid refresh cron '{}' for {}/{}, refresh is not scheduled", cron, storeName, entityName, e);
+                return;
+            }
+        } else if (interval != null && interval > 0) {
+            Duration delay = Duration.ofSeconds(interval);
+            future = taskScheduler.scheduleWithFixedDelay(task, Instant.now().plus(delay), delay);
+        } else {
+            return;
+        }
+
+        scheduled.put(definition.getId(), new ScheduledRefresh(storeName, entityName, future));
+        statuses.computeIfAbsent(key(storeName, entityName), k -> SnapshotRefreshStatus.initial(storeName, entityName));
+        log.debug("Snapshot refresh of {}/{} scheduled ({})", storeName, entityName,
+                StringValidation.isNotNullOrEmpty(cron) ? "cron " + cron : "every " + interval + "s");
+    }
+
+    private void cancel(UUID definitionId) {
+        ScheduledRefresh refresh = scheduled.remove(definitionId);
+        if (refresh != null) {
+            refresh.future().cancel(false);
+            statuses.remove(key(refresh.storeName(), refresh.entityName()));
+        }
+    }
+
+    private static SnapshotRefreshStatus statusOf(SnapshotRefreshStatus status, String storeName, String entityName) {
+        return status != null ? status : SnapshotRefreshStatus.initial(storeName, entityName);
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static String key(String storeName, String entityName) {
+        return storeName + "/" + entityName;
+    }
+
+    private record ScheduledRefresh(String storeName, String entityName, ScheduledFuture<?> future) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.company.dynamicds.dynamicds.refresh;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Trạng thái làm mới snapshot theo lịch của một dynamic entity.
+ *
+ * @param lastRefreshAt  lần làm mới thành công gần nhất
+ * @param failureCount   số lần thất bại liên tiếp kể từ lần thành công gần nhất
+ */
+public record SnapshotRefreshStatus(String storeName,
+                                    String entityName,
+                                    @Nullable Instant lastRefreshAt,
+                                    long lastDurationMs,
+                                    int rowCount,
+                                    int failureCount,
+                                    @Nullable String lastError,
+                                    @Nullable Instant lastFailureAt) {
+
+    static SnapshotRefreshStatus initial(String storeName, String entityName) {
+        return new SnapshotRefreshStatus(storeName, entityName, null, 0, 0, 0, null, null);
+    }
+
+    SnapshotRefreshStatus succeeded(Instant at, long durationMs, int rowCount) {
+        return new SnapshotRefreshStatus(storeName, entityName, at, durationMs, rowCount, 0, lastError, lastFailureAt);
+    }
+
+    SnapshotRefreshStatus failed(Instant at, long durationMs, String error) {
+        return new SnapshotRefreshStatus(storeName, entityName, lastRefreshAt, durationMs, rowCount,
+                failureCount + 1, error, at);
+    }
+}
@@ -0,0 +1,51 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import org.springframework.lang.Nullable;
+
+import java.util.BitSet;
+
+/**
+ * Cột BOOLEAN: một bit cho giá trị và một bit đánh dấu null mỗi dòng.
+ */
+public class BooleanColumn implements SnapshotColumn {
+
+    private final int size;
+    private final BitSet values;
+    private final BitSet nulls;
+
+    BooleanColumn(int size, BitSet values, BitSet nulls) {
+        this.size = size;
+        this.values = values;
+        this.nulls = nulls;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Nullable
+    @Override
+    public Object get(int row) {
+        return nulls.get(row) ? null : values.get(row);
+    }
+
+    BitSet getValues() {
+        return values;
+    }
+
+    BitSet getNulls() {
+        return nulls;
+    }
+
+    @Override
+    public MetadataFieldType getType() {
+        return MetadataFieldType.BOOLEAN;
+    }
+
+    @Override
+    public long estimateWeight() {
+        return 32L + (values.size() + nulls.size()) / 8;
+    }
+}
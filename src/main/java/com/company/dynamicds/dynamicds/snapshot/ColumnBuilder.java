@@ -0,0 +1,125 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import org.springframework.lang.Nullable;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Ghi giá trị của một field theo từng dòng vào buffer đúng kiểu khai báo.
+ * Gặp giá trị khác kiểu (object / array JSON được parser giữ dạng string) thì chuyển cả cột sang ObjectColumn
+ * để giá trị đọc ra luôn giống KeyValueEntity gốc.
+ */
+class ColumnBuilder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final MetadataFieldType type;
+    private final BitSet nulls = new BitSet();
+    private int size;
+
+    private int[] ints;
+    private double[] doubles;
+    private BitSet booleans;
+    private int[] codes;
+    private Map<String, Integer> dictionaryIndex;
+    private List<String> dictionary;
+
+    // Khác null khi cột đã chuyển sang ObjectColumn
+    private List<Object> objects;
+
+    ColumnBuilder(MetadataFieldType type) {
+        this.type = type;
+        switch (type) {
+            case INTEGER -> ints = new int[INITIAL_CAPACITY];
+            case DOUBLE -> doubles = new double[INITIAL_CAPACITY];
+            case BOOLEAN -> booleans = new BitSet();
+            case STRING -> {
+                codes = new int[INITIAL_CAPACITY];
+                dictionaryIndex = new HashMap<>();
+                dictionary = new ArrayList<>();
+            }
+        }
+    }
+
+    void add(@Nullable Object value) {
+        if (objects != null) {
+            objects.add(value);
+            size++;
+            return;
+        }
+        if (value != null && !accepts(value)) {
+            degrade();
+            add(value);
+            return;
+        }
+
+        ensureCapacity();
+        if (value == null) {
+            nulls.set(size);
+            if (codes != null) {
+                codes[size] = -1;
+            }
+        } else {
+            switch (type) {
+                case INTEGER -> ints[size] = (Integer) value;
+                case DOUBLE -> doubles[size] = (Double) value;
+                case BOOLEAN -> booleans.set(size, (Boolean) value);
+                case STRING -> codes[size] = dictionaryIndex.computeIfAbsent((String) value, key -> {
+                    dictionary.add(key);
+                    return dictionary.size() - 1;
+                });
+            }
+        }
+        size++;
+    }
+
+    SnapshotColumn build() {
+        if (objects != null) {
+            return new ObjectColumn(Arrays.asList(objects.toArray()));
+        }
+        return switch (type) {
+            case INTEGER -> new IntColumn(IntBuffer.wrap(Arrays.copyOf(ints, size)), nulls);
+            case DOUBLE -> new DoubleColumn(DoubleBuffer.wrap(Arrays.copyOf(doubles, size)), nulls);
+            case BOOLEAN -> new BooleanColumn(size, booleans, nulls);
+            case STRING -> new DictionaryStringColumn(IntBuffer.wrap(Arrays.copyOf(codes, size)),
+                    Arrays.asList(dictionary.toArray(new String[0])));
+        };
+    }
+
+    private boolean accepts(Object value) {
+        return switch (type) {
+            case INTEGER -> value instanceof Integer;
+            case DOUBLE -> value instanceof Double;
+            case BOOLEAN -> value instanceof Boolean;
+            case STRING -> value instanceof String;
+        };
+    }
+
+    private void ensureCapacity() {
+        if (ints != null && size == ints.length) {
+            ints = Arrays.copyOf(ints, size * 2);
+        } else if (doubles != null && size == doubles.length) {
+            doubles = Arrays.copyOf(doubles, size * 2);
+        } else if (codes != null && size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+    }
+
+    private void degrade() {
+        SnapshotColumn built = build();
+        List<Object> values = new ArrayList<>(Math.max(size * 2, INITIAL_CAPACITY));
+        for (int row = 0; row < size; row++) {
+            values.add(built.get(row));
+        }
+        ints = null;
+        doubles = null;
+        booleans = null;
+        codes = null;
+        dictionaryIndex = null;
+        dictionary = null;
+        objects = values;
+    }
+}
@@ -0,0 +1,67 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import org.springframework.lang.Nullable;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * Cột STRING đã dictionary-encode: mỗi dòng một mã int, mỗi giá trị khác nhau chỉ giữ một String.
+ * Mã -1 là null. Với snapshot đã spill, dictionary đọc String từ file đã map khi cần.
+ */
+public class DictionaryStringColumn implements SnapshotColumn {
+
+    private final IntBuffer codes;
+    private final List<String> dictionary;
+
+    DictionaryStringColumn(IntBuffer codes, List<String> dictionary) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public int size() {
+        return codes.limit();
+    }
+
+    @Nullable
+    @Override
+    public Object get(int row) {
+        int code = codes.get(row);
+        return code < 0 ? null : dictionary.get(code);
+    }
+
+    public int getCode(int row) {
+        return codes.get(row);
+    }
+
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    IntBuffer getCodes() {
+        return codes;
+    }
+
+    List<String> getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public MetadataFieldType getType() {
+        return MetadataFieldType.STRING;
+    }
+
+    @Override
+    public long estimateWeight() {
+        if (codes.isDirect()) {
+            return 64L;
+        }
+        long weight = 32L + codes.limit() * 4L + dictionary.size() * 8L;
+        for (String value : dictionary) {
+            weight += 40 + value.length();
+        }
+        return weight;
+    }
+}
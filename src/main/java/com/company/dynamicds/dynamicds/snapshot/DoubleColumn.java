@@ -0,0 +1,54 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import org.springframework.lang.Nullable;
+
+import java.nio.DoubleBuffer;
+import java.util.BitSet;
+
+/**
+ * Cột DOUBLE: DoubleBuffer (mảng heap hoặc vùng file đã map) + bitset đánh dấu null.
+ */
+public class DoubleColumn implements SnapshotColumn {
+
+    private final DoubleBuffer values;
+    private final BitSet nulls;
+
+    DoubleColumn(DoubleBuffer values, BitSet nulls) {
+        this.values = values;
+        this.nulls = nulls;
+    }
+
+    @Override
+    public int size() {
+        return values.limit();
+    }
+
+    @Nullable
+    @Override
+    public Object get(int row) {
+        return nulls.get(row) ? null : values.get(row);
+    }
+
+    public double getDouble(int row) {
+        return values.get(row);
+    }
+
+    DoubleBuffer getValues() {
+        return values;
+    }
+
+    BitSet getNulls() {
+        return nulls;
+    }
+
+    @Override
+    public MetadataFieldType getType() {
+        return MetadataFieldType.DOUBLE;
+    }
+
+    @Override
+    public long estimateWeight() {
+        return 48L + (values.isDirect() ? 0 : values.limit() * 8L) + nulls.size() / 8;
+    }
+}
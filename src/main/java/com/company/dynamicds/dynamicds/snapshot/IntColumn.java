@@ -0,0 +1,54 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import org.springframework.lang.Nullable;
+
+import java.nio.IntBuffer;
+import java.util.BitSet;
+
+/**
+ * Cột INTEGER: IntBuffer (mảng heap hoặc vùng file đã map) + bitset đánh dấu null.
+ */
+public class IntColumn implements SnapshotColumn {
+
+    private final IntBuffer values;
+    private final BitSet nulls;
+
+    IntColumn(IntBuffer values, BitSet nulls) {
+        this.values = values;
+        this.nulls = nulls;
+    }
+
+    @Override
+    public int size() {
+        return values.limit();
+    }
+
+    @Nullable
+    @Override
+    public Object get(int row) {
+        return nulls.get(row) ? null : values.get(row);
+    }
+
+    public int getInt(int row) {
+        return values.get(row);
+    }
+
+    IntBuffer getValues() {
+        return values;
+    }
+
+    BitSet getNulls() {
+        return nulls;
+    }
+
+    @Override
+    public MetadataFieldType getType() {
+        return MetadataFieldType.INTEGER;
+    }
+
+    @Override
+    public long estimateWeight() {
+        return 48L + (values.isDirect() ? 0 : values.limit() * 4L) + nulls.size() / 8;
+    }
+}
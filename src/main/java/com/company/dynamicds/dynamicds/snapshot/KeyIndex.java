@@ -0,0 +1,106 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Hash index theo key field của snapshot, dựng một lần và dùng cho loadOne:
+ * - open addressing trên int[] (id dòng + 1, 0 = ô trống), không boxing id dòng, không giữ bản sao key
+ * - so sánh theo dạng chuẩn hoá của key (SnapshotTable.normalizeKey): 42, 42L và 42.0 là cùng một key
+ * - key trùng nhau: dòng đầu tiên thắng; dòng có key null không được index
+ */
+public class KeyIndex {
+
+    private final SnapshotColumn column;
+    private final int[] slots;
+    private final int mask;
+
+    private KeyIndex(SnapshotColumn column, int[] slots) {
+        this.column = column;
+        this.slots = slots;
+        this.mask = slots.length - 1;
+    }
+
+    static KeyIndex build(SnapshotColumn column) {
+        int rowCount = column.size();
+        // Hệ số tải <= 0.5
+        int capacity = Integer.highestOneBit(Math.max(2, rowCount) * 2 - 1) << 1;
+        KeyIndex index = new KeyIndex(column, new int[capacity]);
+        for (int row = 0; row < rowCount; row++) {
+            Object key = SnapshotTable.normalizeKey(column.get(row));
+            if (key != null) {
+                index.insert(key, row);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Id dòng có key bằng id; id dạng String được thử thêm dạng số (id đến từ URL / route của view).
+     *
+     * @return -1 nếu không có
+     */
+    public int find(@Nullable Object id) {
+        Object key = SnapshotTable.normalizeKey(id);
+        if (key == null) {
+            return -1;
+        }
+        int row = probe(key);
+        if (row < 0 && key instanceof String text) {
+            Object number = parseNumber(text);
+            if (number != null) {
+                row = probe(number);
+            }
+        } else if (row < 0 && !(key instanceof String)) {
+            row = probe(key.toString());
+        }
+        return row;
+    }
+
+    public long estimateWeight() {
+        return 16L + slots.length * 4L;
+    }
+
+    private void insert(Object key, int row) {
+        int slot = spread(key.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            if (Objects.equals(SnapshotTable.normalizeKey(column.get(slots[slot] - 1)), key)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    private int probe(Object key) {
+        int slot = spread(key.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int row = slots[slot] - 1;
+            if (Objects.equals(SnapshotTable.normalizeKey(column.get(row)), key)) {
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Nullable
+    private static Object parseNumber(String text) {
+        String trimmed = text.trim();
+        try {
+            return Long.valueOf(trimmed);
+        } catch (NumberFormatException e) {
+            // không phải số nguyên
+        }
+        try {
+            return SnapshotTable.normalizeKey(Double.valueOf(trimmed));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,34 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+
+/**
+ * Danh sách String nằm trong file snapshot đã map: offsets (count + 1 phần tử) trỏ vào vùng byte UTF-8.
+ * String được decode mỗi lần đọc, không giữ trên heap.
+ */
+class MappedStrings extends AbstractList<String> {
+
+    private final IntBuffer offsets;
+    private final ByteBuffer bytes;
+
+    MappedStrings(IntBuffer offsets, ByteBuffer bytes) {
+        this.offsets = offsets;
+        this.bytes = bytes;
+    }
+
+    @Override
+    public String get(int index) {
+        int from = offsets.get(index);
+        byte[] value = new byte[offsets.get(index + 1) - from];
+        bytes.get(from, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return offsets.limit() - 1;
+    }
+}
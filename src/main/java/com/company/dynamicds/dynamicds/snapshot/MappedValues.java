@@ -0,0 +1,53 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+
+/**
+ * Giá trị của ObjectColumn nằm trong file snapshot đã map: mỗi dòng một byte tag + dữ liệu,
+ * offsets (rowCount + 1 phần tử) trỏ vào vùng byte; dòng rỗng là null.
+ */
+class MappedValues extends AbstractList<Object> {
+
+    static final byte INTEGER = 1;
+    static final byte DOUBLE = 2;
+    static final byte BOOLEAN = 3;
+    static final byte STRING = 4;
+
+    private final IntBuffer offsets;
+    private final ByteBuffer bytes;
+
+    MappedValues(IntBuffer offsets, ByteBuffer bytes) {
+        this.offsets = offsets;
+        this.bytes = bytes;
+    }
+
+    @Nullable
+    @Override
+    public Object get(int index) {
+        int from = offsets.get(index);
+        int to = offsets.get(index + 1);
+        if (from == to) {
+            return null;
+        }
+        return switch (bytes.get(from)) {
+            case INTEGER -> bytes.getInt(from + 1);
+            case DOUBLE -> bytes.getDouble(from + 1);
+            case BOOLEAN -> bytes.get(from + 1) != 0;
+            default -> {
+                byte[] value = new byte[to - from - 1];
+                bytes.get(from + 1, value);
+                yield new String(value, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return offsets.limit() - 1;
+    }
+}
@@ -0,0 +1,56 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Cột dự phòng khi giá trị không khớp kiểu khai báo (ví dụ object / array JSON được giữ dạng string
+ * trong field INTEGER): giữ nguyên Object như KeyValueEntity.
+ */
+public class ObjectColumn implements SnapshotColumn {
+
+    private final List<Object> values;
+
+    ObjectColumn(List<Object> values) {
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Nullable
+    @Override
+    public Object get(int row) {
+        return values.get(row);
+    }
+
+    List<Object> getValues() {
+        return values;
+    }
+
+    @Nullable
+    @Override
+    public MetadataFieldType getType() {
+        return null;
+    }
+
+    @Override
+    public long estimateWeight() {
+        if (values instanceof MappedValues) {
+            return 64L;
+        }
+        long weight = 16L + values.size() * 8L;
+        for (Object value : values) {
+            if (value instanceof String string) {
+                weight += 40 + string.length();
+            } else if (value != null && !(value instanceof Boolean)) {
+                weight += 16;
+            }
+        }
+        return weight;
+    }
+}
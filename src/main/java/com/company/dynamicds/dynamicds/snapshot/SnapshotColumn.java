@@ -0,0 +1,27 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import org.springframework.lang.Nullable;
+
+/**
+ * Một cột của SnapshotTable. Giá trị được lưu theo kiểu của MetadataFieldType (mảng primitive,
+ * bitset, string đã dictionary-encode) và chỉ được box khi đọc ra.
+ */
+public interface SnapshotColumn {
+
+    int size();
+
+    @Nullable
+    Object get(int row);
+
+    /**
+     * Kiểu của mọi giá trị trong cột, null với ObjectColumn (cột nhiều kiểu).
+     */
+    @Nullable
+    MetadataFieldType getType();
+
+    /**
+     * Dung lượng heap ước tính của dữ liệu cột (byte).
+     */
+    long estimateWeight();
+}
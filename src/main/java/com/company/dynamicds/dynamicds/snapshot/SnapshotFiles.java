@@ -0,0 +1,318 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Định dạng file nhị phân của SnapshotTable:
+ * - header 16 byte: magic, version, vị trí footer
+ * - các vùng dữ liệu của từng cột (căn 8 byte): bitset null, mảng int / double, mã dictionary,
+ *   offsets + byte UTF-8 của dictionary hoặc giá trị dạng tag của ObjectColumn
+ * - footer: rowCount, SnapshotVersion (fetchedAt, ETag, Last-Modified),
+ *   danh sách cột (tên, loại, vị trí và độ dài từng vùng)
+ * Khi đọc, mỗi vùng được map READ_ONLY; chỉ bitset null / boolean được copy lên heap.
+ */
+final class SnapshotFiles {
+
+    private static final int MAGIC = 0x44445353;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+
+    private static final byte INT_COLUMN = 1;
+    private static final byte DOUBLE_COLUMN = 2;
+    private static final byte BOOLEAN_COLUMN = 3;
+    private static final byte STRING_COLUMN = 4;
+    private static final byte OBJECT_COLUMN = 5;
+
+    private SnapshotFiles() {
+        // prevent instantiation
+    }
+
+    /**
+     * @return kích thước file (byte)
+     */
+    static long write(SnapshotTable table, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SectionWriter out = new SectionWriter(channel, HEADER_SIZE);
+            List<ColumnSection> sections = new ArrayList<>();
+            for (String fieldName : table.getFieldNames()) {
+                sections.add(writeColumn(out, fieldName, table.getColumn(fieldName)));
+            }
+
+            long footerOffset = out.align();
+            out.putInt(table.getRowCount());
+            SnapshotVersion version = table.getVersion();
+            out.putLong(version.fetchedAt().toEpochMilli());
+            putString(out, version.etag());
+            putString(out, version.lastModified());
+            out.putInt(sections.size());
+            for (ColumnSection section : sections) {
+                putString(out, section.name());
+                out.put(section.kind());
+                out.put((byte) section.parts().size());
+                for (long[] part : section.parts()) {
+                    out.putLong(part[0]);
+                    out.putLong(part[1]);
+                }
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(footerOffset).flip();
+            channel.write(header, 0);
+            return channel.size();
+        }
+    }
+
+    static SnapshotTable map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot file " + file);
+            }
+            long footerOffset = header.getLong();
+
+            ByteBuffer footer = ByteBuffer.allocate((int) (channel.size() - footerOffset));
+            channel.read(footer, footerOffset);
+            footer.flip();
+
+            int rowCount = footer.getInt();
+            SnapshotVersion version = new SnapshotVersion(Instant.ofEpochMilli(footer.getLong()),
+                    getString(footer), getString(footer));
+            int columnCount = footer.getInt();
+            List<String> fieldNames = new ArrayList<>(columnCount);
+            Map<String, SnapshotColumn> columns = new HashMap<>();
+            for (int i = 0; i < columnCount; i++) {
+                String fieldName = getString(footer);
+                byte kind = footer.get();
+                ByteBuffer[] parts = new ByteBuffer[footer.get()];
+                for (int p = 0; p < parts.length; p++) {
+                    long offset = footer.getLong();
+                    long length = footer.getLong();
+                    parts[p] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                }
+                fieldNames.add(fieldName);
+                columns.put(fieldName, readColumn(kind, parts, rowCount));
+            }
+            return SnapshotTable.of(fieldNames, columns, rowCount, version);
+        }
+    }
+
+    private static ColumnSection writeColumn(SectionWriter out, String fieldName, SnapshotColumn column) throws IOException {
+        List<long[]> parts = new ArrayList<>();
+        if (column instanceof IntColumn intColumn) {
+            parts.add(writeBits(out, intColumn.getNulls()));
+            long start = out.align();
+            for (int row = 0; row < column.size(); row++) {
+                out.putInt(intColumn.getValues().get(row));
+            }
+            parts.add(new long[]{start, out.position() - start});
+            return new ColumnSection(fieldName, INT_COLUMN, parts);
+        }
+        if (column instanceof DoubleColumn doubleColumn) {
+            parts.add(writeBits(out, doubleColumn.getNulls()));
+            long start = out.align();
+            for (int row = 0; row < column.size(); row++) {
+                out.putDouble(doubleColumn.getValues().get(row));
+            }
+            parts.add(new long[]{start, out.position() - start});
+            return new ColumnSection(fieldName, DOUBLE_COLUMN, parts);
+        }
+        if (column instanceof BooleanColumn booleanColumn) {
+            parts.add(writeBits(out, booleanColumn.getValues()));
+            parts.add(writeBits(out, booleanColumn.getNulls()));
+            return new ColumnSection(fieldName, BOOLEAN_COLUMN, parts);
+        }
+        if (column instanceof DictionaryStringColumn stringColumn) {
+            long start = out.align();
+            for (int row = 0; row < column.size(); row++) {
+                out.putInt(stringColumn.getCodes().get(row));
+            }
+            parts.add(new long[]{start, out.position() - start});
+            List<String> dictionary = stringColumn.getDictionary();
+            writeValues(out, dictionary.size(), index -> dictionary.get(index).getBytes(StandardCharsets.UTF_8), parts);
+            return new ColumnSection(fieldName, STRING_COLUMN, parts);
+        }
+
+        writeValues(out, column.size(), row -> encode(column.get(row)), parts);
+        return new ColumnSection(fieldName, OBJECT_COLUMN, parts);
+    }
+
+    private static SnapshotColumn readColumn(byte kind, ByteBuffer[] parts, int rowCount) throws IOException {
+        return switch (kind) {
+            case INT_COLUMN -> new IntColumn(parts[1].asIntBuffer(), BitSet.valueOf(parts[0].asLongBuffer()));
+            case DOUBLE_COLUMN -> new DoubleColumn(parts[1].asDoubleBuffer(), BitSet.valueOf(parts[0].asLongBuffer()));
+            case BOOLEAN_COLUMN -> new BooleanColumn(rowCount, BitSet.valueOf(parts[0].asLongBuffer()),
+                    BitSet.valueOf(parts[1].asLongBuffer()));
+            case STRING_COLUMN -> new DictionaryStringColumn(parts[0].asIntBuffer(),
+                    new MappedStrings(parts[2].asIntBuffer(), parts[1]));
+            case OBJECT_COLUMN -> new ObjectColumn(new MappedValues(parts[1].asIntBuffer(), parts[0]));
+            default -> throw new IOException("Unknown snapshot column kind " + kind);
+        };
+    }
+
+    private static long[] writeBits(SectionWriter out, BitSet bits) throws IOException {
+        long start = out.align();
+        for (long word : bits.toLongArray()) {
+            out.putLong(word);
+        }
+        return new long[]{start, out.position() - start};
+    }
+
+    /**
+     * Ghi vùng byte trước rồi tới offsets (count + 1 phần tử); parts nhận thêm [bytes, offsets].
+     */
+    private static void writeValues(SectionWriter out, int count, ValueEncoder encoder, List<long[]> parts)
+            throws IOException {
+        int[] offsets = new int[count + 1];
+        long start = out.align();
+        for (int i = 0; i < count; i++) {
+            out.putBytes(encoder.encode(i));
+            long length = out.position() - start;
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot column exceeds 2 GB");
+            }
+            offsets[i + 1] = (int) length;
+        }
+        parts.add(new long[]{start, out.position() - start});
+
+        start = out.align();
+        for (int offset : offsets) {
+            out.putInt(offset);
+        }
+        parts.add(new long[]{start, out.position() - start});
+    }
+
+    // Độ dài -1 là null
+    private static void putString(SectionWriter out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.putBytes(bytes);
+    }
+
+    @Nullable
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(Object value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (value instanceof Integer number) {
+            return ByteBuffer.allocate(5).put(MappedValues.INTEGER).putInt(number).array();
+        }
+        if (value instanceof Double number) {
+            return ByteBuffer.allocate(9).put(MappedValues.DOUBLE).putDouble(number).array();
+        }
+        if (value instanceof Boolean bool) {
+            return new byte[]{MappedValues.BOOLEAN, (byte) (bool ? 1 : 0)};
+        }
+        byte[] text = value.toString().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(text.length + 1).put(MappedValues.STRING).put(text).array();
+    }
+
+    @FunctionalInterface
+    private interface ValueEncoder {
+        byte[] encode(int index);
+    }
+
+    private record ColumnSection(String name, byte kind, List<long[]> parts) {
+    }
+
+    /**
+     * Ghi tuần tự qua một buffer 64 KB, theo dõi vị trí tuyệt đối trong file.
+     */
+    private static class SectionWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private long position;
+
+        private SectionWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        long position() {
+            return position;
+        }
+
+        long align() throws IOException {
+            while (position % 8 != 0) {
+                put((byte) 0);
+            }
+            return position;
+        }
+
+        void put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+            position++;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            position += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            position += 8;
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+            position += 8;
+        }
+
+        void putBytes(byte[] value) throws IOException {
+            int offset = 0;
+            while (offset < value.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), value.length - offset);
+                buffer.put(value, offset, length);
+                offset += length;
+                position += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            long target = position - buffer.remaining();
+            while (buffer.hasRemaining()) {
+                target += channel.write(buffer, target);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Lưu snapshot tốt gần nhất của mỗi dynamic entity xuống đĩa (cùng định dạng cột với spill, kèm SnapshotVersion)
+ * để sau khi khởi động lại, lần đọc đầu tiên dùng ngay bản trên đĩa (map lazily) thay vì tải lại toàn bộ từ upstream.
+ * - Tên file gồm store, entity và fingerprint của metadata (url, field, kiểu): đổi metadata thì bản cũ bị bỏ qua
+ * - Ghi vào file tạm rồi move atomic, file đang được map vẫn đọc được tới khi bảng cũ không còn dùng
+ * - Mỗi entity chỉ được restore một lần sau khởi động; các lần miss sau tải từ upstream như bình thường
+ */
+@Slf4j
+@Component
+public class SnapshotPersistenceStore {
+
+    private static final String FILE_SUFFIX = ".snapshot";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Set<String> restored = ConcurrentHashMap.newKeySet();
+
+    public SnapshotPersistenceStore(@Value("${dynamicds.snapshot.persist.enabled:true}") boolean enabled,
+                                    @Value("${dynamicds.snapshot.persist.dir:.jmix/work/dynamicds/snapshots}") String directory) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory).toAbsolutePath();
+    }
+
+    /**
+     * Snapshot đã lưu của entity nếu đây là lần restore đầu tiên từ khi khởi động và file khớp fingerprint.
+     */
+    @Nullable
+    public SnapshotTable restore(String storeName, String entityName, String fingerprint) {
+        if (!enabled || !restored.add(prefix(storeName, entityName))) {
+            return null;
+        }
+        return find(storeName, entityName, fingerprint);
+    }
+
+    /**
+     * Snapshot đã lưu của entity (không tính lượt restore), dùng lại khi upstream trả 304 cho conditional GET.
+     */
+    @Nullable
+    public SnapshotTable find(String storeName, String entityName, String fingerprint) {
+        if (!enabled) {
+            return null;
+        }
+        Path file = fileOf(storeName, entityName, fingerprint);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            SnapshotTable table = SnapshotFiles.map(file);
+            log.info("Snapshot {}/{} loaded from {} ({} rows, fetched at {})", storeName, entityName, file,
+                    table.getRowCount(), table.getVersion().fetchedAt());
+            return table;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot restore snapshot {}/{} from {}, discarding it", storeName, entityName, file, e);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    /**
+     * Ghi snapshot mới thay cho bản đã lưu; lỗi ghi chỉ được log, không làm hỏng lần load.
+     */
+    public void save(String storeName, String entityName, String fingerprint, SnapshotTable table) {
+        if (!enabled) {
+            return;
+        }
+        // Snapshot đã có bản mới từ upstream -> không restore bản trên đĩa nữa
+        restored.add(prefix(storeName, entityName));
+
+        Path file = fileOf(storeName, entityName, fingerprint);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            long size = SnapshotFiles.write(table, temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteOtherVersions(storeName, entityName, file);
+            log.debug("Snapshot {}/{} persisted to {} ({} KB)", storeName, entityName, file, size / 1024);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Cannot persist snapshot {}/{} to {}", storeName, entityName, file, e);
+            deleteQuietly(temp);
+        }
+    }
+
+    private void deleteOtherVersions(String storeName, String entityName, Path keep) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        String prefix = prefix(storeName, entityName) + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> !file.equals(keep))
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .forEach(SnapshotPersistenceStore::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Cannot clean snapshot directory {}", directory, e);
+        }
+    }
+
+    private Path fileOf(String storeName, String entityName, String fingerprint) {
+        return directory.resolve(prefix(storeName, entityName) + "-" + fingerprint + FILE_SUFFIX);
+    }
+
+    // "-" cũng bị thay để phần fingerprint phía sau luôn tách được
+    private static String prefix(String storeName, String entityName) {
+        return (storeName + "." + entityName).replaceAll("[^A-Za-z0-9._]", "_");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Cannot delete snapshot file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.query.DynamicQuery;
+import com.company.dynamicds.dynamicds.query.KeyValueConditions;
+import io.jmix.core.Sort;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Chạy query của Jmix (PropertyCondition, sort nhiều key, phân trang, count) trên SnapshotTable:
+ * - filter trả về BitSet theo id dòng; =, >, >=, <, <= dùng binary search trên SortIndex,
+ *   các phép còn lại quét giá trị của cột
+ * - sort một key đi theo SortIndex, nhiều key so sánh rank (int) của từng cột
+ * - chỉ các dòng thuộc trang được trả về, không copy snapshot
+ */
+@Component
+public class SnapshotQueryEngine {
+
+    public List<KeyValueEntity> query(SnapshotTable table, DynamicQuery query) {
+        BitSet matches = filter(table, query.getCondition(), query.getParameters());
+        int[] rows = order(table, matches, query.getSort(), limitOf(query));
+
+        int from = Math.min(Math.max(query.getFirstResult(), 0), rows.length);
+        int to = query.isPaged() ? Math.min(from + query.getMaxResults(), rows.length) : rows.length;
+        List<KeyValueEntity> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(table.getRow(rows[i]));
+        }
+        return result;
+    }
+
+    public long count(SnapshotTable table, DynamicQuery query) {
+        BitSet matches = filter(table, query.getCondition(), query.getParameters());
+        return matches != null ? matches.cardinality() : table.getRowCount();
+    }
+
+    /**
+     * @return null nếu mọi dòng đều khớp (không có condition hoặc condition bị bỏ qua)
+     */
+    @Nullable
+    BitSet filter(SnapshotTable table, @Nullable Condition condition, Map<String, Object> parameters) {
+        if (condition instanceof PropertyCondition propertyCondition) {
+            return filter(table, propertyCondition, parameters);
+        }
+        if (!(condition instanceof LogicalCondition logicalCondition)) {
+            return null;
+        }
+
+        boolean or = logicalCondition.getType() == LogicalCondition.Type.OR;
+        BitSet result = null;
+        for (Condition child : logicalCondition.getConditions()) {
+            BitSet matches = filter(table, child, parameters);
+            if (matches == null) {
+                if (or && !KeyValueConditions.describe(child, parameters).isEmpty()) {
+                    // Nhánh OR khớp mọi dòng -> cả điều kiện OR khớp mọi dòng
+                    return null;
+                }
+                continue;
+            }
+            if (result == null) {
+                result = matches;
+            } else if (or) {
+                result.or(matches);
+            } else {
+                result.and(matches);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private BitSet filter(SnapshotTable table, PropertyCondition condition, Map<String, Object> parameters) {
+        Object value = KeyValueConditions.valueOf(condition, parameters);
+        if (KeyValueConditions.isNullOrEmpty(value)) {
+            return null;
+        }
+        String property = condition.getProperty();
+        SnapshotColumn column = table.getColumn(property);
+        if (column == null) {
+            throw new IllegalStateException("Unknown property '" + property + "' in condition");
+        }
+
+        BitSet matches = new BitSet(table.getRowCount());
+        String operation = condition.getOperation();
+        Object expected = KeyValueConditions.normalize(value, column.getType());
+        switch (operation) {
+            case PropertyCondition.Operation.EQUAL,
+                 PropertyCondition.Operation.GREATER,
+                 PropertyCondition.Operation.GREATER_OR_EQUAL,
+                 PropertyCondition.Operation.LESS,
+                 PropertyCondition.Operation.LESS_OR_EQUAL -> {
+                SortIndex index = table.getSortIndex(property);
+                int from = switch (operation) {
+                    case PropertyCondition.Operation.GREATER -> index.lowerBound(column, expected, false);
+                    case PropertyCondition.Operation.LESS, PropertyCondition.Operation.LESS_OR_EQUAL -> 0;
+                    default -> index.lowerBound(column, expected, true);
+                };
+                int to = switch (operation) {
+                    case PropertyCondition.Operation.EQUAL, PropertyCondition.Operation.LESS_OR_EQUAL ->
+                            index.lowerBound(column, expected, false);
+                    case PropertyCondition.Operation.LESS -> index.lowerBound(column, expected, true);
+                    default -> index.getNonNullCount();
+                };
+                int[] order = index.getOrder();
+                for (int i = from; i < to; i++) {
+                    matches.set(order[i]);
+                }
+            }
+            default -> {
+                Predicate<Object> predicate = KeyValueConditions.toValuePredicate(property, operation, value,
+                        column.getType());
+                for (int row = 0; row < column.size(); row++) {
+                    if (predicate.test(column.get(row))) {
+                        matches.set(row);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Id dòng khớp theo thứ tự của sort; limit > 0 thì dừng sớm khi đã đủ (chỉ với sort một key hoặc không sort).
+     */
+    private int[] order(SnapshotTable table, @Nullable BitSet matches, @Nullable Sort sort, int limit) {
+        List<Sort.Order> orders = sort != null && sort.getOrders() != null ? sort.getOrders() : List.of();
+        int matchCount = matches != null ? matches.cardinality() : table.getRowCount();
+        int size = limit > 0 ? Math.min(limit, matchCount) : matchCount;
+
+        if (orders.isEmpty()) {
+            int[] rows = new int[size];
+            int row = -1;
+            for (int i = 0; i < size; i++) {
+                row = matches != null ? matches.nextSetBit(row + 1) : row + 1;
+                rows[i] = row;
+            }
+            return rows;
+        }
+
+        if (orders.size() == 1) {
+            SortIndex index = sortIndexOf(table, orders.get(0).getProperty());
+            boolean descending = orders.get(0).getDirection() == Sort.Direction.DESC;
+            int[] order = index.getOrder();
+            int[] rows = new int[size];
+            int count = 0;
+            for (int i = 0; i < order.length && count < size; i++) {
+                int row = order[descending ? order.length - 1 - i : i];
+                if (matches == null || matches.get(row)) {
+                    rows[count++] = row;
+                }
+            }
+            return rows;
+        }
+
+        int[][] ranks = new int[orders.size()][];
+        boolean[] descending = new boolean[orders.size()];
+        for (int k = 0; k < orders.size(); k++) {
+            ranks[k] = sortIndexOf(table, orders.get(k).getProperty()).getRank();
+            descending[k] = orders.get(k).getDirection() == Sort.Direction.DESC;
+        }
+        int[] rows = order(table, matches, null, 0);
+        sortByRanks(rows, ranks, descending);
+        return limit > 0 && limit < rows.length ? Arrays.copyOf(rows, limit) : rows;
+    }
+
+    private SortIndex sortIndexOf(SnapshotTable table, String property) {
+        SortIndex index = table.getSortIndex(property);
+        if (index == null) {
+            throw new IllegalStateException("Unknown sort property '" + property + "'");
+        }
+        return index;
+    }
+
+    // Merge sort ổn định trên mảng int, không boxing id dòng
+    private void sortByRanks(int[] rows, int[][] ranks, boolean[] descending) {
+        int[] buffer = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int low = 0; low < rows.length - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, rows.length);
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    buffer[k++] = compareRows(rows[j], rows[i], ranks, descending) < 0 ? rows[j++] : rows[i++];
+                }
+                while (i < mid) {
+                    buffer[k++] = rows[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = rows[j++];
+                }
+                System.arraycopy(buffer, low, rows, low, high - low);
+            }
+        }
+    }
+
+    private int compareRows(int a, int b, int[][] ranks, boolean[] descending) {
+        for (int k = 0; k < ranks.length; k++) {
+            int cmp = Integer.compare(ranks[k][a], ranks[k][b]);
+            if (cmp != 0) {
+                return descending[k] ? -cmp : cmp;
+            }
+        }
+        return 0;
+    }
+
+    private int limitOf(DynamicQuery query) {
+        return query.isPaged() ? Math.max(query.getFirstResult(), 0) + query.getMaxResults() : 0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Ghi SnapshotTable lớn ra file cột nhị phân trong thư mục spill và trả về bảng đọc qua vùng nhớ map,
+ * để snapshot nhiều GB không nằm trên heap (GC) của server Vaadin dùng chung.
+ * - Chỉ spill khi dung lượng heap ước tính của bảng >= dynamicds.snapshot.spill.threshold-mb
+ * - Tổng dung lượng file bị giới hạn bởi dynamicds.snapshot.spill.max-disk-mb: vượt quá thì bỏ các bảng
+ *   spill sớm nhất (cache sẽ load lại), file bị xoá khi bảng không còn được tham chiếu
+ * - File còn sót từ lần chạy trước bị xoá khi khởi động
+ */
+@Slf4j
+@Component
+public class SnapshotSpillStore {
+
+    private static final long MB = 1024L * 1024L;
+    private static final String FILE_SUFFIX = ".spill";
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long thresholdBytes;
+    private final long maxDiskBytes;
+
+    private final AtomicLong sequence = new AtomicLong();
+    // File đang được một bảng sử dụng, theo thứ tự spill; guarded by this
+    private final Map<Path, SpilledFile> spilledFiles = new LinkedHashMap<>();
+    private long spilledBytes;
+
+    public SnapshotSpillStore(@Value("${dynamicds.snapshot.spill.enabled:true}") boolean enabled,
+                              @Value("${dynamicds.snapshot.spill.dir:.jmix/work/dynamicds/spill}") String directory,
+                              @Value("${dynamicds.snapshot.spill.threshold-mb:32}") int thresholdMb,
+                              @Value("${dynamicds.snapshot.spill.max-disk-mb:4096}") int maxDiskMb) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.thresholdBytes = thresholdMb * MB;
+        this.maxDiskBytes = maxDiskMb * MB;
+        if (enabled) {
+            deleteLeftovers();
+        }
+    }
+
+    /**
+     * @param name tên dễ đọc cho file (store, entity)
+     * @return bảng đọc từ file đã map, hoặc chính table nếu nhỏ hơn ngưỡng / spill bị tắt / ghi file lỗi
+     */
+    public SnapshotTable spill(String name, SnapshotTable table) {
+        if (!enabled || table.estimateWeight() < thresholdBytes) {
+            return table;
+        }
+
+        Path file = directory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_")
+                + "-" + sequence.incrementAndGet() + FILE_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            long size = SnapshotFiles.write(table, file);
+            SnapshotTable mapped = SnapshotFiles.map(file);
+            register(file, size, mapped);
+            log.info("Snapshot {} spilled to {} ({} rows, {} KB)", name, file, table.getRowCount(), size / 1024);
+            return mapped;
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Cannot spill snapshot {} to {}, keeping it on heap", name, file, e);
+            deleteQuietly(file);
+            return table;
+        }
+    }
+
+    public synchronized int getSpilledCount() {
+        return spilledFiles.size();
+    }
+
+    public synchronized long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    private synchronized void register(Path file, long size, SnapshotTable table) {
+        spilledFiles.put(file, new SpilledFile(size, new WeakReference<>(table)));
+        spilledBytes += size;
+        CLEANER.register(table, () -> {
+            unregister(file);
+            deleteQuietly(file);
+        });
+
+        // Bỏ các bảng spill sớm nhất cho tới khi đủ chỗ, luôn giữ bảng vừa spill
+        Iterator<Map.Entry<Path, SpilledFile>> iterator = spilledFiles.entrySet().iterator();
+        while (spilledBytes > maxDiskBytes && spilledFiles.size() > 1) {
+            Map.Entry<Path, SpilledFile> eldest = iterator.next();
+            SnapshotTable evicted = eldest.getValue().table().get();
+            if (evicted != null) {
+                evicted.release();
+            }
+            spilledBytes -= eldest.getValue().size();
+            iterator.remove();
+            log.info("Spilled snapshot {} released, spill directory over {} MB", eldest.getKey(), maxDiskBytes / MB);
+        }
+    }
+
+    private synchronized void unregister(Path file) {
+        SpilledFile removed = spilledFiles.remove(file);
+        if (removed != null) {
+            spilledBytes -= removed.size();
+        }
+    }
+
+    private void deleteLeftovers() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .forEach(SnapshotSpillStore::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Cannot clean spill directory {}", directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Windows không cho xoá file còn được map; file sẽ được dọn ở lần khởi động sau
+            log.debug("Cannot delete spill file {}", file, e);
+        }
+    }
+
+    private record SpilledFile(long size, WeakReference<SnapshotTable> table) {
+    }
+}
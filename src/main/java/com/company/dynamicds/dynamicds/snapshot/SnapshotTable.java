@@ -0,0 +1,239 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.entity.KeyValueEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot đầy đủ của một dynamic entity dưới dạng cột: mỗi field một SnapshotColumn theo kiểu khai báo
+ * (int[] / double[] / bitset / string đã dictionary-encode). Không giữ KeyValueEntity nào;
+ * getRow dựng entity mới từ các cột, chỉ cho các dòng được trả về UI.
+ * Filter quét trực tiếp trên cột, sort dùng SortIndex được dựng lazily một lần cho mỗi cột.
+ * Bảng lớn có thể được SnapshotSpillStore ghi ra file và đọc lại qua vùng nhớ map, khi đó các cột
+ * trỏ vào file thay vì mảng heap.
+ * Không được sửa sau khi dựng; dùng chung giữa các query đồng thời.
+ */
+public class SnapshotTable {
+
+    private final List<String> fieldNames;
+    private final Map<String, SnapshotColumn> columns;
+    private final int rowCount;
+    private final SnapshotVersion version;
+    private final Map<String, SortIndex> sortIndexes = new ConcurrentHashMap<>();
+    private final Map<String, KeyIndex> keyIndexes = new ConcurrentHashMap<>();
+    private volatile boolean released;
+
+    private SnapshotTable(List<String> fieldNames, Map<String, SnapshotColumn> columns, int rowCount,
+                          SnapshotVersion version) {
+        this.fieldNames = fieldNames;
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.version = version;
+    }
+
+    public static SnapshotTable of(Map<String, MetadataFieldType> fieldTypes, Collection<KeyValueEntity> items) {
+        Builder builder = builder(fieldTypes);
+        items.forEach(builder::add);
+        return builder.build();
+    }
+
+    static SnapshotTable of(List<String> fieldNames, Map<String, SnapshotColumn> columns, int rowCount,
+                            SnapshotVersion version) {
+        return new SnapshotTable(List.copyOf(fieldNames), columns, rowCount, version);
+    }
+
+    /**
+     * Builder nhận từng trang của upstream, không cần giữ toàn bộ danh sách entity trong lúc dựng.
+     */
+    public static Builder builder(Map<String, MetadataFieldType> fieldTypes) {
+        return new Builder(fieldTypes);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    public SnapshotVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * Cùng dữ liệu (cột và sort index dùng chung) với version mới, ví dụ sau khi upstream trả 304.
+     */
+    public SnapshotTable withVersion(SnapshotVersion version) {
+        SnapshotTable table = new SnapshotTable(fieldNames, columns, rowCount, version);
+        table.sortIndexes.putAll(sortIndexes);
+        table.keyIndexes.putAll(keyIndexes);
+        return table;
+    }
+
+    /**
+     * Bảng mới sau khi áp các dòng thay đổi (delta sync): dòng có cùng key với một dòng trong changed được thay
+     * tại chỗ, dòng chưa có được thêm vào cuối. Bảng này không bị sửa.
+     * Dòng đã bị xoá ở upstream không được phát hiện, cần đồng bộ đầy đủ định kỳ.
+     */
+    public SnapshotTable merge(Map<String, MetadataFieldType> fieldTypes, String keyField,
+                               Collection<KeyValueEntity> changed, SnapshotVersion version) {
+        SnapshotColumn keys = columns.get(keyField);
+        if (keys == null) {
+            throw new IllegalStateException("Unknown key field '" + keyField + "'");
+        }
+        // Key -> dòng thay đổi, dòng sau cùng thắng nếu upstream trả trùng
+        Map<Object, KeyValueEntity> changedByKey = new LinkedHashMap<>();
+        List<KeyValueEntity> withoutKey = new ArrayList<>();
+        for (KeyValueEntity entity : changed) {
+            Object key = normalizeKey(entity.getValue(keyField));
+            if (key != null) {
+                changedByKey.put(key, entity);
+            } else {
+                withoutKey.add(entity);
+            }
+        }
+
+        Builder builder = builder(fieldTypes).version(version);
+        for (int row = 0; row < rowCount; row++) {
+            KeyValueEntity replacement = changedByKey.remove(normalizeKey(keys.get(row)));
+            if (replacement != null) {
+                builder.add(replacement);
+            } else {
+                builder.addRow(this, row);
+            }
+        }
+        changedByKey.values().forEach(builder::add);
+        withoutKey.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Dạng so sánh được của giá trị key: số nguyên (kể cả từ cột double) về Long, còn lại giữ nguyên.
+     */
+    @Nullable
+    public static Object normalizeKey(@Nullable Object value) {
+        if (value instanceof Number number) {
+            double d = number.doubleValue();
+            return d == Math.rint(d) && !Double.isInfinite(d) ? (Object) number.longValue() : (Object) d;
+        }
+        return value;
+    }
+
+    /**
+     * @return null nếu field không thuộc metadata
+     */
+    @Nullable
+    public SnapshotColumn getColumn(String fieldName) {
+        return columns.get(fieldName);
+    }
+
+    /**
+     * KeyValueEntity mới dựng từ các cột; field null không được set, giống entity do parser tạo.
+     */
+    public KeyValueEntity getRow(int row) {
+        KeyValueEntity entity = new KeyValueEntity();
+        for (String fieldName : fieldNames) {
+            Object value = columns.get(fieldName).get(row);
+            if (value != null) {
+                entity.setValue(fieldName, value);
+            }
+        }
+        return entity;
+    }
+
+    @Nullable
+    public SortIndex getSortIndex(String fieldName) {
+        SnapshotColumn column = columns.get(fieldName);
+        if (column == null) {
+            return null;
+        }
+        return sortIndexes.computeIfAbsent(fieldName, key -> SortIndex.build(column));
+    }
+
+    /**
+     * Hash index theo key field, dựng lazily một lần như sort index.
+     */
+    @Nullable
+    public KeyIndex getKeyIndex(String fieldName) {
+        SnapshotColumn column = columns.get(fieldName);
+        if (column == null) {
+            return null;
+        }
+        return keyIndexes.computeIfAbsent(fieldName, key -> KeyIndex.build(column));
+    }
+
+    /**
+     * true khi spill store đã bỏ bảng này để giải phóng dung lượng đĩa; cache phải load lại thay vì trả về.
+     * Query đang chạy trên bảng vẫn đọc được vì file chỉ bị xoá khi bảng không còn được tham chiếu.
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    void release() {
+        released = true;
+    }
+
+    /**
+     * Dung lượng heap ước tính: dữ liệu các cột (không tính vùng file đã map)
+     * và chỗ cho một sort index (order + rank) mỗi cột.
+     */
+    public long estimateWeight() {
+        long weight = 64L;
+        for (SnapshotColumn column : columns.values()) {
+            weight += column.estimateWeight() + 32L + rowCount * 8L;
+        }
+        return weight;
+    }
+
+    public static class Builder {
+
+        private final List<String> fieldNames;
+        private final Map<String, ColumnBuilder> columns = new LinkedHashMap<>();
+        private int rowCount;
+        private SnapshotVersion version = SnapshotVersion.now();
+
+        private Builder(Map<String, MetadataFieldType> fieldTypes) {
+            this.fieldNames = List.copyOf(fieldTypes.keySet());
+            fieldTypes.forEach((fieldName, type) -> columns.put(fieldName, new ColumnBuilder(type)));
+        }
+
+        public Builder add(KeyValueEntity entity) {
+            for (Map.Entry<String, ColumnBuilder> column : columns.entrySet()) {
+                column.getValue().add(entity.getValue(column.getKey()));
+            }
+            rowCount++;
+            return this;
+        }
+
+        // Chép thẳng giá trị các cột của một dòng, không dựng KeyValueEntity
+        Builder addRow(SnapshotTable source, int row) {
+            for (Map.Entry<String, ColumnBuilder> column : columns.entrySet()) {
+                SnapshotColumn sourceColumn = source.columns.get(column.getKey());
+                column.getValue().add(sourceColumn != null ? sourceColumn.get(row) : null);
+            }
+            rowCount++;
+            return this;
+        }
+
+        public Builder addAll(Collection<KeyValueEntity> entities) {
+            entities.forEach(this::add);
+            return this;
+        }
+
+        public Builder version(SnapshotVersion version) {
+            this.version = version;
+            return this;
+        }
+
+        public SnapshotTable build() {
+            Map<String, SnapshotColumn> built = new HashMap<>();
+            columns.forEach((fieldName, column) -> built.put(fieldName, column.build()));
+            return new SnapshotTable(fieldNames, built, rowCount, version);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Thời điểm tải snapshot từ upstream và validator HTTP (ETag / Last-Modified) của response đầu tiên.
+ */
+public record SnapshotVersion(Instant fetchedAt, @Nullable String etag, @Nullable String lastModified) {
+
+    public static SnapshotVersion now() {
+        return new SnapshotVersion(Instant.now(), null, null);
+    }
+}
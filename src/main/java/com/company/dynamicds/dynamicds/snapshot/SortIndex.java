@@ -0,0 +1,88 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.query.KeyValueConditions;
+
+import java.util.stream.IntStream;
+
+/**
+ * Sort index của một cột snapshot, dựng một lần và dùng lại cho mọi query:
+ * - order: id dòng theo thứ tự tăng dần, các dòng null ở cuối
+ * - rank: thứ hạng của từng dòng trong order (giá trị bằng nhau cùng rank, null có rank lớn nhất),
+ *   sort nhiều key chỉ so sánh int thay vì so sánh giá trị
+ * - nonNullCount: order[0, nonNullCount) là các dòng có giá trị, dùng cho binary search
+ */
+public class SortIndex {
+
+    private final int[] order;
+    private final int[] rank;
+    private final int nonNullCount;
+
+    private SortIndex(int[] order, int[] rank, int nonNullCount) {
+        this.order = order;
+        this.rank = rank;
+        this.nonNullCount = nonNullCount;
+    }
+
+    static SortIndex build(SnapshotColumn column) {
+        int rowCount = column.size();
+        int[] order = IntStream.range(0, rowCount)
+                .boxed()
+                .sorted((a, b) -> compareNullsLast(column.get(a), column.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        int[] rank = new int[rowCount];
+        int nonNullCount = 0;
+        int current = 0;
+        Object previous = null;
+        for (int i = 0; i < rowCount; i++) {
+            Object value = column.get(order[i]);
+            if (value != null) {
+                nonNullCount++;
+            }
+            if (i > 0 && compareNullsLast(previous, value) != 0) {
+                current = i;
+            }
+            rank[order[i]] = current;
+            previous = value;
+        }
+        return new SortIndex(order, rank, nonNullCount);
+    }
+
+    public int[] getOrder() {
+        return order;
+    }
+
+    public int[] getRank() {
+        return rank;
+    }
+
+    public int getNonNullCount() {
+        return nonNullCount;
+    }
+
+    /**
+     * Vị trí đầu tiên trong order có giá trị >= value (inclusive) hoặc > value (exclusive).
+     */
+    public int lowerBound(SnapshotColumn column, Object value, boolean inclusive) {
+        int low = 0;
+        int high = nonNullCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = KeyValueConditions.compare(column.get(order[mid]), value);
+            if (cmp < 0 || (!inclusive && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compareNullsLast(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? 1 : -1);
+        }
+        return KeyValueConditions.compare(a, b);
+    }
+}
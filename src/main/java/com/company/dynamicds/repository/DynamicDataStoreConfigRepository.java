@@ -0,0 +1,13 @@
+package com.company.dynamicds.repository;
+
+import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import io.jmix.core.repository.JmixDataRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DynamicDataStoreConfigRepository extends JmixDataRepository<DynamicDataStoreConfig, UUID> {
+    Optional<DynamicDataStoreConfig> findByStoreName(String storeName);
+}
@@ -0,0 +1,11 @@
+package com.company.dynamicds.repository;
+
+import com.company.dynamicds.dynamicds.entity.FilterParamMapping;
+import io.jmix.core.repository.JmixDataRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface FilterParamMappingRepository extends JmixDataRepository<FilterParamMapping, UUID> {
+}
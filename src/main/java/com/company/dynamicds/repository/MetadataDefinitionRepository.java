@@ -4,10 +4,13 @@ import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
 import io.jmix.core.repository.JmixDataRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface MetadataDefinitionRepository extends JmixDataRepository<MetadataDefinition, UUID> {
     Optional<MetadataDefinition> findByNameAndStoreName(String entityName, String dataStoreName);
+
+    List<MetadataDefinition> findByStoreName(String storeName);
 }
\ No newline at end of file
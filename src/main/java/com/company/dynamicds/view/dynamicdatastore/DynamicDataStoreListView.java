@@ -1,12 +1,22 @@
 package com.company.dynamicds.view.dynamicdatastore;
 
+import com.company.dynamicds.apisetting.dto.CircuitBreakerStatus;
+import com.company.dynamicds.apisetting.dto.ConditionalRequestStats;
+import com.company.dynamicds.apisetting.service.ApiExecutorService;
 import com.company.dynamicds.dynamicds.DynamicDataStoreRegister;
+import com.company.dynamicds.dynamicds.cache.DynamicResultCache;
+import com.company.dynamicds.dynamicds.cache.ResultCacheStats;
+import com.company.dynamicds.dynamicds.crawl.CrawlStats;
+import com.company.dynamicds.dynamicds.crawl.PageCrawler;
 import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import com.company.dynamicds.dynamicds.refresh.SnapshotRefreshScheduler;
+import com.company.dynamicds.dynamicds.refresh.SnapshotRefreshStatus;
 import com.company.dynamicds.enums.ActionColumnType;
 import com.company.dynamicds.utils.renderer.DataGridRenderers;
 import com.company.dynamicds.view.main.MainView;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.data.renderer.Renderer;
+import com.vaadin.flow.data.renderer.TextRenderer;
 import com.vaadin.flow.router.Route;
 import io.jmix.core.DataManager;
 import io.jmix.flowui.Dialogs;
@@ -20,7 +30,11 @@ import io.jmix.flowui.view.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 
 @Route(value = "dynamic-data-stores", layout = MainView.class)
@@ -30,6 +44,9 @@ import java.util.EnumSet;
 @DialogMode(width = "64em")
 @Slf4j
 public class DynamicDataStoreListView extends StandardListView<DynamicDataStoreConfig> {
+    private static final DateTimeFormatter REFRESH_TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
     @Autowired
     private UiComponents uiComponents;
     @Autowired
@@ -40,13 +57,75 @@ public class DynamicDataStoreListView extends StandardListView<DynamicDataStoreC
     private Dialogs dialogs;
     @Autowired
     private DataManager dataManager;
+    @Autowired
+    private DynamicResultCache resultCache;
+    @Autowired
+    private ApiExecutorService apiExecutorService;
+    @Autowired
+    private SnapshotRefreshScheduler refreshScheduler;
+    @Autowired
+    private PageCrawler pageCrawler;
 
     @ViewComponent
     private CollectionContainer<DynamicDataStoreConfig> dynamicDataStoresDc;
 
     @Supply(to = "dynamicDataStoresDataGrid.actionColumn", subject = "renderer")
     private Renderer<DynamicDataStoreConfig> dynamicDataStoresDataGridActionColumnRenderer() {
-        return DataGridRenderers.buildActionsColumn(uiComponents, EnumSet.of(ActionColumnType.ACTIVE, ActionColumnType.DELETE), this::handleGridAction);
+        return DataGridRenderers.buildActionsColumn(uiComponents, EnumSet.of(ActionColumnType.ACTIVE, ActionColumnType.VIEW, ActionColumnType.RELOAD, ActionColumnType.DELETE), this::handleGridAction);
+    }
+
+    @Supply(to = "dynamicDataStoresDataGrid.refreshColumn", subject = "renderer")
+    private Renderer<DynamicDataStoreConfig> dynamicDataStoresDataGridRefreshColumnRenderer() {
+        return new TextRenderer<>(item -> describeRefresh(refreshScheduler.getStatuses(item.getStoreName())));
+    }
+
+    @Supply(to = "dynamicDataStoresDataGrid.upstreamColumn", subject = "renderer")
+    private Renderer<DynamicDataStoreConfig> dynamicDataStoresDataGridUpstreamColumnRenderer() {
+        return new TextRenderer<>(item -> describeCircuits(apiExecutorService.getCircuitBreakerStatuses(item.getStoreName())));
+    }
+
+    // Circuit breaker của mỗi host store đã gọi: trạng thái, tỉ lệ lỗi gần đây, số lần retry / bị chặn
+    private String describeCircuits(List<CircuitBreakerStatus> statuses) {
+        return statuses.stream()
+                .map(status -> {
+                    String state = status.state() == CircuitBreakerStatus.State.OPEN
+                            ? "OPEN tới " + REFRESH_TIME_FORMAT.format(status.openUntil())
+                            : status.state().name();
+                    return String.format("%s: %s (%.0f%% lỗi, %d retry, %d bị chặn)", status.host(), state,
+                            status.failureRate() * 100, status.retryCount(), status.rejectedCount());
+                })
+                .collect(Collectors.joining("; "));
+    }
+
+    // Mỗi entity có lịch làm mới: lần thành công gần nhất, thời gian tải, số dòng và số lần lỗi liên tiếp
+    private String describeRefresh(List<SnapshotRefreshStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return "";
+        }
+        return statuses.stream()
+                .map(status -> {
+                    String refreshed = status.lastRefreshAt() != null
+                            ? String.format("%s (%d ms, %d rows)", REFRESH_TIME_FORMAT.format(status.lastRefreshAt()),
+                            status.lastDurationMs(), status.rowCount())
+                            : "chưa chạy";
+                    String failures = status.failureCount() > 0
+                            ? String.format(", %d lỗi: %s", status.failureCount(), status.lastError())
+                            : "";
+                    return status.entityName() + ": " + refreshed + failures;
+                })
+                .collect(Collectors.joining("; "));
+    }
+
+    // Lần crawl gần nhất của mỗi entity: số trang, throughput và độ trễ trang
+    private String describeCrawls(List<CrawlStats> crawlStats) {
+        if (crawlStats.isEmpty()) {
+            return "";
+        }
+        return crawlStats.stream()
+                .map(stat -> String.format("%s: %d pages, %d rows in %d ms (%.0f rows/s, page avg %d ms, p95 %d ms, x%d)",
+                        stat.entityName(), stat.pages(), stat.items(), stat.durationMs(), stat.itemsPerSecond(),
+                        stat.pageAvgMs(), stat.pageP95Ms(), stat.parallelism()))
+                .collect(Collectors.joining("; ", ". Last crawl: ", ""));
     }
 
     private void handleGridAction(DynamicDataStoreConfig item, ActionColumnType actionType) {
@@ -54,6 +133,12 @@ public class DynamicDataStoreListView extends StandardListView<DynamicDataStoreC
             case ACTIVE:
                 activateDataStore(item);
                 break;
+            case VIEW:
+                showCacheStats(item);
+                break;
+            case RELOAD:
+                clearResultCache(item);
+                break;
             case DELETE:
                 deleteDataStore(item);
                 break;
@@ -83,6 +168,36 @@ public class DynamicDataStoreListView extends StandardListView<DynamicDataStoreC
         }
     }
 
+    // Chỉ xem số liệu, không xoá cache
+    private void showCacheStats(DynamicDataStoreConfig item) {
+        notifications.create("Result Cache Stats", describeCacheStats(item.getStoreName()))
+                .withType(Notifications.Type.DEFAULT)
+                .withPosition(Notification.Position.TOP_END)
+                .show();
+    }
+
+    private void clearResultCache(DynamicDataStoreConfig item) {
+        String stats = describeCacheStats(item.getStoreName());
+        resultCache.invalidateStore(item.getStoreName());
+
+        notifications.create("Result Cache Cleared", stats)
+                .withType(Notifications.Type.SUCCESS)
+                .withPosition(Notification.Position.TOP_END)
+                .show();
+    }
+
+    private String describeCacheStats(String storeName) {
+        ResultCacheStats stats = resultCache.getStats(storeName);
+        ConditionalRequestStats conditionalStats = apiExecutorService.getConditionalStats();
+        List<CrawlStats> crawlStats = pageCrawler.getStats(storeName);
+        return String.format("Entries: %d (%d KB), hits: %d, misses: %d (hit rate %.0f%%), evictions: %d, coalesced: %d, "
+                        + "stale served on error: %d. Conditional GET: %d sent, %d not modified (%.0f%%)",
+                stats.entryCount(), stats.weightBytes() / 1024, stats.hitCount(), stats.missCount(),
+                stats.hitRate() * 100, stats.evictionCount(), stats.coalescedCount(), stats.staleServedCount(),
+                conditionalStats.conditionalCount(), conditionalStats.notModifiedCount(),
+                conditionalStats.hitRate() * 100) + describeCrawls(crawlStats);
+    }
+
     private void deleteDataStore(DynamicDataStoreConfig item) {
         dialogs.createOptionDialog()
                 .withHeader("Confirm Delete")
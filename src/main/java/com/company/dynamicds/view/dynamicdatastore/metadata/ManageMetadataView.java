@@ -1,28 +1,38 @@
 package com.company.dynamicds.view.dynamicdatastore.metadata;
 
 
-import com.company.dynamicds.dynamicds.DynamicMetaClassFactory;
 import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
 import com.company.dynamicds.dynamicds.entity.MetadataField;
 import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.metadata.DynamicMetadataRegistry;
 import com.company.dynamicds.view.main.MainView;
 import com.vaadin.flow.component.AbstractField;
 import com.vaadin.flow.component.ClickEvent;
+import com.vaadin.flow.component.grid.GridSortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
 import com.vaadin.flow.router.Route;
 import io.jmix.core.DataManager;
 import io.jmix.core.LoadContext;
+import io.jmix.core.Sort;
+import io.jmix.core.ValueLoadContext;
 import io.jmix.core.entity.KeyValueEntity;
 import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
 import io.jmix.flowui.Notifications;
 import io.jmix.flowui.component.combobox.EntityComboBox;
 import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.textfield.TypedTextField;
 import io.jmix.flowui.kit.component.button.JmixButton;
+import io.jmix.flowui.model.DataLoadContext;
 import io.jmix.flowui.model.InstanceContainer;
-import io.jmix.flowui.model.KeyValueCollectionContainer;
+import io.jmix.flowui.model.KeyValueCollectionLoader;
 import io.jmix.flowui.view.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Route(value = "manage-metadata-view", layout = MainView.class)
@@ -37,14 +47,59 @@ public class ManageMetadataView extends StandardView {
     @Autowired
     private Notifications notifications;
     @ViewComponent
-    private KeyValueCollectionContainer keyValueEntitiesDc;
+    private KeyValueCollectionLoader keyValueEntitiesDl;
     @ViewComponent
     private DataGrid<KeyValueEntity> keyValueEntitiesDataGrid;
     @ViewComponent
     private InstanceContainer<MetadataDefinition> metadataDefinitionDc;
 
+    @ViewComponent
+    private TypedTextField<String> searchField;
+
     @Autowired
-    private DynamicMetaClassFactory metaClassFactory;
+    private DynamicMetadataRegistry metadataRegistry;
+
+    private MetaClass loadedMetaClass;
+    private MetadataDefinition loadedDefinition;
+    private Sort currentSort;
+
+    @Subscribe
+    public void onInit(final InitEvent event) {
+        // Sort của grid được đẩy xuống data store thay vì sort trên các dòng đang hiển thị
+        keyValueEntitiesDataGrid.addSortListener(sortEvent -> {
+            currentSort = toSort(sortEvent.getSortOrder());
+            reload();
+        });
+    }
+
+    @Subscribe("searchField")
+    public void onSearchFieldComponentValueChange(final AbstractField.ComponentValueChangeEvent<TypedTextField<String>, String> event) {
+        reload();
+    }
+
+    /**
+     * Trang hiện tại của pagination (firstResult / maxResults của loader) được chuyển thành query của data store,
+     * lọc / sort / cắt trang chạy trên snapshot phía server.
+     */
+    @Install(to = "keyValueEntitiesDl", target = Target.DATA_LOADER)
+    private List<KeyValueEntity> keyValueEntitiesDlLoadDelegate(final ValueLoadContext loadContext) {
+        if (loadedMetaClass == null) {
+            return List.of();
+        }
+        LoadContext<KeyValueEntity> context = createLoadContext();
+        ValueLoadContext.Query query = loadContext.getQuery();
+        if (query != null) {
+            context.getQuery()
+                    .setFirstResult(query.getFirstResult())
+                    .setMaxResults(query.getMaxResults());
+        }
+        return dataManager.loadList(context);
+    }
+
+    @Install(to = "pagination", subject = "totalCountDelegate")
+    private Integer paginationTotalCountDelegate(final DataLoadContext dataLoadContext) {
+        return (int) count();
+    }
 
     @Subscribe("metadataCombobox")
     public void onMetadataComboboxComponentValueChange(final AbstractField.ComponentValueChangeEvent<EntityComboBox<MetadataDefinition>, MetadataDefinition> event) {
@@ -62,12 +117,14 @@ public class ManageMetadataView extends StandardView {
             return;
         }
 
-        MetaClass metaClass = metaClassFactory.buildMetaClass(selected.getName(), selected.getMetadataFields(), selected.getStoreName());
-        List<KeyValueEntity> entities = dataManager.loadList(new LoadContext<>(metaClass));
-        keyValueEntitiesDc.setItems(entities);
+        loadedMetaClass = metadataRegistry.getMetaClass(selected.getStoreName(), selected.getName());
+        loadedDefinition = selected;
+        currentSort = null;
+        reload();
+        long total = count();
         keyValueEntitiesDataGrid.removeAllColumns();
 
-        if (entities.isEmpty()) {
+        if (total == 0) {
             notifications.create("No records found")
                     .withType(Notifications.Type.WARNING)
                     .show();
@@ -89,11 +146,58 @@ public class ManageMetadataView extends StandardView {
                     .setAutoWidth(true);
         }
 
-        notifications.create("Loaded " + entities.size() + " records.")
+        notifications.create("Loaded " + total + " records.")
                 .withType(Notifications.Type.SUCCESS)
                 .show();
     }
 
+    /**
+     * Tải lại trang đầu theo ô tìm kiếm và sort hiện tại.
+     */
+    private void reload() {
+        keyValueEntitiesDl.setFirstResult(0);
+        keyValueEntitiesDl.load();
+    }
+
+    // Tổng số bản ghi khớp ô tìm kiếm
+    private long count() {
+        return loadedMetaClass != null ? dataManager.getCount(createLoadContext()) : 0;
+    }
+
+    private LoadContext<KeyValueEntity> createLoadContext() {
+        LoadContext<KeyValueEntity> context = new LoadContext<>(loadedMetaClass);
+        context.setQuery(new LoadContext.Query("")
+                .setCondition(searchCondition())
+                .setSort(currentSort));
+        return context;
+    }
+
+    // Tìm trên mọi field kiểu STRING (OR)
+    private Condition searchCondition() {
+        String text = searchField.getTypedValue();
+        if (text == null || text.isBlank() || loadedDefinition == null) {
+            return null;
+        }
+        List<Condition> conditions = new ArrayList<>();
+        for (MetadataField field : loadedDefinition.getMetadataFields()) {
+            if (field.getFieldType() == null || field.getFieldType() == MetadataFieldType.STRING) {
+                conditions.add(PropertyCondition.contains(field.getName(), text.trim()));
+            }
+        }
+        return conditions.isEmpty() ? null : LogicalCondition.or(conditions.toArray(new Condition[0]));
+    }
+
+    private Sort toSort(List<GridSortOrder<KeyValueEntity>> sortOrders) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (GridSortOrder<KeyValueEntity> sortOrder : sortOrders) {
+            String property = sortOrder.getSorted().getKey();
+            orders.add(sortOrder.getDirection() == SortDirection.DESCENDING
+                    ? Sort.Order.desc(property)
+                    : Sort.Order.asc(property));
+        }
+        return orders.isEmpty() ? null : Sort.by(orders);
+    }
+
     private String formatValueByType(Object value, MetadataFieldType type) {
         if (value == null) return "";
 
@@ -2,12 +2,14 @@ package com.company.dynamicds.view.dynamicdatastore.metadata;
 
 import com.company.dynamicds.dynamicds.DynamicDataStoreService;
 import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import com.company.dynamicds.dynamicds.entity.FilterParamMapping;
 import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
 import com.company.dynamicds.dynamicds.entity.MetadataField;
 import com.company.dynamicds.utils.ui.GridEditorUtils;
 import com.company.dynamicds.utils.validation.StringValidation;
 import com.company.dynamicds.view.main.MainView;
 import com.vaadin.flow.component.ClickEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.router.Route;
 import io.jmix.flowui.Notifications;
 import io.jmix.flowui.component.combobox.JmixComboBox;
@@ -18,6 +20,7 @@ import io.jmix.flowui.view.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 @Route(value = "metadata-definitions/:id", layout = MainView.class)
 @ViewController(id = "dwh_MetadataDefinition.detail")
@@ -42,6 +45,10 @@ public class MetadataDefinitionDetailView extends StandardDetailView<MetadataDef
     private CollectionPropertyContainer<MetadataField> metadataFieldsDc;
     @ViewComponent
     private DataContext dataContext;
+    @ViewComponent
+    private DataGrid<FilterParamMapping> filterParamMappingsDataGrid;
+    @ViewComponent
+    private CollectionPropertyContainer<FilterParamMapping> filterParamMappingsDc;
 
     @Subscribe
     public void onInit(final InitEvent event) {
@@ -51,6 +58,7 @@ public class MetadataDefinitionDetailView extends StandardDetailView<MetadataDef
                 .toList();
         storeNameField.setItems(storeNames);
         GridEditorUtils.setupInlineEditor(metadataFieldsDataGrid);
+        GridEditorUtils.setupInlineEditor(filterParamMappingsDataGrid);
     }
 
     @Subscribe
@@ -75,24 +83,49 @@ public class MetadataDefinitionDetailView extends StandardDetailView<MetadataDef
             return;
         }
 
-        try {
-            MetadataDefinition updatedMetadata = dynamicDataStoreService.generateFromApi(metadata);
-            // Merge các MetadataField vào DataContext
-            for (MetadataField field : updatedMetadata.getMetadataFields()) {
-                dataContext.merge(field);
-            }
+        // Gọi API ở background, kết quả được áp vào view qua UI.access (@Push)
+        JmixButton button = event.getSource();
+        button.setEnabled(false);
+        UI ui = UI.getCurrent();
+        dynamicDataStoreService.generateFieldsFromApiAsync(metadata.getUrl())
+                .whenComplete((fields, error) -> ui.access(() -> {
+                    button.setEnabled(true);
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        notifications.create("Failed to generate fields: " + cause.getMessage())
+                                .withType(Notifications.Type.ERROR)
+                                .show();
+                        return;
+                    }
+
+                    MetadataDefinition updatedMetadata = dynamicDataStoreService.applyGeneratedFields(metadata, fields);
+                    // Merge các MetadataField vào DataContext
+                    for (MetadataField field : updatedMetadata.getMetadataFields()) {
+                        dataContext.merge(field);
+                    }
+
+                    getEditedEntityContainer().setItem(updatedMetadata);
+                    metadataFieldsDc.setItems(updatedMetadata.getMetadataFields());
+                    notifications.create("Fields generated successfully").show();
+                }));
+    }
 
-            getEditedEntityContainer().setItem(updatedMetadata);
-            metadataFieldsDc.setItems(updatedMetadata.getMetadataFields());
-            notifications.create("Fields generated successfully").show();
+    @Subscribe(id = "addFilterParamMappingButton", subject = "clickListener")
+    public void onAddFilterParamMappingButtonClick(final ClickEvent<JmixButton> event) {
+        FilterParamMapping mapping = dataContext.create(FilterParamMapping.class);
+        mapping.setMetadataDefinition(getEditedEntity());
+        filterParamMappingsDc.getMutableItems().add(mapping);
+        filterParamMappingsDataGrid.getEditor().editItem(mapping);
+    }
 
-        } catch (Exception e) {
-            notifications.create("Failed to generate fields: " + e.getMessage())
-                    .withType(Notifications.Type.ERROR)
-                    .show();
+    @Subscribe(id = "removeFilterParamMappingButton", subject = "clickListener")
+    public void onRemoveFilterParamMappingButtonClick(final ClickEvent<JmixButton> event) {
+        FilterParamMapping selected = filterParamMappingsDataGrid.getSingleSelectedItem();
+        if (selected != null) {
+            filterParamMappingsDc.getMutableItems().remove(selected);
+            dataContext.remove(selected);
         }
-
-
     }
 
     @Subscribe(id = "metadataDefinitionDc", target = Target.DATA_CONTAINER)
@@ -1,9 +1,19 @@
 package com.company.dynamicds.view.dynamicdatastore.metadata;
 
+import com.company.dynamicds.dynamicds.cache.DynamicResultCache;
 import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.enums.ActionColumnType;
+import com.company.dynamicds.utils.renderer.DataGridRenderers;
 import com.company.dynamicds.view.main.MainView;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.data.renderer.Renderer;
 import com.vaadin.flow.router.Route;
+import io.jmix.flowui.Notifications;
+import io.jmix.flowui.UiComponents;
 import io.jmix.flowui.view.*;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.EnumSet;
 
 
 @Route(value = "metadata-definitions", layout = MainView.class)
@@ -12,4 +22,28 @@ import io.jmix.flowui.view.*;
 @LookupComponent("metadataDefinitionsDataGrid")
 @DialogMode(width = "64em")
 public class MetadataDefinitionListView extends StandardListView<MetadataDefinition> {
-}
\ No newline at end of file
+
+    @Autowired
+    private UiComponents uiComponents;
+    @Autowired
+    private Notifications notifications;
+    @Autowired
+    private DynamicResultCache resultCache;
+
+    @Supply(to = "metadataDefinitionsDataGrid.actionColumn", subject = "renderer")
+    private Renderer<MetadataDefinition> metadataDefinitionsDataGridActionColumnRenderer() {
+        return DataGridRenderers.buildActionsColumn(uiComponents, EnumSet.of(ActionColumnType.RELOAD), this::handleGridAction);
+    }
+
+    private void handleGridAction(MetadataDefinition item, ActionColumnType actionType) {
+        if (actionType == ActionColumnType.RELOAD) {
+            // Chỉ xoá cache của entity này, các entity khác của store giữ nguyên
+            resultCache.invalidate(item.getStoreName(), item.getName());
+
+            notifications.create("Result Cache Cleared", item.getStoreName() + "/" + item.getName())
+                    .withType(Notifications.Type.SUCCESS)
+                    .withPosition(Notification.Position.TOP_END)
+                    .show();
+        }
+    }
+}
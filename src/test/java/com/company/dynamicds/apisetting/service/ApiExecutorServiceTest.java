@@ -0,0 +1,128 @@
+package com.company.dynamicds.apisetting.service;
+
+import com.company.dynamicds.apisetting.dto.HttpClientSettings;
+import com.company.dynamicds.apisetting.dto.RequestOverrides;
+import com.company.dynamicds.apisetting.entity.ApiSetting;
+import com.company.dynamicds.apisetting.enums.HttpMethodType;
+import com.company.dynamicds.apisetting.enums.ScriptBindingMode;
+import com.company.dynamicds.apisetting.service.builder.HeaderBuilder;
+import com.company.dynamicds.apisetting.service.builder.RequestBodyBuilder;
+import com.company.dynamicds.apisetting.service.builder.UriBuilder;
+import com.company.dynamicds.repository.DynamicDataStoreConfigRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApiExecutorServiceTest {
+
+    private static final String BODY = "{\"data\":[{\"id\":1}]}";
+
+    private final ScriptService scriptService = mock(ScriptService.class);
+    private HttpServer server;
+    private ApiExecutorService executorService;
+    private String contentType = "application/json";
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/items", exchange -> {
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        HttpClientRegistry clientRegistry = mock(HttpClientRegistry.class);
+        when(clientRegistry.clientFor(any())).thenReturn(RestClient.create());
+        when(clientRegistry.settingsFor(any())).thenReturn(new HttpClientSettings(1, 1, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(1), false, false));
+        HeaderBuilder headerBuilder = mock(HeaderBuilder.class);
+        when(headerBuilder.buildHeaders(any(), anyBoolean())).thenAnswer(invocation -> new HttpHeaders());
+        UpstreamResilience resilience = new UpstreamResilience(mock(DynamicDataStoreConfigRepository.class), 0,
+                Duration.ofMillis(1), Duration.ofSeconds(1), 100, 10, 10, Duration.ofMinutes(1));
+
+        executorService = new ApiExecutorService(clientRegistry, mock(UriBuilder.class), headerBuilder,
+                mock(RequestBodyBuilder.class), scriptService, new HttpValidatorTracker(), mock(ApiAsyncExecutor.class),
+                resilience);
+
+        // Giả lập ScriptService: script trả lại nguyên response.body sau khi bindings được serialize thành JSON
+        ObjectMapper objectMapper = new ObjectMapper();
+        when(scriptService.execute(anyString(), anyMap(), any(ScriptBindingMode.class))).thenAnswer(invocation -> {
+            Map<?, ?> response = (Map<?, ?>) invocation.<Map<String, Object>>getArgument(1).get("response");
+            return objectMapper.writeValueAsString(response.get("body"));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void test_streamingScriptReceivesParsedObjectInObjectMode() {
+        String body = stream(setting(ScriptBindingMode.OBJECT));
+
+        // Body là object: JSON nhúng nguyên văn, không bị encode thành string lần nữa
+        assertThat(body).isEqualTo(BODY);
+    }
+
+    @Test
+    void test_structuredJsonMediaTypeIsParsedInObjectMode() {
+        contentType = "application/vnd.api+json; charset=utf-8";
+
+        assertThat(stream(setting(ScriptBindingMode.OBJECT))).isEqualTo(BODY);
+    }
+
+    @Test
+    void test_streamingScriptReceivesStringInJsonStringMode() throws IOException {
+        String body = stream(setting(ScriptBindingMode.JSON_STRING));
+
+        assertThat(new ObjectMapper().readValue(body, String.class)).isEqualTo(BODY);
+    }
+
+    @Test
+    void test_nonJsonBodyStaysStringInObjectMode() throws IOException {
+        contentType = "text/plain";
+
+        String body = stream(setting(ScriptBindingMode.OBJECT));
+
+        assertThat(new ObjectMapper().readValue(body, String.class)).isEqualTo(BODY);
+    }
+
+    private String stream(ApiSetting setting) {
+        RequestOverrides overrides = RequestOverrides.builder()
+                .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/items"))
+                .build();
+        return executorService.sendRequestStreaming(setting, overrides,
+                response -> new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static ApiSetting setting(ScriptBindingMode bindingMode) {
+        ApiSetting setting = new ApiSetting();
+        setting.setHttpMethod(HttpMethodType.GET);
+        setting.setPostResponseScript("response.body");
+        setting.setScriptBindingMode(bindingMode);
+        return setting;
+    }
+}
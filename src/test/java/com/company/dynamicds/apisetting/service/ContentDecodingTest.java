@@ -0,0 +1,140 @@
+package com.company.dynamicds.apisetting.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ContentDecodingTest {
+
+    private static final byte[] BODY = "{\"data\":[{\"id\":1,\"name\":\"Nguyễn Văn A\"}]}".repeat(2_000)
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void test_identityBodyIsNotWrapped() {
+        InputStream body = new ByteArrayInputStream(BODY);
+
+        assertThat(ContentDecoding.decode(body, null)).isSameAs(body);
+        assertThat(ContentDecoding.decode(body, " ")).isSameAs(body);
+        assertThat(ContentDecoding.decode(body, "Identity")).isSameAs(body);
+        assertThat(ContentDecoding.isEncoded("identity")).isFalse();
+        assertThat(ContentDecoding.isEncoded("gzip")).isTrue();
+    }
+
+    @Test
+    void test_gzipIsDecoded() throws IOException {
+        assertThat(decode(gzip(BODY), "gzip")).isEqualTo(BODY);
+        assertThat(decode(gzip(BODY), "X-GZIP")).isEqualTo(BODY);
+    }
+
+    @Test
+    void test_zlibDeflateIsDecoded() throws IOException {
+        assertThat(decode(deflate(BODY, false), "deflate")).isEqualTo(BODY);
+    }
+
+    @Test
+    void test_rawDeflateIsDecoded() throws IOException {
+        // Nhiều server gửi "deflate" không có header zlib
+        assertThat(decode(deflate(BODY, true), "deflate")).isEqualTo(BODY);
+    }
+
+    @Test
+    void test_brotliIsDecoded() throws IOException {
+        byte[] text = "hello, brotli".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decode(brotliUncompressed(text), "br")).isEqualTo(text);
+        // Stream brotli rỗng hợp lệ: WBITS = 16, ISLAST = 1, ISLASTEMPTY = 1
+        assertThat(decode(new byte[]{0x06}, "br")).isEmpty();
+    }
+
+    @Test
+    void test_stackedEncodingsAreDecodedInReverseOrder() throws IOException {
+        // "deflate, gzip": server nén deflate trước rồi gzip
+        assertThat(decode(gzip(deflate(BODY, false)), "deflate, gzip")).isEqualTo(BODY);
+        assertThat(decode(gzip(BODY), "identity, gzip")).isEqualTo(BODY);
+    }
+
+    @Test
+    void test_emptyEncodedBodyIsEmpty() throws IOException {
+        // 304 / HEAD vẫn có thể mang Content-Encoding
+        assertThat(decode(new byte[0], "gzip")).isEmpty();
+        assertThat(decode(new byte[0], "deflate")).isEmpty();
+        assertThat(decode(new byte[0], "br")).isEmpty();
+    }
+
+    @Test
+    void test_unsupportedEncodingFailsOnRead() {
+        InputStream decoded = ContentDecoding.decode(new ByteArrayInputStream(BODY), "compress");
+
+        assertThatThrownBy(decoded::read)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("compress");
+    }
+
+    @Test
+    void test_closeWithoutReadClosesSource() throws IOException {
+        boolean[] closed = new boolean[1];
+        InputStream source = new ByteArrayInputStream(gzip(BODY)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        ContentDecoding.decode(source, "gzip").close();
+
+        assertThat(closed[0]).isTrue();
+    }
+
+    private static byte[] decode(byte[] body, String contentEncoding) throws IOException {
+        try (InputStream decoded = ContentDecoding.decode(new ByteArrayInputStream(body), contentEncoding)) {
+            return decoded.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] body, boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        try (OutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(body);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Stream brotli gồm một meta-block không nén (RFC 7932, mục 9.2) và meta-block cuối rỗng.
+     */
+    private static byte[] brotliUncompressed(byte[] body) {
+        int mlen = body.length - 1;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // WBITS = 16 (bit 0), ISLAST = 0, MNIBBLES = 4, 4 bit thấp của MLEN - 1
+        out.write((mlen & 0x0F) << 4);
+        out.write((mlen >> 4) & 0xFF);
+        // 4 bit cao của MLEN - 1, ISUNCOMPRESSED = 1, phần còn lại là padding
+        out.write(((mlen >> 12) & 0x0F) | 0x10);
+        out.writeBytes(body);
+        // ISLAST = 1, ISLASTEMPTY = 1
+        out.write(0x03);
+        return out.toByteArray();
+    }
+}
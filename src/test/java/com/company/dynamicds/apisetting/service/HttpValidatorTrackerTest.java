@@ -0,0 +1,80 @@
+package com.company.dynamicds.apisetting.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpValidatorTrackerTest {
+
+    private static final URI URI_A = URI.create("https://a.example.com/items");
+
+    private final HttpValidatorTracker tracker = new HttpValidatorTracker();
+
+    @Test
+    void test_validatorsOfLastResponseAreKept() {
+        tracker.record(URI_A, false, 200, validators("\"v1\"", "Tue, 15 Nov 1994 12:45:26 GMT"));
+
+        assertThat(tracker.getValidators(URI_A))
+                .isEqualTo(new HttpValidatorTracker.Validators("\"v1\"", "Tue, 15 Nov 1994 12:45:26 GMT"));
+    }
+
+    @Test
+    void test_notModifiedWithoutValidatorsKeepsPrevious() {
+        tracker.record(URI_A, false, 200, validators("\"v1\"", null));
+
+        tracker.record(URI_A, true, 304, new HttpHeaders());
+
+        assertThat(tracker.getValidators(URI_A)).isEqualTo(new HttpValidatorTracker.Validators("\"v1\"", null));
+    }
+
+    @Test
+    void test_fullResponseWithoutValidatorsForgetsPrevious() {
+        tracker.record(URI_A, false, 200, validators("\"v1\"", null));
+
+        tracker.record(URI_A, true, 200, new HttpHeaders());
+
+        assertThat(tracker.getValidators(URI_A)).isNull();
+    }
+
+    @Test
+    void test_statsCountConditionalRequestsAndNotModified() {
+        tracker.record(URI_A, false, 200, validators("\"v1\"", null));
+        tracker.record(URI_A, true, 304, new HttpHeaders());
+        tracker.record(URI_A, true, 304, validators("\"v1\"", null));
+        tracker.record(URI_A, true, 200, validators("\"v2\"", null));
+        // 304 của request không gửi validator không tính vào tỉ lệ
+        tracker.record(URI_A, false, 304, new HttpHeaders());
+
+        assertThat(tracker.getStats()).satisfies(stats -> {
+            assertThat(stats.conditionalCount()).isEqualTo(3);
+            assertThat(stats.notModifiedCount()).isEqualTo(2);
+            assertThat(stats.hitRate()).isEqualTo(2.0 / 3);
+            assertThat(stats.trackedUriCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void test_trackedUrisAreBounded() {
+        for (int i = 0; i < 2_000; i++) {
+            tracker.record(URI.create("https://a.example.com/items/" + i), false, 200, validators("\"" + i + "\"", null));
+        }
+
+        assertThat(tracker.getStats().trackedUriCount()).isEqualTo(1024);
+        assertThat(tracker.getValidators(URI.create("https://a.example.com/items/0"))).isNull();
+        assertThat(tracker.getValidators(URI.create("https://a.example.com/items/1999"))).isNotNull();
+    }
+
+    private static HttpHeaders validators(String etag, String lastModified) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        if (lastModified != null) {
+            headers.set(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,101 @@
+package com.company.dynamicds.apisetting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.SandboxPolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So sánh thời gian chạy post-response script: context lạnh (không Engine chung) và ScriptService (Engine + Source cache).
+ * Chạy bằng: ./gradlew benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+public class ScriptServiceBenchmarkTest {
+
+    private static final int ITERATIONS = 200;
+
+    private static final String SCRIPT = """
+            const res = JSON.parse(response);
+            const items = JSON.parse(res.body);
+            JSON.stringify(items.filter(i => i.active).map(i => ({ id: i.id, name: i.name.toUpperCase() })));
+            """;
+
+    private static ScriptService scriptService;
+    private static Map<String, Object> bindings;
+
+    @BeforeAll
+    static void setUp() {
+        scriptService = new ScriptService(new ObjectMapper(), 4);
+
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"id\":").append(i)
+                    .append(",\"name\":\"item-").append(i)
+                    .append("\",\"active\":").append(i % 2 == 0).append('}');
+        }
+        bindings = Map.of("response", Map.of("statusCode", 200, "body", body.append(']').toString()));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        scriptService.destroy();
+    }
+
+    @Test
+    void test_pooledEngineFasterThanColdContext() {
+        // warm-up
+        for (int i = 0; i < 20; i++) {
+            executeCold();
+            scriptService.execute(SCRIPT, bindings);
+        }
+
+        long coldStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            executeCold();
+        }
+        long coldNanos = System.nanoTime() - coldStart;
+
+        long pooledStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            scriptService.execute(SCRIPT, bindings);
+        }
+        long pooledNanos = System.nanoTime() - pooledStart;
+
+        log.info("[benchmark] iterations={} cold={} ms/op pooled={} ms/op ({}x)", ITERATIONS,
+                String.format("%.2f", coldNanos / 1e6 / ITERATIONS), String.format("%.2f", pooledNanos / 1e6 / ITERATIONS),
+                String.format("%.1f", (double) coldNanos / pooledNanos));
+
+        assertThat(pooledNanos).isLessThan(coldNanos);
+    }
+
+    @Test
+    void test_resultMatchesColdContext() {
+        assertThat(scriptService.execute(SCRIPT, bindings)).isEqualTo(executeCold());
+    }
+
+    // Cách chạy cũ: mỗi lần một Context độc lập, script được parse lại từ đầu
+    private static String executeCold() {
+        try (Context context = Context.newBuilder("js")
+                .sandbox(SandboxPolicy.CONSTRAINED)
+                .option("engine.WarnInterpreterOnly", "false")
+                .out(OutputStream.nullOutputStream())
+                .err(OutputStream.nullOutputStream())
+                .build()) {
+            context.getBindings("js").putMember("response", new ObjectMapper().writeValueAsString(bindings.get("response")));
+            return context.eval("js", SCRIPT).toString();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.company.dynamicds.apisetting.service;
+
+import com.company.dynamicds.apisetting.dto.CircuitBreakerStatus;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.parser.DynamicEntityJsonParser;
+import com.company.dynamicds.repository.DynamicDataStoreConfigRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UpstreamResilienceTest {
+
+    private static final URI URI_A = URI.create("https://a.example.com/items?page=1");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void test_getIsRetriedOnTransientStatus() {
+        UpstreamResilience resilience = retrying(2);
+        AtomicInteger attempts = new AtomicInteger();
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.GET, URI_A);
+
+        String result = call.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                call.checkStatus(503, new HttpHeaders());
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(status(resilience).retryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_lastAttemptReturnsErrorResponse() {
+        UpstreamResilience resilience = retrying(1);
+        AtomicInteger attempts = new AtomicInteger();
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.GET, URI_A);
+
+        int status = call.execute(() -> {
+            attempts.incrementAndGet();
+            call.checkStatus(502, new HttpHeaders());
+            return 502;
+        });
+
+        assertThat(status).isEqualTo(502);
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(status(resilience).failureCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_postIsNeverRetried() {
+        UpstreamResilience resilience = retrying(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        UpstreamResilience.UpstreamCall statusCall = resilience.call(null, HttpMethod.POST, URI_A);
+        statusCall.execute(() -> {
+            attempts.incrementAndGet();
+            statusCall.checkStatus(503, new HttpHeaders());
+            return null;
+        });
+        UpstreamResilience.UpstreamCall ioCall = resilience.call(null, HttpMethod.POST, URI_A);
+        assertThatThrownBy(() -> ioCall.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("connection reset", new SocketException("Connection reset"));
+        })).isInstanceOf(ResourceAccessException.class);
+
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(status(resilience).retryCount()).isZero();
+    }
+
+    @Test
+    void test_connectionErrorsOfGetAreRetried() {
+        UpstreamResilience resilience = retrying(2);
+        AtomicInteger attempts = new AtomicInteger();
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.HEAD, URI_A);
+
+        assertThatThrownBy(() -> call.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("read timed out", new SocketTimeoutException("Read timed out"));
+        })).isInstanceOf(ResourceAccessException.class);
+
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    void test_retryAfterIsHonoredUpToMaxDelay() {
+        UpstreamResilience resilience = retrying(2);
+        AtomicInteger attempts = new AtomicInteger();
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.GET, URI_A);
+        HttpHeaders retryAfterOne = new HttpHeaders();
+        retryAfterOne.set(HttpHeaders.RETRY_AFTER, "1");
+
+        long start = System.nanoTime();
+        call.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                call.checkStatus(429, retryAfterOne);
+            }
+            return null;
+        });
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+        assertThat(attempts.get()).isEqualTo(2);
+
+        // Retry-After vượt retryMaxDelay (5s) -> không chờ, response lỗi trả về caller
+        HttpHeaders retryAfterLong = new HttpHeaders();
+        retryAfterLong.set(HttpHeaders.RETRY_AFTER, "60");
+        AtomicInteger longAttempts = new AtomicInteger();
+        UpstreamResilience.UpstreamCall longCall = resilience.call(null, HttpMethod.GET, URI_A);
+        longCall.execute(() -> {
+            longAttempts.incrementAndGet();
+            longCall.checkStatus(503, retryAfterLong);
+            return null;
+        });
+        assertThat(longAttempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void test_breakerOpensThenHalfOpenProbeClosesIt() throws InterruptedException {
+        UpstreamResilience resilience = resilience(0, Duration.ofMillis(100));
+        failWithStatus(resilience);
+        failWithStatus(resilience);
+
+        assertThat(status(resilience).state()).isEqualTo(CircuitBreakerStatus.State.OPEN);
+        AtomicInteger attempts = new AtomicInteger();
+        assertThatThrownBy(() -> resilience.call(null, HttpMethod.GET, URI_A).execute(attempts::incrementAndGet))
+                .isInstanceOf(CircuitOpenException.class);
+        assertThat(attempts.get()).isZero();
+        assertThat(status(resilience).rejectedCount()).isEqualTo(1);
+
+        Thread.sleep(150);
+        resilience.call(null, HttpMethod.GET, URI_A).execute(attempts::incrementAndGet);
+
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(status(resilience).state()).isEqualTo(CircuitBreakerStatus.State.CLOSED);
+    }
+
+    @Test
+    void test_failedProbeReopensBreaker() throws InterruptedException {
+        UpstreamResilience resilience = resilience(0, Duration.ofMillis(100));
+        failWithStatus(resilience);
+        failWithStatus(resilience);
+        Thread.sleep(150);
+
+        failWithStatus(resilience);
+
+        assertThat(status(resilience).state()).isEqualTo(CircuitBreakerStatus.State.OPEN);
+    }
+
+    @Test
+    void test_nonUpstreamErrorReleasesProbeWithoutClosing() throws InterruptedException {
+        UpstreamResilience resilience = resilience(0, Duration.ofMillis(100));
+        failWithStatus(resilience);
+        failWithStatus(resilience);
+        Thread.sleep(150);
+
+        assertThatThrownBy(() -> resilience.call(null, HttpMethod.GET, URI_A).execute(() -> {
+            throw new IllegalStateException("cannot parse response");
+        })).isInstanceOf(IllegalStateException.class);
+
+        CircuitBreakerStatus afterParseError = status(resilience);
+        assertThat(afterParseError.state()).isEqualTo(CircuitBreakerStatus.State.HALF_OPEN);
+        assertThat(afterParseError.callCount()).isEqualTo(2);
+
+        // Lượt thử được trả lại: request sau được gửi và quyết định trạng thái
+        resilience.call(null, HttpMethod.GET, URI_A).execute(() -> "ok");
+        assertThat(status(resilience).state()).isEqualTo(CircuitBreakerStatus.State.CLOSED);
+    }
+
+    @Test
+    void test_errorStatusFollowedByConsumerErrorCountsAsFailure() {
+        UpstreamResilience resilience = retrying(0);
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.GET, URI_A);
+
+        assertThatThrownBy(() -> call.execute(() -> {
+            call.checkStatus(500, new HttpHeaders());
+            throw new IllegalStateException("Upstream returned 500");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(status(resilience).failureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_breakersAreKeptPerHost() {
+        UpstreamResilience resilience = resilience(0, Duration.ofMinutes(1));
+        failWithStatus(resilience);
+        failWithStatus(resilience);
+
+        String result = resilience.call(null, HttpMethod.GET, URI.create("https://b.example.com/items"))
+                .execute(() -> "ok");
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(resilience.getStatuses("")).extracting(CircuitBreakerStatus::host, CircuitBreakerStatus::state)
+                .containsExactly(
+                        Tuple.tuple("https://a.example.com", CircuitBreakerStatus.State.OPEN),
+                        Tuple.tuple("https://b.example.com", CircuitBreakerStatus.State.CLOSED));
+    }
+
+    @Test
+    void test_timeoutWhileParsingBodyIsRetried() throws IOException {
+        AtomicInteger hits = new AtomicInteger();
+        // Header và nửa body đến ngay, phần còn lại không bao giờ tới
+        URI uri = serve(hits, exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            out.write("{\"data\":[{\"id\":1},".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(2_000);
+        });
+        UpstreamResilience resilience = retrying(1);
+        DynamicEntityJsonParser parser = new DynamicEntityJsonParser(objectMapper);
+
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.GET, uri);
+        assertThatThrownBy(() -> call.execute(() -> client(200).get().uri(uri).exchange((request, response) ->
+                parser.parsePage(response.getBody(), Map.of("id", MetadataFieldType.INTEGER), "/data", Set.of()))))
+                .hasRootCauseInstanceOf(SocketTimeoutException.class);
+
+        assertThat(hits).hasValue(2);
+        assertThat(resilience.getStatuses("")).singleElement().satisfies(status -> {
+            assertThat(status.failureCount()).isEqualTo(2);
+            assertThat(status.retryCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void test_parseErrorInExchangeIsNotUpstreamFailure() throws IOException {
+        AtomicInteger hits = new AtomicInteger();
+        URI uri = serve(hits, exchange -> {
+            byte[] body = "{not json".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        UpstreamResilience resilience = retrying(2);
+
+        // RestClient bọc JsonProcessingException của consumer thành ResourceAccessException
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.GET, uri);
+        assertThatThrownBy(() -> call.execute(() -> client(5_000).get().uri(uri).exchange((request, response) ->
+                objectMapper.readTree(response.getBody()))))
+                .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(hits).hasValue(1);
+        assertThat(resilience.getStatuses("")).singleElement().satisfies(status -> {
+            assertThat(status.failureCount()).isZero();
+            assertThat(status.retryCount()).isZero();
+        });
+    }
+
+    // Breaker mở sau 2 lần lỗi liên tiếp
+    private static UpstreamResilience resilience(int maxRetries, Duration openDuration) {
+        return new UpstreamResilience(Mockito.mock(DynamicDataStoreConfigRepository.class), maxRetries,
+                Duration.ofMillis(1), Duration.ofSeconds(5), 50, 2, 2, openDuration);
+    }
+
+    // Cửa sổ đủ rộng để các lần retry không làm mạch mở
+    private static UpstreamResilience retrying(int maxRetries) {
+        return new UpstreamResilience(Mockito.mock(DynamicDataStoreConfigRepository.class), maxRetries,
+                Duration.ofMillis(1), Duration.ofSeconds(5), 100, 10, 10, Duration.ofMinutes(1));
+    }
+
+    private static void failWithStatus(UpstreamResilience resilience) {
+        UpstreamResilience.UpstreamCall call = resilience.call(null, HttpMethod.GET, URI_A);
+        call.execute(() -> {
+            call.checkStatus(500, new HttpHeaders());
+            return null;
+        });
+    }
+
+    private static CircuitBreakerStatus status(UpstreamResilience resilience) {
+        return resilience.getStatuses("").stream()
+                .filter(status -> status.host().equals("https://a.example.com"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private URI serve(AtomicInteger hits, HttpHandler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/items", exchange -> {
+            hits.incrementAndGet();
+            handler.handle(exchange);
+        });
+        server.start();
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/items");
+    }
+
+    private static RestClient client(int readTimeoutMs) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.company.dynamicds.apisetting.service.builder;
+
+import com.company.dynamicds.apisetting.entity.ApiQueryParam;
+import com.company.dynamicds.apisetting.entity.ApiSetting;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UriBuilderTest {
+
+    private static final List<String> SPECIAL_VALUES = List.of("a+b@x.com", "tom & jerry", "100%", "{id}", "a=b?c#d");
+
+    private final UriBuilder uriBuilder = new UriBuilder();
+
+    @Test
+    void test_extraParamsAreStrictlyEncodedOnBaseUrl() {
+        for (String value : SPECIAL_VALUES) {
+            URI uri = uriBuilder.buildUri(baseUrlSetting(), params("q", value));
+
+            assertThat(queryValue(uri, "q")).as(value).isEqualTo(value);
+            assertThat(queryValue(uri, "apiVersion")).isEqualTo("2");
+        }
+    }
+
+    @Test
+    void test_extraParamsAreStrictlyEncodedOnRawUrl() {
+        for (String value : SPECIAL_VALUES) {
+            URI uri = uriBuilder.buildUri(rawUrlSetting(), params("q", value));
+
+            assertThat(queryValue(uri, "q")).as(value).isEqualTo(value);
+            assertThat(queryValue(uri, "apiVersion")).isEqualTo("2");
+        }
+    }
+
+    @Test
+    void test_plusIsNotSentAsSpace() {
+        URI uri = uriBuilder.buildUri(rawUrlSetting(), params("q", "a+b@x.com"));
+
+        assertThat(uri.getRawQuery()).contains("q=a%2Bb%40x.com");
+    }
+
+    @Test
+    void test_base64CursorIsSentUnchanged() {
+        // Cursor base64 do upstream trả về: '+' mà gửi nguyên văn sẽ thành dấu cách ở phía upstream
+        String cursor = "eyJpZCI6MTAwfQ+/a==";
+        MultiValueMap<String, String> params = params("limit", "50");
+        params.add("cursor", cursor);
+
+        URI uri = uriBuilder.buildUri(baseUrlSetting(), params);
+
+        assertThat(uri.getRawQuery()).contains("cursor=eyJpZCI6MTAwfQ%2B%2Fa%3D%3D");
+        assertThat(queryValue(uri, "cursor")).isEqualTo(cursor);
+        assertThat(queryValue(uri, "limit")).isEqualTo("50");
+    }
+
+    @Test
+    void test_extraParamReplacesSettingParam() {
+        URI uri = uriBuilder.buildUri(baseUrlSetting(), params("apiVersion", "3"));
+
+        assertThat(uri.getRawQuery()).isEqualTo("apiVersion=3");
+    }
+
+    @Test
+    void test_settingParamsKeepTheirEncoding() {
+        ApiSetting setting = new ApiSetting();
+        setting.setUseRawUrl(true);
+        setting.setFinalUrl("https://api.example.com/items?name=Nguyễn Văn&tag=a b");
+
+        URI uri = uriBuilder.buildUri(setting, null);
+
+        assertThat(queryValue(uri, "name")).isEqualTo("Nguyễn Văn");
+        assertThat(queryValue(uri, "tag")).isEqualTo("a b");
+    }
+
+    private static ApiSetting baseUrlSetting() {
+        ApiQueryParam param = new ApiQueryParam();
+        param.setKey("apiVersion");
+        param.setValue("2");
+        param.setIsEnable(true);
+        ApiSetting setting = new ApiSetting();
+        setting.setBaseUrl("https://api.example.com/items");
+        setting.setApiQueryParam(List.of(param));
+        return setting;
+    }
+
+    private static ApiSetting rawUrlSetting() {
+        ApiSetting setting = new ApiSetting();
+        setting.setUseRawUrl(true);
+        setting.setFinalUrl("https://api.example.com/items?apiVersion=2");
+        return setting;
+    }
+
+    private static MultiValueMap<String, String> params(String key, String value) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add(key, value);
+        return params;
+    }
+
+    // Đọc query như upstream: form-decoding ('+' là dấu cách)
+    private static String queryValue(URI uri, String name) {
+        String raw = UriComponentsBuilder.fromUri(uri).build(true).getQueryParams().getFirst(name);
+        return raw != null ? URLDecoder.decode(raw, StandardCharsets.UTF_8) : null;
+    }
+}
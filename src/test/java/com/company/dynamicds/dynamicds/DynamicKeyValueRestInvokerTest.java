@@ -0,0 +1,497 @@
+package com.company.dynamicds.dynamicds;
+
+import com.company.dynamicds.apisetting.dto.RequestOverrides;
+import com.company.dynamicds.apisetting.dto.StreamedApiResponse;
+import com.company.dynamicds.apisetting.entity.ApiSetting;
+import com.company.dynamicds.apisetting.enums.HttpMethodType;
+import com.company.dynamicds.apisetting.service.ApiExecutorService;
+import com.company.dynamicds.apisetting.service.ResponseConsumer;
+import com.company.dynamicds.dynamicds.batch.IdLoadBatcher;
+import com.company.dynamicds.dynamicds.cache.DynamicResultCache;
+import com.company.dynamicds.dynamicds.crawl.PageCrawler;
+import com.company.dynamicds.dynamicds.entity.CountStrategy;
+import com.company.dynamicds.dynamicds.entity.FilterOperation;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.entity.PaginationType;
+import com.company.dynamicds.dynamicds.metadata.CompiledMetadata;
+import com.company.dynamicds.dynamicds.metadata.DynamicMetadataRegistry;
+import com.company.dynamicds.dynamicds.parser.DynamicEntityJsonParser;
+import com.company.dynamicds.dynamicds.query.DynamicQuery;
+import com.company.dynamicds.dynamicds.query.DynamicQueryPlanner;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotPersistenceStore;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotQueryEngine;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotSpillStore;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotTable;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import io.jmix.core.security.SystemAuthenticator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DynamicKeyValueRestInvokerTest {
+
+    private static final String URL = "https://example.com/items";
+    private static final int TOTAL = 25;
+
+    private final ApiExecutorService apiExecutorService = mock(ApiExecutorService.class);
+    private final DynamicMetadataRegistry metadataRegistry = mock(DynamicMetadataRegistry.class);
+    private final DynamicResultCache resultCache = mock(DynamicResultCache.class);
+    private final SnapshotSpillStore spillStore = mock(SnapshotSpillStore.class);
+    private final SnapshotPersistenceStore persistenceStore = mock(SnapshotPersistenceStore.class);
+    private final PageCrawler pageCrawler = new PageCrawler(new SystemAuthenticator(), 4, 2);
+
+    // Query params của từng request đã gửi (uri tuyệt đối của next-link được tách ra thành params)
+    private final List<Map<String, String>> requests = Collections.synchronizedList(new ArrayList<>());
+    private final MetadataDefinition definition = new MetadataDefinition();
+    // ApiSetting mà registry resolve cho countUrl: request tới đây trả về body của count endpoint
+    private final ApiSetting countSetting = new ApiSetting();
+    // ETag hiện tại của upstream; request gửi kèm If-None-Match trùng -> 304
+    private String etag = "\"v1\"";
+    private final List<RequestOverrides> sent = Collections.synchronizedList(new ArrayList<>());
+    // Response cho request delta (có tham số since)
+    private String deltaBody = "{\"data\":[]}";
+
+    private DynamicKeyValueRestInvoker invoker;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        definition.setId(UUID.randomUUID());
+        definition.setName("items");
+        definition.setStoreName("store");
+        definition.setUrl(URL);
+        definition.setItemsPath("data");
+
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("id", MetadataFieldType.INTEGER);
+        fieldTypes.put("name", MetadataFieldType.STRING);
+        CompiledMetadata compiled = new CompiledMetadata(definition, List.copyOf(fieldTypes.keySet()), fieldTypes, null,
+                Map.of("name", Map.of(FilterOperation.CONTAINS, "q")), new ApiSetting(), URL, "id");
+        when(metadataRegistry.get("store", "items")).thenReturn(compiled);
+        when(metadataRegistry.resolveApiSetting(any(), any())).thenReturn(countSetting);
+
+        // Cache trong suốt: mỗi lần load đều gọi upstream
+        when(resultCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<List<KeyValueEntity>>) invocation.getArgument(2)).get());
+        when(apiExecutorService.sendRequestStreaming(any(ApiSetting.class), any(RequestOverrides.class), any()))
+                .thenAnswer(invocation -> ((ResponseConsumer<?>) invocation.getArgument(2))
+                        .consume(respond(invocation.getArgument(0), invocation.getArgument(1))));
+        when(spillStore.spill(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        invoker = new DynamicKeyValueRestInvoker(apiExecutorService, new DynamicEntityJsonParser(new ObjectMapper()),
+                metadataRegistry, resultCache, new DynamicQueryPlanner(), new SnapshotQueryEngine(),
+                spillStore, persistenceStore, mock(IdLoadBatcher.class),
+                pageCrawler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pageCrawler.destroy();
+    }
+
+    @Test
+    void test_offsetLimitPushesFirstAndMaxResults() {
+        definition.setPaginationType(PaginationType.OFFSET_LIMIT);
+
+        List<KeyValueEntity> items = invoker.loadList("store", "items", page(5, 10));
+
+        assertThat(ids(items)).containsExactlyElementsOf(range(5, 15));
+        assertThat(items).allSatisfy(item -> assertThat(item.getId()).isEqualTo(item.getValue("id")));
+        assertThat(requests).containsExactly(Map.of("offset", "5", "limit", "10"));
+    }
+
+    @Test
+    void test_pageSizeFillsFromNextPageWhenFirstResultIsNotAligned() {
+        definition.setPaginationType(PaginationType.PAGE_SIZE);
+        definition.setPageStartIndex(1);
+        definition.setPageParam("p");
+
+        List<KeyValueEntity> items = invoker.loadList("store", "items", page(5, 10));
+
+        assertThat(ids(items)).containsExactlyElementsOf(range(5, 15));
+        assertThat(requests).containsExactly(Map.of("p", "1", "size", "10"), Map.of("p", "2", "size", "10"));
+    }
+
+    @Test
+    void test_pageSizeStopsOnShortPage() {
+        definition.setPaginationType(PaginationType.PAGE_SIZE);
+
+        List<KeyValueEntity> items = invoker.loadList("store", "items", page(15, 10));
+
+        // Trang 1 đủ 10 item nhưng chỉ còn 5 item ở trang 2
+        assertThat(ids(items)).containsExactlyElementsOf(range(15, TOTAL));
+        assertThat(requests).containsExactly(Map.of("page", "1", "size", "10"), Map.of("page", "2", "size", "10"));
+    }
+
+    @Test
+    void test_cursorWalksFromStartThenJumpsWithCachedCursor() {
+        definition.setPaginationType(PaginationType.CURSOR);
+        definition.setNextPath("next");
+
+        List<KeyValueEntity> second = invoker.loadList("store", "items", page(10, 10));
+
+        assertThat(ids(second)).containsExactlyElementsOf(range(10, 20));
+        assertThat(requests).containsExactly(Map.of("limit", "10"), Map.of("limit", "10", "cursor", "c10"));
+
+        requests.clear();
+        List<KeyValueEntity> third = invoker.loadList("store", "items", page(20, 10));
+
+        assertThat(ids(third)).containsExactlyElementsOf(range(20, TOTAL));
+        assertThat(requests).containsExactly(Map.of("limit", "10", "cursor", "c20"));
+    }
+
+    @Test
+    void test_relativeNextLinkIsResolvedAgainstEntityUrl() {
+        definition.setPaginationType(PaginationType.NEXT_LINK);
+        definition.setNextPath("next");
+
+        List<KeyValueEntity> items = invoker.loadList("store", "items", page(10, 10));
+
+        assertThat(ids(items)).containsExactlyElementsOf(range(10, 20));
+        assertThat(requests).containsExactly(Map.of("limit", "10"), Map.of("after", "10", "limit", "10"));
+    }
+
+    @Test
+    void test_cursorPaginationRequiresNextPath() {
+        definition.setPaginationType(PaginationType.CURSOR);
+
+        assertThatThrownBy(() -> invoker.loadList("store", "items", page(0, 10)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Next path is required");
+    }
+
+    @Test
+    void test_unpagedQuerySendsSingleRequestWithFilter() {
+        definition.setPaginationType(PaginationType.OFFSET_LIMIT);
+        DynamicQuery query = new DynamicQuery(
+                PropertyCondition.createWithValue("name", PropertyCondition.Operation.CONTAINS, "item-2"),
+                Map.of(), null, 0, 0);
+
+        List<KeyValueEntity> items = invoker.loadList("store", "items", query);
+
+        assertThat(ids(items)).containsExactly(2, 20, 21, 22, 23, 24);
+        assertThat(requests).containsExactly(Map.of("q", "item-2"));
+    }
+
+    @Test
+    void test_countEndpointSendsPushedDownFilter() {
+        definition.setPaginationType(PaginationType.OFFSET_LIMIT);
+        definition.setCountStrategy(CountStrategy.COUNT_ENDPOINT);
+        definition.setCountUrl(URL + "/count");
+        definition.setCountPath("meta.count");
+        countSetting.setPostResponseScript("return body");
+
+        long count = invoker.count("store", "items", filtered("item-2"));
+
+        assertThat(count).isEqualTo(6);
+        assertThat(requests).containsExactly(Map.of("q", "item-2"));
+        // Response của count endpoint khác shape -> không chạy post-response script
+        assertThat(countSetting.getHttpMethod()).isEqualTo(HttpMethodType.GET);
+        assertThat(countSetting.getPostResponseScript()).isNull();
+    }
+
+    @Test
+    void test_countEndpointWithoutPathReadsPlainNumber() {
+        definition.setCountStrategy(CountStrategy.COUNT_ENDPOINT);
+        definition.setCountUrl(URL + "/count");
+
+        assertThat(invoker.count("store", "items")).isEqualTo(TOTAL);
+    }
+
+    @Test
+    void test_countEndpointRequiresUrl() {
+        definition.setCountStrategy(CountStrategy.COUNT_ENDPOINT);
+
+        assertThatThrownBy(() -> invoker.count("store", "items"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Count url is required");
+    }
+
+    @Test
+    void test_totalPathReadsSmallestPage() {
+        definition.setPaginationType(PaginationType.OFFSET_LIMIT);
+        definition.setCountStrategy(CountStrategy.TOTAL_PATH);
+        definition.setCountPath("total");
+
+        long count = invoker.count("store", "items", filtered("item-1"));
+
+        assertThat(count).isEqualTo(11);
+        assertThat(requests).containsExactly(Map.of("q", "item-1", "offset", "0", "limit", "1"));
+    }
+
+    @Test
+    void test_responseHeaderReadsSmallestPage() {
+        definition.setPaginationType(PaginationType.PAGE_SIZE);
+        definition.setPageStartIndex(1);
+        definition.setCountStrategy(CountStrategy.RESPONSE_HEADER);
+
+        assertThat(invoker.count("store", "items")).isEqualTo(TOTAL);
+        assertThat(requests).containsExactly(Map.of("page", "1", "size", "1"));
+    }
+
+    @Test
+    void test_missingCountHeaderFails() {
+        definition.setPaginationType(PaginationType.PAGE_SIZE);
+        definition.setCountStrategy(CountStrategy.RESPONSE_HEADER);
+        definition.setCountHeader("X-Count");
+
+        assertThatThrownBy(() -> invoker.count("store", "items"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Count value not found");
+    }
+
+    @Test
+    void test_localFilterCountsCrawledResult() {
+        definition.setPaginationType(PaginationType.OFFSET_LIMIT);
+        definition.setCountStrategy(CountStrategy.RESPONSE_HEADER);
+        definition.setCrawlPageSize(4);
+        DynamicQuery query = new DynamicQuery(LogicalCondition.and(
+                PropertyCondition.createWithValue("name", PropertyCondition.Operation.CONTAINS, "item-2"),
+                PropertyCondition.createWithValue("id", PropertyCondition.Operation.GREATER, 21)),
+                Map.of(), null, 0, 0);
+
+        // Header chỉ biết filter đã đẩy xuống (6 bản ghi), id > 21 phải lọc cục bộ
+        assertThat(invoker.count("store", "items", query)).isEqualTo(3);
+        assertThat(requests).allSatisfy(params -> assertThat(params).containsEntry("q", "item-2"));
+    }
+
+    @Test
+    void test_unchangedSnapshotIsReusedOnNotModified() {
+        SnapshotTable first = invoker.refreshSnapshotTable("store", "items");
+        when(resultCache.peekSnapshot(any())).thenReturn(first);
+
+        SnapshotTable second = invoker.refreshSnapshotTable("store", "items");
+
+        assertThat(sent.get(0).isConditional()).isFalse();
+        assertThat(sent.get(1).getIfNoneMatch()).isEqualTo("\"v1\"");
+        // 304 -> cùng cột của bản trước, chỉ version được làm mới; không ghi lại file
+        assertThat(second.getColumn("id")).isSameAs(first.getColumn("id"));
+        assertThat(second.getVersion().etag()).isEqualTo("\"v1\"");
+        assertThat(second.getVersion().fetchedAt()).isAfterOrEqualTo(first.getVersion().fetchedAt());
+        verify(persistenceStore, times(1)).save(any(), any(), any(), any());
+    }
+
+    @Test
+    void test_changedSnapshotIsReloaded() {
+        SnapshotTable first = invoker.refreshSnapshotTable("store", "items");
+        when(resultCache.peekSnapshot(any())).thenReturn(first);
+        etag = "\"v2\"";
+
+        SnapshotTable second = invoker.refreshSnapshotTable("store", "items");
+
+        assertThat(sent.get(1).getIfNoneMatch()).isEqualTo("\"v1\"");
+        assertThat(second.getColumn("id")).isNotSameAs(first.getColumn("id"));
+        assertThat(second.getRowCount()).isEqualTo(TOTAL);
+        assertThat(second.getVersion().etag()).isEqualTo("\"v2\"");
+        verify(persistenceStore, times(2)).save(any(), any(), any(), any());
+    }
+
+    @Test
+    void test_persistedSnapshotValidatorsAreSentWhenNotCached() {
+        SnapshotTable persisted = SnapshotTable.builder(Map.of("id", MetadataFieldType.INTEGER))
+                .version(new SnapshotVersion(Instant.EPOCH, "\"v1\"", null))
+                .build();
+        when(persistenceStore.find(eq("store"), eq("items"), any())).thenReturn(persisted);
+
+        SnapshotTable table = invoker.refreshSnapshotTable("store", "items");
+
+        assertThat(sent).singleElement().satisfies(overrides -> assertThat(overrides.getIfNoneMatch()).isEqualTo("\"v1\""));
+        assertThat(table.getVersion().fetchedAt()).isAfter(Instant.EPOCH);
+        verify(persistenceStore, never()).save(any(), any(), any(), any());
+    }
+
+    @Test
+    void test_pagedSnapshotIsNotConditional() {
+        definition.setPaginationType(PaginationType.OFFSET_LIMIT);
+        SnapshotTable first = invoker.refreshSnapshotTable("store", "items");
+        when(resultCache.peekSnapshot(any())).thenReturn(first);
+
+        SnapshotTable second = invoker.refreshSnapshotTable("store", "items");
+
+        // Validator của trang đầu không đại diện cho các trang sau -> luôn tải đầy đủ
+        assertThat(sent).noneMatch(RequestOverrides::isConditional);
+        assertThat(second.getRowCount()).isEqualTo(TOTAL);
+    }
+
+    @Test
+    void test_deltaSyncMergesRowsNewerThanWatermark() {
+        definition.setWatermarkField("id");
+        definition.setDeltaParamTemplate("since={watermark}&order=asc");
+        SnapshotTable first = invoker.refreshSnapshotTable("store", "items");
+        when(resultCache.peekSnapshot(any())).thenReturn(first);
+        deltaBody = "{\"data\":[{\"id\":3,\"name\":\"changed\"},{\"id\":30,\"name\":\"item-30\"}]}";
+
+        SnapshotTable merged = invoker.refreshSnapshotTable("store", "items");
+
+        assertThat(requests.get(1)).isEqualTo(Map.of("since", "24", "order", "asc"));
+        assertThat(merged.getRowCount()).isEqualTo(TOTAL + 1);
+        assertThat(merged.getRow(3).<Object>getValue("name")).isEqualTo("changed");
+        assertThat(merged.getRow(TOTAL).<Object>getValue("id")).isEqualTo(30);
+        // Delta không mang validator mới -> giữ của bản trước
+        assertThat(merged.getVersion().etag()).isEqualTo("\"v1\"");
+        verify(persistenceStore, times(2)).save(any(), any(), any(), any());
+    }
+
+    @Test
+    void test_emptyDeltaKeepsPreviousRows() {
+        definition.setWatermarkField("id");
+        definition.setDeltaParamTemplate("since");
+        SnapshotTable first = invoker.refreshSnapshotTable("store", "items");
+        when(resultCache.peekSnapshot(any())).thenReturn(first);
+
+        SnapshotTable second = invoker.refreshSnapshotTable("store", "items");
+
+        assertThat(requests.get(1)).isEqualTo(Map.of("since", "24"));
+        assertThat(second.getColumn("id")).isSameAs(first.getColumn("id"));
+        verify(persistenceStore, times(1)).save(any(), any(), any(), any());
+    }
+
+    @Test
+    void test_fullSyncIsUsedWhenDue() {
+        definition.setWatermarkField("id");
+        definition.setDeltaParamTemplate("since");
+        definition.setFullSyncIntervalSeconds(1);
+        SnapshotTable first = invoker.refreshSnapshotTable("store", "items");
+        when(resultCache.peekSnapshot(any())).thenReturn(first);
+        etag = "\"v2\"";
+        sleep(1_100);
+
+        SnapshotTable second = invoker.refreshSnapshotTable("store", "items");
+
+        // Đồng bộ đầy đủ định kỳ để bắt các dòng đã bị xoá ở upstream
+        assertThat(requests.get(1)).doesNotContainKey("since");
+        assertThat(second.getVersion().etag()).isEqualTo("\"v2\"");
+    }
+
+    @Test
+    void test_loadOneAndLoadByIdsUseSnapshotKeyIndex() {
+        SnapshotTable table = invoker.refreshSnapshotTable("store", "items");
+        when(resultCache.peekSnapshot(any())).thenReturn(table);
+        requests.clear();
+
+        KeyValueEntity one = invoker.loadOne("store", "items", "7");
+        List<KeyValueEntity> many = invoker.loadByIds("store", "items", List.of(12, "3", 99, 0));
+
+        assertThat(one.getId()).isEqualTo(7);
+        assertThat((Object) one.getValue("name")).isEqualTo("item-7");
+        assertThat(ids(many)).containsExactly(12, 3, 0);
+        assertThat(invoker.loadOne("store", "items", 99)).isNull();
+        assertThat(requests).isEmpty();
+    }
+
+    private StreamedApiResponse respond(ApiSetting setting, RequestOverrides overrides) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (overrides.getUri() != null) {
+            UriComponentsBuilder.fromUri(overrides.getUri()).build().getQueryParams()
+                    .forEach((name, values) -> params.put(name, values.get(0)));
+        }
+        MultiValueMap<String, String> queryParams = overrides.getQueryParams();
+        queryParams.forEach((name, values) -> params.put(name, values.get(0)));
+        requests.add(params);
+        sent.add(overrides);
+        if (etag.equals(overrides.getIfNoneMatch())) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(etag);
+            return StreamedApiResponse.builder().statusCode(304).headers(headers).build();
+        }
+
+        if (params.containsKey("since")) {
+            return response(new HttpHeaders(), deltaBody);
+        }
+        List<Integer> matching = range(0, TOTAL).stream()
+                .filter(id -> !params.containsKey("q") || ("item-" + id).contains(params.get("q")))
+                .toList();
+        if (setting == countSetting) {
+            String count = String.valueOf(matching.size());
+            return response(new HttpHeaders(), definition.getCountPath() != null
+                    ? "{\"meta\":{\"count\":" + count + "}}" : count);
+        }
+        int size = Integer.parseInt(params.getOrDefault("limit", params.getOrDefault("size", String.valueOf(TOTAL))));
+        int start;
+        if (params.containsKey("offset")) {
+            start = Integer.parseInt(params.get("offset"));
+        } else if (params.containsKey("page") || params.containsKey("p")) {
+            int startIndex = definition.getPageStartIndex() != null ? definition.getPageStartIndex() : 0;
+            start = (Integer.parseInt(params.getOrDefault("page", params.get("p"))) - startIndex) * size;
+        } else if (params.containsKey("cursor")) {
+            start = Integer.parseInt(params.get("cursor").substring(1));
+        } else {
+            start = Integer.parseInt(params.getOrDefault("after", "0"));
+        }
+        List<Integer> pageIds = matching.subList(Math.min(start, matching.size()), Math.min(start + size, matching.size()));
+
+        StringBuilder body = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < pageIds.size(); i++) {
+            body.append(i > 0 ? "," : "")
+                    .append("{\"id\":").append(pageIds.get(i)).append(",\"name\":\"item-").append(pageIds.get(i)).append("\"}");
+        }
+        body.append("],\"total\":").append(matching.size());
+        int next = start + size;
+        if (next < matching.size()) {
+            body.append(",\"next\":\"").append(definition.getPaginationType() == PaginationType.NEXT_LINK
+                    ? "/items?after=" + next + "&limit=" + size : "c" + next).append("\"");
+        }
+        body.append("}");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Total-Count", String.valueOf(matching.size()));
+        headers.setETag(etag);
+        return response(headers, body.toString());
+    }
+
+    private static StreamedApiResponse response(HttpHeaders headers, String body) {
+        return StreamedApiResponse.builder()
+                .success(true)
+                .statusCode(200)
+                .headers(headers)
+                .body(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private static DynamicQuery filtered(String name) {
+        return new DynamicQuery(PropertyCondition.createWithValue("name", PropertyCondition.Operation.CONTAINS, name),
+                Map.of(), null, 0, 0);
+    }
+
+    private static DynamicQuery page(int firstResult, int maxResults) {
+        return new DynamicQuery(null, Map.of(), null, firstResult, maxResults);
+    }
+
+    private static List<Object> ids(List<KeyValueEntity> items) {
+        return items.stream().map(item -> (Object) item.getValue("id")).toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().toList();
+    }
+}
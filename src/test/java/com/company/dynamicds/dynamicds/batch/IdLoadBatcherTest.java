@@ -0,0 +1,167 @@
+package com.company.dynamicds.dynamicds.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdLoadBatcherTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final List<List<Object>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void test_concurrentLoadsInWindowShareOneBatch() throws Exception {
+        IdLoadBatcher batcher = new IdLoadBatcher(300, 100);
+
+        Map<Object, String> results = loadConcurrently(batcher, "store/items", List.of(1, 2, 3, 4, 5), loader());
+
+        assertThat(batches).singleElement().satisfies(ids -> assertThat(ids).containsExactlyInAnyOrder(1, 2, 3, 4, 5));
+        assertThat(results).containsExactlyInAnyOrderEntriesOf(Map.of(1, "v1", 2, "v2", 3, "v3", 4, "v4", 5, "v5"));
+    }
+
+    @Test
+    void test_batchesNeverExceedMaxSize() throws Exception {
+        IdLoadBatcher batcher = new IdLoadBatcher(300, 3);
+        List<Object> ids = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16);
+
+        Map<Object, String> results = loadConcurrently(batcher, "store/items", ids, loader());
+
+        assertThat(results).hasSize(ids.size());
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(ids.size());
+    }
+
+    @Test
+    void test_fullBatchIsFlushedBeforeWindowEnds() throws Exception {
+        IdLoadBatcher batcher = new IdLoadBatcher(5_000, 2);
+
+        long start = System.nanoTime();
+        Map<Object, String> results = loadConcurrently(batcher, "store/items", List.of(1, 2), loader());
+
+        assertThat(results).hasSize(2);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+    }
+
+    @Test
+    void test_duplicateIdsAreLoadedOnce() throws Exception {
+        IdLoadBatcher batcher = new IdLoadBatcher(300, 100);
+        List<Future<String>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (Object id : List.of(7, 7, 8, 7)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return batcher.load("store/items", id, loader());
+            }));
+        }
+        start.countDown();
+
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+
+        assertThat(results).containsExactly("v7", "v7", "v8", "v7");
+        assertThat(batches).singleElement().satisfies(ids -> assertThat(ids).containsExactlyInAnyOrder(7, 8));
+    }
+
+    @Test
+    void test_loaderFailureIsDeliveredToEveryCaller() throws Exception {
+        IdLoadBatcher batcher = new IdLoadBatcher(300, 100);
+        IllegalStateException failure = new IllegalStateException("upstream down");
+        List<Future<String>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (Object id : List.of(1, 2, 3)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return batcher.<String>load("store/items", id, ids -> {
+                    batches.add(ids);
+                    throw failure;
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> future : futures) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isSameAs(failure);
+        }
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void test_missingIdReturnsNull() {
+        IdLoadBatcher batcher = new IdLoadBatcher(1, 100);
+
+        String result = batcher.load("store/items", 1, ids -> Map.of());
+
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void test_zeroWindowLoadsEachIdAlone() throws Exception {
+        IdLoadBatcher batcher = new IdLoadBatcher(0, 100);
+
+        loadConcurrently(batcher, "store/items", List.of(1, 2, 3), loader());
+
+        assertThat(batches).hasSize(3).allSatisfy(ids -> assertThat(ids).hasSize(1));
+    }
+
+    @Test
+    void test_differentKeysAreNotMixed() throws Exception {
+        IdLoadBatcher batcher = new IdLoadBatcher(300, 100);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<String> items = executor.submit(() -> {
+            start.await();
+            return batcher.load("store/items", 1, loader());
+        });
+        Future<String> orders = executor.submit(() -> {
+            start.await();
+            return batcher.load("store/orders", 1, loader());
+        });
+        start.countDown();
+
+        assertThat(items.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+        assertThat(orders.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+        assertThat(batches).hasSize(2);
+    }
+
+    private Function<List<Object>, Map<Object, String>> loader() {
+        return ids -> {
+            batches.add(List.copyOf(ids));
+            return ids.stream().collect(Collectors.toMap(id -> id, id -> "v" + id));
+        };
+    }
+
+    private Map<Object, String> loadConcurrently(IdLoadBatcher batcher, String batchKey, List<Object> ids,
+                                                 Function<List<Object>, Map<Object, String>> loader) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Object, Future<String>> futures = new LinkedHashMap<>();
+        for (Object id : ids) {
+            futures.put(id, executor.submit(() -> {
+                start.await();
+                return batcher.load(batchKey, id, loader);
+            }));
+        }
+        start.countDown();
+
+        Map<Object, String> results = new LinkedHashMap<>();
+        for (Map.Entry<Object, Future<String>> future : futures.entrySet()) {
+            results.put(future.getKey(), future.getValue().get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
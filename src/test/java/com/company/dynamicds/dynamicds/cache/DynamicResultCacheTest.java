@@ -0,0 +1,278 @@
+package com.company.dynamicds.dynamicds.cache;
+
+import com.company.dynamicds.dynamicds.entity.DynamicDataStoreConfig;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotTable;
+import com.company.dynamicds.repository.DynamicDataStoreConfigRepository;
+import io.jmix.core.entity.KeyValueEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DynamicResultCacheTest {
+
+    private static final List<String> PROPERTIES = List.of("name");
+
+    private final DynamicDataStoreConfigRepository configRepository = mock(DynamicDataStoreConfigRepository.class);
+    private DynamicResultCache cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.destroy();
+        }
+    }
+
+    @Test
+    void test_resultIsReusedWithinTtl() {
+        cache = cache(Duration.ofMinutes(1), 64, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<KeyValueEntity> first = cache.get(key("items", ""), PROPERTIES, counting(loads, "a"));
+        List<KeyValueEntity> second = cache.get(key("items", ""), PROPERTIES, counting(loads, "b"));
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getStats("store")).satisfies(stats -> {
+            assertThat(stats.hitCount()).isEqualTo(1);
+            assertThat(stats.missCount()).isEqualTo(1);
+            assertThat(stats.entryCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void test_resultIsReloadedAfterTtl() {
+        cache = cache(Duration.ofMillis(50), 64, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("items", ""), PROPERTIES, counting(loads, "a"));
+        sleep(100);
+        List<KeyValueEntity> reloaded = cache.get(key("items", ""), PROPERTIES, counting(loads, "b"));
+
+        assertThat(loads).hasValue(2);
+        assertThat((Object) reloaded.get(0).getValue("name")).isEqualTo("b");
+        assertThat(cache.getStats("store").missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_staleResultIsServedWhenReloadFails() {
+        cache = cache(Duration.ofMillis(50), 64, Duration.ofMinutes(10));
+        cache.get(key("items", ""), PROPERTIES, () -> items("a"));
+        sleep(100);
+
+        List<KeyValueEntity> stale = cache.get(key("items", ""), PROPERTIES, () -> {
+            throw new IllegalStateException("upstream down");
+        });
+
+        assertThat((Object) stale.get(0).getValue("name")).isEqualTo("a");
+        assertThat(cache.getStats("store").staleServedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_failureIsThrownWhenStaleIfErrorExpired() {
+        cache = cache(Duration.ofMillis(50), 64, Duration.ZERO);
+        cache.get(key("items", ""), PROPERTIES, () -> items("a"));
+        sleep(100);
+
+        assertThatThrownBy(() -> cache.get(key("items", ""), PROPERTIES, () -> {
+            throw new IllegalStateException("upstream down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("upstream down");
+    }
+
+    @Test
+    void test_invalidateRemovesOnlyThatEntity() {
+        cache = cache(Duration.ofMinutes(1), 64, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(key("items", ""), PROPERTIES, counting(loads, "a"));
+        cache.get(key("items", "page=1"), PROPERTIES, counting(loads, "a"));
+        cache.get(key("orders", ""), PROPERTIES, counting(loads, "a"));
+
+        cache.invalidate("store", "items");
+        cache.get(key("items", ""), PROPERTIES, counting(loads, "b"));
+        cache.get(key("items", "page=1"), PROPERTIES, counting(loads, "b"));
+        cache.get(key("orders", ""), PROPERTIES, counting(loads, "b"));
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void test_entriesOverMaxWeightAreEvicted() {
+        cache = cache(Duration.ofMinutes(1), 1, Duration.ZERO);
+        String large = "x".repeat(600 * 1024);
+
+        cache.get(key("items", "1"), PROPERTIES, () -> items(large));
+        cache.get(key("items", "2"), PROPERTIES, () -> items(large));
+
+        // Caffeine loại entry trong lượt bảo trì bất đồng bộ
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (cache.getStats("store").evictionCount() == 0 && System.nanoTime() < deadline) {
+            cache.get(key("items", "3"), PROPERTIES, () -> items("small"));
+            sleep(10);
+        }
+        assertThat(cache.getStats("store")).satisfies(stats -> {
+            assertThat(stats.evictionCount()).isPositive();
+            assertThat(stats.weightBytes()).isLessThanOrEqualTo(1024 * 1024);
+        });
+    }
+
+    @Test
+    void test_disabledStoreAlwaysLoads() {
+        DynamicDataStoreConfig config = new DynamicDataStoreConfig();
+        config.setStoreName("store");
+        config.setResultCacheEnabled(false);
+        when(configRepository.findByStoreName("store")).thenReturn(Optional.of(config));
+        cache = cache(Duration.ofMinutes(1), 64, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("items", ""), PROPERTIES, counting(loads, "a"));
+        cache.get(key("items", ""), PROPERTIES, counting(loads, "a"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getStats("store").entryCount()).isZero();
+    }
+
+    @Test
+    void test_cachedResultIsImmutable() {
+        cache = cache(Duration.ofMinutes(1), 64, Duration.ZERO);
+
+        List<KeyValueEntity> result = cache.get(key("items", ""), PROPERTIES, () -> items("a"));
+
+        assertThatThrownBy(() -> result.add(new KeyValueEntity())).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void test_staleSnapshotIsServedWhileRevalidating() {
+        cache = cache(Duration.ofMillis(50), 64, Duration.ZERO);
+        SnapshotTable first = table("a");
+        SnapshotTable second = table("b");
+        AtomicInteger refreshes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<SnapshotTable> slowLoader = () -> {
+            refreshes.incrementAndGet();
+            await(release);
+            return second;
+        };
+
+        assertThat(cache.getSnapshot(key("items", "snapshot"), () -> first, true)).isSameAs(first);
+        sleep(100);
+
+        // Quá TTL: trả ngay bản cũ, chỉ một lần refresh chạy ở background dù có nhiều lời gọi
+        assertThat(cache.getSnapshot(key("items", "snapshot"), slowLoader, true)).isSameAs(first);
+        assertThat(cache.getSnapshot(key("items", "snapshot"), slowLoader, true)).isSameAs(first);
+        release.countDown();
+
+        awaitSnapshot(key("items", "snapshot"), second);
+        assertThat(refreshes).hasValue(1);
+        assertThat(cache.getSnapshot(key("items", "snapshot"), () -> table("c"), true)).isSameAs(second);
+    }
+
+    @Test
+    void test_failedRevalidationKeepsStaleSnapshot() {
+        cache = cache(Duration.ofMillis(50), 64, Duration.ZERO);
+        SnapshotTable first = table("a");
+        AtomicInteger refreshes = new AtomicInteger();
+        cache.getSnapshot(key("items", "snapshot"), () -> first, true);
+        sleep(100);
+
+        SnapshotTable served = cache.getSnapshot(key("items", "snapshot"), () -> {
+            refreshes.incrementAndGet();
+            throw new IllegalStateException("upstream down");
+        }, true);
+
+        assertThat(served).isSameAs(first);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (refreshes.get() == 0 && System.nanoTime() < deadline) {
+            sleep(10);
+        }
+        sleep(50);
+        // Snapshot stale-while-revalidate không hết hạn theo thời gian
+        assertThat(cache.peekSnapshot(key("items", "snapshot"))).isSameAs(first);
+    }
+
+    @Test
+    void test_snapshotWithoutRevalidationIsReloadedAfterTtl() {
+        cache = cache(Duration.ofMillis(50), 64, Duration.ZERO);
+        SnapshotTable second = table("b");
+        cache.getSnapshot(key("items", "snapshot"), () -> table("a"));
+        sleep(100);
+
+        assertThat(cache.getSnapshot(key("items", "snapshot"), () -> second)).isSameAs(second);
+    }
+
+    @Test
+    void test_weightCountsEntityAndValues() {
+        KeyValueEntity entity = new KeyValueEntity();
+        entity.setValue("name", "abc");
+        entity.setValue("active", true);
+        entity.setValue("count", 1);
+
+        long weight = DynamicResultCache.estimateWeight(List.of(entity, entity), List.of("name", "active", "count", "missing"));
+
+        // 16 + 2 * 8 cho list, mỗi entity 64 + (32 + 40 + 3) + 32 + (32 + 16)
+        assertThat(weight).isEqualTo(32 + 2 * (64 + 75 + 32 + 48));
+    }
+
+    private DynamicResultCache cache(Duration ttl, int maxSizeMb, Duration staleIfError) {
+        return new DynamicResultCache(configRepository, ttl, maxSizeMb, 1, staleIfError);
+    }
+
+    private static ResultCacheKey key(String entityName, String queryParams) {
+        return new ResultCacheKey("store", entityName, "https://example.com/" + entityName, queryParams);
+    }
+
+    private static Supplier<List<KeyValueEntity>> counting(AtomicInteger loads, String name) {
+        return () -> {
+            loads.incrementAndGet();
+            return items(name);
+        };
+    }
+
+    private static List<KeyValueEntity> items(String name) {
+        KeyValueEntity entity = new KeyValueEntity();
+        entity.setValue("name", name);
+        return List.of(entity);
+    }
+
+    private void awaitSnapshot(ResultCacheKey key, SnapshotTable expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (cache.peekSnapshot(key) != expected && System.nanoTime() < deadline) {
+            sleep(10);
+        }
+        assertThat(cache.peekSnapshot(key)).isSameAs(expected);
+    }
+
+    private static SnapshotTable table(String name) {
+        return SnapshotTable.of(Map.of("name", MetadataFieldType.STRING), items(name));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
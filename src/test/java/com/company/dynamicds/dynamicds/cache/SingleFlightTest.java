@@ -0,0 +1,139 @@
+package com.company.dynamicds.dynamicds.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void test_concurrentCallsWithSameKeyShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitAll("items", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value";
+        });
+        // Giữ loader tới khi mọi caller còn lại đã gộp vào lời gọi đang chạy
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.getCoalescedCount()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void test_failureIsDeliveredToEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitAll("items", () -> {
+            await(release);
+            throw new IllegalStateException("upstream down");
+        });
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("upstream down");
+        }
+    }
+
+    @Test
+    void test_differentKeysLoadIndependently() {
+        AtomicInteger loads = new AtomicInteger();
+
+        String outer = flight.execute("a", () -> {
+            loads.incrementAndGet();
+            // Key khác trong lúc "a" đang chạy không bị gộp
+            return "a" + flight.execute("b", () -> {
+                loads.incrementAndGet();
+                return "b";
+            });
+        });
+
+        assertThat(outer).isEqualTo("ab");
+        assertThat(loads).hasValue(2);
+        assertThat(flight.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    void test_completedCallIsNotReused() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("items", () -> "v" + loads.incrementAndGet());
+        String second = flight.execute("items", () -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+        assertThat(flight.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    void test_keyIsReleasedAfterFailure() {
+        assertThatThrownBy(() -> flight.execute("items", () -> {
+            throw new IllegalStateException("upstream down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flight.execute("items", () -> "value")).isEqualTo("value");
+    }
+
+    private List<Future<String>> submitAll(String key, Callable<String> loader) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flight.execute(key, () -> {
+                try {
+                    return loader.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            })));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(flight.getCoalescedCount()).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Latch not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
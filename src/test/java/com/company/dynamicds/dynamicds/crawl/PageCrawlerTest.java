@@ -0,0 +1,192 @@
+package com.company.dynamicds.dynamicds.crawl;
+
+import com.company.dynamicds.dynamicds.parser.DynamicEntityPage;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.security.SystemAuthenticator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PageCrawlerTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final PageCrawler crawler = new PageCrawler(new SystemAuthenticator(), 8, 4);
+
+    @AfterEach
+    void tearDown() {
+        crawler.destroy();
+    }
+
+    @Test
+    void test_indexedPagesAreConsumedInOrderWithBoundedParallelism() {
+        int pageCount = 30;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> consumed = new ArrayList<>();
+
+        DynamicEntityPage first = crawler.crawlIndexed("store", "items", PAGE_SIZE, 3,
+                index -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        sleep(ThreadLocalRandom.current().nextInt(1, 10));
+                        return page(index, index < pageCount - 1 ? PAGE_SIZE : 3);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                },
+                page -> (long) (pageCount - 1) * PAGE_SIZE + 3,
+                page -> consumed.add(indexOf(page)));
+
+        assertThat(indexOf(first)).isZero();
+        assertThat(consumed).containsExactlyElementsOf(range(pageCount));
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+        assertThat(crawler.getStats("store")).singleElement()
+                .satisfies(stats -> {
+                    assertThat(stats.pages()).isEqualTo(pageCount);
+                    assertThat(stats.items()).isEqualTo((long) (pageCount - 1) * PAGE_SIZE + 3);
+                    assertThat(stats.totalKnown()).isTrue();
+                });
+    }
+
+    @Test
+    void test_indexedWithoutTotalStopsAtShortPage() {
+        AtomicInteger fetches = new AtomicInteger();
+        List<Integer> consumed = new ArrayList<>();
+
+        crawler.crawlIndexed("store", "items", PAGE_SIZE, 4,
+                index -> {
+                    fetches.incrementAndGet();
+                    return page(index, index < 5 ? PAGE_SIZE : index == 5 ? 2 : 0);
+                },
+                page -> null,
+                page -> consumed.add(indexOf(page)));
+
+        assertThat(consumed).containsExactly(0, 1, 2, 3, 4, 5);
+        // Chưa biết tổng: chỉ tải trước một trang
+        assertThat(fetches.get()).isLessThanOrEqualTo(7);
+    }
+
+    @Test
+    void test_indexedErrorStopsCrawl() {
+        List<Integer> consumed = new ArrayList<>();
+
+        assertThatThrownBy(() -> crawler.crawlIndexed("store", "items", PAGE_SIZE, 4,
+                index -> {
+                    if (index == 3) {
+                        throw new IllegalStateException("page 3 failed");
+                    }
+                    return page(index, PAGE_SIZE);
+                },
+                page -> 100L * PAGE_SIZE,
+                page -> consumed.add(indexOf(page))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("page 3 failed");
+        assertThat(consumed).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void test_linkedHeaderCursorKeepsAtMostOnePageAhead() {
+        int pageCount = 20;
+        AtomicInteger fetched = new AtomicInteger();
+        AtomicInteger consumedCount = new AtomicInteger();
+        AtomicInteger maxBuffered = new AtomicInteger();
+        List<Integer> consumed = new ArrayList<>();
+
+        crawler.crawlLinked("store", "links",
+                (cursor, nextListener) -> {
+                    int index = cursor == null ? 0 : Integer.parseInt(cursor);
+                    if (index < pageCount - 1) {
+                        // Header Link có trước body
+                        nextListener.accept(String.valueOf(index + 1));
+                    }
+                    sleep(2);
+                    DynamicEntityPage page = page(index, PAGE_SIZE);
+                    maxBuffered.accumulateAndGet(fetched.incrementAndGet() - consumedCount.get(), Math::max);
+                    return page;
+                },
+                page -> null,
+                page -> {
+                    // Consumer chậm hơn upstream: trang tải trước không được dồn lại
+                    sleep(10);
+                    consumed.add(indexOf(page));
+                    consumedCount.incrementAndGet();
+                });
+
+        assertThat(consumed).containsExactlyElementsOf(range(pageCount));
+        assertThat(fetched.get()).isEqualTo(pageCount);
+        assertThat(maxBuffered.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void test_linkedBodyCursorStopsAtEmptyPage() {
+        List<Integer> consumed = new ArrayList<>();
+
+        DynamicEntityPage first = crawler.crawlLinked("store", "cursor",
+                (cursor, nextListener) -> {
+                    int index = cursor == null ? 0 : Integer.parseInt(cursor.substring(1));
+                    return page(index, index < 4 ? PAGE_SIZE : 0);
+                },
+                page -> "c" + (indexOf(page) + 1),
+                page -> consumed.add(indexOf(page)));
+
+        assertThat(indexOf(first)).isZero();
+        assertThat(consumed).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void test_linkedErrorPropagates() {
+        assertThatThrownBy(() -> crawler.crawlLinked("store", "cursor",
+                (cursor, nextListener) -> {
+                    int index = cursor == null ? 0 : Integer.parseInt(cursor);
+                    if (index == 2) {
+                        throw new IllegalStateException("cursor 2 failed");
+                    }
+                    return page(index, PAGE_SIZE);
+                },
+                page -> String.valueOf(indexOf(page) + 1),
+                page -> {
+                }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("cursor 2 failed");
+    }
+
+    private static DynamicEntityPage page(int index, int size) {
+        List<KeyValueEntity> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            KeyValueEntity item = new KeyValueEntity();
+            item.setValue("page", index);
+            items.add(item);
+        }
+        // Trang rỗng vẫn cần biết index để kiểm tra thứ tự
+        return new DynamicEntityPage(items, Map.of("page", String.valueOf(index)), size);
+    }
+
+    private static int indexOf(DynamicEntityPage page) {
+        return Integer.parseInt(page.getEnvelopeValues().get("page"));
+    }
+
+    private static List<Integer> range(int count) {
+        List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
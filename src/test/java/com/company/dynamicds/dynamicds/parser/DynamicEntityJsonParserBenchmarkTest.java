@@ -0,0 +1,104 @@
+package com.company.dynamicds.dynamicds.parser;
+
+import com.company.dynamicds.dynamicds.entity.MetadataField;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmix.core.entity.KeyValueEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So sánh bộ nhớ cấp phát giữa parse streaming (JsonParser) và parse bằng JsonNode tree.
+ * Chạy bằng: ./gradlew benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+public class DynamicEntityJsonParserBenchmarkTest {
+
+    private static final int ROWS = 200_000;
+
+    private static final DynamicEntityJsonParser parser = new DynamicEntityJsonParser(new ObjectMapper());
+    private static List<MetadataField> fields;
+    private static String rawJson;
+
+    @BeforeAll
+    static void setUp() {
+        fields = List.of(
+                field("id", MetadataFieldType.INTEGER),
+                field("name", MetadataFieldType.STRING),
+                field("price", MetadataFieldType.DOUBLE),
+                field("active", MetadataFieldType.BOOLEAN)
+        );
+
+        StringBuilder sb = new StringBuilder(ROWS * 96).append('[');
+        for (int i = 0; i < ROWS; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i)
+                    .append(",\"name\":\"item-").append(i)
+                    .append("\",\"price\":").append(i * 1.5)
+                    .append(",\"active\":").append(i % 2 == 0)
+                    .append(",\"ignored\":{\"nested\":[1,2,3]}}");
+        }
+        rawJson = sb.append(']').toString();
+    }
+
+    @Test
+    void test_streamingAllocatesLessThanTree() {
+        byte[] bytes = rawJson.getBytes(StandardCharsets.UTF_8);
+
+        // warm-up
+        parser.parseTree(rawJson, fields);
+        parser.parse(new ByteArrayInputStream(bytes), fields);
+
+        long treeBytes = measureAllocatedBytes(() -> parser.parseTree(rawJson, fields));
+        long streamBytes = measureAllocatedBytes(() -> parser.parse(new ByteArrayInputStream(bytes), fields));
+
+        log.info("[benchmark] rows={} payload={} KB tree={} KB streaming={} KB ({}%)", ROWS, bytes.length / 1024,
+                treeBytes / 1024, streamBytes / 1024, String.format("%.1f", streamBytes * 100.0 / treeBytes));
+
+        assertThat(streamBytes).isLessThan(treeBytes);
+    }
+
+    @Test
+    void test_streamingMatchesTree() {
+        List<KeyValueEntity> tree = parser.parseTree(rawJson, fields);
+        List<KeyValueEntity> stream = parser.parse(rawJson, fields);
+
+        assertThat(stream).hasSameSizeAs(tree);
+        for (int i = 0; i < tree.size(); i += 997) {
+            for (MetadataField field : fields) {
+                Object expected = tree.get(i).getValue(field.getName());
+                Object actual = stream.get(i).getValue(field.getName());
+                assertThat(actual).isEqualTo(expected);
+            }
+        }
+    }
+
+    private static long measureAllocatedBytes(Supplier<List<KeyValueEntity>> action) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        List<KeyValueEntity> result = action.get();
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+        assertThat(result).hasSize(ROWS);
+        return after - before;
+    }
+
+    private static MetadataField field(String name, MetadataFieldType type) {
+        MetadataField field = new MetadataField();
+        field.setName(name);
+        field.setFieldType(type);
+        return field;
+    }
+}
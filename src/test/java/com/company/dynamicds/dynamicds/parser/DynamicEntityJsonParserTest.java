@@ -0,0 +1,148 @@
+package com.company.dynamicds.dynamicds.parser;
+
+import com.company.dynamicds.dynamicds.entity.MetadataField;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jmix.core.entity.KeyValueEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DynamicEntityJsonParserTest {
+
+    private final DynamicEntityJsonParser parser = new DynamicEntityJsonParser(new ObjectMapper());
+
+    private final List<MetadataField> fields = List.of(
+            field("id", MetadataFieldType.INTEGER),
+            field("price", MetadataFieldType.DOUBLE),
+            field("name", MetadataFieldType.STRING),
+            field("active", MetadataFieldType.BOOLEAN),
+            field("tags", MetadataFieldType.STRING)
+    );
+
+    @Test
+    void test_numericStringsAreConverted() {
+        List<KeyValueEntity> items = parser.parse("[{\"id\":\" 7 \",\"price\":\"1.5\",\"name\":\"a\"}]", fields);
+
+        assertThat(items).hasSize(1);
+        assertThat((Object) items.get(0).getValue("id")).isEqualTo(7);
+        assertThat((Object) items.get(0).getValue("price")).isEqualTo(1.5);
+        assertThat((Object) items.get(0).getValue("name")).isEqualTo("a");
+    }
+
+    @Test
+    void test_invalidNumberReportsFieldAndValue() {
+        assertThatThrownBy(() -> parser.parse("[{\"id\":1},{\"id\":\"abc\"}]", fields))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("INTEGER")
+                .hasMessageContaining("'abc'")
+                .hasMessageContaining("field 'id'")
+                .hasCauseInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void test_blankNumericStringsBecomeNull() {
+        List<KeyValueEntity> items = parser.parse("[{\"id\":\"\",\"price\":\"  \",\"name\":\"a\"}]", fields);
+
+        assertThat((Object) items.get(0).getValue("id")).isNull();
+        assertThat((Object) items.get(0).getValue("price")).isNull();
+        assertThat((Object) items.get(0).getValue("name")).isEqualTo("a");
+    }
+
+    @Test
+    void test_booleanValuesAreConverted() {
+        List<KeyValueEntity> items = parser.parse("[{\"active\":true},{\"active\":\" TRUE \"},{\"active\":\"false\"},"
+                + "{\"active\":1},{\"active\":0},{\"active\":\"\"}]", fields);
+
+        assertThat(items).extracting(item -> item.<Object>getValue("active"))
+                .containsExactly(true, true, false, true, false, null);
+    }
+
+    @Test
+    void test_unknownBooleanStringIsRejected() {
+        for (String value : List.of("\"1\"", "\"yes\"", "\"no\"", "1.5")) {
+            assertThatThrownBy(() -> parser.parse("[{\"active\":" + value + "}]", fields))
+                    .as(value)
+                    .hasMessageContaining("BOOLEAN")
+                    .hasMessageContaining("field 'active'");
+        }
+    }
+
+    @Test
+    void test_nestedValuesAreKeptAsJsonText() {
+        List<KeyValueEntity> items = parser.parse(
+                "[{\"name\":{\"first\":\"A\",\"parts\":[1,2]},\"tags\":[\"x\",{\"y\":null}],\"id\":3}]", fields);
+
+        assertThat((Object) items.get(0).getValue("name")).isEqualTo("{\"first\":\"A\",\"parts\":[1,2]}");
+        assertThat((Object) items.get(0).getValue("tags")).isEqualTo("[\"x\",{\"y\":null}]");
+        // Parser vẫn đọc tiếp đúng vị trí sau giá trị lồng nhau
+        assertThat((Object) items.get(0).getValue("id")).isEqualTo(3);
+    }
+
+    @Test
+    void test_itemsAndEnvelopeValuesAreExtracted() {
+        String json = "{\"meta\":{\"total\":42,\"skip\":{\"deep\":[1,2,3]},\"next\":\"c2\"},"
+                + "\"ignored\":[{\"id\":99}],\"result\":{\"data\":[{\"id\":1,\"unknown\":{\"a\":1}},{\"id\":2}]}}";
+
+        DynamicEntityPage page = parser.parsePage(stream(json), fields, "result.data", Set.of("$.meta.total", "/meta/next"));
+
+        assertThat(page.getItems()).extracting(item -> item.<Object>getValue("id")).containsExactly(1, 2);
+        assertThat(page.getItemCount()).isEqualTo(2);
+        assertThat(page.getEnvelopeValue("meta.total")).isEqualTo("42");
+        assertThat(page.getEnvelopeValue("/meta/next")).isEqualTo("c2");
+    }
+
+    @Test
+    void test_itemFilterDropsItemsButCountsThem() {
+        DynamicEntityPage page = parser.parsePage(stream("{\"data\":[{\"id\":1},{\"id\":2},{\"id\":3}]}"),
+                Map.of("id", MetadataFieldType.INTEGER), "/data", Set.of(),
+                item -> item.<Integer>getValue("id") % 2 == 1);
+
+        assertThat(page.getItems()).extracting(item -> item.<Object>getValue("id")).containsExactly(1, 3);
+        assertThat(page.getItemCount()).isEqualTo(3);
+    }
+
+    @Test
+    void test_itemsPathMustPointToArray() {
+        assertThatThrownBy(() -> parser.parsePage(stream("{\"data\":{\"id\":1}}"), fields, "/data", Set.of()))
+                .hasMessageContaining("Expected JSON array");
+        assertThatThrownBy(() -> parser.parsePage(stream("{\"data\":[]}"), fields, null, Set.of()))
+                .hasMessageContaining("Expected JSON array");
+    }
+
+    @Test
+    void test_envelopeOnlySkipsItems() {
+        Map<String, String> values = parser.parseEnvelope(
+                stream("{\"data\":[{\"id\":1}],\"paging\":{\"total\":\"7\"}}"), Set.of("paging.total", "missing"));
+
+        assertThat(values).containsExactly(Map.entry("/paging/total", "7"));
+    }
+
+    @Test
+    void test_singleItemFromObjectOrArray() {
+        Map<String, MetadataFieldType> types = Map.of("id", MetadataFieldType.INTEGER);
+
+        assertThat(parser.parseItem(stream("{\"id\":5}"), types).<Object>getValue("id")).isEqualTo(5);
+        assertThat(parser.parseItem(stream("[{\"id\":6},{\"id\":7}]"), types).<Object>getValue("id")).isEqualTo(6);
+        assertThat(parser.parseItem(stream("[]"), types)).isNull();
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MetadataField field(String name, MetadataFieldType type) {
+        MetadataField field = new MetadataField();
+        field.setName(name);
+        field.setFieldType(type);
+        return field;
+    }
+}
@@ -0,0 +1,114 @@
+package com.company.dynamicds.dynamicds.query;
+
+import com.company.dynamicds.dynamicds.entity.FilterOperation;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.metadata.CompiledMetadata;
+import io.jmix.core.Sort;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DynamicQueryPlannerTest {
+
+    private final DynamicQueryPlanner planner = new DynamicQueryPlanner();
+
+    @Test
+    void test_mappedAndConditionsArePushedDown() {
+        DynamicQuery query = query(LogicalCondition.and(
+                PropertyCondition.createWithValue("name", PropertyCondition.Operation.CONTAINS, "abc"),
+                PropertyCondition.createWithValue("id", PropertyCondition.Operation.IN_LIST, List.of(1, 2))), null);
+
+        QueryPlan plan = planner.plan(compiled(null, null), query);
+
+        assertThat(plan.getQueryParams().toSingleValueMap()).containsEntry("q", "abc").containsEntry("ids", "1,2");
+        assertThat(plan.isFullyPushedDown()).isTrue();
+        assertThat(plan.getCacheKey()).isEqualTo("ids=1,2&q=abc");
+    }
+
+    @Test
+    void test_unmappedConditionsAndOrBranchesRunLocally() {
+        DynamicQuery query = query(LogicalCondition.and(
+                PropertyCondition.createWithValue("name", PropertyCondition.Operation.CONTAINS, "abc"),
+                PropertyCondition.createWithValue("price", PropertyCondition.Operation.GREATER, "10"),
+                LogicalCondition.or(
+                        PropertyCondition.createWithValue("name", PropertyCondition.Operation.CONTAINS, "x"),
+                        PropertyCondition.createWithValue("price", PropertyCondition.Operation.LESS, 1))), null);
+
+        QueryPlan plan = planner.plan(compiled(null, null), query);
+
+        assertThat(plan.getQueryParams().toSingleValueMap()).containsOnlyKeys("q");
+        assertThat(plan.isFullyPushedDown()).isFalse();
+        assertThat(plan.getLocalFilter().test(entity("abc", 20.0))).isFalse();
+        assertThat(plan.getLocalFilter().test(entity("xabc", 20.0))).isTrue();
+        assertThat(plan.getCacheKey()).startsWith("q=abc|where ");
+    }
+
+    @Test
+    void test_emptyValuesAreIgnored() {
+        DynamicQuery query = query(PropertyCondition.createWithValue("price", PropertyCondition.Operation.EQUAL, ""), null);
+
+        QueryPlan plan = planner.plan(compiled(null, null), query);
+
+        assertThat(plan.getQueryParams()).isEmpty();
+        assertThat(plan.isFullyPushedDown()).isTrue();
+    }
+
+    @Test
+    void test_sortIsPushedDownWithFormat() {
+        DynamicQuery query = query(null, Sort.by(Sort.Order.desc("price"), Sort.Order.asc("name")));
+
+        QueryPlan plan = planner.plan(compiled("sort", "{sign}{property}"), query);
+
+        assertThat(plan.getQueryParams().get("sort")).containsExactly("-price", "name");
+        assertThat(plan.getLocalSort()).isNull();
+    }
+
+    @Test
+    void test_sortRunsLocallyWithoutSortParam() {
+        DynamicQuery query = query(null, Sort.by(Sort.Order.desc("price")));
+
+        QueryPlan plan = planner.plan(compiled(null, null), query);
+
+        assertThat(plan.getQueryParams()).isEmpty();
+        assertThat(plan.getLocalSort().compare(entity("a", 1.0), entity("b", 2.0))).isPositive();
+        assertThat(plan.getCacheKey()).isEqualTo("|order price DESC");
+    }
+
+    private static DynamicQuery query(Condition condition, Sort sort) {
+        return new DynamicQuery(condition, Map.of(), sort, 0, 0);
+    }
+
+    private static CompiledMetadata compiled(String sortParam, String sortFormat) {
+        MetadataDefinition definition = new MetadataDefinition();
+        definition.setName("items");
+        definition.setStoreName("store");
+        definition.setSortParam(sortParam);
+        definition.setSortFormat(sortFormat);
+
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("id", MetadataFieldType.INTEGER);
+        fieldTypes.put("name", MetadataFieldType.STRING);
+        fieldTypes.put("price", MetadataFieldType.DOUBLE);
+        Map<String, Map<FilterOperation, String>> filterParams = Map.of(
+                "name", Map.of(FilterOperation.CONTAINS, "q"),
+                "id", Map.of(FilterOperation.IN_LIST, "ids"));
+        return new CompiledMetadata(definition, List.copyOf(fieldTypes.keySet()), fieldTypes, null, filterParams,
+                null, "https://example.com/items", "id");
+    }
+
+    private static KeyValueEntity entity(String name, double price) {
+        KeyValueEntity entity = new KeyValueEntity();
+        entity.setValue("name", name);
+        entity.setValue("price", price);
+        return entity;
+    }
+}
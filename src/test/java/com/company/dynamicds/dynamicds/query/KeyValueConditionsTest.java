@@ -0,0 +1,179 @@
+package com.company.dynamicds.dynamicds.query;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotTable;
+import com.company.dynamicds.dynamicds.snapshot.SortIndex;
+import io.jmix.core.Sort;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeyValueConditionsTest {
+
+    private static final Map<String, MetadataFieldType> FIELD_TYPES = Map.of(
+            "id", MetadataFieldType.INTEGER,
+            "price", MetadataFieldType.DOUBLE,
+            "name", MetadataFieldType.STRING,
+            "active", MetadataFieldType.BOOLEAN
+    );
+
+    @Test
+    void test_compareIsSymmetricAcrossTypes() {
+        List<Object> values = List.of(1, 2.5, -3L, true, false, "10", "abc", "", UUID.randomUUID());
+        for (Object a : values) {
+            for (Object b : values) {
+                assertThat(Integer.signum(KeyValueConditions.compare(a, b)))
+                        .as("%s vs %s", a, b)
+                        .isEqualTo(-Integer.signum(KeyValueConditions.compare(b, a)));
+            }
+        }
+    }
+
+    @Test
+    void test_compareIsTransitiveForMixedValues() {
+        List<Object> values = List.of(10, "9", 9.5, "abc", true, "10", 1, false, "1");
+        for (Object a : values) {
+            for (Object b : values) {
+                for (Object c : values) {
+                    if (KeyValueConditions.compare(a, b) <= 0 && KeyValueConditions.compare(b, c) <= 0) {
+                        assertThat(KeyValueConditions.compare(a, c)).as("%s <= %s <= %s", a, b, c).isLessThanOrEqualTo(0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void test_compareNumbersByValueAndNullsFirst() {
+        assertThat(KeyValueConditions.compare(2, 10.0)).isNegative();
+        assertThat(KeyValueConditions.compare(3L, 3.0)).isZero();
+        assertThat(KeyValueConditions.compare(null, 0)).isNegative();
+        assertThat(KeyValueConditions.compare(null, null)).isZero();
+    }
+
+    @Test
+    void test_sortIndexOfMixedColumnDoesNotThrow() {
+        List<KeyValueEntity> rows = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            // Cột INTEGER nhận cả string (object JSON giữ dạng text) -> cột nhiều kiểu
+            rows.add(entity("id", random.nextInt(4) == 0 ? "x" + random.nextInt(100) : random.nextInt(100)));
+        }
+        SnapshotTable table = SnapshotTable.of(Map.of("id", MetadataFieldType.INTEGER), rows);
+
+        SortIndex index = table.getSortIndex("id");
+
+        int[] order = index.getOrder();
+        for (int i = 1; i < order.length; i++) {
+            assertThat(KeyValueConditions.compare(table.getColumn("id").get(order[i - 1]),
+                    table.getColumn("id").get(order[i]))).isLessThanOrEqualTo(0);
+        }
+    }
+
+    @Test
+    void test_filterValueIsNormalizedByFieldType() {
+        Predicate<KeyValueEntity> greater = predicate(PropertyCondition.Operation.GREATER, "id", "9");
+        Predicate<KeyValueEntity> price = predicate(PropertyCondition.Operation.EQUAL, "price", "1.50");
+        Predicate<KeyValueEntity> active = predicate(PropertyCondition.Operation.EQUAL, "active", "TRUE");
+        Predicate<KeyValueEntity> name = predicate(PropertyCondition.Operation.LESS, "name", 5);
+
+        // "10" > "9" theo chuỗi là sai, theo số là đúng
+        assertThat(greater.test(entity("id", 10))).isTrue();
+        assertThat(greater.test(entity("id", 9))).isFalse();
+        assertThat(price.test(entity("price", 1.5))).isTrue();
+        assertThat(active.test(entity("active", true))).isTrue();
+        assertThat(name.test(entity("name", "10"))).isTrue();
+    }
+
+    @Test
+    void test_nullMatchesNoComparisonExceptIsSetFalse() {
+        KeyValueEntity empty = new KeyValueEntity();
+
+        assertThat(predicate(PropertyCondition.Operation.EQUAL, "id", 1).test(empty)).isFalse();
+        assertThat(predicate(PropertyCondition.Operation.NOT_EQUAL, "id", 1).test(empty)).isFalse();
+        assertThat(predicate(PropertyCondition.Operation.IN_LIST, "id", List.of(1, 2)).test(empty)).isFalse();
+        assertThat(predicate(PropertyCondition.Operation.NOT_IN_LIST, "id", List.of(1, 2)).test(empty)).isFalse();
+        assertThat(predicate(PropertyCondition.Operation.NOT_CONTAINS, "name", "a").test(empty)).isFalse();
+        assertThat(predicate(PropertyCondition.Operation.IS_SET, "id", false).test(empty)).isTrue();
+        assertThat(predicate(PropertyCondition.Operation.IS_SET, "id", true).test(empty)).isFalse();
+    }
+
+    @Test
+    void test_listOperationsNormalizeEachElement() {
+        Predicate<KeyValueEntity> in = predicate(PropertyCondition.Operation.IN_LIST, "id", List.of("1", "3"));
+        Predicate<KeyValueEntity> notIn = predicate(PropertyCondition.Operation.NOT_IN_LIST, "id", List.of("1", "3"));
+
+        assertThat(in.test(entity("id", 3))).isTrue();
+        assertThat(in.test(entity("id", 2))).isFalse();
+        assertThat(notIn.test(entity("id", 2))).isTrue();
+        assertThat(notIn.test(entity("id", 1))).isFalse();
+    }
+
+    @Test
+    void test_textOperationsIgnoreCase() {
+        KeyValueEntity item = entity("name", "Hà Nội Center");
+
+        assertThat(predicate(PropertyCondition.Operation.CONTAINS, "name", "nội").test(item)).isTrue();
+        assertThat(predicate(PropertyCondition.Operation.STARTS_WITH, "name", "HÀ").test(item)).isTrue();
+        assertThat(predicate(PropertyCondition.Operation.ENDS_WITH, "name", "center").test(item)).isTrue();
+        assertThat(predicate(PropertyCondition.Operation.NOT_CONTAINS, "name", "nội").test(item)).isFalse();
+    }
+
+    @Test
+    void test_emptyConditionsAreSkipped() {
+        LogicalCondition condition = LogicalCondition.and(
+                PropertyCondition.createWithValue("name", PropertyCondition.Operation.CONTAINS, ""),
+                PropertyCondition.createWithParameterName("id", PropertyCondition.Operation.EQUAL, "missing"));
+
+        assertThat(KeyValueConditions.toPredicate(condition, Map.of(), FIELD_TYPES)).isNull();
+        assertThat(KeyValueConditions.describe(condition, Map.of())).isEmpty();
+    }
+
+    @Test
+    void test_logicalConditions() {
+        LogicalCondition condition = LogicalCondition.or(
+                PropertyCondition.createWithValue("id", PropertyCondition.Operation.LESS, 2),
+                LogicalCondition.and(
+                        PropertyCondition.createWithParameterName("name", PropertyCondition.Operation.STARTS_WITH, "prefix"),
+                        PropertyCondition.createWithValue("active", PropertyCondition.Operation.EQUAL, true)));
+        Predicate<KeyValueEntity> predicate = KeyValueConditions.toPredicate(condition, Map.of("prefix", "b"), FIELD_TYPES);
+
+        assertThat(predicate.test(entity("id", 1))).isTrue();
+        assertThat(predicate.test(entity("id", 5, "name", "bob", "active", true))).isTrue();
+        assertThat(predicate.test(entity("id", 5, "name", "bob", "active", false))).isFalse();
+        assertThat(predicate.test(entity("id", 5, "name", "alice", "active", true))).isFalse();
+    }
+
+    @Test
+    void test_comparatorSortsByOrdersWithNullsLast() {
+        List<KeyValueEntity> items = new ArrayList<>(List.of(
+                entity("id", 1, "price", 2.0),
+                entity("id", 2),
+                entity("id", 3, "price", 1.0),
+                entity("id", 4, "price", 2.0)));
+
+        items.sort(KeyValueConditions.toComparator(Sort.by(Sort.Order.asc("price"), Sort.Order.desc("id"))));
+
+        assertThat(items).extracting(item -> (Object) item.getValue("id")).containsExactly(3, 4, 1, 2);
+        assertThat(KeyValueConditions.toComparator(Sort.UNSORTED)).isNull();
+    }
+
+    private static Predicate<KeyValueEntity> predicate(String operation, String property, Object value) {
+        return KeyValueConditions.toPredicate(PropertyCondition.createWithValue(property, operation, value), Map.of(),
+                FIELD_TYPES);
+    }
+
+    private static KeyValueEntity entity(Object... propertiesAndValues) {
+        KeyValueEntity entity = new KeyValueEntity();
+        for (int i = 0; i < propertiesAndValues.length; i += 2) {
+            entity.setValue((String) propertiesAndValues[i], propertiesAndValues[i + 1]);
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,117 @@
+package com.company.dynamicds.dynamicds.refresh;
+
+import com.company.dynamicds.dynamicds.DynamicKeyValueRestInvoker;
+import com.company.dynamicds.dynamicds.entity.MetadataDefinition;
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.snapshot.SnapshotTable;
+import com.company.dynamicds.repository.MetadataDefinitionRepository;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.security.SystemAuthenticator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SnapshotRefreshSchedulerTest {
+
+    private final DynamicKeyValueRestInvoker restInvoker = mock(DynamicKeyValueRestInvoker.class);
+    private final MetadataDefinitionRepository repository = mock(MetadataDefinitionRepository.class);
+    private final SnapshotRefreshScheduler scheduler =
+            new SnapshotRefreshScheduler(restInvoker, repository, new SystemAuthenticator(), 2);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    void test_successfulRefreshIsRecorded() {
+        when(restInvoker.refreshSnapshotTable("store", "items")).thenReturn(table(3));
+
+        SnapshotRefreshStatus status = scheduler.refreshNow("store", "items");
+
+        assertThat(status.rowCount()).isEqualTo(3);
+        assertThat(status.lastRefreshAt()).isNotNull();
+        assertThat(status.failureCount()).isZero();
+        assertThat(scheduler.getStatuses("store")).containsExactly(status);
+    }
+
+    @Test
+    void test_failuresKeepLastSuccessfulRefresh() {
+        when(restInvoker.refreshSnapshotTable("store", "items"))
+                .thenReturn(table(3))
+                .thenThrow(new IllegalStateException("upstream down"))
+                .thenThrow(new IllegalStateException("still down"))
+                .thenReturn(table(4));
+
+        SnapshotRefreshStatus succeeded = scheduler.refreshNow("store", "items");
+        scheduler.refreshNow("store", "items");
+        SnapshotRefreshStatus failed = scheduler.refreshNow("store", "items");
+
+        assertThat(failed.failureCount()).isEqualTo(2);
+        assertThat(failed.lastError()).isEqualTo("still down");
+        assertThat(failed.lastFailureAt()).isNotNull();
+        // Snapshot cũ vẫn được dùng -> số liệu của lần thành công được giữ
+        assertThat(failed.rowCount()).isEqualTo(3);
+        assertThat(failed.lastRefreshAt()).isEqualTo(succeeded.lastRefreshAt());
+
+        SnapshotRefreshStatus recovered = scheduler.refreshNow("store", "items");
+        assertThat(recovered.failureCount()).isZero();
+        assertThat(recovered.rowCount()).isEqualTo(4);
+    }
+
+    @Test
+    void test_onlyEntitiesWithValidScheduleAreRefreshed() {
+        when(restInvoker.refreshSnapshotTable(any(), any())).thenReturn(table(1));
+        when(repository.findAll()).thenReturn(List.of(
+                definition("interval", 1, null),
+                definition("cron", null, "* * * * * *"),
+                definition("invalid", null, "not a cron"),
+                definition("manual", null, null)));
+
+        scheduler.onApplicationReady();
+
+        assertThat(scheduler.getStatuses("store"))
+                .extracting(SnapshotRefreshStatus::entityName)
+                .containsExactly("cron", "interval");
+        verify(restInvoker, timeout(5_000).atLeastOnce()).refreshSnapshotTable("store", "interval");
+        verify(restInvoker, timeout(5_000).atLeastOnce()).refreshSnapshotTable("store", "cron");
+        verify(restInvoker, never()).refreshSnapshotTable("store", "invalid");
+        verify(restInvoker, never()).refreshSnapshotTable("store", "manual");
+    }
+
+    @Test
+    void test_statusesAreFilteredByStore() {
+        when(restInvoker.refreshSnapshotTable(any(), any())).thenReturn(table(1));
+
+        scheduler.refreshNow("store", "b");
+        scheduler.refreshNow("other", "c");
+        scheduler.refreshNow("store", "a");
+
+        assertThat(scheduler.getStatuses("store"))
+                .extracting(SnapshotRefreshStatus::entityName)
+                .containsExactly("a", "b");
+    }
+
+    private static MetadataDefinition definition(String name, Integer intervalSeconds, String cron) {
+        MetadataDefinition definition = new MetadataDefinition();
+        definition.setId(UUID.randomUUID());
+        definition.setStoreName("store");
+        definition.setName(name);
+        definition.setRefreshIntervalSeconds(intervalSeconds);
+        definition.setRefreshCron(cron);
+        return definition;
+    }
+
+    private static SnapshotTable table(int rowCount) {
+        return SnapshotTable.of(Map.of("name", MetadataFieldType.STRING),
+                Collections.nCopies(rowCount, new KeyValueEntity()));
+    }
+}
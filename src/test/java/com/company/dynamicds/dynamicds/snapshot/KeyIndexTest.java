@@ -0,0 +1,95 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.entity.KeyValueEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeyIndexTest {
+
+    @Test
+    void test_everyKeyIsFoundInLargeColumn() {
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Bước 1024 để nhiều key rơi vào cùng vùng slot
+            keys.add(i * 1024);
+        }
+        KeyIndex index = index(MetadataFieldType.INTEGER, keys);
+
+        for (int row = 0; row < keys.size(); row++) {
+            assertThat(index.find(keys.get(row))).isEqualTo(row);
+        }
+        assertThat(index.find(1)).isEqualTo(-1);
+        assertThat(index.find(20_000 * 1024)).isEqualTo(-1);
+    }
+
+    @Test
+    void test_numericKeysMatchAcrossTypesAndText() {
+        KeyIndex index = index(MetadataFieldType.INTEGER, List.of(7, 42, 100));
+
+        assertThat(index.find(42)).isEqualTo(1);
+        assertThat(index.find(42L)).isEqualTo(1);
+        assertThat(index.find(42.0)).isEqualTo(1);
+        // Id từ URL / route của view là chuỗi
+        assertThat(index.find("42")).isEqualTo(1);
+        assertThat(index.find(" 42 ")).isEqualTo(1);
+        assertThat(index.find("42.0")).isEqualTo(1);
+        assertThat(index.find(42.5)).isEqualTo(-1);
+        assertThat(index.find("abc")).isEqualTo(-1);
+    }
+
+    @Test
+    void test_fractionalKeysAreKept() {
+        KeyIndex index = index(MetadataFieldType.DOUBLE, List.of(1.0, 2.5));
+
+        assertThat(index.find(1)).isZero();
+        assertThat(index.find(2.5)).isEqualTo(1);
+        assertThat(index.find("2.5")).isEqualTo(1);
+        assertThat(index.find(2)).isEqualTo(-1);
+    }
+
+    @Test
+    void test_textKeysAreFoundByNumber() {
+        KeyIndex index = index(MetadataFieldType.STRING, List.of("a-1", "7", "008"));
+
+        assertThat(index.find("a-1")).isZero();
+        assertThat(index.find(7)).isEqualTo(1);
+        assertThat(index.find("7")).isEqualTo(1);
+        // "008" chỉ khớp đúng chuỗi, không khớp số 8
+        assertThat(index.find("008")).isEqualTo(2);
+        assertThat(index.find(8)).isEqualTo(-1);
+    }
+
+    @Test
+    void test_firstDuplicateWinsAndNullsAreSkipped() {
+        KeyIndex index = index(MetadataFieldType.INTEGER, Arrays.asList(null, 5, 5, null, 6));
+
+        assertThat(index.find(5)).isEqualTo(1);
+        assertThat(index.find(6)).isEqualTo(4);
+        assertThat(index.find(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void test_emptyColumn() {
+        KeyIndex index = index(MetadataFieldType.INTEGER, List.of());
+
+        assertThat(index.find(1)).isEqualTo(-1);
+        assertThat(index.estimateWeight()).isPositive();
+    }
+
+    private static KeyIndex index(MetadataFieldType type, List<Object> keys) {
+        List<KeyValueEntity> entities = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            KeyValueEntity entity = new KeyValueEntity();
+            entity.setValue("id", key);
+            entities.add(entity);
+        }
+        return SnapshotTable.of(Map.of("id", type), entities).getKeyIndex("id");
+    }
+}
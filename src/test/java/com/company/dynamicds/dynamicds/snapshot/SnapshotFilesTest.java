@@ -0,0 +1,149 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.entity.KeyValueEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnapshotFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void test_everyColumnKindRoundTrips() throws IOException {
+        List<KeyValueEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Null rải đều ở mọi cột, chuỗi có dấu / rỗng, giá trị lặp lại cho dictionary
+            entities.add(entity(i % 7 == 0 ? null : i - 2_500,
+                    i % 11 == 0 ? null : List.of("Hà Nội", "", "Đà Nẵng", "x".repeat(300)).get(i % 4) + (i % 50),
+                    i % 13 == 0 ? null : i * 0.25 - 100,
+                    i % 5 == 0 ? null : i % 3 == 0,
+                    // INTEGER field có giá trị khác kiểu -> ObjectColumn
+                    i % 17 == 0 ? null : i % 2 == 0 ? (Object) i : "n/a-" + i));
+        }
+        SnapshotVersion version = new SnapshotVersion(Instant.ofEpochMilli(1_700_000_000_123L), "\"v1\"",
+                "Tue, 15 Nov 1994 12:45:26 GMT");
+        SnapshotTable table = SnapshotTable.builder(fieldTypes()).addAll(entities).version(version).build();
+        assertThat(table.getColumn("mixed")).isInstanceOf(ObjectColumn.class);
+
+        SnapshotTable mapped = roundTrip(table);
+
+        assertThat(mapped.getFieldNames()).containsExactlyElementsOf(table.getFieldNames());
+        assertThat(mapped.getRowCount()).isEqualTo(entities.size());
+        assertThat(mapped.getVersion()).isEqualTo(version);
+        for (String fieldName : table.getFieldNames()) {
+            assertThat(mapped.getColumn(fieldName).getClass()).isEqualTo(table.getColumn(fieldName).getClass());
+        }
+        for (int row = 0; row < entities.size(); row++) {
+            for (String fieldName : table.getFieldNames()) {
+                assertThat(mapped.getColumn(fieldName).get(row))
+                        .as("%s of row %d", fieldName, row)
+                        .isEqualTo(entities.get(row).getValue(fieldName));
+            }
+        }
+    }
+
+    @Test
+    void test_emptyTableAndMissingValidatorsRoundTrip() throws IOException {
+        SnapshotVersion version = new SnapshotVersion(Instant.ofEpochMilli(42), null, null);
+        SnapshotTable table = SnapshotTable.builder(fieldTypes()).version(version).build();
+
+        SnapshotTable mapped = roundTrip(table);
+
+        assertThat(mapped.getRowCount()).isZero();
+        assertThat(mapped.getFieldNames()).containsExactlyElementsOf(table.getFieldNames());
+        assertThat(mapped.getVersion()).isEqualTo(version);
+        assertThat(mapped.getSortIndex("id").getNonNullCount()).isZero();
+    }
+
+    @Test
+    void test_mappedTableSupportsIndexes() throws IOException {
+        List<KeyValueEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            entities.add(entity(999 - i, "name-" + (i % 10), (double) (i % 100), i % 2 == 0, null));
+        }
+        SnapshotTable mapped = roundTrip(SnapshotTable.of(fieldTypes(), entities));
+
+        int[] order = mapped.getSortIndex("id").getOrder();
+        assertThat(mapped.getColumn("id").get(order[0])).isEqualTo(0);
+        assertThat(mapped.getColumn("id").get(order[order.length - 1])).isEqualTo(999);
+        assertThat(mapped.getKeyIndex("id").find(998)).isEqualTo(1);
+    }
+
+    @Test
+    void test_unknownFileIsRejected() throws IOException {
+        Path file = directory.resolve("bad.snapshot");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+
+        assertThatThrownBy(() -> SnapshotFiles.map(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unsupported snapshot file");
+    }
+
+    @Test
+    void test_persistenceStoreRestoresOnceAndDiscardsCorruptFiles() throws IOException {
+        SnapshotPersistenceStore store = new SnapshotPersistenceStore(true, directory.toString());
+        SnapshotTable table = SnapshotTable.of(fieldTypes(), List.of(entity(1, "a", 1.0, true, 1)));
+
+        store.save("store", "items", "f1", table);
+        // Bản mới được lưu -> lần khởi động này không restore nữa, nhưng vẫn tìm được theo fingerprint
+        assertThat(store.restore("store", "items", "f1")).isNull();
+        assertThat(store.find("store", "items", "f1").getRowCount()).isEqualTo(1);
+        assertThat(store.find("store", "items", "f2")).isNull();
+
+        SnapshotPersistenceStore restarted = new SnapshotPersistenceStore(true, directory.toString());
+        assertThat(restarted.restore("store", "items", "f1").getRow(0).<Object>getValue("name")).isEqualTo("a");
+        assertThat(restarted.restore("store", "items", "f1")).isNull();
+
+        // Fingerprint mới thay file cũ
+        store.save("store", "items", "f2", table);
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .containsExactly("store.items-f2.snapshot");
+        }
+
+        Files.write(directory.resolve("store.items-f2.snapshot"), new byte[]{0, 1, 2});
+        assertThat(store.find("store", "items", "f2")).isNull();
+        assertThat(directory.resolve("store.items-f2.snapshot")).doesNotExist();
+    }
+
+    private SnapshotTable roundTrip(SnapshotTable table) throws IOException {
+        Path file = directory.resolve("table.snapshot");
+        long size = SnapshotFiles.write(table, file);
+        assertThat(size).isEqualTo(Files.size(file));
+        return SnapshotFiles.map(file);
+    }
+
+    private static Map<String, MetadataFieldType> fieldTypes() {
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("id", MetadataFieldType.INTEGER);
+        fieldTypes.put("name", MetadataFieldType.STRING);
+        fieldTypes.put("price", MetadataFieldType.DOUBLE);
+        fieldTypes.put("active", MetadataFieldType.BOOLEAN);
+        fieldTypes.put("mixed", MetadataFieldType.INTEGER);
+        return fieldTypes;
+    }
+
+    private static KeyValueEntity entity(Integer id, String name, Double price, Boolean active, Object mixed) {
+        KeyValueEntity entity = new KeyValueEntity();
+        entity.setValue("id", id);
+        entity.setValue("name", name);
+        entity.setValue("price", price);
+        entity.setValue("active", active);
+        entity.setValue("mixed", mixed);
+        return entity;
+    }
+}
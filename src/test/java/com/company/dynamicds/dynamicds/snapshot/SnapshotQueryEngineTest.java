@@ -0,0 +1,187 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import com.company.dynamicds.dynamicds.query.DynamicQuery;
+import com.company.dynamicds.dynamicds.query.KeyValueConditions;
+import io.jmix.core.Sort;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * So kết quả của SnapshotQueryEngine với cách làm trực tiếp trên List&lt;KeyValueEntity&gt;
+ * (predicate / comparator của KeyValueConditions, cắt trang bằng subList).
+ */
+public class SnapshotQueryEngineTest {
+
+    private static final int ROWS = 300;
+    private static final List<String> CATEGORIES = Arrays.asList("alpha", "Beta", "gamma", "delta", null);
+    private static final List<String> OPERATIONS = List.of(
+            PropertyCondition.Operation.EQUAL,
+            PropertyCondition.Operation.NOT_EQUAL,
+            PropertyCondition.Operation.GREATER,
+            PropertyCondition.Operation.GREATER_OR_EQUAL,
+            PropertyCondition.Operation.LESS,
+            PropertyCondition.Operation.LESS_OR_EQUAL,
+            PropertyCondition.Operation.CONTAINS,
+            PropertyCondition.Operation.NOT_CONTAINS,
+            PropertyCondition.Operation.STARTS_WITH,
+            PropertyCondition.Operation.ENDS_WITH,
+            PropertyCondition.Operation.IS_SET,
+            PropertyCondition.Operation.IN_LIST,
+            PropertyCondition.Operation.NOT_IN_LIST);
+
+    private final SnapshotQueryEngine engine = new SnapshotQueryEngine();
+    private final Random random = new Random(42);
+    private final Map<String, MetadataFieldType> fieldTypes = fieldTypes();
+    private final List<KeyValueEntity> entities = entities();
+    private final SnapshotTable table = SnapshotTable.of(fieldTypes, entities);
+
+    @Test
+    void test_randomQueriesMatchReference() {
+        for (int i = 0; i < 500; i++) {
+            Condition condition = random.nextInt(3) == 0
+                    ? LogicalCondition.or(randomCondition(), randomCondition())
+                    : LogicalCondition.and(randomCondition(), randomCondition());
+            String property = randomProperty();
+            Sort sort = Sort.by(random.nextBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property),
+                    Sort.Order.asc("id"));
+            DynamicQuery query = new DynamicQuery(condition, Map.of(), sort, random.nextInt(50), random.nextInt(40));
+
+            List<KeyValueEntity> expected = reference(query);
+
+            assertThat(ids(engine.query(table, query)))
+                    .as("query %s", KeyValueConditions.describe(condition, Map.of()) + " " + sort)
+                    .containsExactlyElementsOf(ids(expected));
+            assertThat(engine.count(table, query)).isEqualTo(filtered(query).size());
+        }
+    }
+
+    @Test
+    void test_singleKeySortMatchesReferenceValues() {
+        for (String property : List.of("id", "category", "price", "active")) {
+            for (Sort sort : List.of(Sort.by(Sort.Order.asc(property)), Sort.by(Sort.Order.desc(property)))) {
+                DynamicQuery query = new DynamicQuery(null, Map.of(), sort, 0, 0);
+
+                // Giá trị bằng nhau có thể ra theo thứ tự dòng khác nhau -> chỉ so chuỗi giá trị của key sort
+                assertThat(values(engine.query(table, query), property))
+                        .as("sort %s", sort)
+                        .containsExactlyElementsOf(values(reference(query), property));
+            }
+        }
+    }
+
+    @Test
+    void test_parameterValuesAreResolvedByName() {
+        DynamicQuery query = new DynamicQuery(
+                PropertyCondition.createWithParameterName("price", PropertyCondition.Operation.GREATER, "minPrice"),
+                Map.of("minPrice", "50"), Sort.by("id"), 0, 0);
+
+        assertThat(ids(engine.query(table, query))).containsExactlyElementsOf(ids(reference(query)));
+        assertThat(engine.count(table, query)).isPositive().isLessThan(ROWS);
+    }
+
+    @Test
+    void test_emptyValueIsIgnored() {
+        DynamicQuery query = new DynamicQuery(
+                PropertyCondition.createWithValue("category", PropertyCondition.Operation.EQUAL, ""),
+                Map.of(), null, 0, 0);
+
+        assertThat(engine.count(table, query)).isEqualTo(ROWS);
+    }
+
+    @Test
+    void test_unknownPropertyIsRejected() {
+        DynamicQuery query = new DynamicQuery(
+                PropertyCondition.createWithValue("missing", PropertyCondition.Operation.EQUAL, "x"),
+                Map.of(), null, 0, 0);
+
+        assertThatThrownBy(() -> engine.query(table, query))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing");
+    }
+
+    private List<KeyValueEntity> reference(DynamicQuery query) {
+        List<KeyValueEntity> result = filtered(query);
+        Comparator<KeyValueEntity> comparator = KeyValueConditions.toComparator(query.getSort());
+        if (comparator != null) {
+            result.sort(comparator);
+        }
+        int from = Math.min(query.getFirstResult(), result.size());
+        int to = query.isPaged() ? Math.min(from + query.getMaxResults(), result.size()) : result.size();
+        return result.subList(from, to);
+    }
+
+    private List<KeyValueEntity> filtered(DynamicQuery query) {
+        Predicate<KeyValueEntity> predicate = KeyValueConditions.toPredicate(query.getCondition(),
+                query.getParameters(), fieldTypes);
+        return entities.stream()
+                .filter(entity -> predicate == null || predicate.test(entity))
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    }
+
+    private Condition randomCondition() {
+        String property = randomProperty();
+        String operation = OPERATIONS.get(random.nextInt(OPERATIONS.size()));
+        Object value = switch (operation) {
+            case PropertyCondition.Operation.IS_SET -> random.nextBoolean();
+            case PropertyCondition.Operation.IN_LIST, PropertyCondition.Operation.NOT_IN_LIST ->
+                    List.of(randomValue(property), randomValue(property));
+            default -> randomValue(property);
+        };
+        return PropertyCondition.createWithValue(property, operation, value);
+    }
+
+    private String randomProperty() {
+        return List.of("id", "category", "price", "active").get(random.nextInt(4));
+    }
+
+    // Giá trị của condition như từ UI: số / boolean có thể ở dạng chuỗi
+    private Object randomValue(String property) {
+        return switch (property) {
+            case "id" -> random.nextBoolean() ? random.nextInt(ROWS) : String.valueOf(random.nextInt(ROWS));
+            case "category" -> Objects.requireNonNullElse(CATEGORIES.get(random.nextInt(CATEGORIES.size())), "a");
+            case "price" -> random.nextBoolean() ? random.nextInt(100) + 0.5 : String.valueOf(random.nextInt(100));
+            default -> random.nextBoolean() ? random.nextBoolean() : String.valueOf(random.nextBoolean());
+        };
+    }
+
+    private static Map<String, MetadataFieldType> fieldTypes() {
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("id", MetadataFieldType.INTEGER);
+        fieldTypes.put("category", MetadataFieldType.STRING);
+        fieldTypes.put("price", MetadataFieldType.DOUBLE);
+        fieldTypes.put("active", MetadataFieldType.BOOLEAN);
+        return fieldTypes;
+    }
+
+    private List<KeyValueEntity> entities() {
+        List<KeyValueEntity> entities = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            KeyValueEntity entity = new KeyValueEntity();
+            entity.setValue("id", i);
+            entity.setValue("category", CATEGORIES.get(random.nextInt(CATEGORIES.size())));
+            // Nhiều giá trị trùng và null để thử biên của binary search
+            entity.setValue("price", random.nextInt(10) == 0 ? null : (double) random.nextInt(100));
+            entity.setValue("active", random.nextInt(5) == 0 ? null : random.nextBoolean());
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private static List<Object> ids(List<KeyValueEntity> items) {
+        return items.stream().map(item -> (Object) item.getValue("id")).toList();
+    }
+
+    private static List<Object> values(List<KeyValueEntity> items, String property) {
+        return items.stream().map(item -> (Object) item.getValue(property)).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.entity.KeyValueEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So sánh heap giữ lại giữa snapshot dạng List&lt;KeyValueEntity&gt; và SnapshotTable dạng cột.
+ * Chạy bằng: ./gradlew benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+public class SnapshotTableMemoryBenchmarkTest {
+
+    private static final int ROWS = 500_000;
+
+    private static Map<String, MetadataFieldType> fieldTypes;
+
+    @BeforeAll
+    static void setUp() {
+        fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("id", MetadataFieldType.INTEGER);
+        fieldTypes.put("name", MetadataFieldType.STRING);
+        fieldTypes.put("category", MetadataFieldType.STRING);
+        fieldTypes.put("price", MetadataFieldType.DOUBLE);
+        fieldTypes.put("active", MetadataFieldType.BOOLEAN);
+    }
+
+    @Test
+    void test_columnarRetainsLessThanEntities() {
+        long entityBytes = measureRetainedBytes(SnapshotTableMemoryBenchmarkTest::entities);
+        long tableBytes = measureRetainedBytes(() -> SnapshotTable.of(fieldTypes, entities()));
+
+        log.info("[benchmark] rows={} entities={} KB columnar={} KB ({}%)", ROWS, entityBytes / 1024,
+                tableBytes / 1024, String.format("%.1f", tableBytes * 100.0 / entityBytes));
+
+        assertThat(tableBytes).isLessThan(entityBytes);
+    }
+
+    private static List<KeyValueEntity> entities() {
+        List<KeyValueEntity> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            KeyValueEntity entity = new KeyValueEntity();
+            entity.setValue("id", i);
+            entity.setValue("name", "item-" + i);
+            entity.setValue("category", "category-" + (i % 50));
+            if (i % 10 != 0) {
+                entity.setValue("price", i * 1.5);
+            }
+            entity.setValue("active", i % 2 == 0);
+            items.add(entity);
+        }
+        return items;
+    }
+
+    private static long measureRetainedBytes(Supplier<Object> action) {
+        long before = usedHeap();
+        Object retained = action.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(retained);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
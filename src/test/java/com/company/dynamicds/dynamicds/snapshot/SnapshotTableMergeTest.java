@@ -0,0 +1,114 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.entity.KeyValueEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnapshotTableMergeTest {
+
+    private static final SnapshotVersion VERSION = new SnapshotVersion(Instant.ofEpochMilli(1_000), "\"v2\"", null);
+
+    private final Map<String, MetadataFieldType> fieldTypes = fieldTypes();
+    private final SnapshotTable table = SnapshotTable.of(fieldTypes,
+            List.of(entity(1, "a", 10), entity(2, "b", 20), entity(3, "c", 30)));
+
+    @Test
+    void test_changedRowsReplaceInPlaceAndNewRowsAreAppended() {
+        SnapshotTable merged = table.merge(fieldTypes, "id",
+                List.of(entity(4, "d", 40), entity(2, "b2", 21)), VERSION);
+
+        assertThat(rows(merged)).containsExactly("1:a:10", "2:b2:21", "3:c:30", "4:d:40");
+        assertThat(merged.getVersion()).isEqualTo(VERSION);
+        // Bảng cũ không bị sửa, query đang chạy trên nó vẫn đúng
+        assertThat(rows(table)).containsExactly("1:a:10", "2:b:20", "3:c:30");
+    }
+
+    @Test
+    void test_lastDuplicateInDeltaWins() {
+        SnapshotTable merged = table.merge(fieldTypes, "id",
+                List.of(entity(1, "first", 11), entity(1, "second", 12), entity(5, "x", 1), entity(5, "y", 2)), VERSION);
+
+        assertThat(rows(merged)).containsExactly("1:second:12", "2:b:20", "3:c:30", "5:y:2");
+    }
+
+    @Test
+    void test_keysMatchAcrossNumericTypes() {
+        Map<String, MetadataFieldType> doubleKeys = new LinkedHashMap<>(fieldTypes);
+        doubleKeys.put("id", MetadataFieldType.DOUBLE);
+        SnapshotTable doubles = SnapshotTable.of(doubleKeys, List.of(entity(1.0, "a", 10), entity(2.0, "b", 20)));
+
+        // Upstream đổi kiểu số của key giữa hai lần tải: 2 và 2.0 vẫn là cùng một dòng
+        SnapshotTable merged = doubles.merge(doubleKeys, "id", List.of(entity(2.0, "b2", 21)), VERSION);
+
+        assertThat(merged.getRowCount()).isEqualTo(2);
+        assertThat(merged.getRow(1).<Object>getValue("name")).isEqualTo("b2");
+        assertThat(SnapshotTable.normalizeKey(2)).isEqualTo(SnapshotTable.normalizeKey(2.0));
+        assertThat(SnapshotTable.normalizeKey(2.5)).isEqualTo(2.5);
+    }
+
+    @Test
+    void test_rowsWithoutKeyAreAppended() {
+        SnapshotTable merged = table.merge(fieldTypes, "id", List.of(entity(null, "orphan", 0)), VERSION);
+
+        assertThat(rows(merged)).containsExactly("1:a:10", "2:b:20", "3:c:30", "null:orphan:0");
+    }
+
+    @Test
+    void test_emptyDeltaKeepsRows() {
+        SnapshotTable merged = table.merge(fieldTypes, "id", List.of(), VERSION);
+
+        assertThat(rows(merged)).containsExactlyElementsOf(rows(table));
+        assertThat(merged.getVersion()).isEqualTo(VERSION);
+    }
+
+    @Test
+    void test_unknownKeyFieldIsRejected() {
+        assertThatThrownBy(() -> table.merge(fieldTypes, "missing", List.of(entity(1, "a", 1)), VERSION))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing");
+    }
+
+    @Test
+    void test_mergedTableIndexesSeeChanges() {
+        SnapshotTable merged = table.merge(fieldTypes, "id", List.of(entity(2, "b2", 5), entity(9, "z", 99)), VERSION);
+
+        assertThat(merged.getKeyIndex("id").find(9)).isEqualTo(3);
+        int[] order = merged.getSortIndex("amount").getOrder();
+        assertThat(merged.getColumn("id").get(order[0])).isEqualTo(2);
+        assertThat(merged.getColumn("id").get(order[order.length - 1])).isEqualTo(9);
+    }
+
+    private static Map<String, MetadataFieldType> fieldTypes() {
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("id", MetadataFieldType.INTEGER);
+        fieldTypes.put("name", MetadataFieldType.STRING);
+        fieldTypes.put("amount", MetadataFieldType.INTEGER);
+        return fieldTypes;
+    }
+
+    private static KeyValueEntity entity(Object id, String name, int amount) {
+        KeyValueEntity entity = new KeyValueEntity();
+        entity.setValue("id", id);
+        entity.setValue("name", name);
+        entity.setValue("amount", amount);
+        return entity;
+    }
+
+    private static List<String> rows(SnapshotTable table) {
+        List<String> rows = new ArrayList<>();
+        for (int row = 0; row < table.getRowCount(); row++) {
+            rows.add(table.getColumn("id").get(row) + ":" + table.getColumn("name").get(row) + ":"
+                    + table.getColumn("amount").get(row));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,87 @@
+package com.company.dynamicds.dynamicds.snapshot;
+
+import com.company.dynamicds.dynamicds.entity.MetadataFieldType;
+import io.jmix.core.entity.KeyValueEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotTableTest {
+
+    private static final int ROWS = 10_000;
+
+    private final Map<String, MetadataFieldType> fieldTypes = fieldTypes();
+
+    @Test
+    void test_columnarRowsMatchEntities() {
+        List<KeyValueEntity> entities = entities();
+        SnapshotTable table = SnapshotTable.of(fieldTypes, entities);
+
+        assertThat(table.getRowCount()).isEqualTo(entities.size());
+        for (int row = 0; row < entities.size(); row++) {
+            KeyValueEntity view = table.getRow(row);
+            for (String fieldName : fieldTypes.keySet()) {
+                assertThat(view.<Object>getValue(fieldName)).isEqualTo(entities.get(row).getValue(fieldName));
+            }
+        }
+    }
+
+    @Test
+    void test_uniformValuesUsePrimitiveColumns() {
+        SnapshotTable table = SnapshotTable.of(fieldTypes, entities());
+
+        assertThat(table.getColumn("id")).isInstanceOf(IntColumn.class);
+        assertThat(table.getColumn("price")).isInstanceOf(DoubleColumn.class);
+        assertThat(table.getColumn("active")).isInstanceOf(BooleanColumn.class);
+        assertThat(table.getColumn("category")).isNotInstanceOf(ObjectColumn.class);
+    }
+
+    @Test
+    void test_mismatchedValuesFallBackToObjectColumn() {
+        KeyValueEntity number = new KeyValueEntity();
+        number.setValue("id", 1);
+        KeyValueEntity json = new KeyValueEntity();
+        json.setValue("id", "[1,2]");
+
+        SnapshotTable table = SnapshotTable.of(Map.of("id", MetadataFieldType.INTEGER), List.of(number, json, new KeyValueEntity()));
+
+        assertThat(table.getColumn("id")).isInstanceOf(ObjectColumn.class);
+        assertThat(table.getRow(0).<Object>getValue("id")).isEqualTo(1);
+        assertThat(table.getRow(1).<Object>getValue("id")).isEqualTo("[1,2]");
+        assertThat(table.getRow(2).<Object>getValue("id")).isNull();
+    }
+
+    private static Map<String, MetadataFieldType> fieldTypes() {
+        Map<String, MetadataFieldType> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("id", MetadataFieldType.INTEGER);
+        fieldTypes.put("name", MetadataFieldType.STRING);
+        fieldTypes.put("category", MetadataFieldType.STRING);
+        fieldTypes.put("price", MetadataFieldType.DOUBLE);
+        fieldTypes.put("active", MetadataFieldType.BOOLEAN);
+        return fieldTypes;
+    }
+
+    private static List<KeyValueEntity> entities() {
+        List<KeyValueEntity> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            KeyValueEntity entity = new KeyValueEntity();
+            entity.setValue("id", i);
+            entity.setValue("name", "item-" + i);
+            entity.setValue("category", "category-" + (i % 50));
+            // Một phần giá trị null để kiểm tra bitmap null của cột
+            if (i % 10 != 0) {
+                entity.setValue("price", i * 1.5);
+            }
+            if (i % 7 != 0) {
+                entity.setValue("active", i % 2 == 0);
+            }
+            items.add(entity);
+        }
+        return items;
+    }
+}